@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.lang.reflect.Proxy;
+
+import javax.servlet.ServletException;
+
+import com.vaadin.server.LegacyCommunicationManager;
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.UI;
+
+/**
+ * Helpers for setting up the server-side environment needed by the
+ * benchmarks.
+ * <p>
+ * The session created by {@link #createUI()} is locked by the calling thread,
+ * so the fixtures should be created in a {@code @Setup} method of a
+ * {@code Scope.Thread} state.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * A UI without any initialization logic.
+     */
+    public static class BenchmarkUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+            // Content is set up by each benchmark
+        }
+    }
+
+    private BenchmarkFixtures() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates a UI attached to a locked session with an initialized service.
+     * The deployment configuration is in production mode and has sync id and
+     * XSRF checks disabled so that handling of recorded client messages can be
+     * repeated.
+     *
+     * @return a new UI
+     */
+    public static UI createUI() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setProductionMode(true);
+        configuration.setSyncIdCheckEnabled(false);
+        configuration.setXsrfProtectionEnabled(false);
+
+        VaadinServletService service;
+        try {
+            VaadinServlet servlet = new VaadinServlet();
+            servlet.init(new MockServletConfig());
+            service = new VaadinServletService(servlet, configuration);
+            service.init();
+        } catch (ServletException | ServiceException e) {
+            throw new IllegalStateException("Cannot initialize the service",
+                    e);
+        }
+
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        session.setConfiguration(configuration);
+        session.setCommunicationManager(
+                new LegacyCommunicationManager(session));
+        VaadinSession.setCurrent(session);
+
+        UI ui = new BenchmarkUI();
+        ui.setSession(session);
+        UI.setCurrent(ui);
+        return ui;
+    }
+
+    /**
+     * Creates a request that only provides the service of the given UI. Enough
+     * for handling client to server messages.
+     *
+     * @param ui
+     *            the UI to create a request for
+     * @return a request
+     */
+    public static VaadinRequest createRequest(UI ui) {
+        VaadinServletService service = (VaadinServletService) ui.getSession()
+                .getService();
+        return (VaadinRequest) Proxy.newProxyInstance(
+                BenchmarkFixtures.class.getClassLoader(),
+                new Class<?>[] { VaadinRequest.class },
+                (proxy, method, args) -> {
+                    if ("getService".equals(method.getName())) {
+                        return service;
+                    }
+                    return null;
+                });
+    }
+}
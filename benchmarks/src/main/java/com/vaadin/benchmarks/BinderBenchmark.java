@@ -0,0 +1,139 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.data.Binder;
+import com.vaadin.data.ValidationException;
+import com.vaadin.ui.FormLayout;
+import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
+
+/**
+ * Reading and writing a bean with a number of validated bindings through
+ * {@link Binder}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinderBenchmark {
+
+    /**
+     * A bean with a configurable number of string properties.
+     */
+    public static class Bean {
+        private final String[] values;
+
+        public Bean(int size) {
+            values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = "Value " + i;
+            }
+        }
+
+        public String get(int index) {
+            return values[index];
+        }
+
+        public void set(int index, String value) {
+            values[index] = value;
+        }
+    }
+
+    @Param({ "20" })
+    private int fields;
+
+    private Binder<Bean> binder;
+    private Bean bean;
+    private final List<TextField> textFields = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        UI ui = BenchmarkFixtures.createUI();
+        FormLayout layout = new FormLayout();
+        ui.setContent(layout);
+
+        binder = new Binder<>();
+        for (int i = 0; i < fields; i++) {
+            int index = i;
+            TextField field = new TextField("Field " + i);
+            layout.addComponent(field);
+            textFields.add(field);
+            binder.forField(field).asRequired("Required")
+                    .withValidator(value -> value.length() < 100,
+                            "Too long")
+                    .bind(bean -> bean.get(index),
+                            (bean, value) -> bean.set(index, value));
+        }
+        bean = new Bean(fields);
+        binder.readBean(bean);
+    }
+
+    /**
+     * Populates all fields from the bean.
+     */
+    @Benchmark
+    public Bean readBean() {
+        binder.readBean(bean);
+        return bean;
+    }
+
+    /**
+     * Validates all fields and writes their values to the bean.
+     */
+    @Benchmark
+    public Bean writeBean() throws ValidationException {
+        binder.writeBean(bean);
+        return bean;
+    }
+
+    /**
+     * Changes the value of one field in a form bound with
+     * {@link Binder#setBean(Object)}, which validates the binding and writes
+     * the value to the bean.
+     */
+    @Benchmark
+    public Bean changeFieldValue() {
+        if (binder.getBean() == null) {
+            binder.setBean(bean);
+        }
+        TextField field = textFields.get(0);
+        field.setValue(
+                "Changed".equals(field.getValue()) ? "Changed again" : "Changed");
+        return bean;
+    }
+}
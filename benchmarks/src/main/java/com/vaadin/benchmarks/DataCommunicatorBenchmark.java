@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.data.provider.DataCommunicator;
+import com.vaadin.server.ClientMethodInvocation;
+import com.vaadin.server.ServerRpcManager;
+import com.vaadin.shared.data.DataRequestRpc;
+import com.vaadin.ui.Grid;
+import com.vaadin.ui.UI;
+
+/**
+ * Sending Grid rows to the client through {@link DataCommunicator}, both for
+ * the initial page and for pages requested when scrolling.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataCommunicatorBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({ "50" })
+    private int columns;
+
+    @Param({ "10000" })
+    private int rows;
+
+    private DataCommunicator<Integer> dataCommunicator;
+    private DataRequestRpc dataRequestRpc;
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setup() {
+        UI ui = BenchmarkFixtures.createUI();
+        Grid<Integer> grid = GridFixture.createGrid(columns, rows);
+        ui.setContent(grid);
+
+        dataCommunicator = grid.getDataCommunicator();
+        dataRequestRpc = ServerRpcManager.getRpcProxy(dataCommunicator,
+                DataRequestRpc.class);
+        dataCommunicator.beforeClientResponse(true);
+        dataCommunicator.retrievePendingRpcCalls();
+    }
+
+    /**
+     * Sends the first page of rows, as when the Grid is attached.
+     */
+    @Benchmark
+    public Object sendInitialPage() {
+        dataCommunicator.reset();
+        dataCommunicator.beforeClientResponse(true);
+        return clearPendingRpcCalls();
+    }
+
+    /**
+     * Sends a page of rows at a random position, as when the user scrolls.
+     */
+    @Benchmark
+    public Object scrollToRandomPage() {
+        int firstRow = random.nextInt(rows - PAGE_SIZE);
+        dataRequestRpc.requestRows(firstRow, PAGE_SIZE, firstRow, 0);
+        dataCommunicator.beforeClientResponse(false);
+        return clearPendingRpcCalls();
+    }
+
+    private Object clearPendingRpcCalls() {
+        // Don't let invocations accumulate between benchmark calls
+        return dataCommunicator.retrievePendingRpcCalls().stream()
+                .map(ClientMethodInvocation::getParameters).toArray();
+    }
+}
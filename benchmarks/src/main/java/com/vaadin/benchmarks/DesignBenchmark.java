@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.ui.Component;
+import com.vaadin.ui.declarative.Design;
+
+/**
+ * Reading and writing a declarative design with a large number of components
+ * through {@link Design}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DesignBenchmark {
+
+    private static final int COMPONENTS_PER_LAYOUT = 10;
+
+    @Param({ "500" })
+    private int components;
+
+    private byte[] design;
+    private Component root;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures.createUI();
+
+        StringBuilder html = new StringBuilder();
+        html.append("<vaadin-vertical-layout>");
+        for (int i = 0; i < components; i++) {
+            if (i % COMPONENTS_PER_LAYOUT == 0) {
+                if (i > 0) {
+                    html.append("</vaadin-horizontal-layout>");
+                }
+                html.append("<vaadin-horizontal-layout spacing>");
+            }
+            switch (i % 3) {
+            case 0:
+                html.append("<vaadin-label>Label ").append(i)
+                        .append("</vaadin-label>");
+                break;
+            case 1:
+                html.append("<vaadin-text-field caption=\"Field ").append(i)
+                        .append("\" width=\"100%\" _id=\"field").append(i)
+                        .append("\" />");
+                break;
+            default:
+                html.append("<vaadin-button style-name=\"primary\">Button ")
+                        .append(i).append("</vaadin-button>");
+                break;
+            }
+        }
+        html.append("</vaadin-horizontal-layout>");
+        html.append("</vaadin-vertical-layout>");
+
+        design = html.toString().getBytes(StandardCharsets.UTF_8);
+        root = Design.read(new ByteArrayInputStream(design));
+    }
+
+    /**
+     * Creates a component tree from the design.
+     */
+    @Benchmark
+    public Component read() {
+        return Design.read(new ByteArrayInputStream(design));
+    }
+
+    /**
+     * Writes a component tree as a design.
+     */
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Design.write(root, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.vaadin.ui.Grid;
+
+/**
+ * A Grid with a configurable number of columns and rows, similar to a typical
+ * data heavy business screen.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+public final class GridFixture {
+
+    private GridFixture() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates a Grid of row indices where each column shows a string derived
+     * from the row and column index.
+     *
+     * @param columns
+     *            the number of columns
+     * @param rows
+     *            the number of rows
+     * @return a new Grid
+     */
+    public static Grid<Integer> createGrid(int columns, int rows) {
+        Grid<Integer> grid = new Grid<>();
+        for (int i = 0; i < columns; i++) {
+            int column = i;
+            grid.addColumn(row -> "Cell " + row + ", " + column)
+                    .setCaption("Column " + column).setId("c" + column);
+        }
+        List<Integer> items = IntStream.range(0, rows).boxed()
+                .collect(Collectors.toList());
+        grid.setItems(items);
+        return grid;
+    }
+}
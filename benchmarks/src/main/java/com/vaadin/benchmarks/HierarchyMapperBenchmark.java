@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.data.TreeData;
+import com.vaadin.data.provider.HierarchyMapper;
+import com.vaadin.data.provider.TreeDataProvider;
+import com.vaadin.server.SerializablePredicate;
+import com.vaadin.shared.Range;
+
+/**
+ * Fetching, expanding and collapsing in a deep, fully expanded hierarchy
+ * through {@link HierarchyMapper}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchyMapperBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({ "3" })
+    private int breadth;
+
+    @Param({ "8" })
+    private int depth;
+
+    private HierarchyMapper<String, SerializablePredicate<String>> mapper;
+    private String firstRoot;
+    private int treeSize;
+
+    @Setup
+    public void setup() {
+        TreeData<String> data = new TreeData<>();
+        List<String> parents = new ArrayList<>();
+        addChildren(data, null, "", 0, parents);
+
+        mapper = new HierarchyMapper<>(new TreeDataProvider<>(data));
+        // Parents are listed in depth first order, so a parent is always
+        // expanded before its children
+        for (String parent : parents) {
+            mapper.expand(parent, null);
+        }
+        firstRoot = data.getRootItems().get(0);
+        treeSize = mapper.getTreeSize();
+    }
+
+    private void addChildren(TreeData<String> data, String parent,
+            String prefix, int level, List<String> parents) {
+        for (int i = 0; i < breadth; i++) {
+            String item = prefix + i;
+            data.addItem(parent, item);
+            if (level + 1 < depth) {
+                parents.add(item);
+                addChildren(data, item, item + ".", level + 1, parents);
+            }
+        }
+    }
+
+    /**
+     * Fetches a page from the middle of the expanded hierarchy.
+     */
+    @Benchmark
+    public void fetchMiddlePage(Blackhole blackhole) {
+        mapper.fetchItems(Range.withLength(treeSize / 2, PAGE_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    /**
+     * Fetches the last page of the expanded hierarchy.
+     */
+    @Benchmark
+    public void fetchLastPage(Blackhole blackhole) {
+        mapper.fetchItems(Range.withLength(treeSize - PAGE_SIZE, PAGE_SIZE))
+                .forEach(blackhole::consume);
+    }
+
+    /**
+     * Collapses and re-expands the first root item, which contains a third of
+     * the expanded hierarchy.
+     */
+    @Benchmark
+    public Range collapseAndExpand() {
+        mapper.collapse(firstRoot, 0);
+        return mapper.expand(firstRoot, 0);
+    }
+
+    /**
+     * Computes the size of the expanded hierarchy.
+     */
+    @Benchmark
+    public int treeSize() {
+        return mapper.getTreeSize();
+    }
+}
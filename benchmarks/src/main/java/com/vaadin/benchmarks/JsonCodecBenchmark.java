@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.Grid;
+import com.vaadin.ui.UI;
+
+/**
+ * Shared state encoding of a Grid and its columns through
+ * {@link ClientConnector#encodeState()}, which uses
+ * {@link com.vaadin.server.JsonCodec}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({ "50" })
+    private int columns;
+
+    private ConnectorTracker connectorTracker;
+    private final List<ClientConnector> connectors = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        UI ui = BenchmarkFixtures.createUI();
+        Grid<Integer> grid = GridFixture.createGrid(columns, 10);
+        ui.setContent(grid);
+        connectorTracker = ui.getConnectorTracker();
+
+        connectors.add(grid);
+        connectors.addAll(grid.getColumns());
+        for (ClientConnector connector : connectors) {
+            connector.encodeState();
+        }
+    }
+
+    /**
+     * Encodes the states as for a connector that is sent to the client for the
+     * first time.
+     */
+    @Benchmark
+    public void encodeInitialState(Blackhole blackhole) {
+        for (ClientConnector connector : connectors) {
+            connectorTracker.setDiffState(connector, null);
+            blackhole.consume(connector.encodeState());
+        }
+    }
+
+    /**
+     * Encodes the states of connectors that have been marked dirty without
+     * actual changes, i.e. all properties are encoded and compared to the
+     * previously sent state.
+     */
+    @Benchmark
+    public void encodeUnchangedState(Blackhole blackhole) {
+        for (ClientConnector connector : connectors) {
+            blackhole.consume(connector.encodeState());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.server.LegacyCommunicationManager.InvalidUIDLSecurityKeyException;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.communication.ServerRpcHandler;
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.ui.textfield.AbstractTextFieldServerRpc;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Decoding and invoking a client to server message with a number of RPC calls
+ * through {@link ServerRpcHandler}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerRpcHandlerBenchmark {
+
+    @Param({ "100" })
+    private int invocations;
+
+    private UI ui;
+    private VaadinRequest request;
+    private String[] messages;
+    private int messageIndex = 0;
+
+    @Setup
+    public void setup() {
+        ui = BenchmarkFixtures.createUI();
+        request = BenchmarkFixtures.createRequest(ui);
+
+        CssLayout layout = new CssLayout();
+        TextField[] fields = new TextField[invocations];
+        for (int i = 0; i < invocations; i++) {
+            fields[i] = new TextField();
+            layout.addComponent(fields[i]);
+        }
+        ui.setContent(layout);
+
+        // Alternate between two messages so that each handled message
+        // actually changes the field values
+        messages = new String[] { createMessage(fields, "a"),
+                createMessage(fields, "b") };
+    }
+
+    private String createMessage(TextField[] fields, String prefix) {
+        JsonArray rpcs = Json.createArray();
+        for (int i = 0; i < fields.length; i++) {
+            String text = prefix + i;
+            JsonArray parameters = Json.createArray();
+            parameters.set(0, text);
+            parameters.set(1, text.length());
+
+            JsonArray rpc = Json.createArray();
+            rpc.set(0, fields[i].getConnectorId());
+            rpc.set(1, AbstractTextFieldServerRpc.class.getName());
+            rpc.set(2, "setText");
+            rpc.set(3, parameters);
+            rpcs.set(i, rpc);
+        }
+
+        JsonObject message = Json.createObject();
+        message.put(ApplicationConstants.CSRF_TOKEN,
+                ui.getSession().getCsrfToken());
+        message.put(ApplicationConstants.RPC_INVOCATIONS, rpcs);
+        message.put(ApplicationConstants.CLIENT_TO_SERVER_ID, 0);
+        return message.toJson();
+    }
+
+    /**
+     * Handles a message where each RPC call changes the value of a different
+     * text field.
+     */
+    @Benchmark
+    public UI handleRpc()
+            throws IOException, InvalidUIDLSecurityKeyException {
+        // Make the message look like the next expected one
+        ui.setLastProcessedClientToServerId(-1);
+        String message = messages[messageIndex++ % messages.length];
+        new ServerRpcHandler().handleRpc(ui, new StringReader(message),
+                request);
+        return ui;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.server.communication.UidlWriter;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.VerticalLayout;
+
+/**
+ * Writing UIDL responses for a UI with a large number of components, both for
+ * the initial render and for a response with a single change.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UidlWriterBenchmark {
+
+    private static final int COMPONENTS_PER_GROUP = 20;
+
+    @Param({ "2000" })
+    private int components;
+
+    private UI ui;
+    private Label changingLabel;
+    private int changeCount = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        ui = BenchmarkFixtures.createUI();
+
+        VerticalLayout root = new VerticalLayout();
+        CssLayout group = null;
+        for (int i = 0; i < components; i++) {
+            if (i % COMPONENTS_PER_GROUP == 0) {
+                group = new CssLayout();
+                root.addComponent(group);
+            }
+            switch (i % 3) {
+            case 0:
+                group.addComponent(new Label("Label " + i));
+                break;
+            case 1:
+                group.addComponent(new TextField("Field " + i, "Value " + i));
+                break;
+            default:
+                group.addComponent(new Button("Button " + i));
+                break;
+            }
+        }
+        changingLabel = new Label();
+        root.addComponent(changingLabel);
+        ui.setContent(root);
+
+        write();
+    }
+
+    private String write() throws IOException {
+        StringWriter writer = new StringWriter();
+        writer.write("{");
+        new UidlWriter().write(ui, writer, false);
+        writer.write("}");
+        return writer.toString();
+    }
+
+    /**
+     * Writes the full UI, as when the page is loaded or refreshed.
+     */
+    @Benchmark
+    public String initialRender() throws IOException {
+        ui.getSession().getCommunicationManager().repaintAll(ui);
+        return write();
+    }
+
+    /**
+     * Writes a response where only one label has changed.
+     */
+    @Benchmark
+    public String singleChange() throws IOException {
+        changingLabel.setValue("Change " + changeCount++);
+        return write();
+    }
+}
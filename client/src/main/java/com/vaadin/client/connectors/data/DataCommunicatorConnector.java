@@ -22,11 +22,14 @@ import java.util.List;
 import java.util.Set;
 
 import com.vaadin.client.ServerConnector;
+import com.vaadin.client.communication.StateChangeEvent;
 import com.vaadin.client.data.AbstractRemoteDataSource;
+import com.vaadin.client.data.CacheStrategy;
 import com.vaadin.client.data.DataSource;
 import com.vaadin.client.extensions.AbstractExtensionConnector;
 import com.vaadin.data.provider.DataCommunicator;
 import com.vaadin.shared.Range;
+import com.vaadin.shared.data.CompactRowEncoding;
 import com.vaadin.shared.data.DataCommunicatorClientRpc;
 import com.vaadin.shared.data.DataCommunicatorConstants;
 import com.vaadin.shared.data.DataRequestRpc;
@@ -74,6 +77,13 @@ public class DataCommunicatorConnector extends AbstractExtensionConnector {
                             setRowData(firstIndex, rows);
                         }
 
+                        @Override
+                        public void setCompactData(int firstIndex,
+                                JsonObject data) {
+                            setRowData(firstIndex,
+                                    CompactRowEncoding.decode(data));
+                        }
+
                         @Override
                         public void updateData(JsonArray data) {
                             for (int i = 0; i < data.length(); ++i) {
@@ -81,6 +91,14 @@ public class DataCommunicatorConnector extends AbstractExtensionConnector {
                             }
                         }
 
+                        @Override
+                        public void updateCompactData(JsonObject data) {
+                            for (JsonObject row : CompactRowEncoding
+                                    .decode(data)) {
+                                updateRowData(row);
+                            }
+                        }
+
                         @Override
                         public void insertRows(int firstRowIndex, int count) {
                             insertRowData(firstRowIndex, count);
@@ -155,6 +173,20 @@ public class DataCommunicatorConnector extends AbstractExtensionConnector {
 
     private DataSource<JsonObject> ds = new VaadinDataSource();
 
+    private boolean adaptiveCache = false;
+
+    @Override
+    public void onStateChanged(StateChangeEvent stateChangeEvent) {
+        super.onStateChanged(stateChangeEvent);
+
+        if (getState().adaptiveCache != adaptiveCache) {
+            adaptiveCache = getState().adaptiveCache;
+            ((AbstractRemoteDataSource<JsonObject>) ds).setCacheStrategy(
+                    adaptiveCache ? new CacheStrategy.AdaptiveCacheStrategy()
+                            : new CacheStrategy.DefaultCacheStrategy());
+        }
+    }
+
     @Override
     protected void extend(ServerConnector target) {
         ServerConnector parent = getParent();
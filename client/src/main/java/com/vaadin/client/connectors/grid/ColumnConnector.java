@@ -175,6 +175,11 @@ public class ColumnConnector extends AbstractExtensionConnector {
         column.setMinimumWidthFromContent(getState().minimumWidthFromContent);
     }
 
+    @OnStateChange("autoWidthSampleSize")
+    void updateAutoWidthSampleSize() {
+        column.setAutoWidthSampleSize(getState().autoWidthSampleSize);
+    }
+
     @OnStateChange("maxWidth")
     void updateMaxWidth() {
         column.setMaximumWidth(getState().maxWidth);
@@ -16,6 +16,7 @@
 
 package com.vaadin.client.data;
 
+import com.google.gwt.core.client.Duration;
 import com.vaadin.shared.Range;
 
 /**
@@ -127,6 +128,160 @@ public interface CacheStrategy {
         }
     }
 
+    /**
+     * A cache strategy that adapts the amount of cached items to the measured
+     * round trip time and the scrolling speed and direction. Enough items to
+     * cover the scrolling during one round trip are kept cached ahead of the
+     * scrolling direction, while only a minimum amount of items is kept in the
+     * opposite direction. When not scrolling, a minimum amount of items is kept
+     * cached in both directions.
+     *
+     * @since 8.7
+     */
+    public static class AdaptiveCacheStrategy implements CacheStrategy {
+
+        /**
+         * Weight of the latest measurement in the moving averages.
+         */
+        private static final double SMOOTHING = 0.3;
+
+        /**
+         * Round trip time in milliseconds assumed before any data has arrived.
+         */
+        private static final double DEFAULT_ROUND_TRIP_TIME = 200;
+
+        /**
+         * Scrolling pauses longer than this many milliseconds reset the
+         * measured scrolling speed.
+         */
+        private static final double SCROLL_TIMEOUT = 1000;
+
+        private final int minimumRatio;
+        private final int maximumRatio;
+
+        private double roundTripTime = -1;
+        private double velocity = 0;
+        private int lastStart = -1;
+        private double lastTime;
+
+        /**
+         * Creates an adaptive cache strategy keeping between one and ten pages
+         * worth of data cached in each direction.
+         */
+        public AdaptiveCacheStrategy() {
+            this(1, 10);
+        }
+
+        /**
+         * Creates an adaptive cache strategy with custom limits for how much
+         * data to cache. The ratios denote multiples of the currently used page
+         * size.
+         *
+         * @param minimumRatio
+         *            the number of pages always kept in the cache in each
+         *            direction
+         * @param maximumRatio
+         *            the maximum number of pages to cache ahead of the
+         *            scrolling direction
+         */
+        public AdaptiveCacheStrategy(int minimumRatio, int maximumRatio) {
+            if (minimumRatio > maximumRatio) {
+                throw new IllegalArgumentException(
+                        "Minimum ratio cannot be larger than maximum ratio");
+            }
+            this.minimumRatio = minimumRatio;
+            this.maximumRatio = maximumRatio;
+        }
+
+        @Override
+        public void onDataArrive(double roundTripTime, int rowCount) {
+            if (this.roundTripTime < 0) {
+                this.roundTripTime = roundTripTime;
+            } else {
+                this.roundTripTime += SMOOTHING
+                        * (roundTripTime - this.roundTripTime);
+            }
+        }
+
+        @Override
+        public Range getMinCacheRange(Range displayedRange, Range cachedRange,
+                Range estimatedAvailableRange) {
+            updateVelocity(displayedRange.getStart());
+
+            return getCacheRange(displayedRange, 0)
+                    .restrictTo(estimatedAvailableRange);
+        }
+
+        @Override
+        public Range getMaxCacheRange(Range displayedRange, Range cachedRange,
+                Range estimatedAvailableRange) {
+            // Fetch an extra page at a time to avoid a request for every row
+            return getCacheRange(displayedRange, displayedRange.length())
+                    .restrictTo(estimatedAvailableRange);
+        }
+
+        private Range getCacheRange(Range displayedRange, int extra) {
+            int pageSize = displayedRange.length();
+            int minimum = pageSize * minimumRatio;
+
+            // Rows scrolled past while waiting for a response, with a margin
+            double expectedLatency = roundTripTime < 0 ? DEFAULT_ROUND_TRIP_TIME
+                    : roundTripTime;
+            int ahead = minimum
+                    + (int) Math.ceil(2 * Math.abs(velocity) * expectedLatency);
+            ahead = Math.min(ahead, Math.max(minimum, pageSize * maximumRatio));
+
+            int before = velocity < 0 ? ahead : minimum;
+            int after = velocity > 0 ? ahead : minimum;
+            return displayedRange.expand(before + extra, after + extra);
+        }
+
+        private void updateVelocity(int start) {
+            double now = getCurrentTime();
+            double elapsed = now - lastTime;
+            if (lastStart < 0 || elapsed > SCROLL_TIMEOUT) {
+                velocity = 0;
+            } else if (elapsed > 0) {
+                double current = (start - lastStart) / elapsed;
+                velocity += SMOOTHING * (current - velocity);
+            } else {
+                // Several checks within the same millisecond
+                return;
+            }
+            lastStart = start;
+            lastTime = now;
+        }
+
+        /**
+         * Gets the measured round trip time.
+         *
+         * @return the moving average of the round trip time in milliseconds, or
+         *         a negative value if no data has arrived yet
+         */
+        public double getRoundTripTime() {
+            return roundTripTime;
+        }
+
+        /**
+         * Gets the measured scrolling speed.
+         *
+         * @return the moving average of the scrolling speed in rows per
+         *         millisecond, negative when scrolling towards the start
+         */
+        public double getVelocity() {
+            return velocity;
+        }
+
+        /**
+         * Gets the current time used for measuring the scrolling speed.
+         *
+         * @return the current time in milliseconds
+         */
+        protected double getCurrentTime() {
+            return Duration.currentTimeMillis();
+        }
+    }
+
     /**
      * Called whenever data requested by the data source has arrived. This
      * information can e.g. be used for measuring how long it takes to fetch
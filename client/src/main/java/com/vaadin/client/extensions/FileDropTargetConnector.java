@@ -22,6 +22,7 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.DataTransfer;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.xhr.client.XMLHttpRequest;
+import com.vaadin.client.ui.upload.ChunkedFileUpload;
 import com.vaadin.shared.ui.Connect;
 import com.vaadin.shared.ui.dnd.FileDropTargetClientRpc;
 import com.vaadin.shared.ui.dnd.FileDropTargetRpc;
@@ -87,14 +88,20 @@ public class FileDropTargetConnector extends DropTargetExtensionConnector {
                 String url = uploadUrls.remove(nextId);
                 File file = filesToUpload.remove(nextId);
 
+                if (getState().chunkSize > 0) {
+                    new ChunkedFileUpload(file,
+                            getConnection().translateVaadinUri(url),
+                            getState().chunkSize,
+                            getState().parallelChunkUploads,
+                            this::uploadFinished).start();
+                    return;
+                }
+
                 FileUploadXHR xhr = (FileUploadXHR) FileUploadXHR.create();
                 xhr.setOnReadyStateChange(xmlHttpRequest -> {
                     if (xmlHttpRequest.getReadyState() == XMLHttpRequest.DONE) {
-                        // Poll server for changes
-                        getRpcProxy(FileDropTargetRpc.class).poll();
-                        uploading = false;
-                        uploadNextFile();
                         xmlHttpRequest.clearOnReadyStateChange();
+                        uploadFinished();
                     }
                 });
                 xhr.open("POST", getConnection().translateVaadinUri(url));
@@ -103,6 +110,13 @@ public class FileDropTargetConnector extends DropTargetExtensionConnector {
         });
     }
 
+    private void uploadFinished() {
+        // Poll server for changes
+        getRpcProxy(FileDropTargetRpc.class).poll();
+        uploading = false;
+        uploadNextFile();
+    }
+
     @Override
     protected void onDrop(Event event) {
         DataTransfer dataTransfer = ((NativeEvent) event).getDataTransfer();
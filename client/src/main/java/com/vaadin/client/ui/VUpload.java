@@ -38,10 +38,13 @@ import com.vaadin.client.ApplicationConnection;
 import com.vaadin.client.BrowserInfo;
 import com.vaadin.client.ConnectorMap;
 import com.vaadin.client.StyleConstants;
+import com.vaadin.client.ui.upload.ChunkedFileUpload;
 import com.vaadin.client.ui.upload.UploadConnector;
 import com.vaadin.client.ui.upload.UploadIFrameOnloadStrategy;
 import com.vaadin.shared.ui.upload.UploadServerRpc;
 
+import elemental.html.File;
+
 /**
  *
  * Note, we are not using GWT FormPanel as we want to listen submitcomplete
@@ -131,6 +134,10 @@ public class VUpload extends SimplePanel {
     /** For internal use only. May be removed or replaced in the future. */
     public int nextUploadId;
 
+    private int chunkSize = 0;
+
+    private int parallelChunkUploads = 1;
+
     public VUpload() {
         super(com.google.gwt.dom.client.Document.get().createFormElement());
 
@@ -287,7 +294,13 @@ public class VUpload extends SimplePanel {
     }
 
     ScheduledCommand startUploadCmd = () -> {
-        element.submit();
+        File file = chunkSize > 0 ? getSelectedFile(fu.getElement()) : null;
+        if (file != null) {
+            new ChunkedFileUpload(file, element.getAction(), chunkSize,
+                    parallelChunkUploads, this::onSubmitComplete).start();
+        } else {
+            element.submit();
+        }
         submitted = true;
 
         disableUpload();
@@ -407,6 +420,40 @@ public class VUpload extends SimplePanel {
         return Logger.getLogger(VUpload.class.getName());
     }
 
+    /**
+     * Sets the size of the chunks that files are uploaded in. Files are
+     * uploaded in chunks only if the browser can read the selected file,
+     * otherwise the form is submitted as a whole.
+     *
+     * @param chunkSize
+     *            the chunk size in bytes, or 0 to upload each file in a single
+     *            request
+     * @since 8.7
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of chunks of a file that are uploaded
+     * concurrently.
+     *
+     * @param parallelChunkUploads
+     *            the maximum number of concurrent chunk uploads
+     * @since 8.7
+     */
+    public void setParallelChunkUploads(int parallelChunkUploads) {
+        this.parallelChunkUploads = parallelChunkUploads;
+    }
+
+    private static native File getSelectedFile(Element input)
+    /*-{
+        if (input.files && input.files.length > 0) {
+            return input.files[0];
+        }
+        return null;
+    }-*/;
+
     public void setAcceptMimeTypes(String acceptMimeTypes) {
         if (acceptMimeTypes == null || acceptMimeTypes.isEmpty()) {
             InputElement.as(fu.getElement()).setAccept(null);
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.ui.upload;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.http.client.URL;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.xhr.client.XMLHttpRequest;
+import com.vaadin.shared.ApplicationConstants;
+
+import elemental.html.File;
+
+/**
+ * Uploads a file in chunks, each chunk in a separate request. If a chunk fails,
+ * the upload is resumed from the position up to which the server has received
+ * the file.
+ * <p>
+ * For internal use only. May be removed or replaced in the future.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+public class ChunkedFileUpload {
+
+    private static final int MAX_RETRIES = 5;
+
+    private static final int RETRY_DELAY_MS = 1000;
+
+    private static int uploadCounter = 0;
+
+    private final File file;
+    private final String url;
+    private final int chunkSize;
+    private final int parallelChunkUploads;
+    private final Command finishedCommand;
+    private final String uploadId;
+    private final double size;
+
+    private double nextOffset = 0;
+    private int requestsInFlight = 0;
+    private int retries = 0;
+    private boolean resuming = false;
+    private boolean finished = false;
+
+    /**
+     * Creates a new chunked upload of a file.
+     *
+     * @param file
+     *            the file to upload
+     * @param url
+     *            the translated URL of the stream variable to upload to
+     * @param chunkSize
+     *            the size of the chunks in bytes
+     * @param parallelChunkUploads
+     *            the maximum number of chunks uploaded concurrently
+     * @param finishedCommand
+     *            the command to run when the upload has finished or failed
+     */
+    public ChunkedFileUpload(File file, String url, int chunkSize,
+            int parallelChunkUploads, Command finishedCommand) {
+        this.file = file;
+        this.url = url;
+        this.chunkSize = chunkSize;
+        this.parallelChunkUploads = parallelChunkUploads;
+        this.finishedCommand = finishedCommand;
+        size = file.getSize();
+        uploadId = ++uploadCounter + "-" + (long) (Math.random() * 1e15);
+    }
+
+    /**
+     * Starts uploading the file.
+     */
+    public void start() {
+        if (size == 0) {
+            // Nothing to send, just let the server know about the file
+            requestStatus();
+        } else {
+            sendChunks();
+        }
+    }
+
+    private void sendChunks() {
+        while (!finished && !resuming && nextOffset < size
+                && requestsInFlight < parallelChunkUploads) {
+            double first = nextOffset;
+            double end = Math.min(size, first + chunkSize);
+            nextOffset = end;
+
+            XMLHttpRequest xhr = createRequest("bytes " + (long) first + "-"
+                    + (long) (end - 1) + "/" + (long) size);
+            xhr.setOnReadyStateChange(xmlHttpRequest -> {
+                if (xmlHttpRequest.getReadyState() == XMLHttpRequest.DONE) {
+                    xmlHttpRequest.clearOnReadyStateChange();
+                    requestsInFlight--;
+                    onChunkResponse(xmlHttpRequest);
+                }
+            });
+            requestsInFlight++;
+            send(xhr, slice(file, first, end));
+        }
+    }
+
+    private void onChunkResponse(XMLHttpRequest xhr) {
+        int status = xhr.getStatus();
+        if (status == Response.SC_GONE) {
+            // The upload has failed on the server
+            finish();
+            return;
+        } else if (status == Response.SC_OK) {
+            retries = 0;
+            if (getReceived(xhr) >= size) {
+                finish();
+                return;
+            } else if (nextOffset >= size && requestsInFlight == 0) {
+                // Everything has been sent but the server is missing some of
+                // it, e.g. because the session moved to another server
+                resuming = true;
+                requestStatus();
+                return;
+            }
+        } else {
+            // Network error or chunk not accepted, resume when all
+            // requests have completed
+            resuming = true;
+        }
+
+        if (!resuming) {
+            sendChunks();
+        } else if (requestsInFlight == 0) {
+            retry();
+        }
+    }
+
+    private void retry() {
+        if (finished) {
+            return;
+        }
+        if (++retries > MAX_RETRIES) {
+            finish();
+            return;
+        }
+        new Timer() {
+            @Override
+            public void run() {
+                requestStatus();
+            }
+        }.schedule(RETRY_DELAY_MS * retries);
+    }
+
+    private void requestStatus() {
+        XMLHttpRequest xhr = createRequest("bytes */" + (long) size);
+        xhr.setOnReadyStateChange(xmlHttpRequest -> {
+            if (xmlHttpRequest.getReadyState() != XMLHttpRequest.DONE) {
+                return;
+            }
+            xmlHttpRequest.clearOnReadyStateChange();
+            requestsInFlight--;
+            int status = xmlHttpRequest.getStatus();
+            if (status == Response.SC_OK) {
+                double received = getReceived(xmlHttpRequest);
+                if (received >= size) {
+                    finish();
+                } else {
+                    // Continue from what the server has received
+                    nextOffset = received;
+                    resuming = false;
+                    sendChunks();
+                }
+            } else if (status == Response.SC_GONE) {
+                finish();
+            } else {
+                retry();
+            }
+        });
+        requestsInFlight++;
+        xhr.send();
+    }
+
+    private XMLHttpRequest createRequest(String contentRange) {
+        XMLHttpRequest xhr = XMLHttpRequest.create();
+        xhr.open("POST", url);
+        xhr.setRequestHeader("Content-Range", contentRange);
+        xhr.setRequestHeader(ApplicationConstants.UPLOAD_ID_HEADER, uploadId);
+        String name = file.getName();
+        if (name != null && !name.isEmpty()) {
+            xhr.setRequestHeader(ApplicationConstants.UPLOAD_FILENAME_HEADER,
+                    URL.encodeQueryString(name));
+        }
+        String type = file.getType();
+        xhr.setRequestHeader("Content-Type",
+                type == null || type.isEmpty() ? "application/octet-stream"
+                        : type);
+        return xhr;
+    }
+
+    /*
+     * The server tells how much of the file it has received from the start in a
+     * header like "Range: bytes=0-1048575".
+     */
+    private double getReceived(XMLHttpRequest xhr) {
+        String range = xhr.getResponseHeader("Range");
+        if (range == null || range.indexOf('-') < 0) {
+            return 0;
+        }
+        return Double.parseDouble(range.substring(range.indexOf('-') + 1)) + 1;
+    }
+
+    private void finish() {
+        if (!finished) {
+            finished = true;
+            finishedCommand.execute();
+        }
+    }
+
+    private static native JavaScriptObject slice(File file, double start,
+            double end)
+    /*-{
+        return file.slice(start, end);
+    }-*/;
+
+    private static native void send(XMLHttpRequest xhr,
+            JavaScriptObject content)
+    /*-{
+        xhr.send(content);
+    }-*/;
+}
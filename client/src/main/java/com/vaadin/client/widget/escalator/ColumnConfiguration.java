@@ -171,6 +171,51 @@ public interface ColumnConfiguration {
     public double getColumnWidthActual(int index)
             throws IllegalArgumentException;
 
+    /**
+     * Sets the maximum number of body rows that are measured when the width of
+     * a column is calculated from its contents.
+     * <p>
+     * By default, all rows in the DOM are measured whenever the width is
+     * calculated. With a sample size, at most the given number of rows evenly
+     * distributed over the rows in the DOM are measured, and the estimated
+     * width is reused until the contents of the escalator change. The header
+     * and footer rows are always measured.
+     * <p>
+     * The default implementation ignores the sample size, so that all rows are
+     * measured.
+     *
+     * @param index
+     *            the index of the column
+     * @param rowCount
+     *            the maximum number of body rows to measure, or a negative
+     *            value to measure all rows
+     * @throws IllegalArgumentException
+     *             if <code>index</code> is not a valid column index
+     * @since 8.7
+     */
+    public default void setColumnWidthSampleSize(int index, int rowCount)
+            throws IllegalArgumentException {
+        // Sampling not supported, all rows are measured
+    }
+
+    /**
+     * Gets the maximum number of body rows that are measured when the width of
+     * a column is calculated from its contents.
+     *
+     * @param index
+     *            the index of the column
+     * @return the maximum number of body rows to measure, or a negative value
+     *         if all rows are measured
+     * @throws IllegalArgumentException
+     *             if <code>index</code> is not a valid column index
+     * @see #setColumnWidthSampleSize(int, int)
+     * @since 8.7
+     */
+    public default int getColumnWidthSampleSize(int index)
+            throws IllegalArgumentException {
+        return -1;
+    }
+
     /**
      * Refreshes a range of columns in the current row containers in each
      * Escalator section.
@@ -1413,6 +1413,7 @@ public class Escalator extends Widget
          */
         protected void paintRemoveRow(final TableRowElement tr,
                 final int logicalRowIndex) {
+            contentVersion++;
 
             flyweightRow.setup(tr, logicalRowIndex,
                     columnConfiguration.getCalculatedColumnWidths());
@@ -1612,6 +1613,7 @@ public class Escalator extends Widget
          */
         protected Node paintInsertRow(Node referenceRow,
                 final TableRowElement tr, int logicalRowIndex) {
+            contentVersion++;
             flyweightRow.setup(tr, logicalRowIndex,
                     columnConfiguration.getCalculatedColumnWidths());
 
@@ -1688,6 +1690,7 @@ public class Escalator extends Widget
 
         void refreshRow(final TableRowElement tr, final int logicalRowIndex,
                 Range colRange) {
+            contentVersion++;
             flyweightRow.setup(tr, logicalRowIndex,
                     columnConfiguration.getCalculatedColumnWidths());
             Iterable<FlyweightCell> cellsToUpdate = flyweightRow
@@ -1809,6 +1812,7 @@ public class Escalator extends Widget
             assert root.isOrHasChild(
                     tr) : "The row must be attached to the document";
 
+            contentVersion++;
             flyweightRow.setup(tr, logicalRowIndex,
                     columnConfiguration.getCalculatedColumnWidths());
 
@@ -2230,27 +2234,48 @@ public class Escalator extends Widget
              * explicit dimensions, and measure that instead.
              */
 
-            TableCellElement cellClone = TableCellElement
-                    .as((Element) cell.cloneNode(withContent));
-            cellClone.getStyle().clearHeight();
-            cellClone.getStyle().clearWidth();
-
-            cell.getParentElement().insertBefore(cellClone, cell);
-            double requiredWidth = getBoundingWidth(cellClone);
-            if (BrowserInfo.get().isIE()) {
-                /*
-                 * IE browsers have some issues with subpixels. Occasionally
-                 * content is overflown even if not necessary. Increase the
-                 * counted required size by 0.01 just to be on the safe side.
-                 */
-                requiredWidth += 0.01;
-            }
+            TableCellElement cellClone = insertMeasuringClone(cell,
+                    withContent);
+            double requiredWidth = getMeasuringCloneWidth(cellClone);
 
             cellClone.removeFromParent();
 
             return requiredWidth;
         }
 
+        /**
+         * Collects the cells of a column that should be measured for
+         * calculating the width needed by the contents.
+         *
+         * @param colIndex
+         *            index of column to measure
+         * @param maxRows
+         *            the maximum number of rows to sample, evenly distributed
+         *            over the rows in the DOM, or a negative value to use all
+         *            rows
+         * @param cells
+         *            the list to add the cells to
+         */
+        void collectMeasuredCells(int colIndex, int maxRows,
+                List<TableCellElement> cells) {
+            assert isAttached() : "Can't measure max width of cell, since Escalator is not attached to the DOM.";
+
+            NodeList<TableRowElement> rows = root.getRows();
+            int rowCount = rows.getLength();
+            int sampledRows = maxRows < 0 ? rowCount
+                    : Math.min(rowCount, maxRows);
+
+            for (int i = 0; i < sampledRows; i++) {
+                int row = (int) ((long) i * rowCount / sampledRows);
+                TableCellElement cell = rows.getItem(row).getCells()
+                        .getItem(colIndex);
+
+                if (cell != null && !cellIsPartOfSpan(cell)) {
+                    cells.add(cell);
+                }
+            }
+        }
+
         /**
          * Gets the minimum width needed to display the cell properly.
          *
@@ -4209,28 +4234,48 @@ public class Escalator extends Widget
             private double calculatedWidth = DEFAULT_COLUMN_WIDTH_PX;
             private boolean measuringRequested = false;
 
+            private int widthSampleSize = -1;
+            /**
+             * The content version for which the calculated width was
+             * estimated, or -1 if the width must be measured again.
+             */
+            private int estimatedContentVersion = -1;
+
             public void setWidth(double px) {
                 Profiler.enter(
                         "Escalator.ColumnConfigurationImpl.Column.setWidth");
 
+                if (setDefinedWidth(px)) {
+                    calculateWidths(Collections.singletonList(this));
+                }
+
+                Profiler.leave(
+                        "Escalator.ColumnConfigurationImpl.Column.setWidth");
+            }
+
+            /**
+             * Sets the defined width without measuring the column.
+             *
+             * @return <code>true</code> if the width should be calculated
+             *         from the contents, otherwise <code>false</code>
+             */
+            private boolean setDefinedWidth(double px) {
                 definedWidth = px;
 
                 if (px < 0) {
                     if (isAttached()) {
-                        calculateWidth();
-                    } else {
-                        /*
-                         * the column's width is calculated at Escalator.onLoad
-                         * via measureAndSetWidthIfNeeded!
-                         */
-                        measuringRequested = true;
+                        return true;
                     }
+                    /*
+                     * the column's width is calculated at Escalator.onLoad via
+                     * measureAndSetWidthIfNeeded!
+                     */
+                    measuringRequested = true;
                 } else {
                     calculatedWidth = px;
+                    estimatedContentVersion = -1;
                 }
-
-                Profiler.leave(
-                        "Escalator.ColumnConfigurationImpl.Column.setWidth");
+                return false;
             }
 
             public double getDefinedWidth() {
@@ -4275,8 +4320,16 @@ public class Escalator extends Widget
                 return false;
             }
 
-            private void calculateWidth() {
-                calculatedWidth = getMaxCellWidth(columns.indexOf(this));
+            private void setWidthSampleSize(int rowCount) {
+                if (widthSampleSize != rowCount) {
+                    widthSampleSize = rowCount;
+                    estimatedContentVersion = -1;
+                }
+            }
+
+            private boolean hasValidEstimate() {
+                return widthSampleSize >= 0
+                        && estimatedContentVersion == contentVersion;
             }
         }
 
@@ -4309,6 +4362,7 @@ public class Escalator extends Widget
             if (numberOfColumns == 0) {
                 return;
             }
+            contentVersion++;
 
             // Validate
             assertArgumentsAreValidAndWithinRange(index, numberOfColumns);
@@ -4441,6 +4495,7 @@ public class Escalator extends Widget
             if (numberOfColumns == 0) {
                 return;
             }
+            contentVersion++;
 
             // Validate
             if (index < 0 || index > getColumnCount()) {
@@ -4607,6 +4662,7 @@ public class Escalator extends Widget
             Profiler.enter("Escalator.ColumnConfigurationImpl.setColumnWidths");
             try {
 
+                List<Column> columnsToCalculate = new ArrayList<>();
                 for (Entry<Integer, Double> entry : indexWidthMap.entrySet()) {
                     int index = entry.getKey().intValue();
                     double width = entry.getValue().doubleValue();
@@ -4615,9 +4671,12 @@ public class Escalator extends Widget
 
                     // Not all browsers will accept any fractional size..
                     width = WidgetUtil.roundSizeDown(width);
-                    columns.get(index).setWidth(width);
-
+                    Column column = columns.get(index);
+                    if (column.setDefinedWidth(width)) {
+                        columnsToCalculate.add(column);
+                    }
                 }
+                calculateWidths(columnsToCalculate);
 
                 widthsArray = null;
                 header.reapplyColumnWidths();
@@ -4652,16 +4711,92 @@ public class Escalator extends Widget
             return columns.get(index).getCalculatedWidth();
         }
 
-        private double getMaxCellWidth(int colIndex)
+        @Override
+        public void setColumnWidthSampleSize(int index, int rowCount)
                 throws IllegalArgumentException {
-            double headerWidth = header.measureMinCellWidth(colIndex, true);
-            double bodyWidth = body.measureMinCellWidth(colIndex, true);
-            double footerWidth = footer.measureMinCellWidth(colIndex, true);
+            checkValidColumnIndex(index);
+            columns.get(index).setWidthSampleSize(rowCount);
+        }
 
-            double maxWidth = Math.max(headerWidth,
-                    Math.max(bodyWidth, footerWidth));
-            assert maxWidth >= 0 : "Got a negative max width for a column, which should be impossible.";
-            return maxWidth;
+        @Override
+        public int getColumnWidthSampleSize(int index)
+                throws IllegalArgumentException {
+            checkValidColumnIndex(index);
+            return columns.get(index).widthSampleSize;
+        }
+
+        /**
+         * Calculates the widths of columns from their contents.
+         * <p>
+         * Unsized clones of the cells of all the columns are inserted before
+         * any width is read, so that the layout is calculated only once
+         * instead of once per measured cell. Columns with a width sample size
+         * only measure some of the body rows, and keep their estimated width
+         * until the contents of the escalator change.
+         *
+         * @param columnsToCalculate
+         *            the columns to calculate
+         */
+        private void calculateWidths(List<Column> columnsToCalculate) {
+            List<Column> measuredColumns = new ArrayList<>();
+            for (Column column : columnsToCalculate) {
+                if (!column.hasValidEstimate()) {
+                    measuredColumns.add(column);
+                }
+            }
+            if (measuredColumns.isEmpty()) {
+                return;
+            }
+
+            Profiler.enter(
+                    "Escalator.ColumnConfigurationImpl.calculateWidths");
+
+            // Find all cells before inserting clones that shift the cells
+            List<List<TableCellElement>> clones = new ArrayList<>();
+            for (Column column : measuredColumns) {
+                int colIndex = columns.indexOf(column);
+                List<TableCellElement> cells = new ArrayList<>();
+                header.collectMeasuredCells(colIndex, -1, cells);
+                body.collectMeasuredCells(colIndex, column.widthSampleSize,
+                        cells);
+                footer.collectMeasuredCells(colIndex, -1, cells);
+                clones.add(cells);
+            }
+
+            for (List<TableCellElement> columnCells : clones) {
+                for (int i = 0; i < columnCells.size(); i++) {
+                    columnCells.set(i,
+                            insertMeasuringClone(columnCells.get(i), true));
+                }
+            }
+
+            for (int i = 0; i < measuredColumns.size(); i++) {
+                double maxWidth = -1;
+                for (TableCellElement clone : clones.get(i)) {
+                    maxWidth = Math.max(maxWidth,
+                            getMeasuringCloneWidth(clone));
+                }
+
+                /*
+                 * Nothing was measured if there are no header or footer rows
+                 * and no body rows in the DOM. The previous width is then kept
+                 * and the column is measured again next time.
+                 */
+                if (maxWidth >= 0) {
+                    Column column = measuredColumns.get(i);
+                    column.calculatedWidth = maxWidth;
+                    column.estimatedContentVersion = contentVersion;
+                }
+            }
+
+            for (List<TableCellElement> columnClones : clones) {
+                for (TableCellElement clone : columnClones) {
+                    clone.removeFromParent();
+                }
+            }
+
+            Profiler.leave(
+                    "Escalator.ColumnConfigurationImpl.calculateWidths");
         }
 
         private double getMinCellWidth(int colIndex)
@@ -5783,6 +5918,12 @@ public class Escalator extends Widget
     private final Scroller scroller = new Scroller();
 
     private final ColumnConfigurationImpl columnConfiguration = new ColumnConfigurationImpl();
+
+    /**
+     * Incremented whenever cells are painted, refreshed or removed, for
+     * invalidating estimated column widths.
+     */
+    private int contentVersion = 0;
     private final DivElement tableWrapper;
     private final Element table;
 
@@ -5904,6 +6045,34 @@ public class Escalator extends Widget
         publishJSHelpers(root);
     }
 
+    /**
+     * Inserts a clone of a cell without explicit dimensions next to the cell,
+     * for measuring the width needed by the contents of the cell.
+     */
+    private TableCellElement insertMeasuringClone(TableCellElement cell,
+            boolean withContent) {
+        TableCellElement cellClone = TableCellElement
+                .as((Element) cell.cloneNode(withContent));
+        cellClone.getStyle().clearHeight();
+        cellClone.getStyle().clearWidth();
+
+        cell.getParentElement().insertBefore(cellClone, cell);
+        return cellClone;
+    }
+
+    private double getMeasuringCloneWidth(TableCellElement cellClone) {
+        double requiredWidth = getBoundingWidth(cellClone);
+        if (BrowserInfo.get().isIE()) {
+            /*
+             * IE browsers have some issues with subpixels. Occasionally content
+             * is overflown even if not necessary. Increase the counted required
+             * size by 0.01 just to be on the safe side.
+             */
+            requiredWidth += 0.01;
+        }
+        return requiredWidth;
+    }
+
     private double getBoundingWidth(Element element) {
         // Gets the current width, including border and padding, for the element
         // while ignoring any transforms applied to the element (e.g. scale)
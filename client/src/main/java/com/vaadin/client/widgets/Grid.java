@@ -3409,6 +3409,16 @@ public class Grid<T> extends ResizeComposite implements HasSelectionHandlers<T>,
             assert !(currentDataAvailable.isEmpty() && dataSource
                     .isWaitingForData()) : "Trying to calculate column widths without data while data is still being fetched.";
 
+            ColumnConfiguration columnConfiguration = escalator
+                    .getColumnConfiguration();
+            List<Column<?, T>> visibleColumns = getVisibleColumns();
+            int columnCount = Math.min(visibleColumns.size(),
+                    columnConfiguration.getColumnCount());
+            for (int i = 0; i < columnCount; i++) {
+                columnConfiguration.setColumnWidthSampleSize(i,
+                        visibleColumns.get(i).getAutoWidthSampleSize());
+            }
+
             // Make SelectAllCheckbox visible
             getSelectionColumn().ifPresent(col -> {
                 if (getDefaultHeaderRow() == null)
@@ -4847,6 +4857,7 @@ public class Grid<T> extends ResizeComposite implements HasSelectionHandlers<T>,
         private double maximumWidthPx = GridConstants.DEFAULT_MAX_WIDTH;
         private int expandRatio = GridConstants.DEFAULT_EXPAND_RATIO;
         private boolean minimumWidthFromContent = true;
+        private int autoWidthSampleSize = -1;
 
         /**
          * Constructs a new column with a simple TextRenderer.
@@ -5449,6 +5460,45 @@ public class Grid<T> extends ResizeComposite implements HasSelectionHandlers<T>,
             return minimumWidthFromContent;
         }
 
+        /**
+         * Sets the maximum number of rows that are measured when the width of
+         * this column is calculated from its contents. With a sample size, the
+         * estimated width is also reused until the contents of the grid
+         * change. This makes calculating the widths faster for grids with many
+         * columns, at the cost of possibly not fitting the contents of all
+         * rows.
+         * <p>
+         * This action is done "finally", once the current execution loop
+         * returns. This is done to reduce overhead of unintentionally always
+         * recalculate all columns, when modifying several columns at once.
+         *
+         * @param rowCount
+         *            the maximum number of rows to measure, or a negative value
+         *            to measure all rows
+         * @return this column
+         * @since 8.7
+         */
+        public Column<C, T> setAutoWidthSampleSize(int rowCount) {
+            if (autoWidthSampleSize != rowCount) {
+                autoWidthSampleSize = rowCount;
+                scheduleColumnWidthRecalculator();
+            }
+            return this;
+        }
+
+        /**
+         * Gets the maximum number of rows that are measured when the width of
+         * this column is calculated from its contents.
+         *
+         * @return the maximum number of rows to measure, or a negative value
+         *         if all rows are measured
+         * @see #setAutoWidthSampleSize(int)
+         * @since 8.7
+         */
+        public int getAutoWidthSampleSize() {
+            return autoWidthSampleSize;
+        }
+
         /**
          * Sets the maximum width for this column.
          * <p>
@@ -0,0 +1,90 @@
+package com.vaadin.client.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.client.data.CacheStrategy.AdaptiveCacheStrategy;
+import com.vaadin.shared.Range;
+
+public class AdaptiveCacheStrategyTest {
+
+    private static final Range AVAILABLE = Range.withLength(0, 100000);
+
+    private double time;
+    private AdaptiveCacheStrategy strategy;
+
+    @Before
+    public void setup() {
+        time = 0;
+        strategy = createStrategy(1, 10);
+    }
+
+    private AdaptiveCacheStrategy createStrategy(int minimumRatio,
+            int maximumRatio) {
+        return new AdaptiveCacheStrategy(minimumRatio, maximumRatio) {
+            @Override
+            protected double getCurrentTime() {
+                return time;
+            }
+        };
+    }
+
+    private Range scrollTo(int start, double at) {
+        time = at;
+        return strategy.getMinCacheRange(Range.withLength(start, 10),
+                Range.emptyRange(), AVAILABLE);
+    }
+
+    @Test
+    public void notScrolling_minimumCachedInBothDirections() {
+        assertEquals(Range.between(990, 1020), scrollTo(1000, 0));
+        assertEquals(Range.between(980, 1030), strategy.getMaxCacheRange(
+                Range.withLength(1000, 10), Range.emptyRange(), AVAILABLE));
+    }
+
+    @Test
+    public void scrollingDown_cacheBiasedDownwards() {
+        strategy = createStrategy(1, 50);
+        strategy.onDataArrive(100, 10);
+        scrollTo(1000, 0);
+        scrollTo(1100, 100);
+        Range minRange = scrollTo(1200, 200);
+
+        assertTrue(strategy.getVelocity() > 0);
+        assertEquals(1190, minRange.getStart());
+        assertTrue(minRange.getEnd() > 1260);
+    }
+
+    @Test
+    public void scrollingUp_cacheBiasedUpwards() {
+        scrollTo(1200, 0);
+        scrollTo(1100, 100);
+        Range minRange = scrollTo(1000, 200);
+
+        assertTrue(strategy.getVelocity() < 0);
+        assertTrue(minRange.getStart() < 950);
+        assertEquals(1020, minRange.getEnd());
+    }
+
+    @Test
+    public void scrollingFast_limitedToMaximumRatio() {
+        strategy.onDataArrive(1000, 10);
+        scrollTo(1000, 0);
+        Range minRange = scrollTo(2000, 10);
+
+        assertEquals(Range.between(1990, 2110), minRange);
+    }
+
+    @Test
+    public void scrollingPaused_velocityReset() {
+        scrollTo(1000, 0);
+        scrollTo(1100, 100);
+        Range minRange = scrollTo(1100, 5000);
+
+        assertEquals(0, strategy.getVelocity(), 0);
+        assertEquals(Range.between(1090, 1120), minRange);
+    }
+}
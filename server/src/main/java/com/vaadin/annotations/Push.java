@@ -58,4 +58,15 @@ public @interface Push {
      */
     public Transport transport() default Transport.WEBSOCKET;
 
+    /**
+     * Returns the minimum interval in milliseconds between automatic pushes for
+     * the annotated UI. The default is 0, which pushes changes without delay.
+     *
+     * @see com.vaadin.ui.PushConfiguration#setPushInterval(int)
+     *
+     * @since 8.7
+     * @return the minimum interval between automatic pushes
+     */
+    public int interval() default 0;
+
 }
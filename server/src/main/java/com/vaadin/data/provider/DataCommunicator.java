@@ -36,6 +36,7 @@ import com.vaadin.server.KeyMapper;
 import com.vaadin.server.SerializableConsumer;
 import com.vaadin.shared.Range;
 import com.vaadin.shared.Registration;
+import com.vaadin.shared.data.CompactRowEncoding;
 import com.vaadin.shared.data.DataCommunicatorClientRpc;
 import com.vaadin.shared.data.DataCommunicatorConstants;
 import com.vaadin.shared.data.DataRequestRpc;
@@ -222,8 +223,16 @@ public class DataCommunicator<T> extends AbstractExtension {
 
     /** Boolean for pending hard reset. */
     protected boolean reset = true;
+    /** Boolean for pending soft reset, i.e. a size update. */
+    private boolean sizeReset = false;
+    /** The size last sent to the client. */
+    private int clientSize = 0;
+    /** Whether {@link #clientSize} is the exact size or an estimate. */
+    private boolean clientSizeExact = true;
+    private boolean lazySizeEnabled = false;
     private final Set<T> updatedData = new HashSet<>();
     private int minPushSize = 40;
+    private boolean compactRowEncoding = false;
     private Range pushRows = Range.withLength(0, minPushSize);
 
     private Object filter;
@@ -350,27 +359,36 @@ public class DataCommunicator<T> extends AbstractExtension {
             return;
         }
 
-        if (initial || reset) {
-            if (reset) {
-                handler.dropAllActiveData();
-            }
+        if (reset) {
+            handler.dropAllActiveData();
+        }
 
-            rpc.reset(getDataProviderSize());
+        boolean resetSize = initial || reset || sizeReset;
+        if (resetSize && isLazySizeEnabled() && getPushRows().isEmpty()) {
+            // The first rows are needed to estimate the size
+            setPushRows(Range.withLength(0, getMinPushSize()));
         }
 
         Range requestedRows = getPushRows();
-        boolean triggerReset = false;
+        List<T> rowsToPush = null;
         if (!requestedRows.isEmpty()) {
-            int offset = requestedRows.getStart();
-            int limit = requestedRows.length();
+            rowsToPush = fetchItemsWithRange(requestedRows.getStart(),
+                    requestedRows.length());
+        }
 
-            List<T> rowsToPush = fetchItemsWithRange(offset, limit);
+        if (resetSize) {
+            rpc.reset(resolveSize(requestedRows, rowsToPush));
+        } else if (rowsToPush != null && !clientSizeExact) {
+            updateEstimatedSize(requestedRows, rowsToPush);
+        }
 
+        boolean triggerReset = false;
+        if (rowsToPush != null) {
             if (!initial && !reset && rowsToPush.isEmpty()) {
                 triggerReset = true;
             }
 
-            pushData(offset, rowsToPush);
+            pushData(requestedRows.getStart(), rowsToPush);
         }
 
         if (!updatedData.isEmpty()) {
@@ -379,14 +397,78 @@ public class DataCommunicator<T> extends AbstractExtension {
             for (T data : updatedData) {
                 dataArray.set(i++, getDataObject(data));
             }
-            rpc.updateData(dataArray);
+            if (isCompactRowEncoding()) {
+                rpc.updateCompactData(CompactRowEncoding.encode(dataArray));
+            } else {
+                rpc.updateData(dataArray);
+            }
         }
 
         setPushRows(Range.withLength(0, 0));
         reset = triggerReset;
+        sizeReset = false;
         updatedData.clear();
     }
 
+    /**
+     * Resolves the size to send to the client on reset. If the fetched rows
+     * don't fill the requested range, the size is known without asking the data
+     * provider. Otherwise the size is either estimated, if lazy size is
+     * enabled, or queried from the data provider.
+     */
+    private int resolveSize(Range requestedRows, List<T> fetchedRows) {
+        if (isLastPage(requestedRows, fetchedRows)) {
+            clientSize = requestedRows.getStart() + fetchedRows.size();
+            clientSizeExact = true;
+        } else if (isLazySizeEnabled() && fetchedRows != null
+                && !fetchedRows.isEmpty()) {
+            clientSize = requestedRows.getStart() + fetchedRows.size()
+                    + getSizeEstimateIncrease(requestedRows);
+            clientSizeExact = false;
+        } else {
+            clientSize = getDataProviderSize();
+            clientSizeExact = true;
+        }
+        return clientSize;
+    }
+
+    /**
+     * Updates the estimated size on the client when rows near the end of the
+     * estimate have been fetched.
+     */
+    private void updateEstimatedSize(Range requestedRows, List<T> fetchedRows) {
+        int fetchedEnd = requestedRows.getStart() + fetchedRows.size();
+        int newSize = clientSize;
+        if (isLastPage(requestedRows, fetchedRows)) {
+            newSize = fetchedEnd;
+            clientSizeExact = true;
+        } else if (fetchedRows.isEmpty()) {
+            newSize = getDataProviderSize();
+            clientSizeExact = true;
+        } else if (clientSize
+                - fetchedEnd < getSizeEstimateIncrease(requestedRows)) {
+            newSize = fetchedEnd + getSizeEstimateIncrease(requestedRows);
+        }
+
+        if (newSize > clientSize) {
+            rpc.insertRows(clientSize, newSize - clientSize);
+        } else if (newSize < clientSize) {
+            rpc.removeRows(newSize, clientSize - newSize);
+        }
+        clientSize = newSize;
+    }
+
+    private static boolean isLastPage(Range requestedRows,
+            List<?> fetchedRows) {
+        return fetchedRows != null
+                && fetchedRows.size() < requestedRows.length()
+                && (!fetchedRows.isEmpty() || requestedRows.getStart() == 0);
+    }
+
+    private int getSizeEstimateIncrease(Range requestedRows) {
+        return Math.max(requestedRows.length(), getMinPushSize());
+    }
+
     /**
      * Fetches a list of items from the DataProvider.
      *
@@ -460,7 +542,12 @@ public class DataCommunicator<T> extends AbstractExtension {
             dataArray.set(i++, getDataObject(item));
         }
 
-        rpc.setData(firstIndex, dataArray);
+        if (isCompactRowEncoding()) {
+            rpc.setCompactData(firstIndex,
+                    CompactRowEncoding.encode(dataArray));
+        } else {
+            rpc.setData(firstIndex, dataArray);
+        }
         handler.addActiveData(data.stream());
         handler.cleanUp(data.stream());
     }
@@ -530,8 +617,13 @@ public class DataCommunicator<T> extends AbstractExtension {
     public void reset() {
         // Only needed if a full reset is not pending.
         if (!reset) {
-            // Soft reset through client-side re-request.
-            getClientRpc().reset(getDataProviderSize());
+            /*
+             * Soft reset through client-side re-request. The size is resolved
+             * when the response is written, so that rows requested in the same
+             * round trip can be used to avoid querying the size.
+             */
+            sizeReset = true;
+            markAsDirty();
         }
     }
 
@@ -751,6 +843,112 @@ public class DataCommunicator<T> extends AbstractExtension {
         minPushSize = size;
     }
 
+    /**
+     * Sets whether rows should be sent to the client using
+     * {@link CompactRowEncoding}. With compact encoding, the keys written by
+     * the {@link DataGenerator}s are sent once per batch instead of once per
+     * row, which reduces the size of the response considerably for components
+     * with many columns.
+     * <p>
+     * Compact encoding only reduces the payload size. The rows are still
+     * generated as JSON objects and then encoded, so more objects are created
+     * on the server, and the client decodes the rows back into JSON objects.
+     * The default value is <code>false</code>.
+     *
+     * @param compactRowEncoding
+     *            <code>true</code> to use compact row encoding,
+     *            <code>false</code> to send each row as a separate JSON object
+     * @since 8.7
+     */
+    public void setCompactRowEncoding(boolean compactRowEncoding) {
+        this.compactRowEncoding = compactRowEncoding;
+    }
+
+    /**
+     * Gets whether rows are sent to the client using
+     * {@link CompactRowEncoding}.
+     *
+     * @see #setCompactRowEncoding(boolean)
+     *
+     * @return <code>true</code> if compact row encoding is used, otherwise
+     *         <code>false</code>
+     * @since 8.7
+     */
+    public boolean isCompactRowEncoding() {
+        return compactRowEncoding;
+    }
+
+    /**
+     * Sets whether the size of the data should be resolved lazily. By default,
+     * the data provider is asked for the size whenever the data is reset,
+     * unless the fetched rows reveal the size. With lazy size enabled, the
+     * client is instead given an estimate which is increased as the user
+     * scrolls towards the end of the data, and the exact size is known once the
+     * last rows have been fetched. This avoids the size query, e.g. a
+     * {@code COUNT} query in a database, for every filter change.
+     * <p>
+     * The default value is <code>false</code>.
+     *
+     * @param lazySizeEnabled
+     *            <code>true</code> to estimate the size, <code>false</code> to
+     *            query the size from the data provider
+     * @since 8.7
+     */
+    public void setLazySizeEnabled(boolean lazySizeEnabled) {
+        if (this.lazySizeEnabled != lazySizeEnabled) {
+            this.lazySizeEnabled = lazySizeEnabled;
+            reset();
+        }
+    }
+
+    /**
+     * Gets whether the size of the data is resolved lazily.
+     *
+     * @see #setLazySizeEnabled(boolean)
+     *
+     * @return <code>true</code> if the size is estimated, <code>false</code> if
+     *         the size is queried from the data provider
+     * @since 8.7
+     */
+    public boolean isLazySizeEnabled() {
+        return lazySizeEnabled;
+    }
+
+    /**
+     * Sets whether the client should adapt the amount of cached rows to the
+     * measured round trip time and the scrolling speed and direction. By
+     * default, a fixed number of pages is cached both before and after the rows
+     * currently in use. With the adaptive cache, more rows are fetched ahead of
+     * the scrolling direction on slow connections or when scrolling fast, and
+     * fewer rows otherwise.
+     * <p>
+     * The default value is <code>false</code>.
+     *
+     * @param adaptiveCacheEnabled
+     *            <code>true</code> to use the adaptive cache,
+     *            <code>false</code> to use the fixed size cache
+     * @since 8.7
+     */
+    public void setAdaptiveCacheEnabled(boolean adaptiveCacheEnabled) {
+        if (isAdaptiveCacheEnabled() != adaptiveCacheEnabled) {
+            getState().adaptiveCache = adaptiveCacheEnabled;
+        }
+    }
+
+    /**
+     * Gets whether the client adapts the amount of cached rows to the round
+     * trip time and scrolling speed.
+     *
+     * @see #setAdaptiveCacheEnabled(boolean)
+     *
+     * @return <code>true</code> if the adaptive cache is used, otherwise
+     *         <code>false</code>
+     * @since 8.7
+     */
+    public boolean isAdaptiveCacheEnabled() {
+        return getState(false).adaptiveCache;
+    }
+
     /**
      * Get minimum size of data which will be sent to the client when data
      * source is set.
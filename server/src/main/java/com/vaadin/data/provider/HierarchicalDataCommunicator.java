@@ -19,6 +19,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -405,6 +406,32 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
         return mapper.getTreeSize();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Lazy size is not supported for hierarchical data, since expanding and
+     * collapsing items requires the exact size of the hierarchy. Enabling it is
+     * ignored and a warning is logged.
+     */
+    @Override
+    public void setLazySizeEnabled(boolean lazySizeEnabled) {
+        if (lazySizeEnabled) {
+            getLogger().warning(
+                    "Lazy size is not supported for hierarchical data, the exact size is used instead");
+            return;
+        }
+        super.setLazySizeEnabled(lazySizeEnabled);
+    }
+
+    @Override
+    protected void sendDataToClient(boolean initial) {
+        if (initial || reset) {
+            // Data might have changed, hierarchy needs to be fetched again
+            mapper.invalidateHierarchy();
+        }
+        super.sendDataToClient(initial);
+    }
+
     @Override
     public void setBackEndSorting(List<QuerySortOrder> sortOrder) {
         if (mapper != null) {
@@ -437,4 +464,8 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
     protected HierarchyMapper<T, ?> getHierarchyMapper() {
         return mapper;
     }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(HierarchicalDataCommunicator.class.getName());
+    }
 }
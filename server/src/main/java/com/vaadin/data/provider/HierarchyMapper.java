@@ -15,7 +15,8 @@
  */
 package com.vaadin.data.provider;
 
-import java.util.Collections;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,6 +43,13 @@ import elemental.json.JsonObject;
  * Keeps track of the expanded nodes, and size of of the subtrees for each
  * expanded node.
  * <p>
+ * The children of each visible expanded node are fetched once and kept in an
+ * index together with the sizes of their subtrees. The index is updated when
+ * nodes are expanded or collapsed, so finding the size of the hierarchy, the
+ * index of an item or a range of items does not require walking through the
+ * whole hierarchy in the back end. The index is discarded when the filter or
+ * the sorting changes, or when {@link #invalidateHierarchy()} is called.
+ * <p>
  * This class is framework internal implementation details, and can be changed /
  * moved at any point. This means that you should not directly use this for
  * anything.
@@ -69,6 +77,95 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
 
     private Set<Object> expandedItemIds = new HashSet<>();
 
+    // Index of fetched children for expanded nodes, keyed by the id of the
+    // parent item. Root level is stored with the key null.
+    private Map<Object, HierarchyNode<T>> nodes = new HashMap<>();
+
+    /**
+     * Children of an expanded node and the sizes of their visible subtrees. The
+     * sizes are stored in a Fenwick tree so that both the offset of a child and
+     * the child at a given offset can be found in logarithmic time.
+     *
+     * @param <T>
+     *            the data type
+     */
+    private static class HierarchyNode<T> implements Serializable {
+
+        private final List<T> children;
+        private final Map<Object, Integer> childIndex;
+        private final int[] tree;
+        private int size;
+
+        private HierarchyNode(List<T> children, List<Object> childIds,
+                int[] sizes) {
+            this.children = children;
+            childIndex = new HashMap<>(childIds.size() * 2);
+            for (int i = 0; i < childIds.size(); ++i) {
+                childIndex.put(childIds.get(i), i);
+            }
+            tree = new int[sizes.length + 1];
+            for (int i = 1; i <= sizes.length; ++i) {
+                tree[i] += sizes[i - 1];
+                size += sizes[i - 1];
+                int next = i + (i & -i);
+                if (next <= sizes.length) {
+                    tree[next] += tree[i];
+                }
+            }
+        }
+
+        /**
+         * Gets the amount of visible rows under this node.
+         */
+        private int size() {
+            return size;
+        }
+
+        private Integer indexOf(Object childId) {
+            return childIndex.get(childId);
+        }
+
+        /**
+         * Changes the size of the subtree of the child at the given position.
+         */
+        private void add(int position, int delta) {
+            for (int i = position + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+            size += delta;
+        }
+
+        /**
+         * Gets the offset of the child at the given position among all the
+         * visible rows under this node.
+         */
+        private int offsetOf(int position) {
+            int offset = 0;
+            for (int i = position; i > 0; i -= i & -i) {
+                offset += tree[i];
+            }
+            return offset;
+        }
+
+        /**
+         * Gets the position of the child which contains the row at the given
+         * offset, either as the child itself or as one of its descendants.
+         */
+        private int positionOf(int offset) {
+            int position = 0;
+            int remaining = offset;
+            for (int step = Integer
+                    .highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next < tree.length && tree[next] <= remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+            return position;
+        }
+    }
+
     /**
      * Constructs a new HierarchyMapper.
      *
@@ -85,7 +182,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      * @return the amount of available data
      */
     public int getTreeSize() {
-        return (int) getHierarchy(null).count();
+        return getNode(null).size();
     }
 
     /**
@@ -97,9 +194,13 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      *
      */
     public Integer getParentIndex(T item) {
-        // TODO: This can be optimized.
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(getParentOfItem(item));
+        // Make sure the visible part of the hierarchy has been registered
+        getNode(null);
+        T parent = getParentOfItem(item);
+        if (parent == null) {
+            return -1;
+        }
+        return getIndexOf(parent).orElse(-1);
     }
 
     /**
@@ -128,8 +229,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      */
     public Range expand(T item, Integer position) {
         if (doExpand(item) && position != null) {
-            return Range.withLength(position + 1,
-                    (int) getHierarchy(item, false).count());
+            return Range.withLength(position + 1, getSubtreeSize(item));
         }
 
         return Range.emptyRange();
@@ -164,6 +264,10 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
         if (!isExpanded(item) && hasChildren(item)) {
             expandedItemIds.add(getDataProvider().getId(item));
             expanded = true;
+            if (isIndexed(item)) {
+                // Fetch the children and update the parent sizes
+                updateSubtreeSize(item, getSubtreeSize(item));
+            }
         }
         return expanded;
     }
@@ -183,9 +287,15 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
         if (isExpanded(item)) {
             if (position != null) {
                 removedRows = Range.withLength(position + 1,
-                        (int) getHierarchy(item, false).count());
+                        getSubtreeSize(item));
             }
-            expandedItemIds.remove(getDataProvider().getId(item));
+            Object id = getDataProvider().getId(item);
+            HierarchyNode<T> node = nodes.get(id);
+            if (node != null && isIndexed(item)) {
+                updateSubtreeSize(item, -node.size());
+            }
+            expandedItemIds.remove(id);
+            nodes.remove(id);
         }
         return removedRows;
     }
@@ -275,6 +385,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      */
     public void setInMemorySorting(Comparator<T> inMemorySorting) {
         this.inMemorySorting = inMemorySorting;
+        invalidateHierarchy();
     }
 
     /**
@@ -295,6 +406,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      */
     public void setBackEndSorting(List<QuerySortOrder> backEndSorting) {
         this.backEndSorting = backEndSorting;
+        invalidateHierarchy();
     }
 
     /**
@@ -315,6 +427,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      */
     public void setFilter(Object filter) {
         this.filter = (F) filter;
+        invalidateHierarchy();
     }
 
     /**
@@ -349,7 +462,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      * @return the stream of items
      */
     public Stream<T> fetchItems(Range range) {
-        return getHierarchy(null).skip(range.getStart()).limit(range.length());
+        return fetchItems(getNode(null), range);
     }
 
     /**
@@ -363,8 +476,52 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
      * @return the stream of items
      */
     public Stream<T> fetchItems(T parent, Range range) {
-        return getHierarchy(parent, false).skip(range.getStart())
-                .limit(range.length());
+        if (!isExpanded(parent)) {
+            return Stream.empty();
+        }
+        return fetchItems(getNode(parent), range);
+    }
+
+    /**
+     * Collects the requested range of rows under the given node.
+     *
+     * @param node
+     *            the node to collect from, or {@code null} for no rows
+     * @param range
+     *            the range of rows relative to the node
+     * @return the stream of items
+     */
+    private Stream<T> fetchItems(HierarchyNode<T> node, Range range) {
+        if (node == null || range.isEmpty()
+                || range.getStart() >= node.size()) {
+            return Stream.empty();
+        }
+        List<T> items = new ArrayList<>(
+                Math.min(range.length(), node.size() - range.getStart()));
+        collectItems(node, range.getStart(), range.length(), items);
+        return items.stream();
+    }
+
+    private void collectItems(HierarchyNode<T> node, int offset, int limit,
+            List<T> items) {
+        int position = node.positionOf(offset);
+        int remaining = offset - node.offsetOf(position);
+        while (position < node.children.size() && items.size() < limit) {
+            T child = node.children.get(position++);
+            if (remaining == 0) {
+                items.add(child);
+            } else {
+                // Range starts among the descendants of this child
+                --remaining;
+            }
+            if (isExpanded(child) && items.size() < limit) {
+                HierarchyNode<T> childNode = getNode(child);
+                if (childNode != null && remaining < childNode.size()) {
+                    collectItems(childNode, remaining, limit, items);
+                }
+            }
+            remaining = 0;
+        }
     }
 
     /* Methods for providing information on the hierarchy. */
@@ -430,6 +587,7 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
             }
         }
         expandedItemIds.remove(id);
+        nodes.remove(id);
         invalidatedChildren.stream().map(getDataProvider()::getId)
                 .forEach(x -> {
                     removeChildren(x);
@@ -450,89 +608,155 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
             return Optional.empty();
         }
 
-        final List<Object> collect = getHierarchy(null).map(provider::getId)
-                .collect(Collectors.toList());
-        int index = collect.indexOf(getDataProvider().getId(target));
-        return Optional.ofNullable(index < 0 ? null : index);
+        // Make sure the visible part of the hierarchy has been registered
+        getNode(null);
+
+        int index = 0;
+        Object id = getDataProvider().getId(target);
+        while (true) {
+            if (!parentIdMap.containsKey(id)) {
+                return Optional.empty();
+            }
+            T parent = parentIdMap.get(id);
+            Object parentId = parent == null ? null
+                    : getDataProvider().getId(parent);
+            HierarchyNode<T> node = nodes.get(parentId);
+            Integer position = node == null ? null : node.indexOf(id);
+            if (position == null) {
+                // Parent is collapsed or the item is no longer its child
+                return Optional.empty();
+            }
+            index += node.offsetOf(position);
+            if (parent == null) {
+                return Optional.of(index);
+            }
+            // Parent row itself precedes its children
+            ++index;
+            id = parentId;
+        }
     }
 
     /**
-     * Gets the full hierarchy tree starting from given node.
+     * Discards the index of fetched children, causing the visible hierarchy to
+     * be fetched again from the data provider when it is needed. Expanded items
+     * stay expanded.
      *
-     * @param parent
-     *            the parent node to start from
-     * @return the flattened hierarchy as a stream
+     * @since 8.7
      */
-    private Stream<T> getHierarchy(T parent) {
-        return getHierarchy(parent, true);
+    public void invalidateHierarchy() {
+        nodes.clear();
     }
 
     /**
-     * Getst hte full hierarchy tree starting from given node. The starting node
-     * can be omitted.
+     * Gets the index node for the given expanded parent, fetching the children
+     * if they have not been fetched yet. An expanded item that has no children
+     * is collapsed.
      *
      * @param parent
-     *            the parent node to start from
-     * @param includeParent
-     *            {@code true} to include the parent; {@code false} if not
-     * @return the flattened hierarchy as a stream
-     */
-    private Stream<T> getHierarchy(T parent, boolean includeParent) {
-        return Stream.of(parent)
-                .flatMap(node -> getChildrenStream(node, includeParent));
+     *            the expanded parent, or {@code null} for the root level
+     * @return the node, or {@code null} if the parent has no children
+     */
+    private HierarchyNode<T> getNode(T parent) {
+        Object parentId = parent == null ? null
+                : getDataProvider().getId(parent);
+        HierarchyNode<T> node = nodes.get(parentId);
+        if (node != null) {
+            return node;
+        }
+
+        List<T> childList = getDirectChildren(parent)
+                .collect(Collectors.toList());
+        if (childList.isEmpty()) {
+            removeChildren(parentId);
+            if (parent != null) {
+                return null;
+            }
+        } else {
+            registerChildren(parent, childList);
+        }
+
+        List<Object> childIds = new ArrayList<>(childList.size());
+        int[] sizes = new int[childList.size()];
+        for (int i = 0; i < sizes.length; ++i) {
+            T child = childList.get(i);
+            childIds.add(getDataProvider().getId(child));
+            sizes[i] = 1 + (isExpanded(child) ? getSubtreeSize(child) : 0);
+        }
+        node = new HierarchyNode<>(childList, childIds, sizes);
+        nodes.put(parentId, node);
+        return node;
     }
 
     /**
-     * Gets the stream of direct children for given node.
+     * Gets the amount of visible rows under the given expanded item.
      *
-     * @param parent
-     *            the parent node
-     * @return the stream of direct children
+     * @param item
+     *            the expanded item
+     * @return the size of the subtree, not including the item itself
      */
-    private Stream<T> getDirectChildren(T parent) {
-        return doFetchDirectChildren(parent, Range.between(0, getDataProvider()
-                .getChildCount(new HierarchicalQuery<>(filter, parent))));
+    private int getSubtreeSize(T item) {
+        HierarchyNode<T> node = getNode(item);
+        return node == null ? 0 : node.size();
     }
 
     /**
-     * The method to recursively fetch the children of given parent. Used with
-     * {@link Stream#flatMap} to expand a stream of parent nodes into a
-     * flattened hierarchy.
+     * Checks whether the given item is part of the index of its parent, which
+     * means that its subtree size is accounted for in the sizes of the
+     * ancestors.
      *
-     * @param parent
-     *            the parent node
-     * @return the stream of all children under the parent, includes the parent
+     * @param item
+     *            the item to check
+     * @return {@code true} if the item is indexed; {@code false} if not
      */
-    private Stream<T> getChildrenStream(T parent) {
-        return getChildrenStream(parent, true);
+    private boolean isIndexed(T item) {
+        Object id = getDataProvider().getId(item);
+        if (!parentIdMap.containsKey(id)) {
+            return false;
+        }
+        T parent = parentIdMap.get(id);
+        HierarchyNode<T> node = nodes
+                .get(parent == null ? null : getDataProvider().getId(parent));
+        return node != null && node.indexOf(id) != null;
     }
 
     /**
-     * The method to recursively fetch the children of given parent. Used with
-     * {@link Stream#flatMap} to expand a stream of parent nodes into a
-     * flattened hierarchy.
+     * Propagates a change in the subtree size of the given item to the indexes
+     * of its ancestors.
      *
-     * @param parent
-     *            the parent node
-     * @param includeParent
-     *            {@code true} to include the parent in the stream;
-     *            {@code false} if not
-     * @return the stream of all children under the parent
-     */
-    private Stream<T> getChildrenStream(T parent, boolean includeParent) {
-        List<T> childList = Collections.emptyList();
-        if (isExpanded(parent)) {
-            childList = getDirectChildren(parent).collect(Collectors.toList());
-            if (childList.isEmpty()) {
-                removeChildren(parent == null ? null
-                        : getDataProvider().getId(parent));
-            } else {
-                registerChildren(parent, childList);
+     * @param item
+     *            the item whose subtree changed
+     * @param delta
+     *            the change in the amount of visible rows
+     */
+    private void updateSubtreeSize(T item, int delta) {
+        Object id = getDataProvider().getId(item);
+        while (delta != 0 && parentIdMap.containsKey(id)) {
+            T parent = parentIdMap.get(id);
+            Object parentId = parent == null ? null
+                    : getDataProvider().getId(parent);
+            HierarchyNode<T> node = nodes.get(parentId);
+            Integer position = node == null ? null : node.indexOf(id);
+            if (position == null) {
+                return;
+            }
+            node.add(position, delta);
+            if (parent == null) {
+                return;
             }
+            id = parentId;
         }
-        return combineParentAndChildStreams(parent,
-                childList.stream().flatMap(this::getChildrenStream),
-                includeParent);
+    }
+
+    /**
+     * Gets the stream of direct children for given node.
+     *
+     * @param parent
+     *            the parent node
+     * @return the stream of direct children
+     */
+    private Stream<T> getDirectChildren(T parent) {
+        return doFetchDirectChildren(parent, Range.between(0, getDataProvider()
+                .getChildCount(new HierarchicalQuery<>(filter, parent))));
     }
 
     /**
@@ -550,31 +774,25 @@ public class HierarchyMapper<T, F> implements DataGenerator<T> {
                 x -> parentIdMap.put(getDataProvider().getId(x), parent));
     }
 
-    /**
-     * Helper method for combining parent and a stream of children into one
-     * stream. {@code null} item is never included, and parent can be skipped by
-     * providing the correct value for {@code includeParent}.
-     *
-     * @param parent
-     *            the parent node
-     * @param children
-     *            the stream of children
-     * @param includeParent
-     *            {@code true} to include the parent in the stream;
-     *            {@code false} if not
-     * @return the combined stream of parent and its children
-     */
-    private Stream<T> combineParentAndChildStreams(T parent, Stream<T> children,
-            boolean includeParent) {
-        boolean parentIncluded = includeParent && parent != null;
-        Stream<T> parentStream = parentIncluded ? Stream.of(parent)
-                : Stream.empty();
-        return Stream.concat(parentStream, children);
+    @Override
+    public void refreshData(T item) {
+        // Children of the item and its ancestors need to be fetched again
+        Object id = getDataProvider().getId(item);
+        nodes.remove(id);
+        while (parentIdMap.containsKey(id)) {
+            T parent = parentIdMap.get(id);
+            id = parent == null ? null : getDataProvider().getId(parent);
+            nodes.remove(id);
+            if (parent == null) {
+                break;
+            }
+        }
     }
 
     @Override
     public void destroyAllData() {
         childMap.clear();
         parentIdMap.clear();
+        nodes.clear();
     }
 }
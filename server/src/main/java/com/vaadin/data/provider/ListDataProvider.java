@@ -15,10 +15,17 @@
  */
 package com.vaadin.data.provider;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.server.SerializableComparator;
@@ -41,12 +48,101 @@ public class ListDataProvider<T>
 
     private final Collection<T> backend;
 
+    /**
+     * The maximum number of filtered views kept at the same time, so that
+     * components sharing this data provider with different filters do not throw
+     * away each other's views.
+     */
+    private static final int MAX_CACHED_VIEWS = 4;
+
+    /**
+     * The filtered and possibly sorted items of the most recent queries, by
+     * query filter. Queries are typically repeated with the same or an equal
+     * filter and sorting, e.g. a size query followed by fetches of each page,
+     * so this avoids filtering and sorting the whole backing collection over
+     * and over again. Cleared whenever the data is refreshed.
+     */
+    private transient Map<Object, CachedView<T>> cachedViews;
+
+    /**
+     * An immutable snapshot of the filtered and sorted items for a given query
+     * filter and in-memory sorting, and the contents of the backing collection
+     * they were computed from.
+     */
+    private static class CachedView<T> implements Serializable {
+        private final Object queryFilter;
+        private final Comparator<T> inMemorySorting;
+        private final BackendVersion backendVersion;
+        private final List<T> filteredItems;
+        // null if not sorted yet
+        private final List<T> sortedItems;
+
+        private CachedView(Object queryFilter, Comparator<T> inMemorySorting,
+                BackendVersion backendVersion, List<T> filteredItems,
+                List<T> sortedItems) {
+            this.queryFilter = queryFilter;
+            this.inMemorySorting = inMemorySorting;
+            this.backendVersion = backendVersion;
+            this.filteredItems = filteredItems;
+            this.sortedItems = sortedItems;
+        }
+    }
+
+    /**
+     * The size of the backing collection and a hash of the identities of its
+     * items in iteration order. Used for detecting items that have been added,
+     * removed, replaced or reordered without refreshing the data provider.
+     * Computing it is linear in the number of items, but much cheaper than
+     * running filters and comparators on all of them.
+     * <p>
+     * Changes to the items themselves are not detected.
+     * <p>
+     * For internal use only. May be removed or replaced in the future.
+     *
+     * @since 8.7
+     */
+    public static final class BackendVersion implements Serializable {
+        private final int size;
+        private final int identityHash;
+
+        /**
+         * Computes the version of the given collection.
+         *
+         * @param backend
+         *            the collection, not <code>null</code>
+         */
+        public BackendVersion(Collection<?> backend) {
+            int hash = 1;
+            int count = 0;
+            for (Object item : backend) {
+                hash = 31 * hash + System.identityHashCode(item);
+                count++;
+            }
+            size = count;
+            identityHash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BackendVersion)) {
+                return false;
+            }
+            BackendVersion other = (BackendVersion) obj;
+            return size == other.size && identityHash == other.identityHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * size + identityHash;
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
      * No protective copy is made of the list, and changes in the provided
-     * backing Collection will be visible via this data provider. The caller
-     * should copy the list if necessary.
+     * backing Collection will be visible via this data provider after calling
+     * {@link #refreshAll()}. The caller should copy the list if necessary.
      *
      * @param items
      *            the initial data, not null
@@ -68,23 +164,100 @@ public class ListDataProvider<T>
 
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = getFilteredStream(query);
+        List<T> items = getSortedItems(query);
+
+        int from = Math.min(query.getOffset(), items.size());
+        int to = (int) Math.min((long) from + query.getLimit(), items.size());
+        return items.subList(from, to).stream();
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        return getFilteredView(query).filteredItems.size();
+    }
+
+    @Override
+    public void refreshAll() {
+        clearCachedViews();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        // The item might now be sorted or filtered differently
+        clearCachedViews();
+        super.refreshItem(item);
+    }
+
+    private CachedView<T> getFilteredView(
+            Query<T, SerializablePredicate<T>> query) {
+        Object queryFilter = query.getFilter().orElse(null);
+        BackendVersion backendVersion = new BackendVersion(backend);
+        CachedView<T> view = getCachedView(queryFilter);
+        if (view != null && view.backendVersion.equals(backendVersion)) {
+            return view;
+        }
+
+        List<T> filteredItems = Collections.unmodifiableList(
+                getFilteredStream(query).collect(Collectors.toList()));
+        view = new CachedView<>(queryFilter, null, backendVersion,
+                filteredItems, null);
+        putCachedView(view);
+        return view;
+    }
+
+    private List<T> getSortedItems(Query<T, SerializablePredicate<T>> query) {
+        CachedView<T> view = getFilteredView(query);
+        Comparator<T> inMemorySorting = query.getInMemorySorting();
+        if (view.sortedItems != null
+                && Objects.equals(view.inMemorySorting, inMemorySorting)) {
+            return view.sortedItems;
+        }
 
         Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(c -> c != null)
+                .of(inMemorySorting, sortOrder).filter(c -> c != null)
                 .reduce((c1, c2) -> c1.thenComparing(c2));
 
+        List<T> sortedItems;
         if (comparing.isPresent()) {
-            stream = stream.sorted(comparing.get());
+            List<T> items = new ArrayList<>(view.filteredItems);
+            items.sort(comparing.get());
+            sortedItems = Collections.unmodifiableList(items);
+        } else {
+            sortedItems = view.filteredItems;
         }
 
-        return stream.skip(query.getOffset()).limit(query.getLimit());
+        putCachedView(new CachedView<>(view.queryFilter, inMemorySorting,
+                view.backendVersion, view.filteredItems, sortedItems));
+        return sortedItems;
     }
 
-    @Override
-    public int size(Query<T, SerializablePredicate<T>> query) {
-        return (int) getFilteredStream(query).count();
+    /*
+     * The data provider may be shared between sessions, so the views are
+     * accessed while holding the lock of this instance. Filtering and sorting
+     * is done without holding it.
+     */
+    private synchronized CachedView<T> getCachedView(Object queryFilter) {
+        return cachedViews == null ? null : cachedViews.get(queryFilter);
+    }
+
+    private synchronized void putCachedView(CachedView<T> view) {
+        if (cachedViews == null) {
+            // Access ordered so that the least recently used view is evicted
+            cachedViews = new LinkedHashMap<Object, CachedView<T>>(
+                    MAX_CACHED_VIEWS + 1, 1, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Object, CachedView<T>> eldest) {
+                    return size() > MAX_CACHED_VIEWS;
+                }
+            };
+        }
+        cachedViews.put(view.queryFilter, view);
+    }
+
+    private synchronized void clearCachedViews() {
+        cachedViews = null;
     }
 
     private Stream<T> getFilteredStream(
@@ -20,9 +20,11 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventObject;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import com.vaadin.server.ErrorEvent;
@@ -47,6 +49,12 @@ public class EventRouter implements MethodEventSource {
      */
     private LinkedHashSet<ListenerMethod> listenerList = null;
 
+    /**
+     * The listeners triggered by each fired event class, in registration order.
+     * Cleared whenever listeners are added or removed.
+     */
+    private transient Map<Class<?>, ListenerMethod[]> dispatchTable = null;
+
     /*
      * Registers a new listener with the specified activation method to listen
      * events generated by this component. Don't add a JavaDoc comment here, we
@@ -56,13 +64,10 @@ public class EventRouter implements MethodEventSource {
     public Registration addListener(Class<?> eventType, Object object,
             Method method) {
         Objects.requireNonNull(object, "Listener must not be null.");
-        if (listenerList == null) {
-            listenerList = new LinkedHashSet<>();
-        }
         ListenerMethod listenerMethod = new ListenerMethod(eventType, object,
                 method);
-        listenerList.add(listenerMethod);
-        return () -> listenerList.remove(listenerMethod);
+        addListenerMethod(listenerMethod);
+        return () -> removeListenerMethod(listenerMethod);
     }
 
     /**
@@ -109,18 +114,15 @@ public class EventRouter implements MethodEventSource {
     public Registration addListener(Class<?> eventType, Object target,
             Method method, String eventIdentifier, SharedState state) {
         Objects.requireNonNull(target, "Listener must not be null.");
-        if (listenerList == null) {
-            listenerList = new LinkedHashSet<>();
-        }
         ListenerMethod listenerMethod = new ListenerMethod(eventType, target,
                 method);
-        listenerList.add(listenerMethod);
+        addListenerMethod(listenerMethod);
 
         Registration registration = ComponentStateUtil
                 .addRegisteredEventListener(state, eventIdentifier);
 
         return () -> {
-            listenerList.remove(listenerMethod);
+            removeListenerMethod(listenerMethod);
             if (!hasListeners(eventType)) {
                 registration.remove();
             }
@@ -136,13 +138,24 @@ public class EventRouter implements MethodEventSource {
     public Registration addListener(Class<?> eventType, Object object,
             String methodName) {
         Objects.requireNonNull(object, "Listener must not be null.");
+        ListenerMethod listenerMethod = new ListenerMethod(eventType, object,
+                methodName);
+        addListenerMethod(listenerMethod);
+        return () -> removeListenerMethod(listenerMethod);
+    }
+
+    private void addListenerMethod(ListenerMethod listenerMethod) {
         if (listenerList == null) {
             listenerList = new LinkedHashSet<>();
         }
-        ListenerMethod listenerMethod = new ListenerMethod(eventType, object,
-                methodName);
         listenerList.add(listenerMethod);
-        return () -> listenerList.remove(listenerMethod);
+        dispatchTable = null;
+    }
+
+    private void removeListenerMethod(ListenerMethod listenerMethod) {
+        if (listenerList != null && listenerList.remove(listenerMethod)) {
+            dispatchTable = null;
+        }
     }
 
     /*
@@ -158,6 +171,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target)) {
                     i.remove();
+                    dispatchTable = null;
                     return;
                 }
             }
@@ -178,6 +192,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target, method)) {
                     i.remove();
+                    dispatchTable = null;
                     return;
                 }
             }
@@ -194,14 +209,8 @@ public class EventRouter implements MethodEventSource {
             String methodName) {
 
         // Find the correct method
-        final Method[] methods = target.getClass().getMethods();
-        Method method = null;
-        for (Method m : methods) {
-            if (m.getName().equals(methodName)) {
-                method = m;
-                break;
-            }
-        }
+        Method method = ListenerMethod.findMethod(target.getClass(),
+                methodName);
         if (method == null) {
             throw new IllegalArgumentException();
         }
@@ -213,6 +222,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target, method)) {
                     i.remove();
+                    dispatchTable = null;
                     return;
                 }
             }
@@ -224,6 +234,7 @@ public class EventRouter implements MethodEventSource {
      */
     public void removeAllListeners() {
         listenerList = null;
+        dispatchTable = null;
     }
 
     /**
@@ -256,26 +267,41 @@ public class EventRouter implements MethodEventSource {
         // It is not necessary to send any events if there are no listeners
         if (listenerList != null) {
 
-            // Make a copy of the listener list to allow listeners to be added
-            // inside listener methods. Fixes #3605.
-
-            // Send the event to all listeners. The listeners themselves
-            // will filter out unwanted events.
-            for (Object l : listenerList.toArray()) {
-                ListenerMethod listenerMethod = (ListenerMethod) l;
+            // The dispatch table entries are never modified, which allows
+            // listeners to be added inside listener methods. Fixes #3605.
+            for (ListenerMethod listenerMethod : getListenerMethods(
+                    event.getClass())) {
                 if (null != errorHandler) {
                     try {
-                        listenerMethod.receiveEvent(event);
+                        listenerMethod.invoke(event);
                     } catch (Exception e) {
                         errorHandler.error(new ErrorEvent(e));
                     }
                 } else {
-                    listenerMethod.receiveEvent(event);
+                    listenerMethod.invoke(event);
                 }
             }
         }
     }
 
+    /**
+     * Gets the listeners triggered by events of the given class, looking them
+     * up from the registered listeners only once per event class.
+     */
+    private ListenerMethod[] getListenerMethods(Class<?> eventClass) {
+        if (dispatchTable == null) {
+            dispatchTable = new HashMap<>();
+        }
+        ListenerMethod[] listenerMethods = dispatchTable.get(eventClass);
+        if (listenerMethods == null) {
+            listenerMethods = listenerList.stream()
+                    .filter(lm -> lm.isTriggeredBy(eventClass))
+                    .toArray(ListenerMethod[]::new);
+            dispatchTable.put(eventClass, listenerMethods);
+        }
+        return listenerMethods;
+    }
+
     /**
      * Checks if the given Event type is listened by a listener registered to
      * this router.
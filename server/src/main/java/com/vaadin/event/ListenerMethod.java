@@ -21,11 +21,19 @@ import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,6 +81,18 @@ public class ListenerMethod implements EventListener, Serializable {
      */
     private transient Method method;
 
+    /**
+     * Method handle for calling the trigger method, created on first use. Not
+     * serialized since it is recreated from {@link #method}.
+     */
+    private transient MethodHandle methodHandle;
+
+    /**
+     * Whether the trigger method cannot be called through a method handle, in
+     * which case it is called using reflection.
+     */
+    private transient boolean reflectiveInvocation;
+
     /**
      * Optional argument set to pass to the trigger method.
      */
@@ -85,6 +105,25 @@ public class ListenerMethod implements EventListener, Serializable {
      */
     private int eventArgumentIndex;
 
+    /**
+     * Public methods of classes by name, in the order returned by
+     * {@link Class#getMethods()} so that the first method with a given name is
+     * found.
+     */
+    private static final ConcurrentMap<Class<?>, Map<String, Method>> METHODS_BY_NAME_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Method handles for trigger methods, adapted to take the target and the
+     * method parameters as objects and to discard the return value.
+     */
+    private static final ConcurrentMap<Method, MethodHandle> METHOD_HANDLE_CACHE = new ConcurrentHashMap<>();
+
+    private static final MethodType SINGLE_ARGUMENT_TYPE = MethodType
+            .methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType NO_ARGUMENTS_TYPE = MethodType
+            .methodType(void.class, Object.class);
+
     /* Special serialization to handle method references */
     private void writeObject(ObjectOutputStream out) throws IOException {
         try {
@@ -133,13 +172,29 @@ public class ListenerMethod implements EventListener, Serializable {
                 return parentMethod;
             }
         }
-        for (Method m : cls.getMethods()) {
-            // we ignore parameter types for now - you need to add this
-            if (m.getName().equals(method)) {
-                return m;
+        // we ignore parameter types for now - you need to add this
+        return findMethod(cls, method);
+    }
+
+    /**
+     * Finds the first public method with the given name in the given class. The
+     * methods of each class are only scanned once.
+     *
+     * @param cls
+     *            the class to search
+     * @param methodName
+     *            the name of the method
+     * @return the first public method with the given name, or <code>null</code>
+     *         if there is no such method
+     */
+    static Method findMethod(Class<?> cls, String methodName) {
+        return METHODS_BY_NAME_CACHE.computeIfAbsent(cls, key -> {
+            Map<String, Method> methods = new HashMap<>();
+            for (Method m : key.getMethods()) {
+                methods.putIfAbsent(m.getName(), m);
             }
-        }
-        return null;
+            return methods;
+        }).get(methodName);
     }
 
     /**
@@ -243,12 +298,7 @@ public class ListenerMethod implements EventListener, Serializable {
             throws IllegalArgumentException {
 
         // Finds the correct method
-        for (Method m : target.getClass().getMethods()) {
-            if (m.getName().equals(methodName)) {
-                method = m;
-                break;
-            }
-        }
+        method = findMethod(target.getClass(), methodName);
         if (method == null) {
             throw new IllegalArgumentException("Method " + methodName
                     + " not found in class " + target.getClass().getName());
@@ -351,12 +401,7 @@ public class ListenerMethod implements EventListener, Serializable {
             Object[] arguments) throws IllegalArgumentException {
 
         // Find the correct method
-        for (Method m : target.getClass().getMethods()) {
-            if (m.getName().equals(methodName)) {
-                method = m;
-                break;
-            }
-        }
+        method = findMethod(target.getClass(), methodName);
         if (method == null) {
             throw new IllegalArgumentException("Method " + methodName
                     + " not found in class " + target.getClass().getName());
@@ -450,12 +495,7 @@ public class ListenerMethod implements EventListener, Serializable {
             throws IllegalArgumentException {
 
         // Finds the correct method
-        for (Method m : target.getClass().getMethods()) {
-            if (m.getName().equals(methodName)) {
-                method = m;
-                break;
-            }
-        }
+        method = findMethod(target.getClass(), methodName);
         if (method == null) {
             throw new IllegalArgumentException("Method " + methodName
                     + " not found in class " + target.getClass().getName());
@@ -493,32 +533,127 @@ public class ListenerMethod implements EventListener, Serializable {
     public void receiveEvent(EventObject event) {
         // Only send events supported by the method
         if (eventType.isAssignableFrom(event.getClass())) {
-            try {
-                if (eventArgumentIndex >= 0) {
-                    if (eventArgumentIndex == 0 && arguments.length == 1) {
-                        method.invoke(target, event);
-                    } else {
-                        final Object[] arg = new Object[arguments.length];
-                        System.arraycopy(arguments, 0, arg, 0, arg.length);
-                        arg[eventArgumentIndex] = event;
-                        method.invoke(target, arg);
-                    }
+            invoke(event);
+        }
+    }
+
+    /**
+     * Checks whether events of the given type trigger this listener.
+     *
+     * @param eventClass
+     *            the class of a fired event
+     * @return <code>true</code> if the event class is the same as or a subclass
+     *         of the listened event type, otherwise <code>false</code>
+     */
+    boolean isTriggeredBy(Class<?> eventClass) {
+        return eventType.isAssignableFrom(eventClass);
+    }
+
+    /**
+     * Calls the trigger method without checking the type of the event.
+     *
+     * @param event
+     *            the fired event
+     */
+    void invoke(EventObject event) {
+        MethodHandle handle = getMethodHandle();
+        if (handle == null) {
+            invokeReflectively(event);
+            return;
+        }
+        try {
+            if (eventArgumentIndex >= 0) {
+                if (eventArgumentIndex == 0 && arguments.length == 1) {
+                    handle.invokeExact(target, (Object) event);
+                } else {
+                    final Object[] arg = new Object[arguments.length + 1];
+                    System.arraycopy(arguments, 0, arg, 1, arguments.length);
+                    arg[0] = target;
+                    arg[eventArgumentIndex + 1] = event;
+                    handle.invokeWithArguments(arg);
+                }
+            } else if (arguments == null || arguments.length == 0) {
+                handle.invokeExact(target);
+            } else {
+                final Object[] arg = new Object[arguments.length + 1];
+                System.arraycopy(arguments, 0, arg, 1, arguments.length);
+                arg[0] = target;
+                handle.invokeWithArguments(arg);
+            }
+        } catch (final Throwable e) {
+            // An exception was thrown by the invocation target. Throw it
+            // forwards.
+            throw new MethodException("Invocation of method " + method.getName()
+                    + " in " + target.getClass().getName() + " failed.", e);
+        }
+    }
+
+    private void invokeReflectively(EventObject event) {
+        try {
+            if (eventArgumentIndex >= 0) {
+                if (eventArgumentIndex == 0 && arguments.length == 1) {
+                    method.invoke(target, event);
                 } else {
-                    method.invoke(target, arguments);
+                    final Object[] arg = new Object[arguments.length];
+                    System.arraycopy(arguments, 0, arg, 0, arg.length);
+                    arg[eventArgumentIndex] = event;
+                    method.invoke(target, arg);
                 }
+            } else {
+                method.invoke(target, arguments);
+            }
 
-            } catch (final IllegalAccessException e) {
-                // This should never happen
-                throw new RuntimeException("Internal error - please report", e);
-            } catch (final InvocationTargetException e) {
-                // An exception was thrown by the invocation target. Throw it
-                // forwards.
-                throw new MethodException(
-                        "Invocation of method " + method.getName() + " in "
-                                + target.getClass().getName() + " failed.",
-                        e.getTargetException());
+        } catch (final IllegalAccessException e) {
+            // This should never happen
+            throw new RuntimeException("Internal error - please report", e);
+        } catch (final InvocationTargetException e) {
+            // An exception was thrown by the invocation target. Throw it
+            // forwards.
+            throw new MethodException(
+                    "Invocation of method " + method.getName() + " in "
+                            + target.getClass().getName() + " failed.",
+                    e.getTargetException());
+        }
+    }
+
+    /**
+     * Gets a method handle for calling the trigger method, or <code>null</code>
+     * if the method is not accessible through a method handle and should be
+     * called using reflection.
+     */
+    private MethodHandle getMethodHandle() {
+        if (methodHandle == null && !reflectiveInvocation) {
+            methodHandle = METHOD_HANDLE_CACHE.get(method);
+            if (methodHandle == null) {
+                try {
+                    methodHandle = createMethodHandle(method);
+                    METHOD_HANDLE_CACHE.putIfAbsent(method, methodHandle);
+                } catch (IllegalAccessException e) {
+                    reflectiveInvocation = true;
+                }
             }
         }
+        return methodHandle;
+    }
+
+    private static MethodHandle createMethodHandle(Method method)
+            throws IllegalAccessException {
+        // Honors setAccessible(true) in the same way as Method.invoke
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            // The target is ignored like with Method.invoke
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int parameterCount = method.getParameterCount();
+        if (parameterCount == 1) {
+            return handle.asType(SINGLE_ARGUMENT_TYPE);
+        } else if (parameterCount == 0) {
+            return handle.asType(NO_ARGUMENTS_TYPE);
+        } else {
+            return handle
+                    .asType(MethodType.genericMethodType(parameterCount + 1)
+                            .changeReturnType(void.class));
+        }
     }
 
     /**
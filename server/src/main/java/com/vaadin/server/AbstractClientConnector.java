@@ -26,10 +26,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 import com.vaadin.event.EventRouter;
@@ -40,12 +42,14 @@ import com.vaadin.shared.communication.ServerRpc;
 import com.vaadin.shared.communication.SharedState;
 import com.vaadin.shared.ui.ComponentStateUtil;
 import com.vaadin.ui.Component;
+import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.Component.Event;
 import com.vaadin.ui.HasComponents;
 import com.vaadin.ui.LegacyComponent;
 import com.vaadin.ui.UI;
 import com.vaadin.util.ReflectTools;
 
+import elemental.json.Json;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 
@@ -66,9 +70,10 @@ public abstract class AbstractClientConnector
 
     /**
      * A map from server to client RPC interface class to the RPC proxy that
-     * sends outgoing RPC calls for that interface.
+     * sends outgoing RPC calls for that interface. Not serialized since the
+     * proxies are recreated on demand.
      */
-    private final Map<Class<?>, ClientRpc> rpcProxyMap = new HashMap<>();
+    private transient Map<Class<?>, ClientRpc> rpcProxyMap;
 
     /**
      * Shared state object to be communicated from the server to the client when
@@ -78,6 +83,19 @@ public abstract class AbstractClientConnector
 
     private Class<? extends SharedState> stateType;
 
+    /**
+     * Whether the whole shared state needs to be encoded and compared to the
+     * previously sent state the next time it is encoded.
+     */
+    private boolean fullStateEncodingNeeded = true;
+
+    /**
+     * Names of the shared state properties marked as changed using
+     * {@link #markStatePropertyDirty(String)} since the state was last encoded.
+     * Only tracked when a full encoding is not needed anyway.
+     */
+    private Set<String> dirtyStateProperties;
+
     /**
      * Pending RPC method invocations to be sent.
      */
@@ -145,15 +163,60 @@ public abstract class AbstractClientConnector
     /* Documentation copied from interface */
     @Override
     public void markAsDirty() {
-        assert getSession() == null
-                || getSession().hasLock() : buildLockAssertMessage(
-                        "markAsDirty()");
+        assert hasSessionLock() : buildLockAssertMessage("markAsDirty()");
+        fullStateEncodingNeeded = true;
         UI uI = getUI();
         if (uI != null) {
             uI.getConnectorTracker().markDirty(this);
         }
     }
 
+    /**
+     * Marks the connector as dirty because the value of the given shared state
+     * property has been changed. This can be used instead of
+     * {@link #getState()} when the state is modified through
+     * {@link #getState(boolean) getState(false)}.
+     * <p>
+     * If state property tracking is enabled (see
+     * {@link DeploymentConfiguration#isStatePropertyTrackingEnabled()}) and the
+     * state of this connector has not been changed in any other way since it
+     * was last sent, only the properties marked as changed are sent to the
+     * client. Otherwise this is the same as calling {@link #getState()}.
+     *
+     * @param propertyName
+     *            the name of the changed shared state property, not
+     *            <code>null</code>
+     * @since 8.7
+     */
+    protected void markStatePropertyDirty(String propertyName) {
+        if (!fullStateEncodingNeeded) {
+            if (dirtyStateProperties == null) {
+                dirtyStateProperties = new HashSet<>();
+            }
+            dirtyStateProperties.add(propertyName);
+        }
+        UI ui = getUI();
+        if (ui != null && !ui.getConnectorTracker().isDirty(this)
+                && !ui.getConnectorTracker().isWritingResponse()) {
+            ui.getConnectorTracker().markDirty(this);
+        }
+    }
+
+    /*
+     * With per-UI locking, the lock of the UI of this connector is required.
+     * Otherwise, this is the same as VaadinSession.hasLock().
+     */
+    private boolean hasSessionLock() {
+        VaadinSession session = getSession();
+        if (session == null) {
+            return true;
+        }
+        if (session.isUILockingEnabled()) {
+            return session.hasLock(getUI());
+        }
+        return session.hasLock();
+    }
+
     private String buildLockAssertMessage(String method) {
         if (VaadinService.isOtherSessionLocked(getSession())) {
             return "The session of this connecor is not locked, but there is another session that is locked. "
@@ -260,14 +323,13 @@ public abstract class AbstractClientConnector
      * @see #getState()
      */
     protected SharedState getState(boolean markAsDirty) {
-        assert getSession() == null
-                || getSession().hasLock() : buildLockAssertMessage(
-                        "getState()");
+        assert hasSessionLock() : buildLockAssertMessage("getState()");
 
         if (null == sharedState) {
             sharedState = createState();
         }
         if (markAsDirty) {
+            fullStateEncodingNeeded = true;
             UI ui = getUI();
             if (ui != null && !ui.getConnectorTracker().isDirty(this)
                     && !ui.getConnectorTracker().isWritingResponse()) {
@@ -279,9 +341,33 @@ public abstract class AbstractClientConnector
 
     @Override
     public JsonObject encodeState() {
+        boolean fullEncoding = fullStateEncodingNeeded;
+        Set<String> changedProperties = dirtyStateProperties;
+        fullStateEncodingNeeded = false;
+        dirtyStateProperties = null;
+
+        if (!fullEncoding && isStatePropertyTrackingEnabled()) {
+            ConnectorTracker connectorTracker = getUI().getConnectorTracker();
+            JsonObject diffState = connectorTracker.getDiffState(this);
+            if (diffState != null) {
+                if (changedProperties == null) {
+                    // Only marked dirty because of e.g. pending RPC calls
+                    return Json.createObject();
+                }
+                return JsonCodec.encodeProperties(getState(false),
+                        getStateType(), changedProperties, diffState,
+                        connectorTracker);
+            }
+        }
         return LegacyCommunicationManager.encodeState(this, getState(false));
     }
 
+    private boolean isStatePropertyTrackingEnabled() {
+        VaadinSession session = getSession();
+        return session != null && session.getConfiguration() != null
+                && session.getConfiguration().isStatePropertyTrackingEnabled();
+    }
+
     /**
      * Creates the shared state bean to be used in server to client
      * communication.
@@ -360,6 +446,9 @@ public abstract class AbstractClientConnector
     protected <T extends ClientRpc> T getRpcProxy(final Class<T> rpcInterface) {
         // create, initialize and return a dynamic proxy for RPC
         try {
+            if (rpcProxyMap == null) {
+                rpcProxyMap = new HashMap<>();
+            }
             if (!rpcProxyMap.containsKey(rpcInterface)) {
                 Class<?> proxyClass = Proxy.getProxyClass(
                         rpcInterface.getClassLoader(), rpcInterface);
@@ -417,8 +506,10 @@ public abstract class AbstractClientConnector
         // add to queue
         pendingInvocations.add(new ClientMethodInvocation(this, interfaceName,
                 method, parameters));
-        // TODO no need to do full repaint if only RPC calls
+        boolean fullEncodingNeeded = fullStateEncodingNeeded;
         requestRepaint();
+        // Pending RPC calls do not mean that the state has changed
+        fullStateEncodingNeeded = fullEncodingNeeded;
     }
 
     @Override
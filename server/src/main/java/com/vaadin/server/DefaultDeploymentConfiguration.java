@@ -55,6 +55,13 @@ public class DefaultDeploymentConfiguration
 
     public static final boolean DEFAULT_SEND_URLS_AS_PARAMETERS = true;
 
+    /**
+     * Default value for {@link #getStaticResourceCacheSize()} = {@value} .
+     *
+     * @since 8.7
+     */
+    public static final int DEFAULT_STATIC_RESOURCE_CACHE_SIZE = 0;
+
     private final Properties initParameters;
     private boolean productionMode;
     private boolean xsrfProtectionEnabled;
@@ -65,6 +72,9 @@ public class DefaultDeploymentConfiguration
     private final Class<?> systemPropertyBaseClass;
     private boolean syncIdCheck;
     private boolean sendUrlsAsParameters;
+    private boolean uiLocking;
+    private boolean statePropertyTracking;
+    private int staticResourceCacheSize;
 
     /**
      * Create a new deployment configuration instance.
@@ -89,6 +99,9 @@ public class DefaultDeploymentConfiguration
         checkPushMode();
         checkSyncIdCheck();
         checkSendUrlsAsParameters();
+        checkUILocking();
+        checkStatePropertyTracking();
+        checkStaticResourceCacheSize();
     }
 
     @Override
@@ -248,6 +261,36 @@ public class DefaultDeploymentConfiguration
         return sendUrlsAsParameters;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>false</code>.
+     */
+    @Override
+    public boolean isUILockingEnabled() {
+        return uiLocking;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default value is <code>false</code>.
+     */
+    @Override
+    public boolean isStatePropertyTrackingEnabled() {
+        return statePropertyTracking;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default size is 32 megabytes.
+     */
+    @Override
+    public int getStaticResourceCacheSize() {
+        return staticResourceCacheSize;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -346,6 +389,31 @@ public class DefaultDeploymentConfiguration
                         .equals("true");
     }
 
+    private void checkUILocking() {
+        uiLocking = getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_UI_LOCKING, "false").equals("true");
+    }
+
+    private void checkStatePropertyTracking() {
+        statePropertyTracking = getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_STATE_PROPERTY_TRACKING, "false")
+                        .equals("true");
+    }
+
+    private void checkStaticResourceCacheSize() {
+        try {
+            staticResourceCacheSize = Integer
+                    .parseInt(getApplicationOrSystemProperty(
+                            Constants.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                            Integer.toString(
+                                    DEFAULT_STATIC_RESOURCE_CACHE_SIZE)));
+        } catch (NumberFormatException e) {
+            getLogger().warning(
+                    Constants.WARNING_STATIC_RESOURCE_CACHE_SIZE_NOT_NUMERIC);
+            staticResourceCacheSize = DEFAULT_STATIC_RESOURCE_CACHE_SIZE;
+        }
+    }
+
     private Logger getLogger() {
         return Logger.getLogger(getClass().getName());
     }
@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.util.Properties;
 
 import com.vaadin.shared.communication.PushMode;
+import com.vaadin.ui.UI;
 
 /**
  * A collection of properties configured at deploy time as well as a way of
@@ -107,6 +108,72 @@ public interface DeploymentConfiguration extends Serializable {
      */
     public PushMode getPushMode();
 
+    /**
+     * Returns whether each UI in a session should be locked separately. With
+     * per-UI locking, requests, push messages and {@link UI#access(Runnable)}
+     * tasks for different UIs in the same session can be handled concurrently.
+     * Locking the {@link VaadinSession} still gives exclusive access to the
+     * whole session.
+     * <p>
+     * The whole session cannot be locked while holding the lock of a UI, as
+     * that could deadlock with another thread doing the same for a different
+     * UI. This means that {@link VaadinSession#lock()} and
+     * {@link VaadinSession#accessSynchronously(Runnable)} throw an
+     * {@link IllegalStateException} when called from e.g. a listener of a
+     * component or a {@link UI#access(Runnable)} task. Such code should use
+     * {@link VaadinSession#access(Runnable)} instead, which runs the task once
+     * the lock of the UI has been released.
+     * <p>
+     * The default implementation returns <code>false</code>.
+     *
+     * @since 8.7
+     * @return <code>true</code> if per-UI locking is enabled, otherwise
+     *         <code>false</code>
+     */
+    public default boolean isUILockingEnabled() {
+        return false;
+    }
+
+    /**
+     * Returns whether changes to shared state properties should be tracked per
+     * property. With property tracking, only the properties that have been
+     * marked as changed using
+     * {@link AbstractClientConnector#markStatePropertyDirty(String)} are
+     * encoded and sent to the client, without comparing the whole state to the
+     * previously sent state. Connectors that have been marked dirty in any
+     * other way are still encoded and compared in full. Note that with property
+     * tracking, changes made through
+     * {@link AbstractClientConnector#getState(boolean) getState(false)} are
+     * only sent if the property or the connector is also marked dirty.
+     * <p>
+     * The default implementation returns <code>false</code>.
+     *
+     * @since 8.7
+     * @return <code>true</code> if state property tracking is enabled,
+     *         otherwise <code>false</code>
+     */
+    public default boolean isStatePropertyTrackingEnabled() {
+        return false;
+    }
+
+    /**
+     * Returns the maximum size of the in-memory cache of static resources
+     * served by the servlet from the VAADIN directory, in megabytes. The cache
+     * is disabled by default and is only used in production mode when this is
+     * greater than zero. It is further limited to a fraction of the maximum
+     * heap size, and not used by a servlet that overrides
+     * {@link VaadinServlet#findResourceURL(String)} or
+     * {@link VaadinServlet#writeStaticResourceResponse(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.net.URL)}.
+     * <p>
+     * The default implementation returns <code>0</code>.
+     *
+     * @since 8.7
+     * @return the maximum static resource cache size in megabytes
+     */
+    public default int getStaticResourceCacheSize() {
+        return 0;
+    }
+
     /**
      * Gets the properties configured for the deployment, e.g. as init
      * parameters to the servlet or portlet.
@@ -16,12 +16,21 @@
 
 package com.vaadin.server;
 
+import java.io.EOFException;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
@@ -44,6 +53,39 @@ public class DownloadStream implements Serializable {
 
     public static final String CONTENT_DISPOSITION = "Content-Disposition";
 
+    /**
+     * The name of the parameter defining the length of the stream in bytes.
+     * Byte range requests are only supported when the length is known.
+     *
+     * @since 8.7
+     */
+    public static final String CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * The name of the parameter defining the entity tag of the stream, e.g.
+     * <code>"abc"</code> for a strong or <code>W/"abc"</code> for a weak tag.
+     * Used for handling <code>If-None-Match</code> and <code>If-Range</code>
+     * request headers.
+     *
+     * @since 8.7
+     */
+    public static final String ETAG = "ETag";
+
+    /**
+     * The name of the parameter defining the last modification time of the
+     * stream as an HTTP date. Used for handling <code>If-Modified-Since</code>
+     * and <code>If-Range</code> request headers.
+     *
+     * @since 8.7
+     */
+    public static final String LAST_MODIFIED = "Last-Modified";
+
+    /**
+     * The maximum number of byte ranges sent in one response. If more ranges
+     * are requested, the full content is sent instead.
+     */
+    private static final int MAX_RANGE_COUNT = 16;
+
     /**
      * Maximum cache time.
      */
@@ -238,6 +280,16 @@ public class DownloadStream implements Serializable {
      * response. If there's is a parameter named <code>Location</code>, a
      * redirect (302 Moved temporarily) is sent instead of the contents of this
      * stream.
+     * <p>
+     * For <code>GET</code> and <code>HEAD</code> requests, conditional and
+     * partial requests are also supported. If the <code>ETag</code> or
+     * <code>Last-Modified</code> parameter is defined and the request has a
+     * matching <code>If-None-Match</code> or <code>If-Modified-Since</code>
+     * header, a 304 Not Modified response is sent without any content. If the
+     * <code>Content-Length</code> parameter is defined, the <code>Range</code>
+     * and <code>If-Range</code> headers of the request are honored by sending
+     * only the requested byte ranges as a 206 Partial Content response, using
+     * <code>multipart/byteranges</code> when several ranges are requested.
      *
      * @param request
      *            the request for which the response should be written
@@ -264,58 +316,377 @@ public class DownloadStream implements Serializable {
             return;
         }
 
-        if (data != null) {
+        OutputStream out = null;
+        try {
+            // Sets content type
+            response.setContentType(getContentType());
+
+            // Sets cache headers
+            response.setCacheTime(getCacheTime());
+
+            String method = request.getMethod();
+            boolean conditionalAllowed = "GET".equals(method)
+                    || "HEAD".equals(method);
+            long length = getContentLength();
+
+            boolean notModified = conditionalAllowed && isNotModified(request);
+            // null means that the full content should be sent
+            List<long[]> ranges = null;
+            if (conditionalAllowed && !notModified && length >= 0) {
+                ranges = getRequestedRanges(request, length);
+            }
+
+            // Copy download stream parameters directly
+            // to HTTP headers.
+            final Iterator<String> i = getParameterNames();
+            if (i != null) {
+                while (i.hasNext()) {
+                    final String param = i.next();
+                    if ((notModified || ranges != null)
+                            && CONTENT_LENGTH.equalsIgnoreCase(param)) {
+                        // Not the length of what is actually sent
+                        continue;
+                    }
+                    response.setHeader(param, getParameter(param));
+                }
+            }
+
+            // Content-Disposition: attachment generally forces download
+            String contentDisposition = getParameter(CONTENT_DISPOSITION);
+            if (contentDisposition == null) {
+                contentDisposition = getContentDispositionFilename(
+                        getFileName());
+            }
+
+            response.setHeader(CONTENT_DISPOSITION, contentDisposition);
+
+            if (length >= 0) {
+                response.setHeader("Accept-Ranges", "bytes");
+            }
+
+            if (notModified) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(
+                        HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + length);
+                return;
+            }
+
+            int bufferSize = getBufferSize();
+            if (bufferSize <= 0 || bufferSize > Constants.MAX_BUFFER_SIZE) {
+                bufferSize = Constants.DEFAULT_BUFFER_SIZE;
+            }
+            final byte[] buffer = new byte[bufferSize];
+
+            if (ranges == null) {
+                out = response.getOutputStream();
+                copy(data, out, buffer, Long.MAX_VALUE);
+            } else if (ranges.size() == 1) {
+                long[] range = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range",
+                        getContentRange(range, length));
+                response.setHeader(CONTENT_LENGTH,
+                        String.valueOf(range[1] - range[0] + 1));
+
+                out = response.getOutputStream();
+                skipFully(data, range[0]);
+                copy(data, out, buffer, range[1] - range[0] + 1);
+            } else {
+                writeMultipartRanges(data, response, ranges, length, buffer);
+            }
+        } finally {
+            tryToCloseStream(out);
+            tryToCloseStream(data);
+        }
+    }
+
+    private void writeMultipartRanges(InputStream data, VaadinResponse response,
+            List<long[]> ranges, long length, byte[] buffer)
+            throws IOException {
+        String boundary = "vaadin-byteranges-"
+                + Long.toHexString(System.nanoTime());
+
+        // Part headers are needed up front to compute the content length
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            StringBuilder header = new StringBuilder();
+            header.append("\r\n--").append(boundary).append("\r\n");
+            if (getContentType() != null) {
+                header.append("Content-Type: ").append(getContentType())
+                        .append("\r\n");
+            }
+            header.append("Content-Range: ")
+                    .append(getContentRange(range, length)).append("\r\n\r\n");
+            byte[] bytes = header.toString()
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            partHeaders.add(bytes);
+            contentLength += bytes.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1);
+        contentLength += end.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setHeader(CONTENT_LENGTH, String.valueOf(contentLength));
+
+        OutputStream out = response.getOutputStream();
+        long position = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            skipFully(data, range[0] - position);
+            copy(data, out, buffer, range[1] - range[0] + 1);
+            position = range[1] + 1;
+        }
+        out.write(end);
+        out.flush();
+    }
+
+    /**
+     * Gets the length of the stream as defined by the
+     * <code>Content-Length</code> parameter.
+     *
+     * @return the length of the stream in bytes, or -1 if not known
+     */
+    private long getContentLength() {
+        String value = getParameter(CONTENT_LENGTH);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                // Treat as unknown
+            }
+        }
+        return -1;
+    }
+
+    private boolean isNotModified(VaadinRequest request) {
+        String etag = getParameter(ETAG);
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since
+            return etag != null && matchesAny(ifNoneMatch, etag, false);
+        }
 
-            OutputStream out = null;
+        long lastModified = getLastModified();
+        if (lastModified >= 0) {
+            long ifModifiedSince;
             try {
-                // Sets content type
-                response.setContentType(getContentType());
-
-                // Sets cache headers
-                response.setCacheTime(getCacheTime());
-
-                // Copy download stream parameters directly
-                // to HTTP headers.
-                final Iterator<String> i = getParameterNames();
-                if (i != null) {
-                    while (i.hasNext()) {
-                        final String param = i.next();
-                        response.setHeader(param, getParameter(param));
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            // HTTP dates have a precision of one second
+            return ifModifiedSince >= 0
+                    && lastModified / 1000 <= ifModifiedSince / 1000;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the <code>Range</code> header of the request.
+     *
+     * @return the requested ranges sorted and coalesced, an empty list if none
+     *         of the ranges can be satisfied, or <code>null</code> if the full
+     *         content should be sent
+     */
+    private List<long[]> getRequestedRanges(VaadinRequest request,
+            long length) {
+        String header = request.getHeader("Range");
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !isIfRangeMatch(ifRange.trim())) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (String spec : header.substring("bytes=".length()).split(",")) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                // Syntactically invalid, ignore the whole header
+                return null;
+            }
+            long start;
+            long end;
+            try {
+                if (dash == 0) {
+                    // Suffix range: the last n bytes
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix < 0) {
+                        return null;
                     }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    end = dash == spec.length() - 1 ? Long.MAX_VALUE
+                            : Long.parseLong(spec.substring(dash + 1));
+                    if (start < 0 || end < start) {
+                        return null;
+                    }
+                    end = Math.min(end, length - 1);
                 }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (start <= end) {
+                ranges.add(new long[] { start, end });
+            }
+        }
 
-                // Content-Disposition: attachment generally forces download
-                String contentDisposition = getParameter(CONTENT_DISPOSITION);
-                if (contentDisposition == null) {
-                    contentDisposition = getContentDispositionFilename(
-                            getFileName());
+        if (ranges.size() > 1) {
+            ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+            List<long[]> merged = new ArrayList<>();
+            long[] current = ranges.get(0);
+            for (long[] range : ranges.subList(1, ranges.size())) {
+                if (range[0] <= current[1] + 1) {
+                    current[1] = Math.max(current[1], range[1]);
+                } else {
+                    merged.add(current);
+                    current = range;
                 }
+            }
+            merged.add(current);
+            if (merged.size() > MAX_RANGE_COUNT) {
+                // Not worth the overhead, send everything instead
+                return null;
+            }
+            ranges = merged;
+        }
+        return ranges;
+    }
 
-                response.setHeader(CONTENT_DISPOSITION, contentDisposition);
+    private boolean isIfRangeMatch(String ifRange) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            String etag = getParameter(ETAG);
+            return etag != null && matchesAny(ifRange, etag, true);
+        }
+        long lastModified = getLastModified();
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            long date = ZonedDateTime
+                    .parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return date / 1000 == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
 
-                int bufferSize = getBufferSize();
-                if (bufferSize <= 0 || bufferSize > Constants.MAX_BUFFER_SIZE) {
-                    bufferSize = Constants.DEFAULT_BUFFER_SIZE;
+    /**
+     * Gets the modification time as defined by the <code>Last-Modified</code>
+     * parameter.
+     *
+     * @return the modification time in milliseconds since the epoch, or -1 if
+     *         not known
+     */
+    private long getLastModified() {
+        String value = getParameter(LAST_MODIFIED);
+        if (value != null) {
+            try {
+                return ZonedDateTime
+                        .parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Treat as unknown
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether an entity tag matches any of the tags in a comma separated
+     * list, or <code>*</code>. A strong comparison requires both tags to be
+     * strong, whereas a weak comparison ignores the weakness indicators.
+     */
+    private static boolean matchesAny(String tagList, String etag,
+            boolean strong) {
+        if ("*".equals(tagList.trim())) {
+            return true;
+        }
+        boolean weak = etag.startsWith("W/");
+        if (strong && weak) {
+            return false;
+        }
+        String opaqueTag = weak ? etag.substring(2) : etag;
+        for (String candidate : tagList.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                if (strong) {
+                    continue;
                 }
-                final byte[] buffer = new byte[bufferSize];
-                int bytesRead = 0;
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                out = response.getOutputStream();
+    private static String getContentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
 
-                long totalWritten = 0;
-                while ((bytesRead = data.read(buffer)) > 0) {
-                    out.write(buffer, 0, bytesRead);
+    /**
+     * Copies at most the given number of bytes from the input stream to the
+     * output stream.
+     */
+    private static void copy(InputStream in, OutputStream out, byte[] buffer,
+            long maxBytes) throws IOException {
+        long totalWritten = 0;
+        int bytesRead;
+        while (totalWritten < maxBytes && (bytesRead = in.read(buffer, 0,
+                (int) Math.min(buffer.length, maxBytes - totalWritten))) > 0) {
+            out.write(buffer, 0, bytesRead);
+
+            totalWritten += bytesRead;
+            if (totalWritten >= buffer.length) {
+                // Avoid chunked encoding for small resources
+                out.flush();
+            }
+        }
+    }
 
-                    totalWritten += bytesRead;
-                    if (totalWritten >= buffer.length) {
-                        // Avoid chunked encoding for small resources
-                        out.flush();
-                    }
+    /**
+     * Skips the given number of bytes. For file streams, skipping is done by
+     * moving the position of the underlying file channel instead of reading the
+     * skipped bytes.
+     */
+    private static void skipFully(InputStream in, long bytes)
+            throws IOException {
+        if (bytes <= 0) {
+            return;
+        }
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            channel.position(channel.position() + bytes);
+            return;
+        }
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                // Some streams cannot skip, fall back to reading
+                if (in.read() < 0) {
+                    throw new EOFException(
+                            "Stream ended before the requested range");
                 }
-            } finally {
-                tryToCloseStream(out);
-                tryToCloseStream(data);
+                skipped = 1;
             }
+            remaining -= skipped;
         }
     }
 
@@ -19,6 +19,10 @@ package com.vaadin.server;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 import com.vaadin.util.FileTypeResolver;
 
@@ -34,6 +38,10 @@ import com.vaadin.util.FileTypeResolver;
 @SuppressWarnings("serial")
 public class FileResource implements ConnectorResource {
 
+    private static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
     /**
      * Default buffer size for this stream resource.
      */
@@ -69,8 +77,17 @@ public class FileResource implements ConnectorResource {
             final DownloadStream ds = new DownloadStream(
                     new FileInputStream(sourceFile), getMIMEType(),
                     getFilename());
-            ds.setParameter("Content-Length",
-                    String.valueOf(sourceFile.length()));
+            long length = sourceFile.length();
+            long lastModified = sourceFile.lastModified();
+            ds.setParameter(DownloadStream.CONTENT_LENGTH,
+                    String.valueOf(length));
+            if (lastModified > 0) {
+                ds.setParameter(DownloadStream.LAST_MODIFIED, HTTP_DATE_FORMAT
+                        .format(Instant.ofEpochMilli(lastModified)));
+                ds.setParameter(DownloadStream.ETAG,
+                        "\"" + Long.toHexString(length) + "-"
+                                + Long.toHexString(lastModified) + "\"");
+            }
 
             ds.setBufferSize(getBufferSize());
             ds.setCacheTime(getCacheTime());
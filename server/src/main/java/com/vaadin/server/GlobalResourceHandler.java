@@ -139,7 +139,8 @@ public class GlobalResourceHandler implements RequestHandler {
      * @param ownerConnector
      *            the connector to which the resource belongs
      */
-    public void register(Resource resource, ClientConnector ownerConnector) {
+    public synchronized void register(Resource resource,
+            ClientConnector ownerConnector) {
         if (resource instanceof ConnectorResource) {
             if (!(ownerConnector instanceof LegacyComponent)) {
                 throw new IllegalArgumentException(
@@ -192,7 +193,7 @@ public class GlobalResourceHandler implements RequestHandler {
      * @return an URI string, or <code>null</code> if the resource is not
      *         registered.
      */
-    public String getUri(ClientConnector connector,
+    public synchronized String getUri(ClientConnector connector,
             ConnectorResource resource) {
         // app://APP/global/[ui]/[type]/[id]
         String uri = legacyResourceKeys.get(resource);
@@ -214,7 +215,7 @@ public class GlobalResourceHandler implements RequestHandler {
      *            the connector for which any registered resources can be
      *            released.
      */
-    public void unregisterConnector(ClientConnector connector) {
+    public synchronized void unregisterConnector(ClientConnector connector) {
         Set<Resource> set = usedResources.remove(connector);
         if (set == null) {
             return;
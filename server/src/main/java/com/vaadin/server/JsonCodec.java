@@ -20,6 +20,9 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -200,6 +203,96 @@ public class JsonCodec implements Serializable {
 
     }
 
+    /**
+     * Encodes the properties of objects of a given type, e.g. a shared state
+     * class. The property accessors are resolved once per type into method
+     * handles, which avoids the overhead of reflective invocation when the same
+     * type is encoded over and over again. Properties that cannot be accessed
+     * through a method handle fall back to reflection.
+     */
+    private static class ObjectEncoder implements Serializable {
+        private final String[] names;
+        private final Type[] types;
+        private final BeanProperty[] properties;
+        private final Map<String, Integer> indices = new HashMap<>();
+        /*
+         * Not serialized as encoders are only kept in a static cache. Entries
+         * are null for properties that are read using reflection.
+         */
+        private final transient MethodHandle[] getters;
+
+        private ObjectEncoder(Class<?> type) throws IntrospectionException {
+            Collection<BeanProperty> typeProperties = getProperties(type);
+            int count = typeProperties.size();
+            names = new String[count];
+            types = new Type[count];
+            properties = new BeanProperty[count];
+            getters = new MethodHandle[count];
+
+            Set<String> seenNames = new HashSet<>();
+            int i = 0;
+            for (BeanProperty property : typeProperties) {
+                String name = property.getName();
+                if (!seenNames.add(name)) {
+                    throw new RuntimeException("Can't encode " + type.getName()
+                            + " as it has multiple properties with the name "
+                            + name.toLowerCase(Locale.ROOT)
+                            + ". This can happen if there are getters and setters for a public field (the framework can't know which to ignore) or if there are properties with only casing distinguishing between the names (e.g. getFoo() and getFOO())");
+                }
+                names[i] = name;
+                indices.put(name, i);
+                // We can't use PropertyDescriptor.getPropertyType() as it does
+                // not support generics
+                types[i] = property.getType();
+                properties[i] = property;
+                getters[i] = findGetter(property);
+                i++;
+            }
+        }
+
+        private static MethodHandle findGetter(BeanProperty property) {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle getter;
+            try {
+                if (property instanceof MethodProperty) {
+                    getter = lookup.unreflect(
+                            ((MethodProperty) property).pd.getReadMethod());
+                } else if (property instanceof FieldProperty) {
+                    getter = lookup
+                            .unreflectGetter(((FieldProperty) property).field);
+                } else {
+                    return null;
+                }
+            } catch (IllegalAccessException e) {
+                // E.g. a public member of a non-public class
+                return null;
+            }
+            return getter
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        private Object getValue(int index, Object bean) throws Exception {
+            MethodHandle getter = getters[index];
+            if (getter == null) {
+                return properties[index].getValue(bean);
+            }
+            try {
+                return getter.invokeExact(bean);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+
+    /**
+     * Cache of object encoders for types encoded using
+     * {@link #encodeObject(Object, Class, JsonObject, ConnectorTracker)}. Used
+     * from multiple threads similarly to {@link #TYPE_PROPERTY_CACHE}.
+     */
+    private static final ConcurrentMap<Class<?>, ObjectEncoder> TYPE_ENCODER_CACHE = new ConcurrentHashMap<>();
+
     /**
      * Cache the collection of bean properties for a given type to avoid doing a
      * quite expensive lookup multiple times. Will be used from any thread that
@@ -712,6 +805,74 @@ public class JsonCodec implements Serializable {
         return properties;
     }
 
+    private static ObjectEncoder getObjectEncoder(Class<?> type)
+            throws IntrospectionException {
+        ObjectEncoder encoder = TYPE_ENCODER_CACHE.get(type);
+        if (encoder == null) {
+            // Same as for TYPE_PROPERTY_CACHE, creating the same encoder
+            // concurrently is harmless
+            encoder = new ObjectEncoder(type);
+            TYPE_ENCODER_CACHE.put(type, encoder);
+        }
+        return encoder;
+    }
+
+    /**
+     * Encodes only the given properties of an object, e.g. the shared state
+     * properties that are known to have changed. Unlike
+     * {@link #encode(Object, JsonValue, Type, ConnectorTracker)}, the values
+     * are not compared to the reference value. Instead, the encoded values are
+     * stored in the given reference value and all of them are included in the
+     * returned diff.
+     *
+     * @param value
+     *            the object to encode, not <code>null</code>
+     * @param valueType
+     *            the type of the object
+     * @param propertyNames
+     *            the names of the properties to encode, not <code>null</code>
+     * @param referenceValue
+     *            the previously encoded value to update with the encoded
+     *            properties, not <code>null</code>
+     * @param connectorTracker
+     *            the connector tracker to use for encoding
+     * @return a JSON object with the encoded properties
+     * @throws IllegalArgumentException
+     *             if the type has no property with one of the given names
+     * @since 8.7
+     */
+    public static JsonObject encodeProperties(Object value, Class<?> valueType,
+            Collection<String> propertyNames, JsonObject referenceValue,
+            ConnectorTracker connectorTracker) {
+        ObjectEncoder encoder;
+        try {
+            encoder = getObjectEncoder(valueType);
+        } catch (IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+
+        JsonObject diff = Json.createObject();
+        for (String propertyName : propertyNames) {
+            Integer index = encoder.indices.get(propertyName);
+            if (index == null) {
+                throw new IllegalArgumentException(valueType.getName()
+                        + " has no property named " + propertyName);
+            }
+            Object propertyValue;
+            try {
+                propertyValue = encoder.getValue(index, value);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+
+            JsonValue encodedValue = encode(propertyValue, null,
+                    encoder.types[index], connectorTracker).getEncodedValue();
+            referenceValue.put(propertyName, encodedValue);
+            diff.put(propertyName, encodedValue);
+        }
+        return diff;
+    }
+
     /*
      * Loops through the fields of value and encodes them.
      */
@@ -721,20 +882,11 @@ public class JsonCodec implements Serializable {
         JsonObject diff = Json.createObject();
 
         try {
-            for (BeanProperty property : getProperties(valueType)) {
-                String fieldName = property.getName();
-                // We can't use PropertyDescriptor.getPropertyType() as it does
-                // not support generics
-                Type fieldType = property.getType();
-                Object fieldValue = property.getValue(value);
-
-                if (encoded.hasKey(fieldName)) {
-                    throw new RuntimeException("Can't encode "
-                            + valueType.getName()
-                            + " as it has multiple properties with the name "
-                            + fieldName.toLowerCase(Locale.ROOT)
-                            + ". This can happen if there are getters and setters for a public field (the framework can't know which to ignore) or if there are properties with only casing distinguishing between the names (e.g. getFoo() and getFOO())");
-                }
+            ObjectEncoder encoder = getObjectEncoder(valueType);
+            for (int i = 0; i < encoder.names.length; i++) {
+                String fieldName = encoder.names[i];
+                Type fieldType = encoder.types[i];
+                Object fieldValue = encoder.getValue(i, value);
 
                 JsonValue fieldReference;
                 if (referenceValue != null) {
@@ -748,12 +900,19 @@ public class JsonCodec implements Serializable {
 
                 EncodeResult encodeResult = encode(fieldValue, fieldReference,
                         fieldType, connectorTracker);
-                encoded.put(fieldName, encodeResult.getEncodedValue());
+                JsonValue encodedValue = encodeResult.getEncodedValue();
 
-                if (valueChanged(encodeResult.getEncodedValue(),
-                        fieldReference)) {
+                if (valueChanged(encodedValue, fieldReference)) {
                     diff.put(fieldName, encodeResult.getDiffOrValue());
+                } else if (isImmutable(fieldReference)) {
+                    /*
+                     * Keep the previous instance. For defaults, it is shared by
+                     * all connectors of the same type through the reference
+                     * diff state, so unchanged values take no extra memory.
+                     */
+                    encodedValue = fieldReference;
                 }
+                encoded.put(fieldName, encodedValue);
             }
         } catch (Exception e) {
             // TODO: Should exceptions be handled in a different way?
@@ -762,6 +921,21 @@ public class JsonCodec implements Serializable {
         return new EncodeResult(encoded, diff);
     }
 
+    private static boolean isImmutable(JsonValue value) {
+        if (value == null) {
+            return false;
+        }
+        switch (value.getType()) {
+        case STRING:
+        case NUMBER:
+        case BOOLEAN:
+            return true;
+        default:
+            // Objects and arrays can be modified in place
+            return false;
+        }
+    }
+
     /**
      * Compares the value with the reference. If they match, returns false.
      *
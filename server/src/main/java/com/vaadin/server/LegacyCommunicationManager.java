@@ -98,11 +98,7 @@ public class LegacyCommunicationManager implements Serializable {
         if (diffState == null) {
             // Use an empty state object as reference for full
             // repaints
-            diffState = REFERENCE_DIFF_STATES.get(stateType);
-            if (diffState == null) {
-                diffState = createReferenceDiffStateState(stateType);
-                REFERENCE_DIFF_STATES.put(stateType, diffState);
-            }
+            diffState = getReferenceDiffState(stateType);
         }
         EncodeResult encodeResult = JsonCodec.encode(state, diffState,
                 stateType, uI.getConnectorTracker());
@@ -112,6 +108,31 @@ public class LegacyCommunicationManager implements Serializable {
         return (JsonObject) encodeResult.getDiff();
     }
 
+    /**
+     * Gets the encoded state of a new state object of the given type. This is
+     * used as the reference when the state of a connector is encoded for the
+     * first time, so that only values that differ from the defaults are sent.
+     * The returned object is shared and must not be modified.
+     *
+     * @param stateType
+     *            the shared state type
+     * @return the encoded default state, or <code>null</code> if the state type
+     *         could not be instantiated
+     * @since 8.7
+     */
+    public static JsonObject getReferenceDiffState(
+            Class<? extends SharedState> stateType) {
+        JsonValue diffState = REFERENCE_DIFF_STATES.get(stateType);
+        if (diffState == null) {
+            diffState = createReferenceDiffStateState(stateType);
+            if (diffState == null) {
+                return null;
+            }
+            REFERENCE_DIFF_STATES.put(stateType, diffState);
+        }
+        return (JsonObject) diffState;
+    }
+
     private static JsonValue createReferenceDiffStateState(
             Class<? extends SharedState> stateType) {
         if (JavaScriptConnectorState.class.isAssignableFrom(stateType)) {
@@ -174,7 +195,8 @@ public class LegacyCommunicationManager implements Serializable {
      * @deprecated As of 7.1. See #11413.
      */
     @Deprecated
-    public String registerDependency(String resourceUri, Class<?> context) {
+    public synchronized String registerDependency(String resourceUri,
+            Class<?> context) {
         try {
             URI uri = new URI(resourceUri);
             String protocol = uri.getScheme();
@@ -226,7 +248,7 @@ public class LegacyCommunicationManager implements Serializable {
      * @deprecated As of 7.1. See #11410.
      */
     @Deprecated
-    public ClientCache getClientCache(UI uI) {
+    public synchronized ClientCache getClientCache(UI uI) {
         Integer uiId = Integer.valueOf(uI.getUIId());
         ClientCache cache = uiToClientCache.get(uiId);
         if (cache == null) {
@@ -330,7 +352,8 @@ public class LegacyCommunicationManager implements Serializable {
      * @deprecated As of 7.1. Will be removed in the future.
      */
     @Deprecated
-    public String getTagForType(Class<? extends ClientConnector> class1) {
+    public synchronized String getTagForType(
+            Class<? extends ClientConnector> class1) {
         Integer id = typeToKey.get(class1);
         if (id == null) {
             id = nextTypeKey++;
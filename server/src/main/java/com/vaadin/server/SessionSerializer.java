@@ -0,0 +1,640 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EventObject;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+/**
+ * Serializes {@link VaadinSession}s for replication between the nodes of a
+ * cluster.
+ * <p>
+ * Compared to plain Java serialization of the session, the streams written by
+ * this serializer only describe each class by its name instead of its full
+ * field layout, which considerably reduces the size of UI trees with many
+ * different component classes. Such streams can only be read with this
+ * serializer on a node with the same versions of the classes.
+ * <p>
+ * In addition to full serialization with
+ * {@link #serialize(VaadinSession, OutputStream)}, the UIs that have changed
+ * since the previous replication can be written using
+ * {@link #serializeChangedUIs(VaadinSession, OutputStream)} and applied to a
+ * previously replicated copy of the session using
+ * {@link #deserializeChangedUIs(VaadinSession, InputStream)}. A UI is
+ * considered changed if any response has been written for it or if it has
+ * pending changes. Note that with partial replication, session attributes and
+ * other session level data are not replicated, and objects that are shared
+ * between UIs are deserialized as separate copies for each UI.
+ * <p>
+ * The size and duration of each operation are reported to the listeners added
+ * using {@link #addSerializationListener(SerializationListener)}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+public class SessionSerializer implements Serializable {
+
+    /**
+     * The session attribute holding the sync ids of the UIs of the session as
+     * of the last replication, by UI id.
+     */
+    private static final String REPLICATED_SYNC_IDS_ATTRIBUTE = SessionSerializer.class
+            .getName() + ".syncIds";
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+    static {
+        for (Class<?> type : new Class<?>[] { boolean.class, byte.class,
+                char.class, short.class, int.class, long.class, float.class,
+                double.class, void.class }) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private static final int FULL = 1;
+    private static final int CHANGED_UIS = 2;
+
+    /**
+     * The type of a serialization operation.
+     */
+    public enum OperationType {
+        /**
+         * A whole session was serialized.
+         */
+        SERIALIZE,
+        /**
+         * A whole session was deserialized.
+         */
+        DESERIALIZE,
+        /**
+         * The changed UIs of a session were serialized.
+         */
+        SERIALIZE_CHANGED_UIS,
+        /**
+         * Changed UIs were deserialized into a session.
+         */
+        DESERIALIZE_CHANGED_UIS;
+    }
+
+    /**
+     * Event fired after a session has been serialized or deserialized.
+     */
+    public static class SerializationEvent extends EventObject {
+        private final OperationType operationType;
+        private final long bytes;
+        private final long durationNanos;
+        private final int uiCount;
+
+        /**
+         * Creates a new event.
+         *
+         * @param session
+         *            the serialized session
+         * @param operationType
+         *            the type of the operation
+         * @param bytes
+         *            the number of bytes written or read
+         * @param durationNanos
+         *            the duration of the operation in nanoseconds
+         * @param uiCount
+         *            the number of UIs written or read
+         */
+        public SerializationEvent(VaadinSession session,
+                OperationType operationType, long bytes, long durationNanos,
+                int uiCount) {
+            super(session);
+            this.operationType = operationType;
+            this.bytes = bytes;
+            this.durationNanos = durationNanos;
+            this.uiCount = uiCount;
+        }
+
+        /**
+         * Gets the serialized session.
+         *
+         * @return the session
+         */
+        public VaadinSession getSession() {
+            return (VaadinSession) getSource();
+        }
+
+        /**
+         * Gets the type of the operation.
+         *
+         * @return the operation type
+         */
+        public OperationType getOperationType() {
+            return operationType;
+        }
+
+        /**
+         * Gets the number of bytes written or read.
+         *
+         * @return the payload size in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gets the duration of the operation.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Gets the number of UIs written or read.
+         *
+         * @return the number of UIs
+         */
+        public int getUICount() {
+            return uiCount;
+        }
+    }
+
+    /**
+     * Listener notified after each serialization operation, e.g. for collecting
+     * metrics about session replication.
+     */
+    @FunctionalInterface
+    public interface SerializationListener extends Serializable {
+        /**
+         * Called after a session has been serialized or deserialized.
+         *
+         * @param event
+         *            the serialization event
+         */
+        void serializationDone(SerializationEvent event);
+    }
+
+    /**
+     * Marker written instead of the session when serializing UIs only.
+     */
+    private enum SessionReference {
+        INSTANCE;
+    }
+
+    private final List<SerializationListener> listeners = new CopyOnWriteArrayList<>();
+
+    /*
+     * Not serialized, the class loader of this class is used after
+     * deserialization.
+     */
+    private transient ClassLoader classLoader;
+
+    /**
+     * Creates a new serializer that loads classes using the class loader of
+     * this class.
+     */
+    public SessionSerializer() {
+        this(SessionSerializer.class.getClassLoader());
+    }
+
+    /**
+     * Creates a new serializer that loads classes using the given class loader.
+     *
+     * @param classLoader
+     *            the class loader to use when deserializing, not
+     *            <code>null</code>
+     */
+    public SessionSerializer(ClassLoader classLoader) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("Class loader cannot be null");
+        }
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Adds a listener that is notified after each serialization operation.
+     *
+     * @param listener
+     *            the listener to add, not <code>null</code>
+     * @return a registration handle for removing the listener
+     */
+    public Registration addSerializationListener(
+            SerializationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Serializes the whole session. The session is locked while it is being
+     * serialized. The written UIs are recorded as replicated for
+     * {@link #serializeChangedUIs(VaadinSession, OutputStream)}.
+     *
+     * @param session
+     *            the session to serialize, not <code>null</code>
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public void serialize(VaadinSession session, OutputStream out)
+            throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        int uiCount;
+
+        Lock lock = session.getLockInstance();
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            Collection<UI> uis = session.getUIs();
+            uiCount = uis.size();
+            recordReplicated(session, uis);
+
+            SessionObjectOutputStream stream = new SessionObjectOutputStream(
+                    counter, null);
+            stream.writeInt(FULL);
+            stream.writeObject(session);
+            stream.flush();
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+
+        fireEvent(new SerializationEvent(session, OperationType.SERIALIZE,
+                counter.count, System.nanoTime() - start, uiCount));
+    }
+
+    /**
+     * Deserializes a session written by
+     * {@link #serialize(VaadinSession, OutputStream)}. The transient fields of
+     * the returned session should be refreshed using
+     * {@link VaadinSession#refreshTransients(WrappedSession, VaadinService)}
+     * before it is used.
+     *
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @return the deserialized session
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if a serialized class cannot be found
+     */
+    public VaadinSession deserialize(InputStream in)
+            throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        CountingInputStream counter = new CountingInputStream(in);
+
+        SessionObjectInputStream stream = new SessionObjectInputStream(counter,
+                null);
+        checkType(stream.readInt(), FULL);
+        VaadinSession session = (VaadinSession) stream.readObject();
+
+        fireEvent(new SerializationEvent(session, OperationType.DESERIALIZE,
+                counter.count, System.nanoTime() - start,
+                session.getUICount()));
+        return session;
+    }
+
+    /**
+     * Serializes the UIs of the session that have changed since the session or
+     * the UI was last serialized by this serializer. The ids of all UIs and the
+     * heartbeat timestamps of the unchanged ones are also written, so that
+     * closed UIs can be removed when deserializing. The session is locked while
+     * it is being serialized.
+     *
+     * @param session
+     *            the session to serialize, not <code>null</code>
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public void serializeChangedUIs(VaadinSession session, OutputStream out)
+            throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        List<UI> changed = new ArrayList<>();
+
+        Lock lock = session.getLockInstance();
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            Map<Integer, Integer> replicated = getReplicatedSyncIds(session);
+            Collection<UI> uis = session.getUIs();
+            Map<Integer, Long> heartbeats = new HashMap<>();
+            for (UI ui : uis) {
+                Integer syncId = replicated.get(ui.getUIId());
+                if (syncId == null
+                        || syncId != ui.getConnectorTracker().getCurrentSyncId()
+                        || !ui.getConnectorTracker().getDirtyConnectors()
+                                .isEmpty()) {
+                    changed.add(ui);
+                } else {
+                    heartbeats.put(ui.getUIId(),
+                            ui.getLastHeartbeatTimestamp());
+                }
+            }
+
+            SessionObjectOutputStream stream = new SessionObjectOutputStream(
+                    counter, session);
+            stream.writeInt(CHANGED_UIS);
+            stream.writeInt(session.getUIIdSequence());
+            stream.writeInt(session.getConnectorIdSequence());
+            stream.writeObject(heartbeats);
+            stream.writeInt(changed.size());
+            for (UI ui : changed) {
+                stream.writeObject(ui);
+                // Each UI is written on its own, without references to
+                // objects written for other UIs
+                stream.reset();
+            }
+            stream.flush();
+
+            recordReplicated(session, uis);
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+
+        fireEvent(new SerializationEvent(session,
+                OperationType.SERIALIZE_CHANGED_UIS, counter.count,
+                System.nanoTime() - start, changed.size()));
+    }
+
+    /**
+     * Applies UIs written by
+     * {@link #serializeChangedUIs(VaadinSession, OutputStream)} to a copy of
+     * the session that has previously been replicated from the same session.
+     * Changed UIs replace the UIs with the same id and UIs that no longer exist
+     * in the serialized session are removed. The session is locked while the
+     * UIs are replaced.
+     *
+     * @param session
+     *            the replicated copy of the session, not <code>null</code>
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if a serialized class cannot be found
+     */
+    public void deserializeChangedUIs(VaadinSession session, InputStream in)
+            throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        CountingInputStream counter = new CountingInputStream(in);
+        List<UI> changed = new ArrayList<>();
+
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try {
+            SessionObjectInputStream stream = new SessionObjectInputStream(
+                    counter, session);
+            checkType(stream.readInt(), CHANGED_UIS);
+            int uiIdSequence = stream.readInt();
+            int connectorIdSequence = stream.readInt();
+            @SuppressWarnings("unchecked")
+            Map<Integer, Long> heartbeats = (Map<Integer, Long>) stream
+                    .readObject();
+            int count = stream.readInt();
+            for (int i = 0; i < count; i++) {
+                changed.add((UI) stream.readObject());
+            }
+
+            Lock lock = session.getLockInstance();
+            if (lock != null) {
+                lock.lock();
+            }
+            try {
+                Set<Integer> uiIds = new LinkedHashSet<>(heartbeats.keySet());
+                for (UI ui : changed) {
+                    uiIds.add(ui.getUIId());
+                }
+                session.replaceUIs(uiIds, changed, uiIdSequence,
+                        connectorIdSequence);
+                for (UI ui : session.getUIs()) {
+                    Long heartbeat = heartbeats.get(ui.getUIId());
+                    if (heartbeat != null) {
+                        ui.setLastHeartbeatTimestamp(heartbeat);
+                    }
+                }
+                recordReplicated(session, session.getUIs());
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+
+        fireEvent(new SerializationEvent(session,
+                OperationType.DESERIALIZE_CHANGED_UIS, counter.count,
+                System.nanoTime() - start, changed.size()));
+    }
+
+    private void fireEvent(SerializationEvent event) {
+        for (SerializationListener listener : listeners) {
+            listener.serializationDone(event);
+        }
+    }
+
+    private static void checkType(int type, int expected)
+            throws StreamCorruptedException {
+        if (type != expected) {
+            throw new StreamCorruptedException(
+                    "Unexpected serialization type " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Integer> getReplicatedSyncIds(
+            VaadinSession session) {
+        Object syncIds = session.getAttribute(REPLICATED_SYNC_IDS_ATTRIBUTE);
+        if (syncIds instanceof Map) {
+            return (Map<Integer, Integer>) syncIds;
+        }
+        return new HashMap<>();
+    }
+
+    private static void recordReplicated(VaadinSession session,
+            Collection<UI> uis) {
+        HashMap<Integer, Integer> syncIds = new HashMap<>();
+        for (UI ui : uis) {
+            syncIds.put(ui.getUIId(),
+                    ui.getConnectorTracker().getCurrentSyncId());
+        }
+        session.setAttribute(REPLICATED_SYNC_IDS_ATTRIBUTE, syncIds);
+    }
+
+    /**
+     * Object stream that describes classes only by name. When writing UIs only,
+     * the session is replaced by a marker.
+     */
+    private static class SessionObjectOutputStream extends ObjectOutputStream {
+        private final VaadinSession replacedSession;
+
+        private SessionObjectOutputStream(OutputStream out,
+                VaadinSession replacedSession) throws IOException {
+            super(out);
+            this.replacedSession = replacedSession;
+            if (replacedSession != null) {
+                enableReplaceObject(true);
+            }
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc)
+                throws IOException {
+            writeUTF(desc.getName());
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == replacedSession) {
+                return SessionReference.INSTANCE;
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Object stream for reading streams written by
+     * {@link SessionObjectOutputStream}.
+     */
+    private class SessionObjectInputStream extends ObjectInputStream {
+        private final VaadinSession session;
+
+        private SessionObjectInputStream(InputStream in, VaadinSession session)
+                throws IOException {
+            super(in);
+            this.session = session;
+            if (session != null) {
+                enableResolveObject(true);
+            }
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor()
+                throws IOException, ClassNotFoundException {
+            String name = readUTF();
+            ObjectStreamClass desc = ObjectStreamClass
+                    .lookupAny(loadClass(name));
+            if (desc == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return desc;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            try {
+                return loadClass(desc.getName());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj == SessionReference.INSTANCE) {
+                return session;
+            }
+            return obj;
+        }
+
+        private Class<?> loadClass(String name) throws ClassNotFoundException {
+            Class<?> primitive = PRIMITIVE_TYPES.get(name);
+            if (primitive != null) {
+                return primitive;
+            }
+            if (classLoader == null) {
+                classLoader = SessionSerializer.class.getClassLoader();
+            }
+            return Class.forName(name, false, classLoader);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A bounded in-memory cache of static resources served by
+ * {@link VaadinServlet}. Each entry keeps the contents of the resource together
+ * with precompressed variants, a content hash based entity tag and the
+ * modification time, all computed when the resource is first loaded.
+ * <p>
+ * The least recently used entries are evicted when the total size of the cached
+ * contents exceeds the maximum size. Concurrent requests for a resource that is
+ * not yet cached wait for a single load of the resource.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+class StaticResourceCache implements Serializable {
+
+    /**
+     * A cached static resource.
+     */
+    static final class Entry implements Serializable {
+        private final byte[] content;
+        private final byte[] gzipContent;
+        private final byte[] brotliContent;
+        private final String hash;
+        private final long lastModified;
+
+        Entry(byte[] content, byte[] gzipContent, byte[] brotliContent,
+                long lastModified) {
+            this.content = content;
+            this.gzipContent = gzipContent;
+            this.brotliContent = brotliContent;
+            this.lastModified = lastModified;
+            hash = hash(content);
+        }
+
+        /**
+         * Gets the uncompressed contents of the resource.
+         *
+         * @return the contents, not <code>null</code>
+         */
+        byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * Gets the gzip compressed contents of the resource.
+         *
+         * @return the compressed contents, or <code>null</code> if there is no
+         *         gzip variant
+         */
+        byte[] getGzipContent() {
+            return gzipContent;
+        }
+
+        /**
+         * Gets the brotli compressed contents of the resource.
+         *
+         * @return the compressed contents, or <code>null</code> if there is no
+         *         brotli variant
+         */
+        byte[] getBrotliContent() {
+            return brotliContent;
+        }
+
+        /**
+         * Checks whether the resource has any compressed variants.
+         *
+         * @return <code>true</code> if there is a compressed variant, otherwise
+         *         <code>false</code>
+         */
+        boolean hasCompressedVariants() {
+            return gzipContent != null || brotliContent != null;
+        }
+
+        /**
+         * Gets a strong entity tag for the resource in the given content
+         * coding. Each coding has its own tag since the transferred bytes
+         * differ.
+         *
+         * @param contentEncoding
+         *            the content coding, or <code>null</code> for the
+         *            uncompressed resource
+         * @return the quoted entity tag
+         */
+        String getETag(String contentEncoding) {
+            if (contentEncoding == null) {
+                return '"' + hash + '"';
+            }
+            return '"' + hash + '-' + contentEncoding + '"';
+        }
+
+        /**
+         * Gets the modification time of the resource, truncated to seconds.
+         *
+         * @return the modification time in milliseconds, or 0 if not known
+         */
+        long getLastModified() {
+            return lastModified;
+        }
+
+        private long getSize() {
+            long size = content.length;
+            if (gzipContent != null) {
+                size += gzipContent.length;
+            }
+            if (brotliContent != null) {
+                size += brotliContent.length;
+            }
+            return size;
+        }
+    }
+
+    private final long maxSize;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f,
+            true);
+    private long size = 0;
+
+    private final ConcurrentHashMap<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum total size of the cached contents in bytes
+     */
+    StaticResourceCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets a cached resource.
+     *
+     * @param filename
+     *            the name of the resource
+     * @return the cached resource, or <code>null</code> if not cached
+     */
+    synchronized Entry get(String filename) {
+        return entries.get(filename);
+    }
+
+    /**
+     * Gets a cached resource, loading it from the given URL if it is not yet
+     * cached. Resources that are too large to be cached are not loaded.
+     *
+     * @param filename
+     *            the name of the resource
+     * @param url
+     *            the URL to load the resource from
+     * @param compress
+     *            <code>true</code> to also create compressed variants of the
+     *            resource, otherwise <code>false</code>
+     * @return the cached resource, or <code>null</code> if the resource cannot
+     *         be cached
+     * @throws IOException
+     *             if loading the resource fails
+     */
+    Entry getOrLoad(String filename, URL url, boolean compress)
+            throws IOException {
+        Entry entry = get(filename);
+        if (entry != null) {
+            return entry;
+        }
+
+        Object lock = loadLocks.computeIfAbsent(filename, key -> new Object());
+        try {
+            synchronized (lock) {
+                entry = get(filename);
+                if (entry == null) {
+                    entry = load(url, compress);
+                    if (entry != null) {
+                        put(filename, entry);
+                    }
+                }
+                return entry;
+            }
+        } finally {
+            loadLocks.remove(filename, lock);
+        }
+    }
+
+    /**
+     * Gets the total size of the cached contents.
+     *
+     * @return the size in bytes
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized void put(String filename, Entry entry) {
+        Entry old = entries.put(filename, entry);
+        if (old != null) {
+            size -= old.getSize();
+        }
+        size += entry.getSize();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            if (evicted == entry) {
+                break;
+            }
+            size -= evicted.getSize();
+            eldest.remove();
+        }
+    }
+
+    private Entry load(URL url, boolean compress) throws IOException {
+        // A single entry may not take more than a fraction of the cache
+        long maxEntrySize = maxSize / 4;
+
+        URLConnection connection = url.openConnection();
+        long lastModified = connection.getLastModified();
+        lastModified -= lastModified % 1000;
+        byte[] content;
+        try (InputStream is = connection.getInputStream()) {
+            long length = connection.getContentLengthLong();
+            if (length > maxEntrySize) {
+                return null;
+            }
+            content = readFully(is, maxEntrySize);
+        }
+        if (content == null) {
+            return null;
+        }
+
+        byte[] gzipContent = null;
+        byte[] brotliContent = null;
+        if (compress) {
+            String urlStr = url.toExternalForm();
+            gzipContent = readVariant(urlStr + ".gz", content.length);
+            if (gzipContent == null) {
+                gzipContent = gzip(content);
+            }
+            // No brotli encoder available, only use prebuilt files
+            brotliContent = readVariant(urlStr + ".br", content.length);
+        }
+        return new Entry(content, gzipContent, brotliContent, lastModified);
+    }
+
+    /**
+     * Reads a precompressed sibling of a resource.
+     *
+     * @return the contents, or <code>null</code> if not found or not smaller
+     *         than the uncompressed resource
+     */
+    private static byte[] readVariant(String url, int uncompressedLength) {
+        try (InputStream is = new URL(url).openStream()) {
+            return readFully(is, uncompressedLength - 1L);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            // Treat as missing, the uncompressed resource is still served
+            return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        }
+        if (bytes.size() >= content.length) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the whole stream.
+     *
+     * @return the contents, or <code>null</code> if longer than the maximum
+     *         length
+     */
+    private static byte[] readFully(InputStream is, long maxLength)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[Constants.DEFAULT_BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) >= 0) {
+            if (bytes.size() + read > maxLength) {
+                return null;
+            }
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content);
+            StringBuilder hex = new StringBuilder();
+            // 128 bits is plenty for telling versions apart
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be supported by all JVMs
+            throw new IllegalStateException(e);
+        }
+    }
+}
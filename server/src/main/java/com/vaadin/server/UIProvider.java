@@ -316,6 +316,31 @@ public abstract class UIProvider implements Serializable {
         }
     }
 
+    /**
+     * Finds the minimum interval between automatic pushes to use for a specific
+     * UI.
+     * <p>
+     * The default implementation uses the @{@link Push} annotation if it's
+     * defined for the UI class.
+     *
+     * @see com.vaadin.ui.PushConfiguration#setPushInterval(int)
+     *
+     * @since 8.7
+     * @param event
+     *            the UI create event with information about the UI and the
+     *            current request.
+     * @return the minimum interval between automatic pushes in milliseconds, or
+     *         0 to push without delay
+     */
+    public int getPushInterval(UICreateEvent event) {
+        Push push = getAnnotationFor(event.getUIClass(), Push.class);
+        if (push == null) {
+            return 0;
+        } else {
+            return push.interval();
+        }
+    }
+
     private static final Logger getLogger() {
         return Logger.getLogger(UIProvider.class.getName());
     }
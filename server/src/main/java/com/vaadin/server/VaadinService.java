@@ -36,12 +36,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -63,6 +66,8 @@ import com.vaadin.server.communication.HeartbeatHandler;
 import com.vaadin.server.communication.PublishedFileHandler;
 import com.vaadin.server.communication.SessionRequestHandler;
 import com.vaadin.server.communication.UidlRequestHandler;
+import com.vaadin.server.communication.UidlWriteEvent;
+import com.vaadin.server.communication.UidlWriteListener;
 import com.vaadin.shared.ApplicationConstants;
 import com.vaadin.shared.JsonConstants;
 import com.vaadin.shared.Registration;
@@ -136,6 +141,8 @@ public abstract class VaadinService implements Serializable {
 
     private final List<SessionDestroyListener> sessionDestroyListeners = new CopyOnWriteArrayList<>();
 
+    private final List<UidlWriteListener> uidlWriteListeners = new CopyOnWriteArrayList<>();
+
     private SystemMessagesProvider systemMessagesProvider = DefaultSystemMessagesProvider
             .get();
 
@@ -159,6 +166,8 @@ public abstract class VaadinService implements Serializable {
      */
     private boolean initialized = false;
 
+    private transient ScheduledExecutorService pushScheduler;
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -517,6 +526,58 @@ public abstract class VaadinService implements Serializable {
         return () -> sessionDestroyListeners.remove(listener);
     }
 
+    /**
+     * Adds a listener that gets notified when a UIDL response has been written
+     * for a UI of this service. The listener gets size information about the
+     * sections of the response, which is only collected while there are
+     * listeners, and the number of rounds of
+     * {@link ClientConnector#beforeClientResponse(boolean)} calls needed for
+     * the response.
+     *
+     * @see UidlWriteEvent
+     *
+     * @param listener
+     *            the UIDL write listener
+     * @return a registration object for removing the listener
+     * @since 8.7
+     */
+    public Registration addUidlWriteListener(UidlWriteListener listener) {
+        uidlWriteListeners.add(listener);
+        return () -> uidlWriteListeners.remove(listener);
+    }
+
+    /**
+     * Checks whether there are listeners for written UIDL responses. This
+     * method is used by the framework to avoid collecting statistics that
+     * nobody uses.
+     *
+     * @see #addUidlWriteListener(UidlWriteListener)
+     *
+     * @return <code>true</code> if there are UIDL write listeners, otherwise
+     *         <code>false</code>
+     * @since 8.7
+     */
+    public boolean hasUidlWriteListeners() {
+        return !uidlWriteListeners.isEmpty();
+    }
+
+    /**
+     * Notifies the UIDL write listeners of this service about a written
+     * response. This method is called by the framework and is not intended to
+     * be used by application developers.
+     *
+     * @see #addUidlWriteListener(UidlWriteListener)
+     *
+     * @param event
+     *            the event to fire, not <code>null</code>
+     * @since 8.7
+     */
+    public void fireUidlWriteEvent(UidlWriteEvent event) {
+        for (UidlWriteListener listener : uidlWriteListeners) {
+            listener.uidlWritten(event);
+        }
+    }
+
     /**
      * Handles destruction of the given session. Internally ensures proper
      * locking is done.
@@ -659,8 +720,9 @@ public abstract class VaadinService implements Serializable {
     protected Lock getSessionLock(WrappedSession wrappedSession) {
         Object lock = wrappedSession.getAttribute(getLockAttributeName());
 
-        if (lock instanceof ReentrantLock) {
-            return (ReentrantLock) lock;
+        if (lock instanceof ReentrantLock
+                || lock instanceof VaadinSession.UILockingSessionLock) {
+            return (Lock) lock;
         }
 
         if (lock == null) {
@@ -695,7 +757,11 @@ public abstract class VaadinService implements Serializable {
             synchronized (VaadinService.class) {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    if (getDeploymentConfiguration().isUILockingEnabled()) {
+                        lock = new VaadinSession.UILockingSessionLock();
+                    } else {
+                        lock = new ReentrantLock();
+                    }
                     setSessionLock(wrappedSession, lock);
                 }
             }
@@ -724,8 +790,8 @@ public abstract class VaadinService implements Serializable {
      */
     protected void unlockSession(WrappedSession wrappedSession) {
         assert getSessionLock(wrappedSession) != null;
-        assert ((ReentrantLock) getSessionLock(wrappedSession))
-                .isHeldByCurrentThread() : "Trying to unlock the session but it has not been locked by this thread";
+        assert VaadinSession.hasLock(this,
+                wrappedSession) : "Trying to unlock the session but it has not been locked by this thread";
         getSessionLock(wrappedSession).unlock();
     }
 
@@ -735,6 +801,12 @@ public abstract class VaadinService implements Serializable {
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
 
+        VaadinSession existingSession = findExistingSessionWithSharedLock(
+                request, wrappedSession);
+        if (existingSession != null) {
+            return existingSession;
+        }
+
         try {
             lockSession(wrappedSession);
         } catch (IllegalStateException e) {
@@ -750,6 +822,51 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Finds an existing Vaadin session while only holding the shared session
+     * lock, so that requests to different UIs do not have to wait for each
+     * other when per-UI locking is enabled. Returns <code>null</code> without
+     * locking if per-UI locking is not enabled or if the request might close or
+     * restart the session. Also returns <code>null</code> if the transient
+     * fields of the session must be refreshed, as that is only done with the
+     * session locked exclusively.
+     *
+     * @param request
+     *            the request to find a session for
+     * @param wrappedSession
+     *            the wrapped session of the request
+     * @return the existing session or <code>null</code> if the session should
+     *         be found with the session locked
+     */
+    private VaadinSession findExistingSessionWithSharedLock(
+            VaadinRequest request, WrappedSession wrappedSession) {
+        if (hasParameter(request, URL_PARAMETER_RESTART_APPLICATION)
+                || hasParameter(request, URL_PARAMETER_CLOSE_APPLICATION)) {
+            return null;
+        }
+        Lock lock;
+        try {
+            lock = getSessionLock(wrappedSession);
+        } catch (IllegalStateException e) {
+            // Session invalidated, handled when locking the session
+            return null;
+        }
+        if (!(lock instanceof VaadinSession.UILockingSessionLock)) {
+            return null;
+        }
+
+        Lock sharedLock = ((VaadinSession.UILockingSessionLock) lock)
+                .getSharedLock();
+        sharedLock.lock();
+        try {
+            return getExistingSession(request, false);
+        } catch (IllegalStateException | SessionExpiredException e) {
+            return null;
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -764,8 +881,8 @@ public abstract class VaadinService implements Serializable {
     private VaadinSession doFindOrCreateVaadinSession(VaadinRequest request,
             boolean requestCanCreateSession)
             throws SessionExpiredException, ServiceException {
-        assert ((ReentrantLock) getSessionLock(request.getWrappedSession()))
-                .isHeldByCurrentThread() : "Session has not been locked by this thread";
+        assert VaadinSession.hasLock(this, request
+                .getWrappedSession()) : "Session has not been locked by this thread";
 
         /* Find an existing session for this request. */
         VaadinSession session = getExistingSession(request,
@@ -830,8 +947,8 @@ public abstract class VaadinService implements Serializable {
      */
     private VaadinSession createAndRegisterSession(VaadinRequest request)
             throws ServiceException {
-        assert ((ReentrantLock) getSessionLock(request.getWrappedSession()))
-                .isHeldByCurrentThread() : "Session has not been locked by this thread";
+        assert VaadinSession.hasLock(this, request
+                .getWrappedSession()) : "Session has not been locked by this thread";
 
         VaadinSession session = createVaadinSession(request);
 
@@ -1088,6 +1205,50 @@ public abstract class VaadinService implements Serializable {
         return ui;
     }
 
+    /**
+     * Finds the UI that belongs to the provided request and locks it using
+     * {@link VaadinSession#lockUI(UI)}. With per-UI locking, only the shared
+     * session lock is held while finding the UI, so requests to other UIs in
+     * the session are not blocked. The caller must release the lock using
+     * {@link VaadinSession#unlockUI(UI)} if a UI is returned.
+     *
+     * @since 8.7
+     * @param session
+     *            the session of the request, not <code>null</code>
+     * @param request
+     *            the request for which a UI is desired
+     * @return the locked UI, or <code>null</code> if no UI was found and
+     *         nothing was locked
+     */
+    public UI findAndLockUI(VaadinSession session, VaadinRequest request) {
+        if (!session.isUILockingEnabled()) {
+            session.lock();
+            UI ui = null;
+            try {
+                ui = findUI(request);
+            } finally {
+                if (ui == null) {
+                    session.unlock();
+                }
+            }
+            return ui;
+        }
+
+        // Hold the shared lock so the UI cannot be removed before it is locked
+        Lock sharedLock = ((VaadinSession.UILockingSessionLock) session
+                .getLockInstance()).getSharedLock();
+        sharedLock.lock();
+        try {
+            UI ui = findUI(request);
+            if (ui != null) {
+                session.lockUI(ui);
+            }
+            return ui;
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
     /**
      * Check if the given UI should be associated with the
      * <code>window.name</code> so that it can be re-used if the browser window
@@ -1377,6 +1538,14 @@ public abstract class VaadinService implements Serializable {
                  */
                 return true;
             }
+        } else if (lockInstance instanceof VaadinSession.UILockingSessionLock) {
+            if (((VaadinSession.UILockingSessionLock) lockInstance)
+                    .hasQueuedThreads()
+                    || ((ReentrantLock) ui.getLockInstance())
+                            .hasQueuedThreads()) {
+                // Someone is trying to access the session or this UI
+                return true;
+            }
         }
 
         // Check timeout
@@ -1446,7 +1615,19 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
-            session.lock();
+            if (session.isUILockingEnabled()) {
+                /*
+                 * Don't wait for requests to other UIs in the session to
+                 * complete. The cleanup is done at the end of the next request
+                 * that finds the session free.
+                 */
+                if (!session.getLockInstance().tryLock()) {
+                    CurrentInstance.clearAll();
+                    return;
+                }
+            } else {
+                session.lock();
+            }
             try {
                 cleanupSession(session);
                 final long duration = (System.nanoTime() - (Long) request
@@ -1980,6 +2161,48 @@ public abstract class VaadinService implements Serializable {
         return future;
     }
 
+    /**
+     * Implementation for {@link UI#access(Runnable)} when per-UI locking is
+     * enabled. The task is queued for the UI and run while holding the lock of
+     * the UI instead of the lock of the whole session.
+     *
+     * @since 8.7
+     * @see VaadinSession#isUILockingEnabled()
+     *
+     * @param ui
+     *            the UI to access
+     * @param runnable
+     *            the runnable to run with the UI locked
+     *
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task
+     */
+    public Future<Void> accessUI(UI ui, Runnable runnable) {
+        FutureAccess future = new FutureAccess(ui.getSession(), runnable);
+        ui.getPendingAccessQueue().add(future);
+
+        ensureAccessQueuePurged(ui);
+
+        return future;
+    }
+
+    /**
+     * Makes sure the pending access queue is purged for the provided UI. Works
+     * in the same way as {@link #ensureAccessQueuePurged(VaadinSession)} but
+     * uses the lock of the UI.
+     *
+     * @since 8.7
+     * @param ui
+     *            the UI for which the access queue should be purged
+     */
+    public void ensureAccessQueuePurged(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session != null && session.tryLockUI(ui)) {
+            // unlock triggers runPendingAccessTasks
+            session.unlockUI(ui);
+        }
+    }
+
     /**
      * Makes sure the pending access queue is purged for the provided session.
      * If the session is currently locked by the current thread or some other
@@ -2030,7 +2253,34 @@ public abstract class VaadinService implements Serializable {
     public void runPendingAccessTasks(VaadinSession session) {
         assert session.hasLock();
 
-        if (session.getPendingAccessQueue().isEmpty()) {
+        runPendingAccessTasks(session, session.getPendingAccessQueue());
+    }
+
+    /**
+     * Purges the queue of pending access invocations enqueued with
+     * {@link UI#access(Runnable)} when per-UI locking is enabled.
+     * <p>
+     * This method is automatically run by the framework at appropriate
+     * situations and is not intended to be used by application developers.
+     *
+     * @param ui
+     *            the UI to purge the queue for
+     * @since 8.7
+     */
+    public void runPendingAccessTasks(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session == null) {
+            return;
+        }
+        assert session.isUILockingEnabled() ? session.hasLock(ui)
+                : session.hasLock();
+
+        runPendingAccessTasks(session, ui.getPendingAccessQueue());
+    }
+
+    private void runPendingAccessTasks(VaadinSession session,
+            Queue<FutureAccess> queue) {
+        if (queue.isEmpty()) {
             return;
         }
 
@@ -2041,8 +2291,7 @@ public abstract class VaadinService implements Serializable {
                 .getInstances();
         CurrentInstance.setCurrent(session);
         try {
-            while ((pendingAccess = session.getPendingAccessQueue()
-                    .poll()) != null) {
+            while ((pendingAccess = queue.poll()) != null) {
                 if (!pendingAccess.isCancelled()) {
                     pendingAccess.run();
 
@@ -2119,6 +2368,36 @@ public abstract class VaadinService implements Serializable {
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
+
+        synchronized (this) {
+            if (pushScheduler != null) {
+                pushScheduler.shutdownNow();
+                pushScheduler = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the executor used for scheduling automatic pushes that have been
+     * delayed because of the
+     * {@link com.vaadin.ui.PushConfiguration#getPushInterval() push interval}
+     * of a UI. The executor is created when first needed and shut down when the
+     * service is destroyed.
+     *
+     * @since 8.7
+     * @return the push scheduler, not <code>null</code>
+     */
+    public synchronized ScheduledExecutorService getPushScheduler() {
+        if (pushScheduler == null) {
+            pushScheduler = Executors
+                    .newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "Vaadin push scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return pushScheduler;
     }
 
     /**
@@ -2194,6 +2473,18 @@ public abstract class VaadinService implements Serializable {
         if (vaadinSession == null) {
             return null;
         }
+        if (!VaadinSession.hasExclusiveLock(this, wrappedSession)) {
+            /*
+             * Only the shared lock is held with per-UI locking, so the
+             * transient fields must not be written. If they are not up to date,
+             * the session has to be loaded again with the session locked
+             * exclusively.
+             */
+            if (vaadinSession.hasCurrentTransients(wrappedSession, this)) {
+                return vaadinSession;
+            }
+            return null;
+        }
         vaadinSession.refreshTransients(wrappedSession, this);
         return vaadinSession;
     }
@@ -17,6 +17,7 @@ package com.vaadin.server;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
@@ -24,28 +25,34 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -75,7 +82,8 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
         private final String css;
         private final List<String> sourceUris;
-        private final long timestamp;
+        private long timestamp;
+        private final String sourceHash;
         private final String scssFileName;
 
         public ScssCacheEntry(String scssFileName, String css,
@@ -85,11 +93,13 @@ public class VaadinServlet extends HttpServlet implements Constants {
             this.sourceUris = sourceUris;
 
             timestamp = getLastModified();
+            sourceHash = getSourceHash();
         }
 
         public ScssCacheEntry(JsonObject json) {
             css = json.getString("css");
             timestamp = Long.parseLong(json.getString("timestamp"));
+            sourceHash = json.hasKey("hash") ? json.getString("hash") : null;
 
             sourceUris = new ArrayList<>();
 
@@ -111,6 +121,9 @@ public class VaadinServlet extends HttpServlet implements Constants {
             JsonObject object = Json.createObject();
             object.put("version", Version.getFullVersion());
             object.put("timestamp", Long.toString(timestamp));
+            if (sourceHash != null) {
+                object.put("hash", sourceHash);
+            }
             object.put("uris", uris);
             object.put("css", css);
 
@@ -159,6 +172,40 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return newest;
         }
 
+        /**
+         * Computes a hash of the contents of all the source files.
+         *
+         * @return the hash as a hex string, or <code>null</code> if some source
+         *         file could not be read
+         */
+        private String getSourceHash() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+                for (String uri : sourceUris) {
+                    File file = new File(uri);
+                    URL resource = file.exists() ? file.toURI().toURL()
+                            : getService().getClassLoader().getResource(uri);
+                    if (resource == null) {
+                        return null;
+                    }
+                    digest.update(uri.getBytes(UTF_8));
+                    try (InputStream in = resource.openStream()) {
+                        int read;
+                        while ((read = in.read(buffer)) >= 0) {
+                            digest.update(buffer, 0, read);
+                        }
+                    }
+                }
+                return String.format("%064x",
+                        new BigInteger(1, digest.digest()));
+            } catch (IOException | NoSuchAlgorithmException e) {
+                getLogger().log(Level.FINE,
+                        "Could not compute a hash of the scss sources", e);
+                return null;
+            }
+        }
+
         public boolean isStillValid() {
             if (timestamp == -1) {
                 /*
@@ -166,17 +213,21 @@ public class VaadinServlet extends HttpServlet implements Constants {
                  * compilation were gone before the cache entry was created.
                  */
                 return false;
-            } else if (timestamp != getLastModified()) {
-                /*
-                 * Would in theory still be valid if the last modification is
-                 * before the recorded timestamp, but that would still mean that
-                 * something has changed since we last checked, so let's
-                 * invalidate in that case as well to be on the safe side.
-                 */
-                return false;
-            } else {
+            }
+            long lastModified = getLastModified();
+            if (timestamp == lastModified) {
                 return true;
             }
+            /*
+             * The files have been touched, e.g. by a redeploy or a version
+             * control checkout. The result is still valid if the contents are
+             * the same.
+             */
+            if (sourceHash != null && sourceHash.equals(getSourceHash())) {
+                timestamp = lastModified;
+                return true;
+            }
+            return false;
         }
 
         public String getScssFileName() {
@@ -187,6 +238,8 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
     private VaadinServletService servletService;
 
+    private StaticResourceCache staticResourceCache;
+
     /**
      * Called by the servlet container to indicate to a servlet that the servlet
      * is being placed into service.
@@ -211,11 +264,48 @@ public class VaadinServlet extends HttpServlet implements Constants {
         // Sets current service even though there are no request and response
         servletService.setCurrentInstances(null, null);
 
+        DeploymentConfiguration configuration = servletService
+                .getDeploymentConfiguration();
+        long cacheSize = configuration.getStaticResourceCacheSize() * 1024L
+                * 1024L;
+        if (configuration.isProductionMode() && cacheSize > 0) {
+            if (overridesStaticResourceMethods()) {
+                // Cache hits would bypass the customized methods
+                getLogger().info(
+                        "Static resource cache disabled because the servlet overrides findResourceURL or writeStaticResourceResponse");
+            } else {
+                // Never use more than a small share of the heap
+                staticResourceCache = new StaticResourceCache(Math
+                        .min(cacheSize, Runtime.getRuntime().maxMemory() / 16));
+            }
+        }
+
         servletInitialized();
 
         CurrentInstance.clearAll();
     }
 
+    private boolean overridesStaticResourceMethods() {
+        for (Class<?> type = getClass(); type != VaadinServlet.class; type = type
+                .getSuperclass()) {
+            try {
+                type.getDeclaredMethod("findResourceURL", String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden in this class
+            }
+            try {
+                type.getDeclaredMethod("writeStaticResourceResponse",
+                        HttpServletRequest.class, HttpServletResponse.class,
+                        URL.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden in this class
+            }
+        }
+        return false;
+    }
+
     private void readUiFromEnclosingClass(Properties initParameters) {
         Class<?> enclosingClass = getClass().getEnclosingClass();
 
@@ -737,26 +827,27 @@ public class VaadinServlet extends HttpServlet implements Constants {
                     ';' }));
 
     /**
-     * Mutex for preventing to scss compilations to take place simultaneously.
-     * This is a workaround needed as the scss compiler currently is not thread
-     * safe (#10292).
+     * Locks for preventing the same scss file from being compiled more than
+     * once at a time, by scss file name. Different files are compiled
+     * concurrently since the compiler keeps its state in the stylesheet being
+     * compiled.
      * <p>
-     * In addition, this is also used to protect the cached compilation results.
+     * In addition, these are also used to protect the cached compilation result
+     * of the scss file.
      */
-    private static final Object SCSS_MUTEX = new Object();
+    private final ConcurrentHashMap<String, Object> scssLocks = new ConcurrentHashMap<>();
 
     /**
-     * Global cache of scss compilation results. This map is protected from
-     * concurrent access by {@link #SCSS_MUTEX}.
+     * Global cache of scss compilation results. Each entry is protected from
+     * concurrent access by the lock of the scss file in {@link #scssLocks}.
      */
-    private final Map<String, ScssCacheEntry> scssCache = new HashMap<>();
+    private final Map<String, ScssCacheEntry> scssCache = new ConcurrentHashMap<>();
 
     /**
      * Keeps track of whether a warning about not being able to persist cache
-     * files has already been printed. The flag is protected from concurrent
-     * access by {@link #SCSS_MUTEX}.
+     * files has already been printed.
      */
-    private static boolean scssCompileWarWarningEmitted = false;
+    private static volatile boolean scssCompileWarWarningEmitted = false;
 
     /**
      * Returns the default theme. Must never return null.
@@ -813,6 +904,17 @@ public class VaadinServlet extends HttpServlet implements Constants {
             throws IOException, ServletException {
 
         final ServletContext sc = getServletContext();
+        StaticResourceCache.Entry cached = null;
+        if (staticResourceCache != null) {
+            cached = staticResourceCache.get(filename);
+            if (cached != null) {
+                // Found and checked when the resource was cached
+                writeCachedStaticResourceResponse(filename, request, response,
+                        cached);
+                return;
+            }
+        }
+
         URL resourceUrl = findResourceURL(filename);
 
         if (resourceUrl == null) {
@@ -841,14 +943,23 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return;
         }
 
-        String cacheControl = "public, max-age=0, must-revalidate";
-        int resourceCacheTime = getCacheTime(filename);
-        if (resourceCacheTime > 0) {
-            cacheControl = "max-age=" + String.valueOf(resourceCacheTime);
+        if (staticResourceCache != null) {
+            try {
+                cached = staticResourceCache.getOrLoad(filename, resourceUrl,
+                        isCompressibleStaticResource(filename));
+            } catch (IOException e) {
+                // Serve without caching, e.g. to get the right error status
+                getLogger().log(Level.FINE,
+                        "Failed to cache static resource " + filename, e);
+            }
+            if (cached != null) {
+                writeCachedStaticResourceResponse(filename, request, response,
+                        cached);
+                return;
+            }
         }
-        response.setHeader("Cache-Control", cacheControl);
-        response.setDateHeader("Expires",
-                System.currentTimeMillis() + resourceCacheTime * 1000);
+
+        setStaticResourceCacheHeaders(filename, response);
 
         // Find the modification timestamp
         long lastModifiedTime = 0;
@@ -897,6 +1008,108 @@ public class VaadinServlet extends HttpServlet implements Constants {
         writeStaticResourceResponse(request, response, resourceUrl);
     }
 
+    private void setStaticResourceCacheHeaders(String filename,
+            HttpServletResponse response) {
+        String cacheControl = "public, max-age=0, must-revalidate";
+        int resourceCacheTime = getCacheTime(filename);
+        if (resourceCacheTime > 0) {
+            cacheControl = "max-age=" + String.valueOf(resourceCacheTime);
+        }
+        response.setHeader("Cache-Control", cacheControl);
+        response.setDateHeader("Expires",
+                System.currentTimeMillis() + resourceCacheTime * 1000);
+    }
+
+    /**
+     * Writes a static resource from the in-memory cache. The most compact
+     * variant accepted by the browser is written at once, unless the browser
+     * already has the same version.
+     */
+    private void writeCachedStaticResourceResponse(String filename,
+            HttpServletRequest request, HttpServletResponse response,
+            StaticResourceCache.Entry cached) throws IOException {
+        setStaticResourceCacheHeaders(filename, response);
+
+        String contentEncoding = null;
+        byte[] content = cached.getContent();
+        if (cached.getBrotliContent() != null
+                && acceptsEncoding(request, "br")) {
+            contentEncoding = "br";
+            content = cached.getBrotliContent();
+        } else if (cached.getGzipContent() != null
+                && allowServePrecompressedResource(request, filename)) {
+            contentEncoding = "gzip";
+            content = cached.getGzipContent();
+        }
+        if (cached.hasCompressedVariants()) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        String etag = cached.getETag(contentEncoding);
+        response.setHeader("ETag", etag);
+        if (cached.getLastModified() > 0) {
+            response.setDateHeader("Last-Modified", cached.getLastModified());
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null ? matchesETag(ifNoneMatch, etag)
+                : browserHasNewestVersion(request, cached.getLastModified())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final String mimetype = getServletContext().getMimeType(filename);
+        if (mimetype != null) {
+            response.setContentType(mimetype);
+        }
+        if (contentEncoding != null) {
+            response.setHeader("Content-Encoding", contentEncoding);
+        }
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                // Weak comparison is used for If-None-Match
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsEncoding(HttpServletRequest request,
+            String contentEncoding) {
+        String accept = request.getHeader("Accept-Encoding");
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.split(";");
+            if (contentEncoding.equalsIgnoreCase(parts[0].trim())) {
+                // Explicitly refused with q=0
+                return parts.length == 1
+                        || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether compressed variants should be created for a static
+     * resource that is cached in memory. By default, variants are created for
+     * the same file types as the servlet serves precompressed versions for.
+     */
+    private static boolean isCompressibleStaticResource(String filename) {
+        return filename.endsWith(".js") || filename.endsWith(".css")
+                || filename.endsWith(".html");
+    }
+
     /**
      * Calculates the cache lifetime for the given filename in seconds. By
      * default filenames containing ".nocache." return 0, filenames containing
@@ -933,6 +1146,11 @@ public class VaadinServlet extends HttpServlet implements Constants {
     /**
      * Writes the contents of the given resourceUrl in the response. Can be
      * overridden to add/modify response headers and similar.
+     * <p>
+     * If an in-memory cache of static resources has been enabled with the
+     * <code>staticResourceCacheSize</code> parameter, cached resources are
+     * served without calling this method. The cache is not used if this method
+     * or {@link #findResourceURL(String)} is overridden.
      *
      * @param request
      *            The request for the resource
@@ -1094,7 +1312,9 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return true;
         }
 
-        synchronized (SCSS_MUTEX) {
+        Object lock = scssLocks.computeIfAbsent(scssFilename,
+                key -> new Object());
+        synchronized (lock) {
             ScssCacheEntry cacheEntry = scssCache.get(scssFilename);
 
             if (cacheEntry == null) {
@@ -1110,12 +1330,13 @@ public class VaadinServlet extends HttpServlet implements Constants {
                 cacheEntry = compileScssOnTheFly(filename, scssFilename, sc);
                 persistCacheEntry(cacheEntry);
             }
-            scssCache.put(scssFilename, cacheEntry);
 
             if (cacheEntry == null) {
                 // compilation did not produce any result, but logged a message
+                scssCache.remove(scssFilename);
                 return false;
             }
+            scssCache.put(scssFilename, cacheEntry);
 
             // This is for development mode only so instruct the browser to
             // never cache it
@@ -1136,7 +1357,7 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return null;
         }
 
-        String jsonString = readFile(scssCacheFile, StandardCharsets.UTF_8);
+        String jsonString = readScssCacheFile(scssCacheFile);
 
         JsonObject entryJson = Json.parse(jsonString);
 
@@ -1459,36 +1680,39 @@ public class VaadinServlet extends HttpServlet implements Constants {
         String cacheEntryJsonString = cacheEntry.asJson();
 
         try {
-            writeFile(cacheEntryJsonString, cacheFile, StandardCharsets.UTF_8);
+            // Compressed, since the css of a theme is easily megabytes
+            try (OutputStream out = new GZIPOutputStream(
+                    new FileOutputStream(cacheFile))) {
+                out.write(cacheEntryJsonString.getBytes(UTF_8));
+            }
         } catch (IOException e) {
             getLogger().log(Level.WARNING,
                     "Error persisting scss cache " + cacheFile, e);
         }
     }
 
-    private static String readFile(File file, Charset charset)
-            throws IOException {
-        try (InputStream in = new FileInputStream(file)) {
-            // no point in reading files over 2GB to a String
-            byte[] b = new byte[(int) file.length()];
-            int len = b.length;
-            int total = 0;
-
-            while (total < len) {
-                int result = in.read(b, total, len - total);
-                if (result == -1) {
-                    break;
+    /**
+     * Reads a persisted scss cache file, which is either gzip compressed or
+     * plain JSON as written by older versions.
+     */
+    private static String readScssCacheFile(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(
+                new FileInputStream(file))) {
+            in.mark(2);
+            boolean gzipped = in.read() == (GZIPInputStream.GZIP_MAGIC & 0xff)
+                    && in.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+            in.reset();
+            try (Reader reader = new InputStreamReader(
+                    gzipped ? new GZIPInputStream(in) : in,
+                    StandardCharsets.UTF_8)) {
+                StringBuilder content = new StringBuilder();
+                char[] buffer = new char[DEFAULT_BUFFER_SIZE];
+                int read;
+                while ((read = reader.read(buffer)) >= 0) {
+                    content.append(buffer, 0, read);
                 }
-                total += result;
+                return content.toString();
             }
-            return new String(b, charset);
-        }
-    }
-
-    private static void writeFile(String content, File file, Charset charset)
-            throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(content.getBytes(charset));
         }
     }
 
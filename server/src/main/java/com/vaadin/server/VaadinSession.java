@@ -21,6 +21,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -37,8 +38,10 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -178,6 +181,59 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     // javadoc in UI should be updated if this value is changed
     public static final String UI_PARAMETER = "UI";
 
+    /**
+     * The session lock used when per-UI locking is enabled. Locking it gives
+     * exclusive access to the whole session in the same way as the regular
+     * session lock. UIs are instead locked using the shared lock together with
+     * the lock of the UI, so that requests to different UIs in the same session
+     * can be handled at the same time.
+     *
+     * @see DeploymentConfiguration#isUILockingEnabled()
+     */
+    static class UILockingSessionLock extends ReentrantReadWriteLock.WriteLock {
+
+        private final ReentrantReadWriteLock readWriteLock;
+
+        UILockingSessionLock() {
+            this(new ReentrantReadWriteLock());
+        }
+
+        private UILockingSessionLock(ReentrantReadWriteLock readWriteLock) {
+            super(readWriteLock);
+            this.readWriteLock = readWriteLock;
+        }
+
+        /**
+         * Gets the lock that is held together with the lock of a UI.
+         *
+         * @return the shared lock
+         */
+        Lock getSharedLock() {
+            return readWriteLock.readLock();
+        }
+
+        /**
+         * Checks whether the current thread holds the shared lock.
+         *
+         * @return <code>true</code> if the shared lock is held by the current
+         *         thread, otherwise <code>false</code>
+         */
+        boolean isSharedLockHeldByCurrentThread() {
+            return readWriteLock.getReadHoldCount() > 0;
+        }
+
+        /**
+         * Checks whether any thread is waiting for either the exclusive or the
+         * shared lock.
+         *
+         * @return <code>true</code> if there are waiting threads, otherwise
+         *         <code>false</code>
+         */
+        boolean hasQueuedThreads() {
+            return readWriteLock.hasQueuedThreads();
+        }
+    }
+
     private static final Method BOOTSTRAP_FRAGMENT_METHOD = ReflectTools
             .findMethod(BootstrapListener.class, "modifyBootstrapFragment",
                     BootstrapFragmentResponse.class);
@@ -243,6 +299,14 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private transient Lock lock;
 
+    /*
+     * Guards the session wide state that is accessed by UIs when per-UI locking
+     * is enabled. Only held for the duration of a single operation, and not
+     * used at all without per-UI locking, since the session lock is then always
+     * held exclusively.
+     */
+    private transient ReentrantLock stateLock = new ReentrantLock();
+
     /*
      * Pending tasks can't be serialized and the queue should be empty when the
      * session is serialized as long as it doesn't happen while some other
@@ -334,7 +398,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public long getCumulativeRequestDuration() {
         assert hasLock();
-        return cumulativeRequestDuration;
+        lockState();
+        try {
+            return cumulativeRequestDuration;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -346,8 +415,13 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void setLastRequestDuration(long time) {
         assert hasLock();
-        lastRequestDuration = time;
-        cumulativeRequestDuration += time;
+        lockState();
+        try {
+            lastRequestDuration = time;
+            cumulativeRequestDuration += time;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -356,7 +430,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public long getLastRequestDuration() {
         assert hasLock();
-        return lastRequestDuration;
+        lockState();
+        try {
+            return lastRequestDuration;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -369,7 +448,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void setLastRequestTimestamp(long timestamp) {
         assert hasLock();
-        lastRequestTimestamp = timestamp;
+        lockState();
+        try {
+            lastRequestTimestamp = timestamp;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -380,7 +464,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public long getLastRequestTimestamp() {
         assert hasLock();
-        return lastRequestTimestamp;
+        lockState();
+        try {
+            return lastRequestTimestamp;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -411,10 +500,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     }
 
     public DragAndDropService getDragAndDropService() {
-        if (dragAndDropService == null) {
-            dragAndDropService = new DragAndDropService(this);
+        lockState();
+        try {
+            if (dragAndDropService == null) {
+                dragAndDropService = new DragAndDropService(this);
+            }
+            return dragAndDropService;
+        } finally {
+            unlockState();
         }
-        return dragAndDropService;
     }
 
     /**
@@ -527,7 +621,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public DeploymentConfiguration getConfiguration() {
         assert hasLock();
-        return configuration;
+        lockState();
+        try {
+            return configuration;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -540,10 +639,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public Locale getLocale() {
         assert hasLock();
-        if (locale != null) {
-            return locale;
+        lockState();
+        try {
+            if (locale != null) {
+                return locale;
+            }
+            return Locale.getDefault();
+        } finally {
+            unlockState();
         }
-        return Locale.getDefault();
     }
 
     /**
@@ -558,7 +662,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void setLocale(Locale locale) {
         assert hasLock();
-        this.locale = locale;
+        lockState();
+        try {
+            this.locale = locale;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -568,7 +677,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public ErrorHandler getErrorHandler() {
         assert hasLock();
-        return errorHandler;
+        lockState();
+        try {
+            return errorHandler;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -578,7 +692,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void setErrorHandler(ErrorHandler errorHandler) {
         assert hasLock();
-        this.errorHandler = errorHandler;
+        lockState();
+        try {
+            this.errorHandler = errorHandler;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -594,7 +713,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     @Deprecated
     public Object getConverterFactory() {
         assert hasLock();
-        return converterFactory;
+        lockState();
+        try {
+            return converterFactory;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -619,7 +743,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     @Deprecated
     public void setConverterFactory(Object converterFactory) {
         assert hasLock();
-        this.converterFactory = converterFactory;
+        lockState();
+        try {
+            this.converterFactory = converterFactory;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -640,7 +769,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void addRequestHandler(RequestHandler handler) {
         assert hasLock();
-        requestHandlers.addFirst(handler);
+        lockState();
+        try {
+            requestHandlers.addFirst(handler);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -653,7 +787,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void removeRequestHandler(RequestHandler handler) {
         assert hasLock();
-        requestHandlers.remove(handler);
+        lockState();
+        try {
+            requestHandlers.remove(handler);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -671,6 +810,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public Collection<RequestHandler> getRequestHandlers() {
         assert hasLock();
+        if (isUILockingEnabled()) {
+            lockState();
+            try {
+                return Collections.unmodifiableCollection(
+                        new ArrayList<>(requestHandlers));
+            } finally {
+                unlockState();
+            }
+        }
         return Collections.unmodifiableCollection(requestHandlers);
     }
 
@@ -730,6 +878,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public Collection<UI> getUIs() {
         assert hasLock();
+        if (isUILockingEnabled()) {
+            lockState();
+            try {
+                return Collections
+                        .unmodifiableCollection(new ArrayList<>(uIs.values()));
+            } finally {
+                unlockState();
+            }
+        }
         return Collections.unmodifiableCollection(uIs.values());
     }
 
@@ -773,7 +930,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public String getNextConnectorId() {
         assert hasLock();
-        return String.valueOf(connectorIdSequence++);
+        lockState();
+        try {
+            return String.valueOf(connectorIdSequence++);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -788,31 +950,106 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public UI getUIById(int uiId) {
         assert hasLock();
-        return uIs.get(uiId);
+        lockState();
+        try {
+            return uIs.get(uiId);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
      * Checks if the current thread has exclusive access to this VaadinSession.
+     * <p>
+     * With per-UI locking, the thread may instead hold the lock of a UI in the
+     * session. Session wide state is then guarded separately, but if the
+     * current UI belongs to this session, its lock must be held. Use
+     * {@link #hasLock(UI)} to check access to a specific UI.
      *
      * @return true if the thread has exclusive access, false otherwise
      * @since 7.1
      */
     public boolean hasLock() {
-        ReentrantLock l = ((ReentrantLock) getLockInstance());
-        return l.isHeldByCurrentThread();
+        Lock lock = getLockInstance();
+        if (!(lock instanceof UILockingSessionLock)) {
+            return ((ReentrantLock) lock).isHeldByCurrentThread();
+        }
+        UILockingSessionLock l = (UILockingSessionLock) lock;
+        if (l.isHeldByCurrentThread()) {
+            return true;
+        }
+        if (!l.isSharedLockHeldByCurrentThread()) {
+            return false;
+        }
+        UI ui = UI.getCurrent();
+        return ui == null || ui.getSession() != this || isUILockHeld(ui);
+    }
+
+    /**
+     * Checks if the current thread has exclusive access to the given UI of this
+     * session. Without per-UI locking, this is the same as {@link #hasLock()}.
+     * With per-UI locking, the thread must hold either the lock of the given UI
+     * or the lock of the whole session.
+     *
+     * @see #lockUI(UI)
+     *
+     * @since 8.7
+     * @param ui
+     *            the UI to check, or <code>null</code> to check only the
+     *            session
+     * @return true if the thread has exclusive access to the UI, false
+     *         otherwise
+     */
+    public boolean hasLock(UI ui) {
+        Lock lock = getLockInstance();
+        if (ui == null || !(lock instanceof UILockingSessionLock)) {
+            return hasLock();
+        }
+        UILockingSessionLock l = (UILockingSessionLock) lock;
+        return l.isHeldByCurrentThread()
+                || l.isSharedLockHeldByCurrentThread() && isUILockHeld(ui);
+    }
+
+    private static boolean isUILockHeld(UI ui) {
+        return ((ReentrantLock) ui.getLockInstance()).isHeldByCurrentThread();
     }
 
     /**
      * Checks if the current thread has exclusive access to the given
-     * WrappedSession.
+     * WrappedSession. With per-UI locking, holding the shared lock that is held
+     * together with the lock of a UI also counts.
      *
      * @return true if this thread has exclusive access, false otherwise
      * @since 7.6
      */
     protected static boolean hasLock(VaadinService service,
             WrappedSession session) {
-        ReentrantLock l = (ReentrantLock) service.getSessionLock(session);
-        return l.isHeldByCurrentThread();
+        Lock lock = service.getSessionLock(session);
+        if (lock instanceof UILockingSessionLock) {
+            UILockingSessionLock l = (UILockingSessionLock) lock;
+            return l.isHeldByCurrentThread()
+                    || l.isSharedLockHeldByCurrentThread();
+        }
+        return ((ReentrantLock) lock).isHeldByCurrentThread();
+    }
+
+    /**
+     * Checks if the current thread holds the lock of the whole given
+     * WrappedSession, and not only the shared lock used with per-UI locking.
+     *
+     * @param service
+     *            the service of the session
+     * @param session
+     *            the wrapped session to check
+     * @return true if the thread holds the exclusive lock, false otherwise
+     */
+    static boolean hasExclusiveLock(VaadinService service,
+            WrappedSession session) {
+        Lock lock = service.getSessionLock(session);
+        if (lock instanceof UILockingSessionLock) {
+            return ((UILockingSessionLock) lock).isHeldByCurrentThread();
+        }
+        return ((ReentrantLock) lock).isHeldByCurrentThread();
     }
 
     /**
@@ -831,15 +1068,25 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public Registration addBootstrapListener(BootstrapListener listener) {
         assert hasLock();
-        eventRouter.addListener(BootstrapFragmentResponse.class, listener,
-                BOOTSTRAP_FRAGMENT_METHOD);
-        eventRouter.addListener(BootstrapPageResponse.class, listener,
-                BOOTSTRAP_PAGE_METHOD);
-        return () -> {
-            eventRouter.removeListener(BootstrapFragmentResponse.class,
-                    listener, BOOTSTRAP_FRAGMENT_METHOD);
-            eventRouter.removeListener(BootstrapPageResponse.class, listener,
+        lockState();
+        try {
+            eventRouter.addListener(BootstrapFragmentResponse.class, listener,
+                    BOOTSTRAP_FRAGMENT_METHOD);
+            eventRouter.addListener(BootstrapPageResponse.class, listener,
                     BOOTSTRAP_PAGE_METHOD);
+        } finally {
+            unlockState();
+        }
+        return () -> {
+            lockState();
+            try {
+                eventRouter.removeListener(BootstrapFragmentResponse.class,
+                        listener, BOOTSTRAP_FRAGMENT_METHOD);
+                eventRouter.removeListener(BootstrapPageResponse.class,
+                        listener, BOOTSTRAP_PAGE_METHOD);
+            } finally {
+                unlockState();
+            }
         };
     }
 
@@ -857,10 +1104,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     @Deprecated
     public void removeBootstrapListener(BootstrapListener listener) {
         assert hasLock();
-        eventRouter.removeListener(BootstrapFragmentResponse.class, listener,
-                BOOTSTRAP_FRAGMENT_METHOD);
-        eventRouter.removeListener(BootstrapPageResponse.class, listener,
-                BOOTSTRAP_PAGE_METHOD);
+        lockState();
+        try {
+            eventRouter.removeListener(BootstrapFragmentResponse.class,
+                    listener, BOOTSTRAP_FRAGMENT_METHOD);
+            eventRouter.removeListener(BootstrapPageResponse.class, listener,
+                    BOOTSTRAP_PAGE_METHOD);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -878,6 +1130,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     @Deprecated
     public void modifyBootstrapResponse(BootstrapResponse response) {
         assert hasLock();
+        // Listeners are run without the state lock, the session is locked
+        // exclusively while writing the bootstrap response
         eventRouter.fireEvent(response);
     }
 
@@ -895,10 +1149,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         assert UI.getCurrent().getUIId() == ui.getUIId() : "UIs don't match";
         Integer id = Integer.valueOf(ui.getUIId());
         ui.setSession(null);
-        uIs.remove(id);
-        String embedId = ui.getEmbedId();
-        if (embedId != null && id.equals(embedIdMap.get(embedId))) {
-            embedIdMap.remove(embedId);
+        lockState();
+        try {
+            uIs.remove(id);
+            String embedId = ui.getEmbedId();
+            if (embedId != null && id.equals(embedIdMap.get(embedId))) {
+                embedIdMap.remove(embedId);
+            }
+        } finally {
+            unlockState();
         }
     }
 
@@ -922,12 +1181,17 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public GlobalResourceHandler getGlobalResourceHandler(
             boolean createOnDemand) {
         assert hasLock();
-        if (globalResourceHandler == null && createOnDemand) {
-            globalResourceHandler = new GlobalResourceHandler();
-            addRequestHandler(globalResourceHandler);
-        }
+        lockState();
+        try {
+            if (globalResourceHandler == null && createOnDemand) {
+                globalResourceHandler = new GlobalResourceHandler();
+                addRequestHandler(globalResourceHandler);
+            }
 
-        return globalResourceHandler;
+            return globalResourceHandler;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -985,13 +1249,30 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * <p>
      * {@link #getLockInstance()} can be used if more control over the locking
      * is required.
+     * <p>
+     * With per-UI locking, the session cannot be locked by a thread that holds
+     * the lock of a UI. {@link #access(Runnable)} should be used instead in
+     * that case.
      *
+     * @throws IllegalStateException
+     *             if per-UI locking is enabled and the current thread holds the
+     *             lock of a UI but not the lock of the whole session
+     * @see DeploymentConfiguration#isUILockingEnabled()
      * @see #unlock()
      * @see #getLockInstance()
      * @see #hasLock()
      */
     public void lock() {
-        getLockInstance().lock();
+        Lock lock = getLockInstance();
+        if (lock instanceof UILockingSessionLock
+                && !((UILockingSessionLock) lock).isHeldByCurrentThread()
+                && ((UILockingSessionLock) lock)
+                        .isSharedLockHeldByCurrentThread()) {
+            throw new IllegalStateException(
+                    "Cannot lock the whole session while holding the lock of a UI in it. "
+                            + "Use VaadinSession.access(Runnable) instead.");
+        }
+        lock.lock();
     }
 
     /**
@@ -1008,22 +1289,27 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void unlock() {
         assert hasLock();
         boolean ultimateRelease = false;
+        Collection<UI> uis = Collections.emptyList();
         try {
             /*
              * Run pending tasks and push if the reentrant lock will actually be
              * released by this unlock() invocation.
              */
-            if (((ReentrantLock) getLockInstance()).getHoldCount() == 1) {
+            if (getHoldCount(getLockInstance()) == 1) {
                 ultimateRelease = true;
                 getService().runPendingAccessTasks(this);
 
-                for (UI ui : getUIs()) {
+                uis = getUIs();
+                for (UI ui : uis) {
+                    // Only used with per-UI locking
+                    getService().runPendingAccessTasks(ui);
+
                     if (ui.getPushConfiguration()
                             .getPushMode() == PushMode.AUTOMATIC) {
                         Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
                                 .setCurrent(ui);
                         try {
-                            ui.push();
+                            ui.pushAutomatically();
                         } finally {
                             CurrentInstance.restoreInstances(oldCurrent);
                         }
@@ -1053,6 +1339,178 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         if (ultimateRelease && !getPendingAccessQueue().isEmpty()) {
             getService().ensureAccessQueuePurged(this);
         }
+        if (ultimateRelease && isUILockingEnabled()) {
+            for (UI ui : uis) {
+                if (!ui.getPendingAccessQueue().isEmpty()) {
+                    getService().ensureAccessQueuePurged(ui);
+                }
+            }
+        }
+    }
+
+    private static int getHoldCount(Lock lock) {
+        if (lock instanceof UILockingSessionLock) {
+            return ((UILockingSessionLock) lock).getHoldCount();
+        }
+        return ((ReentrantLock) lock).getHoldCount();
+    }
+
+    /*
+     * Locks the session wide state if per-UI locking is enabled. Must be
+     * followed by unlockState() in a finally block.
+     */
+    private void lockState() {
+        if (isUILockingEnabled()) {
+            stateLock.lock();
+        }
+    }
+
+    private void unlockState() {
+        if (isUILockingEnabled() && stateLock.isHeldByCurrentThread()) {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether per-UI locking is used for this session. With per-UI
+     * locking, each UI has a lock of its own and requests to different UIs in
+     * the session can be handled concurrently. {@link #lock()} still gives
+     * exclusive access to the whole session.
+     *
+     * @see DeploymentConfiguration#isUILockingEnabled()
+     * @see #lockUI(UI)
+     *
+     * @since 8.7
+     * @return <code>true</code> if per-UI locking is enabled, otherwise
+     *         <code>false</code>
+     */
+    public boolean isUILockingEnabled() {
+        return getLockInstance() instanceof UILockingSessionLock;
+    }
+
+    /**
+     * Locks the given UI of this session to protect its data from concurrent
+     * access. With per-UI locking, other UIs in the session can be accessed by
+     * other threads while the lock is held. Without per-UI locking, this is the
+     * same as {@link #lock()}.
+     * <p>
+     * The preferred way to access a UI is {@link UI#access(Runnable)}. When
+     * locking manually, {@link #unlockUI(UI)} should always be called in a
+     * finally block.
+     *
+     * @see #isUILockingEnabled()
+     * @see #unlockUI(UI)
+     *
+     * @since 8.7
+     * @param ui
+     *            the UI to lock, not <code>null</code>
+     */
+    public void lockUI(UI ui) {
+        if (!isUILockingEnabled()) {
+            lock();
+            return;
+        }
+        Lock sharedLock = ((UILockingSessionLock) getLockInstance())
+                .getSharedLock();
+        sharedLock.lock();
+        try {
+            ui.getLockInstance().lock();
+        } catch (RuntimeException | Error e) {
+            sharedLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Tries to lock the given UI of this session without waiting.
+     *
+     * @param ui
+     *            the UI to lock
+     * @return <code>true</code> if the UI was locked, otherwise
+     *         <code>false</code>
+     */
+    boolean tryLockUI(UI ui) {
+        try {
+            if (!isUILockingEnabled()) {
+                // tryLock() would be shorter, but it does not guarantee
+                // fairness
+                return getLockInstance().tryLock(0, TimeUnit.SECONDS);
+            }
+            Lock sharedLock = ((UILockingSessionLock) getLockInstance())
+                    .getSharedLock();
+            if (!sharedLock.tryLock(0, TimeUnit.SECONDS)) {
+                return false;
+            }
+            if (ui.getLockInstance().tryLock(0, TimeUnit.SECONDS)) {
+                return true;
+            }
+            sharedLock.unlock();
+        } catch (InterruptedException e) {
+            // Just ignore
+        }
+        return false;
+    }
+
+    /**
+     * Unlocks the given UI of this session. Without per-UI locking, this is the
+     * same as {@link #unlock()}.
+     * <p>
+     * If the UI has its push mode set to {@link PushMode#AUTOMATIC automatic},
+     * pending changes will be pushed to the client.
+     *
+     * @see #lockUI(UI)
+     *
+     * @since 8.7
+     * @param ui
+     *            the UI to unlock, not <code>null</code>
+     */
+    public void unlockUI(UI ui) {
+        if (!isUILockingEnabled()) {
+            unlock();
+            return;
+        }
+        ReentrantLock uiLock = (ReentrantLock) ui.getLockInstance();
+        assert uiLock.isHeldByCurrentThread();
+        boolean ultimateRelease = false;
+        try {
+            if (uiLock.getHoldCount() == 1) {
+                ultimateRelease = true;
+                getService().runPendingAccessTasks(ui);
+
+                if (ui.getSession() == this && ui.getPushConfiguration()
+                        .getPushMode() == PushMode.AUTOMATIC) {
+                    Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                            .setCurrent(ui);
+                    try {
+                        ui.pushAutomatically();
+                    } finally {
+                        CurrentInstance.restoreInstances(oldCurrent);
+                    }
+                }
+                try {
+                    ui.getConnectorTracker().cleanConnectorMap(false);
+                } catch (AssertionError | Exception e) {
+                    getLogger().log(Level.SEVERE,
+                            "Exception while cleaning connector map for ui "
+                                    + ui.getUIId(),
+                            e);
+                }
+            }
+        } finally {
+            uiLock.unlock();
+            ((UILockingSessionLock) getLockInstance()).getSharedLock().unlock();
+        }
+
+        /*
+         * Same as in unlock(), tasks might have been enqueued after the queues
+         * were purged but before the locks were released.
+         */
+        if (ultimateRelease && !ui.getPendingAccessQueue().isEmpty()) {
+            getService().ensureAccessQueuePurged(ui);
+        }
+        if (ultimateRelease && !getPendingAccessQueue().isEmpty()) {
+            getService().ensureAccessQueuePurged(this);
+        }
     }
 
     /**
@@ -1075,10 +1533,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         if (name == null) {
             throw new IllegalArgumentException("name can not be null");
         }
-        if (value != null) {
-            attributes.put(name, value);
-        } else {
-            attributes.remove(name);
+        lockState();
+        try {
+            if (value != null) {
+                attributes.put(name, value);
+            } else {
+                attributes.remove(name);
+            }
+        } finally {
+            unlockState();
         }
     }
 
@@ -1132,7 +1595,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         if (name == null) {
             throw new IllegalArgumentException("name can not be null");
         }
-        return attributes.get(name);
+        lockState();
+        try {
+            return attributes.get(name);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1174,7 +1642,92 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public int getNextUIid() {
         assert hasLock();
-        return nextUIId++;
+        lockState();
+        try {
+            return nextUIId++;
+        } finally {
+            unlockState();
+        }
+    }
+
+    /**
+     * Gets the id that will be given to the next UI of this session.
+     *
+     * @return the next UI id
+     */
+    int getUIIdSequence() {
+        lockState();
+        try {
+            return nextUIId;
+        } finally {
+            unlockState();
+        }
+    }
+
+    /**
+     * Gets the number of UIs in this session without requiring the session to
+     * be locked.
+     *
+     * @return the number of UIs
+     */
+    int getUICount() {
+        lockState();
+        try {
+            return uIs.size();
+        } finally {
+            unlockState();
+        }
+    }
+
+    /**
+     * Gets the id that will be given to the next connector of this session.
+     *
+     * @return the next connector id
+     */
+    int getConnectorIdSequence() {
+        lockState();
+        try {
+            return connectorIdSequence;
+        } finally {
+            unlockState();
+        }
+    }
+
+    /**
+     * Replaces UIs of this session with replicated copies. Used by
+     * {@link SessionSerializer} for applying the changed UIs of a session
+     * replicated from another node.
+     *
+     * @param uiIds
+     *            the ids of all UIs that should remain in this session
+     * @param changedUIs
+     *            the UIs to add or replace existing UIs with
+     * @param uiIdSequence
+     *            the next UI id of the replicated session
+     * @param connectorIdSequence
+     *            the next connector id of the replicated session
+     */
+    void replaceUIs(Set<Integer> uiIds, Collection<UI> changedUIs,
+            int uiIdSequence, int connectorIdSequence) {
+        assert hasLock();
+        lockState();
+        try {
+            uIs.keySet().retainAll(uiIds);
+            for (UI ui : changedUIs) {
+                uIs.put(ui.getUIId(), ui);
+            }
+            embedIdMap.clear();
+            for (UI ui : uIs.values()) {
+                if (ui.getEmbedId() != null) {
+                    embedIdMap.put(ui.getEmbedId(), ui.getUIId());
+                }
+            }
+            nextUIId = Math.max(nextUIId, uiIdSequence);
+            this.connectorIdSequence = Math.max(this.connectorIdSequence,
+                    connectorIdSequence);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1195,13 +1748,21 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
 
         Integer uiId = Integer.valueOf(ui.getUIId());
-        uIs.put(uiId, ui);
-
         String embedId = ui.getEmbedId();
+        Integer previousUiId = null;
+        lockState();
+        try {
+            uIs.put(uiId, ui);
+            if (embedId != null) {
+                previousUiId = embedIdMap.put(embedId, uiId);
+            }
+        } finally {
+            unlockState();
+        }
+
         if (embedId != null) {
-            Integer previousUiId = embedIdMap.put(embedId, uiId);
             if (previousUiId != null) {
-                UI previousUi = uIs.get(previousUiId);
+                UI previousUi = getUIById(previousUiId);
                 assert previousUi != null && embedId.equals(previousUi
                         .getEmbedId()) : "UI id map and embed id map not in sync";
 
@@ -1219,7 +1780,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void addUIProvider(UIProvider uiProvider) {
         assert hasLock();
-        uiProviders.addFirst(uiProvider);
+        lockState();
+        try {
+            uiProviders.addFirst(uiProvider);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1230,7 +1796,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void removeUIProvider(UIProvider uiProvider) {
         assert hasLock();
-        uiProviders.remove(uiProvider);
+        lockState();
+        try {
+            uiProviders.remove(uiProvider);
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1240,6 +1811,15 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public List<UIProvider> getUIProviders() {
         assert hasLock();
+        if (isUILockingEnabled()) {
+            lockState();
+            try {
+                return Collections
+                        .unmodifiableList(new ArrayList<>(uiProviders));
+            } finally {
+                unlockState();
+            }
+        }
         return Collections.unmodifiableList(uiProviders);
     }
 
@@ -1265,7 +1845,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void close() {
         assert hasLock();
-        state = State.CLOSING;
+        lockState();
+        try {
+            state = State.CLOSING;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1283,7 +1868,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     @Deprecated
     public boolean isClosing() {
         assert hasLock();
-        return state == State.CLOSING || state == State.CLOSED;
+        lockState();
+        try {
+            return state == State.CLOSING || state == State.CLOSED;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1294,7 +1884,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public State getState() {
         assert hasLock();
-        return state;
+        lockState();
+        try {
+            return state;
+        } finally {
+            unlockState();
+        }
     }
 
     /**
@@ -1307,10 +1902,16 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     protected void setState(State state) {
         assert hasLock();
-        assert this.state.isValidChange(state) : "Invalid session state change "
-                + this.state + "->" + state;
+        lockState();
+        try {
+            assert this.state
+                    .isValidChange(state) : "Invalid session state change "
+                            + this.state + "->" + state;
 
-        this.state = state;
+            this.state = state;
+        } finally {
+            unlockState();
+        }
     }
 
     private static final Logger getLogger() {
@@ -1457,7 +2058,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     /**
      * Override default deserialization logic to account for transient
-     * {@link #pendingAccessQueue}.
+     * {@link #pendingAccessQueue} and {@link #stateLock}.
      */
     private void readObject(ObjectInputStream stream)
             throws IOException, ClassNotFoundException {
@@ -1465,6 +2066,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         try {
             stream.defaultReadObject();
             pendingAccessQueue = new ConcurrentLinkedQueue<>();
+            stateLock = new ReentrantLock();
         } finally {
             CurrentInstance.restoreInstances(old);
         }
@@ -1502,7 +2104,13 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see UI#getEmbedId()
      */
     public UI getUIByEmbedId(String embedId) {
-        Integer uiId = embedIdMap.get(embedId);
+        Integer uiId;
+        lockState();
+        try {
+            uiId = embedIdMap.get(embedId);
+        } finally {
+            unlockState();
+        }
         if (uiId == null) {
             return null;
         } else {
@@ -1510,6 +2118,25 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
     }
 
+    /**
+     * Checks whether the transient fields of this session already refer to the
+     * given session and service, so that the session can be used without
+     * calling {@link #refreshTransients(WrappedSession, VaadinService)}.
+     *
+     * @param wrappedSession
+     *            the wrapped session of the current request
+     * @param vaadinService
+     *            the service of the current request
+     * @return <code>true</code> if the transient fields are up to date,
+     *         otherwise <code>false</code>
+     */
+    boolean hasCurrentTransients(WrappedSession wrappedSession,
+            VaadinService vaadinService) {
+        return service == vaadinService && session != null && lock != null
+                && lock == vaadinService.getSessionLock(wrappedSession)
+                && session.getId().equals(wrappedSession.getId());
+    }
+
     /**
      * Refreshes the transient fields of the session to ensure they are up to
      * date.
@@ -32,11 +32,8 @@ import com.vaadin.server.PaintException;
 import com.vaadin.shared.communication.ClientRpc;
 import com.vaadin.ui.UI;
 
-import elemental.json.Json;
-import elemental.json.JsonArray;
 import elemental.json.JsonException;
 import elemental.json.JsonValue;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes {@link ClientRpc client RPC} invocations to JSON.
@@ -62,16 +59,16 @@ public class ClientRpcWriter implements Serializable {
         Collection<ClientMethodInvocation> pendingInvocations = collectPendingRpcCalls(
                 ui.getConnectorTracker().getDirtyVisibleConnectors());
 
-        JsonArray rpcCalls = Json.createArray();
+        JsonStreamWriter json = JsonStreamWriter.wrap(writer);
+        json.beginArray();
         for (ClientMethodInvocation invocation : pendingInvocations) {
             // add invocation to rpcCalls
             try {
-                JsonArray invocationJson = Json.createArray();
-                invocationJson.set(0,
-                        invocation.getConnector().getConnectorId());
-                invocationJson.set(1, invocation.getInterfaceName());
-                invocationJson.set(2, invocation.getMethodName());
-                JsonArray paramJson = Json.createArray();
+                json.beginArray();
+                json.value(invocation.getConnector().getConnectorId());
+                json.value(invocation.getInterfaceName());
+                json.value(invocation.getMethodName());
+                json.beginArray();
                 for (int i = 0; i < invocation
                         .getParameterTypes().length; ++i) {
                     Type parameterType = invocation.getParameterTypes()[i];
@@ -89,10 +86,10 @@ public class ClientRpcWriter implements Serializable {
                     EncodeResult encodeResult = JsonCodec.encode(
                             invocation.getParameters()[i], referenceParameter,
                             parameterType, ui.getConnectorTracker());
-                    paramJson.set(i, encodeResult.getEncodedValue());
+                    json.value(encodeResult.getEncodedValue());
                 }
-                invocationJson.set(3, paramJson);
-                rpcCalls.set(rpcCalls.length(), invocationJson);
+                json.endArray();
+                json.endArray();
             } catch (JsonException e) {
                 throw new PaintException(
                         "Failed to serialize RPC method call parameters for connector "
@@ -103,7 +100,7 @@ public class ClientRpcWriter implements Serializable {
                         e);
             }
         }
-        writer.write(JsonUtil.stringify(rpcCalls));
+        json.endArray();
     }
 
     /**
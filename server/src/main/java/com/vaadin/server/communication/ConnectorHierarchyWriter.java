@@ -19,7 +19,9 @@ package com.vaadin.server.communication;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import com.vaadin.server.AbstractClientConnector;
@@ -34,7 +36,6 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonException;
 import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes a connector hierarchy to JSON.
@@ -63,24 +64,43 @@ public class ConnectorHierarchyWriter implements Serializable {
         Collection<ClientConnector> dirtyVisibleConnectors = ui
                 .getConnectorTracker().getDirtyVisibleConnectors();
 
-        JsonObject hierarchyInfo = Json.createObject();
+        // Only collected for the assert in ConnectorTracker
+        JsonObject hierarchyInfo = ConnectorHierarchyWriter.class
+                .desiredAssertionStatus() ? Json.createObject() : null;
+
+        JsonStreamWriter json = JsonStreamWriter.wrap(writer);
+        json.beginObject();
+        List<String> children = new ArrayList<>();
         for (ClientConnector connector : dirtyVisibleConnectors) {
             String connectorId = connector.getConnectorId();
-            JsonArray children = Json.createArray();
+            children.clear();
 
             for (ClientConnector child : AbstractClientConnector
                     .getAllChildrenIterable(connector)) {
                 if (LegacyCommunicationManager
                         .isConnectorVisibleToClient(child)) {
-                    children.set(children.length(), child.getConnectorId());
+                    children.add(child.getConnectorId());
                 }
             }
 
             // Omit for leaf nodes with state changes
-            if (children.length() > 0
+            if (!children.isEmpty()
                     || !stateUpdateConnectors.contains(connectorId)) {
                 try {
-                    hierarchyInfo.put(connectorId, children);
+                    json.name(connectorId);
+                    json.beginArray();
+                    for (String childId : children) {
+                        json.value(childId);
+                    }
+                    json.endArray();
+
+                    if (hierarchyInfo != null) {
+                        JsonArray childArray = Json.createArray();
+                        for (int i = 0; i < children.size(); i++) {
+                            childArray.set(i, children.get(i));
+                        }
+                        hierarchyInfo.put(connectorId, childArray);
+                    }
                 } catch (JsonException e) {
                     throw new PaintException(
                             "Failed to send hierarchy information about "
@@ -90,11 +110,11 @@ public class ConnectorHierarchyWriter implements Serializable {
                 }
             }
         }
+        json.endObject();
+
         // Dummy assert just for conditionally storing away data that will be
         // used by the real assert later on
         assert storeSentHierarchy(hierarchyInfo, stateUpdateConnectors);
-
-        writer.write(JsonUtil.stringify(hierarchyInfo));
     }
 
     private boolean storeSentHierarchy(JsonObject hierarchyInfo,
@@ -26,10 +26,7 @@ import com.vaadin.server.PaintException;
 import com.vaadin.server.PaintTarget;
 import com.vaadin.ui.UI;
 
-import elemental.json.Json;
 import elemental.json.JsonException;
-import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes connector type mappings to JSON.
@@ -58,11 +55,13 @@ public class ConnectorTypeWriter implements Serializable {
         Collection<ClientConnector> dirtyVisibleConnectors = ui
                 .getConnectorTracker().getDirtyVisibleConnectors();
 
-        JsonObject connectorTypes = Json.createObject();
+        JsonStreamWriter json = JsonStreamWriter.wrap(writer);
+        json.beginObject();
         for (ClientConnector connector : dirtyVisibleConnectors) {
             String connectorType = target.getTag(connector);
             try {
-                connectorTypes.put(connector.getConnectorId(), connectorType);
+                json.name(connector.getConnectorId());
+                json.value(connectorType);
             } catch (JsonException e) {
                 throw new PaintException(
                         "Failed to send connector type for connector "
@@ -71,6 +70,6 @@ public class ConnectorTypeWriter implements Serializable {
                         e);
             }
         }
-        writer.write(JsonUtil.stringify(connectorTypes));
+        json.endObject();
     }
 }
@@ -16,15 +16,31 @@
 
 package com.vaadin.server.communication;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Serializable;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletResponse;
 
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.NoInputStreamException;
@@ -55,151 +71,137 @@ public class FileUploadHandler implements RequestHandler {
     /**
      * Stream that extracts content from another stream until the boundary
      * string is encountered.
+     * <p>
+     * The underlying stream is read in large blocks and the boundary is
+     * searched for within the buffered block, so that bulk reads through
+     * {@link #read(byte[], int, int)} can copy the content directly from the
+     * buffer. Bytes after the boundary may be consumed from the underlying
+     * stream.
      *
      * Public only for unit tests, should be considered private for all other
      * purposes.
      */
     public static class SimpleMultiPartInputStream extends InputStream {
 
-        /**
-         * Counter of how many characters have been matched to boundary string
-         * from the stream
-         */
-        int matchedCount = -1;
-
-        /**
-         * Used as pointer when returning bytes after partly matched boundary
-         * string.
-         */
-        int curBoundaryIndex = 0;
-        /**
-         * The byte found after a "promising start for boundary"
-         */
-        private int bufferedByte = -1;
-        private boolean atTheEnd = false;
+        private static final int BUFFER_SIZE = 64 * 1024;
 
-        private final char[] boundary;
+        private final byte[] boundary;
 
         private final InputStream realInputStream;
 
+        private final byte[] buffer;
+
+        /*
+         * Bytes from position to limit have been read from the underlying
+         * stream but not returned. Bytes before contentEnd have been checked
+         * not to be part of the boundary.
+         */
+        private int position = 0;
+        private int contentEnd = 0;
+        private int limit = 0;
+
+        private boolean atTheEnd = false;
+
         public SimpleMultiPartInputStream(InputStream realInputStream,
                 String boundaryString) {
-            boundary = (CRLF + DASHDASH + boundaryString).toCharArray();
+            boundary = (CRLF + DASHDASH + boundaryString).getBytes(ISO_8859_1);
             this.realInputStream = realInputStream;
+            buffer = new byte[Math.max(BUFFER_SIZE, 2 * boundary.length)];
         }
 
         @Override
         public int read() throws IOException {
-            if (atTheEnd) {
-                // End boundary reached, nothing more to read
+            if (position == contentEnd && !findContent()) {
                 return -1;
-            } else if (bufferedByte >= 0) {
-                /* Purge partially matched boundary if there was such */
-                return getBuffered();
-            } else if (matchedCount != -1) {
-                /*
-                 * Special case where last "failed" matching ended with first
-                 * character from boundary string
-                 */
-                return matchForBoundary();
-            } else {
-                int fromActualStream = realInputStream.read();
-                if (fromActualStream == -1) {
-                    // unexpected end of stream
-                    throw new IOException(
-                            "The multipart stream ended unexpectedly");
-                }
-                if (boundary[0] == fromActualStream) {
-                    /*
-                     * If matches the first character in boundary string, start
-                     * checking if the boundary is fetched.
-                     */
-                    return matchForBoundary();
-                }
-                return fromActualStream;
             }
+            return buffer[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return 0;
+            }
+            if (position == contentEnd && !findContent()) {
+                return -1;
+            }
+            int count = Math.min(len, contentEnd - position);
+            System.arraycopy(buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return contentEnd - position;
         }
 
         /**
-         * Reads the input to expect a boundary string. Expects that the first
-         * character has already been matched.
+         * Fills the buffer and finds the content before the next possible start
+         * of the boundary. Expects that all previously found content has been
+         * returned.
          *
-         * @return -1 if the boundary was matched, else returns the first byte
-         *         from boundary
+         * @return <code>true</code> if there is content to return,
+         *         <code>false</code> if the boundary was reached
          * @throws IOException
+         *             if the underlying stream ends before the boundary
          */
-        private int matchForBoundary() throws IOException {
-            matchedCount = 0;
+        private boolean findContent() throws IOException {
+            if (atTheEnd) {
+                // End boundary reached, nothing more to read
+                return false;
+            }
+            fillBuffer();
+
             /*
-             * Going to "buffered mode". Read until full boundary match or a
-             * different character.
+             * Content continues until the first full boundary match or until a
+             * partial match that extends to the end of the buffered data. The
+             * buffer holds at least one boundary length of data, so a partial
+             * match cannot start at the current position.
              */
-            while (true) {
-                matchedCount++;
-                if (matchedCount == boundary.length) {
-                    /*
-                     * The whole boundary matched so we have reached the end of
-                     * file
-                     */
-                    atTheEnd = true;
-                    return -1;
-                }
-                int fromActualStream = realInputStream.read();
-                if (fromActualStream != boundary[matchedCount]) {
-                    /*
-                     * Did not find full boundary, cache the mismatching byte
-                     * and start returning the partially matched boundary.
-                     */
-                    bufferedByte = fromActualStream;
-                    return getBuffered();
+            int matchStart = position;
+            while (matchStart < limit) {
+                if (buffer[matchStart] == boundary[0]) {
+                    int matched = 1;
+                    while (matched < boundary.length
+                            && matchStart + matched < limit && buffer[matchStart
+                                    + matched] == boundary[matched]) {
+                        matched++;
+                    }
+                    if (matched == boundary.length
+                            || matchStart + matched == limit) {
+                        break;
+                    }
                 }
+                matchStart++;
+            }
+            contentEnd = matchStart;
+            if (contentEnd == position) {
+                // The whole boundary matched so we have reached the end
+                atTheEnd = true;
+                return false;
             }
+            return true;
         }
 
-        /**
-         * Returns the partly matched boundary string and the byte following
-         * that.
-         *
-         * @return
-         * @throws IOException
-         */
-        private int getBuffered() throws IOException {
-            int b;
-            if (matchedCount == 0) {
-                // The boundary has been returned, return the buffered byte.
-                b = bufferedByte;
-                bufferedByte = -1;
-                matchedCount = -1;
-            } else {
-                b = boundary[curBoundaryIndex++];
-                if (curBoundaryIndex == matchedCount) {
-                    // The full boundary has been returned, remaining is the
-                    // char that did not match the boundary.
-
-                    curBoundaryIndex = 0;
-                    if (bufferedByte != boundary[0]) {
-                        /*
-                         * next call for getBuffered will return the
-                         * bufferedByte that came after the partial boundary
-                         * match
-                         */
-                        matchedCount = 0;
-                    } else {
-                        /*
-                         * Special case where buffered byte again matches the
-                         * boundaryString. This could be the start of the real
-                         * end boundary.
-                         */
-                        matchedCount = 0;
-                        bufferedByte = -1;
-                    }
-                }
+        private void fillBuffer() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
             }
-            if (b == -1) {
-                throw new IOException(
-                        "The multipart stream ended unexpectedly");
+            while (limit < boundary.length) {
+                int read = realInputStream.read(buffer, limit,
+                        buffer.length - limit);
+                if (read == -1) {
+                    // unexpected end of stream
+                    throw new IOException(
+                            "The multipart stream ended unexpectedly");
+                }
+                limit += read;
             }
-            return b;
         }
     }
 
@@ -231,13 +233,55 @@ public class FileUploadHandler implements RequestHandler {
     private static final String DASHDASH = "--";
 
     /*
-     * Same as in apache commons file upload library that was previously used.
+     * Large enough for the copying to be dominated by the actual I/O rather
+     * than by the number of read and write calls.
      */
-    private static final int MAX_UPLOAD_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    /*
+     * Used for reading the multipart headers line by line.
+     */
+    private static final int HEADER_BUFFER_SIZE = 8 * 1024;
 
     /* Minimum interval which will be used for streaming progress events. */
     public static final int DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS = 500;
 
+    /**
+     * The maximum size of a single chunk in a chunked upload.
+     *
+     * @since 8.7
+     */
+    public static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /*
+     * The maximum number of bytes of chunks received ahead of their turn that
+     * are kept in memory at the same time in a session. Chunks received in
+     * order are written to the stream variable directly.
+     */
+    private static final long MAX_PENDING_CHUNK_BYTES = 4L * MAX_CHUNK_SIZE;
+
+    /*
+     * The maximum number of chunked uploads in progress at the same time in a
+     * session.
+     */
+    private static final int MAX_CHUNKED_UPLOADS = 16;
+
+    /*
+     * Chunked uploads that have not received any requests in this time are
+     * discarded.
+     */
+    private static final long CHUNKED_UPLOAD_TIMEOUT_MS = 30 * 60 * 1000;
+
+    private static final String CHUNKED_UPLOADS_ATTRIBUTE = FileUploadHandler.class
+            .getName() + ".chunkedUploads";
+
+    /*
+     * Content-Range of a chunk, "bytes first-last/total", or of a request for
+     * the upload status, where an asterisk is used instead of the range.
+     */
+    private static final Pattern CONTENT_RANGE_PATTERN = Pattern
+            .compile("bytes (?:(\\d+)-(\\d+)|\\*)/(\\d+)");
+
     @Override
     public boolean handleRequest(VaadinSession session, VaadinRequest request,
             VaadinResponse response) throws IOException {
@@ -284,8 +328,19 @@ public class FileUploadHandler implements RequestHandler {
             session.unlock();
         }
 
+        String contentRange = request.getHeader("Content-Range");
+        String uploadId = request
+                .getHeader(ApplicationConstants.UPLOAD_ID_HEADER);
+        if (contentRange != null && uploadId != null) {
+            // A chunk of a file or a status request
+            doHandleChunkedFileUpload(session, request, response,
+                    streamVariable, variableName, source, uploadId,
+                    contentRange);
+            return true;
+        }
+
         String contentType = request.getContentType();
-        if (contentType.contains("boundary")) {
+        if (contentType != null && contentType.contains("boundary")) {
             // Multipart requests contain boundary string
             doHandleSimpleMultipartFileUpload(session, request, response,
                     streamVariable, variableName, source,
@@ -352,7 +407,8 @@ public class FileUploadHandler implements RequestHandler {
         // multipart parsing, supports only one file for request, but that is
         // fine for our current terminal
 
-        final InputStream inputStream = request.getInputStream();
+        final InputStream inputStream = new BufferedInputStream(
+                request.getInputStream(), HEADER_BUFFER_SIZE);
 
         long contentLength = getContentLength(request);
 
@@ -388,14 +444,8 @@ public class FileUploadHandler implements RequestHandler {
                 + 2 * DASHDASH.length() + CRLF.length());
 
         /*
-         * Reads bytes from the underlying stream. Compares the read bytes to
-         * the boundary string and returns -1 if met.
-         *
-         * The matching happens so that if the read byte equals to the first
-         * char of boundary string, the stream goes to "buffering mode". In
-         * buffering mode bytes are read until the character does not match the
-         * corresponding from boundary string or the full boundary string is
-         * found.
+         * Reads blocks from the underlying stream. Searches the blocks for the
+         * boundary string and returns -1 once it is met.
          *
          * Note, if this is someday needed elsewhere, don't shoot yourself to
          * foot and split to a top level helper class.
@@ -441,15 +491,7 @@ public class FileUploadHandler implements RequestHandler {
             throws UploadException {
         session.lock();
         try {
-            if (connector == null) {
-                throw new UploadException(
-                        "File upload ignored because the connector for the stream variable was not found");
-            }
-            if (!connector.isConnectorEnabled()) {
-                throw new UploadException("Warning: file upload ignored for "
-                        + connector.getConnectorId()
-                        + " because the component was disabled");
-            }
+            checkUploadAllowed(connector);
         } finally {
             session.unlock();
         }
@@ -473,6 +515,559 @@ public class FileUploadHandler implements RequestHandler {
         }
     }
 
+    private static void checkUploadAllowed(ClientConnector connector)
+            throws UploadException {
+        if (connector == null) {
+            throw new UploadException(
+                    "File upload ignored because the connector for the stream variable was not found");
+        }
+        if (!connector.isConnectorEnabled()) {
+            throw new UploadException("Warning: file upload ignored for "
+                    + connector.getConnectorId()
+                    + " because the component was disabled");
+        }
+    }
+
+    /**
+     * Used to handle a request of a chunked upload. Each chunk of a file is
+     * posted in a separate request with a <code>Content-Range</code> header
+     * telling the position of the chunk in the file, e.g.
+     * <code>bytes 0-1048575/5000000</code>, and a
+     * {@link ApplicationConstants#UPLOAD_ID_HEADER} header identifying the
+     * file. The name of the file can be given in a
+     * {@link ApplicationConstants#UPLOAD_FILENAME_HEADER} header. A request
+     * with the range replaced by an asterisk, e.g.
+     * <code>bytes &#42;/5000000</code>, and no content only asks for the status
+     * of the upload.
+     * <p>
+     * Chunks can arrive in any order and concurrently. The content is written
+     * to the stream variable in order, so chunks received ahead of their turn
+     * are kept in memory until the preceding content has been received. The
+     * number of chunked uploads in progress and the memory used for such chunks
+     * are limited per session. Chunked uploads in progress are not serialized
+     * with the session, but started over if the session is moved to another
+     * server. Every response tells how much of the file has been received from
+     * the start in a <code>Range</code> header, e.g.
+     * <code>bytes=0-1048575</code>, so that an interrupted upload can be
+     * resumed from that position. A response with status 409 means that the
+     * chunk was not accepted and should be sent again later, and status 410
+     * means that the upload has failed.
+     * <p>
+     * This method takes care of locking the session as needed and does not
+     * assume the caller has locked the session.
+     *
+     * @since 8.7
+     * @param session
+     *            The session containing the stream variable
+     * @param request
+     *            The upload request
+     * @param response
+     *            The upload response
+     * @param streamVariable
+     *            The destination stream variable
+     * @param variableName
+     *            The name of the destination stream variable
+     * @param owner
+     *            The owner of the stream variable
+     * @param uploadId
+     *            The identifier of the uploaded file
+     * @param contentRange
+     *            The value of the <code>Content-Range</code> header
+     * @throws IOException
+     *             If there is a problem reading the request or writing the
+     *             response
+     */
+    protected void doHandleChunkedFileUpload(VaadinSession session,
+            VaadinRequest request, VaadinResponse response,
+            StreamVariable streamVariable, String variableName,
+            ClientConnector owner, String uploadId, String contentRange)
+            throws IOException {
+        Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange);
+        if (!matcher.matches()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "Invalid Content-Range " + contentRange);
+            return;
+        }
+        long contentLength = Long.parseLong(matcher.group(3));
+        long first = -1;
+        int length = 0;
+        if (matcher.group(1) != null) {
+            first = Long.parseLong(matcher.group(1));
+            long last = Long.parseLong(matcher.group(2));
+            if (last < first || last >= contentLength
+                    || last - first >= MAX_CHUNK_SIZE) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                        "Invalid Content-Range " + contentRange);
+                return;
+            }
+            length = (int) (last - first + 1);
+        }
+
+        // Checks that the upload is allowed before reading any content
+        ChunkedUpload upload;
+        try {
+            upload = getChunkedUpload(session, streamVariable, owner,
+                    variableName, uploadId, contentLength,
+                    request.getContentType(), getUploadFilename(request));
+        } catch (UploadException e) {
+            session.lock();
+            try {
+                session.getCommunicationManager()
+                        .handleConnectorRelatedException(owner, e);
+            } finally {
+                session.unlock();
+            }
+            response.sendError(HttpServletResponse.SC_GONE, e.getMessage());
+            return;
+        }
+
+        boolean accepted;
+        try {
+            accepted = handleChunk(session, upload, first, length,
+                    request.getInputStream());
+        } catch (UploadException e) {
+            session.lock();
+            try {
+                session.getCommunicationManager()
+                        .handleConnectorRelatedException(owner, e);
+            } finally {
+                session.unlock();
+            }
+            accepted = true;
+        }
+
+        long received = upload.getReceived();
+        if (received > 0) {
+            response.setHeader("Range", "bytes=0-" + (received - 1));
+        }
+        if (upload.isFailed()) {
+            response.setStatus(HttpServletResponse.SC_GONE);
+        } else if (!accepted) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+        }
+        sendUploadResponse(request, response);
+    }
+
+    private static String getUploadFilename(VaadinRequest request)
+            throws IOException {
+        String filename = request
+                .getHeader(ApplicationConstants.UPLOAD_FILENAME_HEADER);
+        if (filename == null || filename.isEmpty()) {
+            // Not transmitted, like for plain file posts
+            return "unknown";
+        }
+        return URLDecoder.decode(filename, UTF_8.name());
+    }
+
+    private static byte[] readChunk(InputStream in, int length)
+            throws ChunkReadException {
+        byte[] chunk = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            offset += readChunkContent(in, chunk, offset, length - offset);
+        }
+        return chunk;
+    }
+
+    private static int readChunkContent(InputStream in, byte[] buffer,
+            int offset, int length) throws ChunkReadException {
+        try {
+            int read = in.read(buffer, offset, length);
+            if (read == -1) {
+                throw new EOFException("The chunk ended unexpectedly");
+            }
+            return read;
+        } catch (IOException e) {
+            throw new ChunkReadException(e);
+        }
+    }
+
+    private ChunkedUpload getChunkedUpload(VaadinSession session,
+            StreamVariable streamVariable, ClientConnector connector,
+            String variableName, String uploadId, long contentLength,
+            String mimeType, String filename) throws UploadException {
+        List<ChunkedUpload> expired = new ArrayList<>();
+        ChunkedUpload upload;
+        session.lock();
+        try {
+            checkUploadAllowed(connector);
+
+            ChunkedUploads uploads = (ChunkedUploads) session
+                    .getAttribute(CHUNKED_UPLOADS_ATTRIBUTE);
+            if (uploads == null) {
+                uploads = new ChunkedUploads();
+                session.setAttribute(CHUNKED_UPLOADS_ATTRIBUTE, uploads);
+            }
+
+            upload = uploads.uploads.get(uploadId);
+            if (upload == null) {
+                long expiryTime = System.currentTimeMillis()
+                        - CHUNKED_UPLOAD_TIMEOUT_MS;
+                for (Iterator<ChunkedUpload> i = uploads.uploads.values()
+                        .iterator(); i.hasNext();) {
+                    ChunkedUpload other = i.next();
+                    if (other.getLastActivity() < expiryTime) {
+                        i.remove();
+                        expired.add(other);
+                    }
+                }
+                if (uploads.uploads.size() >= MAX_CHUNKED_UPLOADS) {
+                    // Kept for answering late requests until expired, unless
+                    // room is needed
+                    uploads.uploads.values().removeIf(ChunkedUpload::isDone);
+                }
+                if (uploads.uploads.size() >= MAX_CHUNKED_UPLOADS) {
+                    throw new UploadException("File upload ignored because "
+                            + MAX_CHUNKED_UPLOADS
+                            + " chunked uploads are already in progress");
+                }
+
+                upload = new ChunkedUpload(uploads, streamVariable, connector,
+                        variableName, contentLength,
+                        mimeType == null ? "unknown" : mimeType, filename);
+                uploads.uploads.put(uploadId, upload);
+            } else if (upload.streamVariable != streamVariable
+                    || upload.contentLength != contentLength
+                    || !upload.filename.equals(filename)) {
+                throw new UploadException("File upload ignored because upload "
+                        + uploadId + " belongs to another file");
+            }
+        } finally {
+            session.unlock();
+        }
+
+        for (ChunkedUpload expiredUpload : expired) {
+            synchronized (expiredUpload) {
+                if (!expiredUpload.isDone()) {
+                    failChunkedUpload(session, expiredUpload,
+                            new UploadException("Upload timed out"));
+                }
+            }
+        }
+        return upload;
+    }
+
+    /**
+     * Writes a chunk to the stream variable of a chunked upload, or keeps it
+     * until the preceding content has been received. A chunk that is next in
+     * turn is copied from the request to the stream variable as it is read. A
+     * chunk received ahead of its turn is only read if there is room for it in
+     * the memory reserved for such chunks in the session.
+     *
+     * @return <code>true</code> if the chunk was accepted, <code>false</code>
+     *         if too much content is already waiting for preceding chunks
+     */
+    private boolean handleChunk(VaadinSession session, ChunkedUpload upload,
+            long first, int length, InputStream in)
+            throws UploadException, IOException {
+        try {
+            synchronized (upload) {
+                if (upload.isDone()) {
+                    return true;
+                }
+                upload.lastActivity = System.currentTimeMillis();
+                if (upload.out == null) {
+                    startChunkedUpload(session, upload);
+                }
+
+                if (first == -1) {
+                    // Status request
+                    return checkChunkedUploadState(session, upload);
+                } else if (first + length <= upload.received
+                        || upload.pendingChunks.containsKey(first)) {
+                    // Already received, e.g. a retried chunk
+                    return true;
+                } else if (first <= upload.received) {
+                    copyChunk(upload, first, length, in);
+                    writePendingChunks(upload);
+                    fireChunkedUploadProgress(session, upload);
+                    return checkChunkedUploadState(session, upload);
+                } else if (!upload.uploads.reservePendingBytes(length)) {
+                    return false;
+                }
+            }
+
+            // Read a chunk ahead of its turn without holding any locks
+            byte[] chunk;
+            try {
+                chunk = readChunk(in, length);
+            } catch (ChunkReadException e) {
+                upload.uploads.releasePendingBytes(length);
+                throw e;
+            }
+
+            synchronized (upload) {
+                if (upload.isDone()
+                        || upload.pendingChunks.containsKey(first)) {
+                    upload.uploads.releasePendingBytes(length);
+                    return true;
+                }
+                upload.lastActivity = System.currentTimeMillis();
+                upload.pendingChunks.put(first, chunk);
+                // Preceding content may have been received while reading
+                writePendingChunks(upload);
+                fireChunkedUploadProgress(session, upload);
+                return checkChunkedUploadState(session, upload);
+            }
+        } catch (ChunkReadException e) {
+            // The chunk can be sent again, the upload is not affected
+            throw e.getCause();
+        } catch (UploadInterruptedException e) {
+            // Interrupted by application code, not a terminal level error
+            synchronized (upload) {
+                failChunkedUpload(session, upload, e);
+            }
+            return true;
+        } catch (Exception e) {
+            synchronized (upload) {
+                if (!upload.isDone()) {
+                    failChunkedUpload(session, upload, e);
+                }
+            }
+            throw new UploadException(e);
+        }
+    }
+
+    /**
+     * Finishes the upload if all content has been received.
+     */
+    private boolean checkChunkedUploadState(VaadinSession session,
+            ChunkedUpload upload)
+            throws UploadInterruptedException, IOException {
+        if (upload.streamVariable.isInterrupted()) {
+            throw new UploadInterruptedException();
+        }
+        if (upload.received == upload.contentLength) {
+            finishChunkedUpload(session, upload);
+        }
+        return true;
+    }
+
+    /**
+     * Copies a chunk from the request to the stream variable, skipping the part
+     * that has already been written.
+     */
+    private static void copyChunk(ChunkedUpload upload, long first, int length,
+            InputStream in) throws IOException {
+        long position = first;
+        long end = first + length;
+        byte[] buffer = new byte[Math.min(MAX_UPLOAD_BUFFER_SIZE, length)];
+        while (position < end) {
+            int read = readChunkContent(in, buffer, 0,
+                    (int) Math.min(buffer.length, end - position));
+            int skip = (int) Math.max(0,
+                    Math.min(read, upload.received - position));
+            if (skip < read) {
+                upload.out.write(buffer, skip, read - skip);
+                upload.received += read - skip;
+            }
+            position += read;
+        }
+    }
+
+    private static void writePendingChunks(ChunkedUpload upload)
+            throws IOException {
+        Map.Entry<Long, byte[]> pending = upload.pendingChunks.firstEntry();
+        while (pending != null && pending.getKey() <= upload.received) {
+            upload.pendingChunks.remove(pending.getKey());
+            upload.uploads.releasePendingBytes(pending.getValue().length);
+            writeChunk(upload, pending.getKey(), pending.getValue());
+            pending = upload.pendingChunks.firstEntry();
+        }
+    }
+
+    private static void writeChunk(ChunkedUpload upload, long first,
+            byte[] chunk) throws IOException {
+        // Skip the part that has already been written
+        int skip = (int) Math.max(0, upload.received - first);
+        if (skip < chunk.length) {
+            upload.out.write(chunk, skip, chunk.length - skip);
+            upload.received += chunk.length - skip;
+        }
+    }
+
+    private void startChunkedUpload(VaadinSession session, ChunkedUpload upload)
+            throws NoOutputStreamException {
+        session.lock();
+        try {
+            upload.streamVariable.streamingStarted(upload.startedEvent);
+            upload.out = upload.streamVariable.getOutputStream();
+            upload.listenProgress = upload.streamVariable.listenProgress();
+        } finally {
+            session.unlock();
+        }
+        if (upload.out == null) {
+            throw new NoOutputStreamException();
+        }
+    }
+
+    private void fireChunkedUploadProgress(VaadinSession session,
+            ChunkedUpload upload) {
+        long now = System.currentTimeMillis();
+        // to avoid excessive session locking and event storms, events are
+        // sent in intervals, or at the end of the file.
+        if (upload.listenProgress
+                && (upload.lastProgressEvent + getProgressEventInterval() <= now
+                        || upload.received == upload.contentLength)) {
+            upload.lastProgressEvent = now;
+            session.lock();
+            try {
+                upload.streamVariable.onProgress(new StreamingProgressEventImpl(
+                        upload.filename, upload.mimeType, upload.contentLength,
+                        upload.received));
+            } finally {
+                session.unlock();
+            }
+        }
+    }
+
+    private void finishChunkedUpload(VaadinSession session,
+            ChunkedUpload upload) throws IOException {
+        upload.done = true;
+        upload.out.close();
+        StreamingEndEvent event = new StreamingEndEventImpl(upload.filename,
+                upload.mimeType, upload.received);
+        session.lock();
+        try {
+            upload.streamVariable.streamingFinished(event);
+        } finally {
+            session.unlock();
+        }
+        if (upload.startedEvent.isDisposed()) {
+            cleanStreamVariable(session, upload.ui, upload.connector,
+                    upload.variableName);
+        }
+    }
+
+    private void failChunkedUpload(VaadinSession session, ChunkedUpload upload,
+            Exception exception) {
+        upload.done = true;
+        upload.failed = true;
+        for (byte[] chunk : upload.pendingChunks.values()) {
+            upload.uploads.releasePendingBytes(chunk.length);
+        }
+        upload.pendingChunks.clear();
+        tryToCloseStream(upload.out);
+        StreamingErrorEvent event = new StreamingErrorEventImpl(upload.filename,
+                upload.mimeType, upload.contentLength, upload.received,
+                exception);
+        session.lock();
+        try {
+            upload.streamVariable.streamingFailed(event);
+        } finally {
+            session.unlock();
+        }
+    }
+
+    /**
+     * Thrown when reading the content of a chunk from the request fails.
+     */
+    private static class ChunkReadException extends IOException {
+        private ChunkReadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * The chunked uploads of a session, stored as a session attribute. Nothing
+     * is serialized with the session: the uploads hold open streams and chunks
+     * that would no longer match the state of the stream variables after
+     * deserialization, so an upload in progress is started over from the
+     * beginning instead.
+     */
+    private static class ChunkedUploads implements Serializable {
+        private final transient Map<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+
+        /* Bytes of chunks waiting for preceding chunks in all uploads */
+        private final transient AtomicLong pendingBytes = new AtomicLong();
+
+        private boolean reservePendingBytes(int length) {
+            long reserved;
+            do {
+                reserved = pendingBytes.get();
+                if (reserved + length > MAX_PENDING_CHUNK_BYTES) {
+                    return false;
+                }
+            } while (!pendingBytes.compareAndSet(reserved, reserved + length));
+            return true;
+        }
+
+        private void releasePendingBytes(int length) {
+            pendingBytes.addAndGet(-length);
+        }
+
+        private Object readResolve() {
+            return new ChunkedUploads();
+        }
+    }
+
+    /**
+     * State of a chunked upload between requests. The fields are accessed while
+     * holding the monitor of the instance.
+     */
+    private static class ChunkedUpload implements Serializable {
+        private final ChunkedUploads uploads;
+        private final StreamVariable streamVariable;
+        private final ClientConnector connector;
+        private final UI ui;
+        private final String variableName;
+        private final String filename;
+        private final String mimeType;
+        private final long contentLength;
+        private final StreamingStartEventImpl startedEvent;
+
+        private transient OutputStream out;
+        private boolean listenProgress;
+        private long lastProgressEvent = 0;
+        private long lastActivity = System.currentTimeMillis();
+
+        /* Number of bytes written to the stream variable */
+        private long received = 0;
+        private final TreeMap<Long, byte[]> pendingChunks = new TreeMap<>();
+
+        private boolean done = false;
+        private boolean failed = false;
+
+        private ChunkedUpload(ChunkedUploads uploads,
+                StreamVariable streamVariable, ClientConnector connector,
+                String variableName, long contentLength, String mimeType,
+                String filename) {
+            this.uploads = uploads;
+            this.streamVariable = streamVariable;
+            this.connector = connector;
+            // Store ui reference so we can do cleanup even if connector is
+            // detached in some event handler
+            ui = connector.getUI();
+            this.variableName = variableName;
+            this.contentLength = contentLength;
+            this.mimeType = mimeType;
+            this.filename = filename;
+            startedEvent = new StreamingStartEventImpl(filename, mimeType,
+                    contentLength);
+        }
+
+        private synchronized long getReceived() {
+            return received;
+        }
+
+        private synchronized long getLastActivity() {
+            return lastActivity;
+        }
+
+        private synchronized boolean isDone() {
+            return done;
+        }
+
+        private synchronized boolean isFailed() {
+            return failed;
+        }
+    }
+
     /**
      * Used to stream plain file post (aka XHR2.post(File))
      * <p>
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
+
+/**
+ * Writes JSON directly to an underlying {@link Writer} without building an
+ * intermediate tree of JSON values for the containers. Also keeps track of the
+ * number of entries in the most recently closed top level object or array, and
+ * optionally of the number of bytes written in UTF-8.
+ * <p>
+ * The output for {@link JsonValue}s is the same as produced by
+ * {@link JsonUtil#stringify(JsonValue)}.
+ *
+ * @author Vaadin Ltd
+ * @since 8.7
+ */
+class JsonStreamWriter extends Writer {
+
+    private final Writer out;
+
+    private final boolean countBytes;
+
+    private long bytesWritten = 0;
+
+    /*
+     * Number of entries written to each open container and whether the
+     * container is an array, indexed by depth.
+     */
+    private int[] entryCounts = new int[8];
+    private boolean[] arrays = new boolean[8];
+    private int depth = 0;
+    private int lastTopLevelEntryCount = 0;
+
+    private JsonStreamWriter(Writer out, boolean countBytes) {
+        this.out = out;
+        this.countBytes = countBytes;
+    }
+
+    /**
+     * Gets a JSON stream writer for the given writer. If the writer already is
+     * a JSON stream writer, it is returned as is so that the byte and entry
+     * counts are kept up to date. Otherwise, the returned writer does not count
+     * bytes.
+     *
+     * @param writer
+     *            the writer to write to, not <code>null</code>
+     * @return a JSON stream writer writing to the given writer
+     */
+    static JsonStreamWriter wrap(Writer writer) {
+        return wrap(writer, false);
+    }
+
+    /**
+     * Gets a JSON stream writer for the given writer. If the writer already is
+     * a JSON stream writer, it is returned as is so that the byte and entry
+     * counts are kept up to date.
+     *
+     * @param writer
+     *            the writer to write to, not <code>null</code>
+     * @param countBytes
+     *            <code>true</code> to count the bytes written by a new JSON
+     *            stream writer, <code>false</code> to skip counting
+     * @return a JSON stream writer writing to the given writer
+     */
+    static JsonStreamWriter wrap(Writer writer, boolean countBytes) {
+        if (writer instanceof JsonStreamWriter) {
+            return (JsonStreamWriter) writer;
+        }
+        return new JsonStreamWriter(writer, countBytes);
+    }
+
+    /**
+     * Begins a JSON object.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    void beginObject() throws IOException {
+        beginContainer('{');
+    }
+
+    /**
+     * Ends the current JSON object.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    void endObject() throws IOException {
+        endContainer('}');
+    }
+
+    /**
+     * Begins a JSON array.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    void beginArray() throws IOException {
+        beginContainer('[');
+    }
+
+    /**
+     * Ends the current JSON array.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    void endArray() throws IOException {
+        endContainer(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current JSON object. Must be
+     * followed by writing the value of the member.
+     *
+     * @param name
+     *            the member name
+     * @throws IOException
+     *             if writing fails
+     */
+    void name(String name) throws IOException {
+        nextEntry();
+        write(JsonUtil.quote(name));
+        write(':');
+    }
+
+    /**
+     * Writes a string value. If the current container is an array, the value is
+     * added as a new element.
+     *
+     * @param value
+     *            the string to write, or <code>null</code> to write
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    void value(String value) throws IOException {
+        elementIfInArray();
+        write(value == null ? "null" : JsonUtil.quote(value));
+    }
+
+    /**
+     * Writes a JSON value. If the current container is an array, the value is
+     * added as a new element.
+     *
+     * @param value
+     *            the value to write, or <code>null</code> to write
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    void value(JsonValue value) throws IOException {
+        elementIfInArray();
+        writeValue(value);
+    }
+
+    /**
+     * Gets the number of bytes written so far, as encoded in UTF-8.
+     *
+     * @return the number of bytes written, or 0 if this writer does not count
+     *         bytes
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the number of entries in the most recently closed top level object
+     * or array.
+     *
+     * @return the number of entries
+     */
+    int getLastTopLevelEntryCount() {
+        return lastTopLevelEntryCount;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (countBytes) {
+            bytesWritten += utf8Length((char) c);
+        }
+        out.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (countBytes) {
+            for (int i = off; i < off + len; i++) {
+                bytesWritten += utf8Length(cbuf[i]);
+            }
+        }
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (countBytes) {
+            for (int i = off; i < off + len; i++) {
+                bytesWritten += utf8Length(str.charAt(i));
+            }
+        }
+        out.write(str, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void beginContainer(char bracket) throws IOException {
+        elementIfInArray();
+        write(bracket);
+        depth++;
+        if (depth == entryCounts.length) {
+            entryCounts = Arrays.copyOf(entryCounts, depth * 2);
+            arrays = Arrays.copyOf(arrays, depth * 2);
+        }
+        entryCounts[depth] = 0;
+        arrays[depth] = bracket == '[';
+    }
+
+    private void endContainer(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open JSON container");
+        }
+        write(bracket);
+        if (depth == 1) {
+            lastTopLevelEntryCount = entryCounts[depth];
+        }
+        depth--;
+    }
+
+    private void nextEntry() throws IOException {
+        if (entryCounts[depth] > 0) {
+            write(',');
+        }
+        entryCounts[depth]++;
+    }
+
+    /*
+     * Values in arrays are separated by commas, whereas values in objects are
+     * preceded by a name which takes care of the separator.
+     */
+    private void elementIfInArray() throws IOException {
+        if (depth > 0 && arrays[depth]) {
+            nextEntry();
+        }
+    }
+
+    private void writeValue(JsonValue value) throws IOException {
+        if (value == null) {
+            write("null");
+            return;
+        }
+        switch (value.getType()) {
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            write('{');
+            String[] keys = object.keys();
+            for (int i = 0; i < keys.length; i++) {
+                if (i > 0) {
+                    write(',');
+                }
+                write(JsonUtil.quote(keys[i]));
+                write(':');
+                writeValue(object.get(keys[i]));
+            }
+            write('}');
+            break;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            write('[');
+            for (int i = 0; i < array.length(); i++) {
+                if (i > 0) {
+                    write(',');
+                }
+                writeValue(array.get(i));
+            }
+            write(']');
+            break;
+        case STRING:
+            write(JsonUtil.quote(value.asString()));
+            break;
+        case NUMBER:
+            write(formatNumber(value.asNumber()));
+            break;
+        case BOOLEAN:
+            write(value.asBoolean() ? "true" : "false");
+            break;
+        default:
+            write("null");
+            break;
+        }
+    }
+
+    private static String formatNumber(double number) {
+        if (Double.isInfinite(number) || Double.isNaN(number)) {
+            return "null";
+        }
+        String n = String.valueOf(number);
+        if (n.endsWith(".0")) {
+            n = n.substring(0, n.length() - 2);
+        }
+        return n;
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            // A surrogate pair is four bytes in UTF-8
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+}
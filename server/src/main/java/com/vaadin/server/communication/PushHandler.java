@@ -236,7 +236,13 @@ public class PushHandler {
             }
 
             UI ui = null;
-            session.lock();
+            UI lockedUI = null;
+            if (session.isUILockingEnabled()) {
+                lockedUI = service.findAndLockUI(session, vaadinRequest);
+            }
+            if (lockedUI == null) {
+                session.lock();
+            }
             try {
                 ui = service.findUI(vaadinRequest);
                 assert UI.getCurrent() == ui;
@@ -272,7 +278,11 @@ public class PushHandler {
                 callErrorHandler(session, e);
             } finally {
                 try {
-                    session.unlock();
+                    if (lockedUI != null) {
+                        session.unlockUI(lockedUI);
+                    } else {
+                        session.unlock();
+                    }
                 } catch (Exception e) {
                     getLogger().log(Level.WARNING,
                             "Error while unlocking session", e);
@@ -209,6 +209,8 @@ public abstract class UIInitHandler extends SynchronizedRequestHandler {
         if (transport != null) {
             ui.getPushConfiguration().setTransport(transport);
         }
+        ui.getPushConfiguration()
+                .setPushInterval(provider.getPushInterval(event));
 
         // Set thread local here so it is available in init
         UI.setCurrent(ui);
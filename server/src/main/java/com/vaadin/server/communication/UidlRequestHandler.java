@@ -72,6 +72,25 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return ServletPortletHelper.isUIDLRequest(request);
     }
 
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!session.isUILockingEnabled() || !canHandleRequest(request)) {
+            return super.handleRequest(session, request, response);
+        }
+
+        // Only lock the UI so that requests to other UIs can run concurrently
+        UI ui = session.getService().findAndLockUI(session, request);
+        if (ui == null) {
+            return super.handleRequest(session, request, response);
+        }
+        try {
+            return synchronizedHandleRequest(session, request, response);
+        } finally {
+            session.unlockUI(ui);
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
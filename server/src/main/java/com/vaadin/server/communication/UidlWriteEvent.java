@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.server.communication;
+
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.communication.UidlWriter.SectionStatistics;
+import com.vaadin.ui.UI;
+
+/**
+ * Event fired to {@link UidlWriteListener} when a UIDL response has been
+ * written for a UI.
+ *
+ * @since 8.7
+ * @author Vaadin Ltd
+ */
+public class UidlWriteEvent extends EventObject {
+
+    private final boolean async;
+    private final List<SectionStatistics> sectionStatistics;
+    private final int beforeClientResponseIterations;
+
+    /**
+     * Creates a new event.
+     *
+     * @param ui
+     *            the UI for which the response was written
+     * @param async
+     *            <code>true</code> if the response was sent by the server
+     *            asynchronously, <code>false</code> if it is a response to a
+     *            client message
+     * @param sectionStatistics
+     *            size information about the sections of the response
+     * @param beforeClientResponseIterations
+     *            the number of rounds of
+     *            {@link ClientConnector#beforeClientResponse(boolean)} calls
+     *            needed for the response
+     */
+    public UidlWriteEvent(UI ui, boolean async,
+            List<SectionStatistics> sectionStatistics,
+            int beforeClientResponseIterations) {
+        super(ui);
+        this.async = async;
+        this.sectionStatistics = Collections
+                .unmodifiableList(sectionStatistics);
+        this.beforeClientResponseIterations = beforeClientResponseIterations;
+    }
+
+    @Override
+    public UI getSource() {
+        return (UI) super.getSource();
+    }
+
+    /**
+     * Gets the UI for which the response was written.
+     *
+     * @return the UI
+     */
+    public UI getUI() {
+        return getSource();
+    }
+
+    /**
+     * Checks whether the response was sent by the server asynchronously, e.g.
+     * using push, instead of as a response to a client message.
+     *
+     * @return <code>true</code> if the response was asynchronous, otherwise
+     *         <code>false</code>
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets size information about the state, types, hierarchy and RPC sections
+     * of the response.
+     *
+     * @return an unmodifiable list of section statistics, in the order the
+     *         sections were written
+     */
+    public List<SectionStatistics> getSectionStatistics() {
+        return sectionStatistics;
+    }
+
+    /**
+     * Gets the number of rounds of
+     * {@link ClientConnector#beforeClientResponse(boolean)} calls needed for
+     * the response. Another round is needed whenever the previous round caused
+     * new connectors to be marked dirty.
+     *
+     * @return the number of rounds
+     */
+    public int getBeforeClientResponseIterations() {
+        return beforeClientResponseIterations;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.server.communication;
+
+import java.io.Serializable;
+
+import com.vaadin.server.VaadinService;
+
+/**
+ * Listener that gets notified when a UIDL response has been written for a UI of
+ * the {@link VaadinService} to which it has been registered. Statistics about
+ * the response are only collected while at least one listener is registered.
+ *
+ * @see VaadinService#addUidlWriteListener(UidlWriteListener)
+ *
+ * @since 8.7
+ * @author Vaadin Ltd
+ */
+@FunctionalInterface
+public interface UidlWriteListener extends Serializable {
+    /**
+     * Invoked after a UIDL response has been written. The UI is locked while
+     * the listener is called.
+     *
+     * @param event
+     *            the event with information about the written response
+     */
+    public void uidlWritten(UidlWriteEvent event);
+}
@@ -20,11 +20,14 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -57,6 +60,71 @@ import elemental.json.impl.JsonUtil;
  */
 public class UidlWriter implements Serializable {
 
+    /**
+     * Size information about one section of a written UIDL response.
+     *
+     * @see UidlWriteListener
+     * @since 8.7
+     */
+    public static class SectionStatistics implements Serializable {
+        private final String name;
+        private final long bytes;
+        private final int entryCount;
+
+        /**
+         * Creates new section statistics.
+         *
+         * @param name
+         *            the name of the section, e.g. <code>"state"</code>
+         * @param bytes
+         *            the number of bytes written for the section, as encoded in
+         *            UTF-8
+         * @param entryCount
+         *            the number of entries, e.g. connectors or RPC calls, in
+         *            the section
+         */
+        public SectionStatistics(String name, long bytes, int entryCount) {
+            this.name = name;
+            this.bytes = bytes;
+            this.entryCount = entryCount;
+        }
+
+        /**
+         * Gets the name of the section, e.g. <code>"state"</code>.
+         *
+         * @return the section name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of bytes written for the section, as encoded in
+         * UTF-8.
+         *
+         * @return the number of bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gets the number of entries in the section, e.g. the number of
+         * connectors with state changes in the <code>"state"</code> section or
+         * the number of invocations in the <code>"rpc"</code> section.
+         *
+         * @return the number of entries
+         */
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + entryCount + " entries, " + bytes + " bytes";
+        }
+    }
+
     /**
      * Writes a JSON object containing all pending changes to the given UI.
      *
@@ -88,6 +156,7 @@ public class UidlWriter implements Serializable {
         ConnectorTracker uiConnectorTracker = ui.getConnectorTracker();
         getLogger().log(Level.FINE, "* Creating response to client");
 
+        int beforeClientResponseIterations = 0;
         while (true) {
             List<ClientConnector> connectorsToProcess = new ArrayList<>();
             for (ClientConnector c : uiConnectorTracker
@@ -101,18 +170,10 @@ public class UidlWriter implements Serializable {
                 break;
             }
 
+            beforeClientResponseIterations++;
+
             // process parents before children
-            Collections.sort(connectorsToProcess,
-                    Comparator.comparingInt(conn -> {
-                        int depth = 0;
-                        ClientConnector connector = conn;
-                        // this is a very fast operation, even for 100+ levels
-                        while (connector.getParent() != null) {
-                            ++depth;
-                            connector = connector.getParent();
-                        }
-                        return depth;
-                    }));
+            connectorsToProcess = sortByDepth(connectorsToProcess);
 
             for (ClientConnector connector : connectorsToProcess) {
                 // call isDirty() to find out if ConnectorTracker knows the
@@ -130,8 +191,16 @@ public class UidlWriter implements Serializable {
             }
         }
 
-        getLogger().log(Level.FINE, "Found " + processedConnectors.size()
-                + " dirty connectors to paint");
+        getLogger().log(Level.FINE,
+                "Found " + processedConnectors.size()
+                        + " dirty connectors to paint in "
+                        + beforeClientResponseIterations + " iterations");
+
+        // Statistics are only collected if somebody is interested in them
+        List<SectionStatistics> sectionStatistics = service
+                .hasUidlWriteListeners() ? new ArrayList<>() : null;
+        JsonStreamWriter json = JsonStreamWriter.wrap(writer,
+                sectionStatistics != null);
 
         uiConnectorTracker.setWritingResponse(true);
         try {
@@ -140,25 +209,25 @@ public class UidlWriter implements Serializable {
                     .isSyncIdCheckEnabled()
                             ? uiConnectorTracker.getCurrentSyncId()
                             : -1;
-            writer.write("\"" + ApplicationConstants.SERVER_SYNC_ID + "\": "
+            json.write("\"" + ApplicationConstants.SERVER_SYNC_ID + "\": "
                     + syncId + ", ");
             if (repaintAll) {
-                writer.write("\"" + ApplicationConstants.RESYNCHRONIZE_ID
+                json.write("\"" + ApplicationConstants.RESYNCHRONIZE_ID
                         + "\": true, ");
             }
             int nextClientToServerMessageId = ui
                     .getLastProcessedClientToServerId() + 1;
-            writer.write("\"" + ApplicationConstants.CLIENT_TO_SERVER_ID
-                    + "\": " + nextClientToServerMessageId + ", ");
-            writer.write("\"changes\" : ");
+            json.write("\"" + ApplicationConstants.CLIENT_TO_SERVER_ID + "\": "
+                    + nextClientToServerMessageId + ", ");
+            json.write("\"changes\" : ");
 
-            JsonPaintTarget paintTarget = new JsonPaintTarget(manager, writer,
+            JsonPaintTarget paintTarget = new JsonPaintTarget(manager, json,
                     !repaintAll);
 
-            new LegacyUidlWriter().write(ui, writer, paintTarget);
+            new LegacyUidlWriter().write(ui, json, paintTarget);
 
             paintTarget.close();
-            writer.write(", "); // close changes
+            json.write(", "); // close changes
 
             // send shared state to client
 
@@ -171,19 +240,25 @@ public class UidlWriter implements Serializable {
             // client after component creation but before legacy UIDL
             // processing.
 
-            writer.write("\"state\":");
+            json.write("\"state\":");
+            long sectionStart = json.getBytesWritten();
             Set<String> stateUpdateConnectors = new SharedStateWriter()
-                    .write(ui, writer);
-            writer.write(", "); // close states
+                    .write(ui, json);
+            addSectionStatistics(sectionStatistics, "state", json,
+                    sectionStart);
+            json.write(", "); // close states
 
             // TODO This should be optimized. The type only needs to be
             // sent once for each connector id + on refresh. Use the same cache
             // as
             // widget mapping
 
-            writer.write("\"types\":");
-            new ConnectorTypeWriter().write(ui, writer, paintTarget);
-            writer.write(", "); // close states
+            json.write("\"types\":");
+            sectionStart = json.getBytesWritten();
+            new ConnectorTypeWriter().write(ui, json, paintTarget);
+            addSectionStatistics(sectionStatistics, "types", json,
+                    sectionStart);
+            json.write(", "); // close states
 
             // Send update hierarchy information to the client.
 
@@ -192,10 +267,13 @@ public class UidlWriter implements Serializable {
             // that an empty hierarchy is information aswell (e.g. change from 1
             // child to 0 children)
 
-            writer.write("\"hierarchy\":");
-            new ConnectorHierarchyWriter().write(ui, writer,
+            json.write("\"hierarchy\":");
+            sectionStart = json.getBytesWritten();
+            new ConnectorHierarchyWriter().write(ui, json,
                     stateUpdateConnectors);
-            writer.write(", "); // close hierarchy
+            addSectionStatistics(sectionStatistics, "hierarchy", json,
+                    sectionStart);
+            json.write(", "); // close hierarchy
 
             // send server to client RPC calls for components in the UI, in call
             // order
@@ -203,22 +281,24 @@ public class UidlWriter implements Serializable {
             // collect RPC calls from components in the UI in the order in
             // which they were performed, remove the calls from components
 
-            writer.write("\"rpc\" : ");
-            new ClientRpcWriter().write(ui, writer);
-            writer.write(", "); // close rpc
+            json.write("\"rpc\" : ");
+            sectionStart = json.getBytesWritten();
+            new ClientRpcWriter().write(ui, json);
+            addSectionStatistics(sectionStatistics, "rpc", json, sectionStart);
+            json.write(", "); // close rpc
 
             uiConnectorTracker.markAllConnectorsClean();
 
-            writer.write("\"meta\" : ");
+            json.write("\"meta\" : ");
 
             SystemMessages messages = ui.getSession().getService()
                     .getSystemMessages(ui.getLocale(), null);
             // TODO hilightedConnector
-            new MetadataWriter().write(ui, writer, repaintAll, async, messages);
-            writer.write(", ");
+            new MetadataWriter().write(ui, json, repaintAll, async, messages);
+            json.write(", ");
 
-            writer.write("\"resources\" : ");
-            new ResourceWriter().write(ui, writer, paintTarget);
+            json.write("\"resources\" : ");
+            new ResourceWriter().write(ui, json, paintTarget);
 
             Collection<Class<? extends ClientConnector>> usedClientConnectors = paintTarget
                     .getUsedClientConnectors();
@@ -234,19 +314,19 @@ public class UidlWriter implements Serializable {
 
                     if (!typeMappingsOpen) {
                         typeMappingsOpen = true;
-                        writer.write(", \"typeMappings\" : { ");
+                        json.write(", \"typeMappings\" : { ");
                     } else {
-                        writer.write(" , ");
+                        json.write(" , ");
                     }
                     String canonicalName = class1.getCanonicalName();
-                    writer.write("\"");
-                    writer.write(canonicalName);
-                    writer.write("\" : ");
-                    writer.write(manager.getTagForType(class1));
+                    json.write("\"");
+                    json.write(canonicalName);
+                    json.write("\" : ");
+                    json.write(manager.getTagForType(class1));
                 }
             }
             if (typeMappingsOpen) {
-                writer.write(" }");
+                json.write(" }");
             }
 
             // TODO PUSH Refactor to TypeInheritanceWriter or something
@@ -260,19 +340,19 @@ public class UidlWriter implements Serializable {
                     }
                     if (!typeInheritanceMapOpen) {
                         typeInheritanceMapOpen = true;
-                        writer.write(", \"typeInheritanceMap\" : { ");
+                        json.write(", \"typeInheritanceMap\" : { ");
                     } else {
-                        writer.write(" , ");
+                        json.write(" , ");
                     }
-                    writer.write("\"");
-                    writer.write(manager.getTagForType(class1));
-                    writer.write("\" : ");
-                    writer.write(manager.getTagForType(
+                    json.write("\"");
+                    json.write(manager.getTagForType(class1));
+                    json.write("\" : ");
+                    json.write(manager.getTagForType(
                             (Class<? extends ClientConnector>) class1
                                     .getSuperclass()));
                 }
                 if (typeInheritanceMapOpen) {
-                    writer.write(" }");
+                    json.write(" }");
                 }
             }
 
@@ -306,11 +386,11 @@ public class UidlWriter implements Serializable {
 
             // Include dependencies in output if there are any
             if (!dependencies.isEmpty()) {
-                writer.write(", \"dependencies\": "
+                json.write(", \"dependencies\": "
                         + JsonUtil.stringify(toJsonArray(dependencies)));
             }
 
-            session.getDragAndDropService().printJSONResponse(writer);
+            session.getDragAndDropService().printJSONResponse(json);
 
             for (ClientConnector connector : processedConnectors) {
                 uiConnectorTracker.markClientSideInitialized(connector);
@@ -319,11 +399,16 @@ public class UidlWriter implements Serializable {
             assert (uiConnectorTracker.getDirtyConnectors()
                     .isEmpty()) : "Connectors have been marked as dirty during the end of the paint phase. This is most certainly not intended.";
 
-            writePerformanceData(ui, writer);
+            writePerformanceData(ui, json);
         } finally {
             uiConnectorTracker.setWritingResponse(false);
             uiConnectorTracker.cleanConnectorMap(true);
         }
+
+        if (sectionStatistics != null) {
+            service.fireUidlWriteEvent(new UidlWriteEvent(ui, async,
+                    sectionStatistics, beforeClientResponseIterations));
+        }
     }
 
     private JsonArray toJsonArray(List<Dependency> list) {
@@ -339,6 +424,61 @@ public class UidlWriter implements Serializable {
         return result;
     }
 
+    private void addSectionStatistics(List<SectionStatistics> sectionStatistics,
+            String name, JsonStreamWriter json, long sectionStart) {
+        if (sectionStatistics == null) {
+            return;
+        }
+        SectionStatistics statistics = new SectionStatistics(name,
+                json.getBytesWritten() - sectionStart,
+                json.getLastTopLevelEntryCount());
+        sectionStatistics.add(statistics);
+        getLogger().log(Level.FINE, "UIDL section {0}", statistics);
+    }
+
+    /**
+     * Sorts connectors by their depth in the connector hierarchy, keeping the
+     * original order of connectors at the same depth. The depth of each
+     * connector is computed only once, reusing the depths of already visited
+     * parents, and the connectors are distributed to buckets by depth so that
+     * the whole sort is linear in the number of connectors.
+     */
+    private static List<ClientConnector> sortByDepth(
+            List<ClientConnector> connectors) {
+        Map<ClientConnector, Integer> depths = new HashMap<>();
+        int[] connectorDepths = new int[connectors.size()];
+        int maxDepth = 0;
+        for (int i = 0; i < connectorDepths.length; i++) {
+            connectorDepths[i] = getDepth(connectors.get(i), depths);
+            maxDepth = Math.max(maxDepth, connectorDepths[i]);
+        }
+
+        // Start index of each depth in the result, i.e. a counting sort
+        int[] starts = new int[maxDepth + 2];
+        for (int depth : connectorDepths) {
+            starts[depth + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        ClientConnector[] sorted = new ClientConnector[connectorDepths.length];
+        for (int i = 0; i < connectorDepths.length; i++) {
+            sorted[starts[connectorDepths[i]]++] = connectors.get(i);
+        }
+        return Arrays.asList(sorted);
+    }
+
+    private static int getDepth(ClientConnector connector,
+            Map<ClientConnector, Integer> depths) {
+        Integer depth = depths.get(connector);
+        if (depth == null) {
+            ClientConnector parent = connector.getParent();
+            depth = parent == null ? 0 : getDepth(parent, depths) + 1;
+            depths.put(connector, depth);
+        }
+        return depth;
+    }
+
     /**
      * Adds the performance timing data (used by TestBench 3) to the UIDL
      * response.
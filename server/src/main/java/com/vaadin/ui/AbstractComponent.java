@@ -266,7 +266,8 @@ public abstract class AbstractComponent extends AbstractClientConnector
 
     @Override
     public void setCaption(String caption) {
-        getState().caption = caption;
+        getState(false).caption = caption;
+        markStatePropertyDirty("caption");
     }
 
     /**
@@ -283,7 +284,8 @@ public abstract class AbstractComponent extends AbstractClientConnector
      *            as plain text
      */
     public void setCaptionAsHtml(boolean captionAsHtml) {
-        getState().captionAsHtml = captionAsHtml;
+        getState(false).captionAsHtml = captionAsHtml;
+        markStatePropertyDirty("captionAsHtml");
     }
 
     /**
@@ -384,7 +386,8 @@ public abstract class AbstractComponent extends AbstractClientConnector
      */
     @Override
     public void setEnabled(boolean enabled) {
-        getState().enabled = enabled;
+        getState(false).enabled = enabled;
+        markStatePropertyDirty("enabled");
     }
 
     /*
@@ -481,8 +484,10 @@ public abstract class AbstractComponent extends AbstractClientConnector
      * @since 8.0
      */
     public void setDescription(String description, ContentMode mode) {
-        getState().description = description;
-        getState().descriptionContentMode = mode;
+        getState(false).description = description;
+        getState(false).descriptionContentMode = mode;
+        markStatePropertyDirty("description");
+        markStatePropertyDirty("descriptionContentMode");
     }
 
     /*
@@ -681,27 +686,47 @@ public abstract class AbstractComponent extends AbstractClientConnector
         super.beforeClientResponse(initial);
         // TODO This logic should be on the client side and the state should
         // simply be a data object with "width" and "height".
+        // Only mark the properties that have actually changed so that
+        // unchanged components can use state property tracking
+        AbstractComponentState state = getState(false);
+        String height;
         if (getHeight() >= 0 && (getHeightUnits() != Unit.PERCENTAGE
                 || ComponentSizeValidator.parentCanDefineHeight(this))) {
-            getState().height = "" + getCSSHeight();
+            height = "" + getCSSHeight();
         } else {
-            getState().height = "";
+            height = "";
+        }
+        if (!height.equals(state.height)) {
+            state.height = height;
+            markStatePropertyDirty("height");
         }
 
+        String width;
         if (getWidth() >= 0 && (getWidthUnits() != Unit.PERCENTAGE
                 || ComponentSizeValidator.parentCanDefineWidth(this))) {
-            getState().width = "" + getCSSWidth();
+            width = "" + getCSSWidth();
         } else {
-            getState().width = "";
+            width = "";
+        }
+        if (!width.equals(state.width)) {
+            state.width = width;
+            markStatePropertyDirty("width");
         }
 
         ErrorMessage error = getErrorMessage();
+        String errorMessage = null;
+        ErrorLevel errorLevel = null;
         if (null != error) {
-            getState().errorMessage = error.getFormattedHtmlMessage();
-            getState().errorLevel = error.getErrorLevel();
-        } else {
-            getState().errorMessage = null;
-            getState().errorLevel = null;
+            errorMessage = error.getFormattedHtmlMessage();
+            errorLevel = error.getErrorLevel();
+        }
+        if (!Objects.equals(errorMessage, state.errorMessage)) {
+            state.errorMessage = errorMessage;
+            markStatePropertyDirty("errorMessage");
+        }
+        if (errorLevel != state.errorLevel) {
+            state.errorLevel = errorLevel;
+            markStatePropertyDirty("errorLevel");
         }
     }
 
@@ -19,7 +19,10 @@ package com.vaadin.ui;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -39,6 +42,7 @@ import com.vaadin.data.provider.DataGenerator;
 import com.vaadin.data.provider.DataKeyMapper;
 import com.vaadin.data.provider.DataProvider;
 import com.vaadin.data.provider.ListDataProvider;
+import com.vaadin.data.provider.ListDataProvider.BackendVersion;
 import com.vaadin.event.FieldEvents;
 import com.vaadin.event.FieldEvents.BlurEvent;
 import com.vaadin.event.FieldEvents.BlurListener;
@@ -52,6 +56,7 @@ import com.vaadin.server.ResourceReference;
 import com.vaadin.server.SerializableBiPredicate;
 import com.vaadin.server.SerializableConsumer;
 import com.vaadin.server.SerializableFunction;
+import com.vaadin.server.SerializablePredicate;
 import com.vaadin.server.SerializableToIntFunction;
 import com.vaadin.shared.Registration;
 import com.vaadin.shared.data.DataCommunicatorConstants;
@@ -227,6 +232,12 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
 
     private StyleGenerator<T> itemStyleGenerator = item -> null;
 
+    /**
+     * Lower case captions of the items used by the default filtering of a list
+     * data provider, or <code>null</code> if not using the default filtering.
+     */
+    private CaptionIndex<T> captionIndex;
+
     private SerializableConsumer<String> filterSlot = filter -> {
         // Just ignore when neither setDataProvider nor setItems has been called
     };
@@ -407,13 +418,17 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
      * @since 8.0
      */
     public void setDataProvider(ListDataProvider<T> listDataProvider) {
-        // Cannot use the case insensitive contains shorthand from
-        // ListDataProvider since it wouldn't react to locale changes
-        CaptionFilter defaultCaptionFilter = (itemText, filterText) -> itemText
-                .toLowerCase(getLocale())
-                .contains(filterText.toLowerCase(getLocale()));
+        Objects.requireNonNull(listDataProvider,
+                "List data provider cannot be null");
 
-        setDataProvider(defaultCaptionFilter, listDataProvider);
+        // Cannot use the case insensitive contains shorthand from
+        // ListDataProvider since it wouldn't react to locale changes. The
+        // index is checked against the current caption generator and locale
+        // for each operation.
+        CaptionIndex<T> index = new CaptionIndex<>(listDataProvider);
+        setDataProvider(listDataProvider,
+                filterText -> new CaptionIndexFilter(index, filterText));
+        captionIndex = index;
     }
 
     /**
@@ -691,6 +706,24 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
     public void setItemCaptionGenerator(
             ItemCaptionGenerator<T> itemCaptionGenerator) {
         super.setItemCaptionGenerator(itemCaptionGenerator);
+        refreshDefaultFilter();
+    }
+
+    @Override
+    public void setLocale(Locale locale) {
+        super.setLocale(locale);
+        refreshDefaultFilter();
+    }
+
+    /**
+     * Applies the current filter text again when using the default filtering,
+     * so that the filter used by the data provider is not considered equal to
+     * one created with a different caption generator or locale.
+     */
+    private void refreshDefaultFilter() {
+        if (captionIndex != null) {
+            filterSlot.accept(getState(false).currentFilterText);
+        }
     }
 
     /**
@@ -863,6 +896,19 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
 
         // Update icon for ConnectorResource
         updateSelectedItemIcon(getValue());
+
+        // The inherited locale may have changed
+        refreshDefaultFilter();
+    }
+
+    @Override
+    public void detach() {
+        if (captionIndex != null) {
+            // Don't keep the cached captions alive through the data provider
+            captionIndex.release();
+        }
+
+        super.detach();
     }
 
     @Override
@@ -941,6 +987,11 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
             return filterConverter.apply(filterText);
         };
 
+        if (captionIndex != null) {
+            captionIndex.release();
+            captionIndex = null;
+        }
+
         SerializableConsumer<C> providerFilterSlot = internalSetDataProvider(
                 dataProvider,
                 convertOrNull.apply(getState(false).currentFilterText));
@@ -998,6 +1049,205 @@ public class ComboBox<T> extends AbstractSingleSelect<T>
         public boolean test(String itemCaption, String filterText);
     }
 
+    /**
+     * The default case insensitive filter of a list data provider. Filters
+     * created for the same filter text, caption generator and locale are equal,
+     * so that the list data provider can reuse the items it has already
+     * filtered for a previous one.
+     */
+    private class CaptionIndexFilter implements SerializablePredicate<T> {
+        private final CaptionIndex<T> index;
+        private final String filterText;
+        private final ItemCaptionGenerator<T> captionGenerator;
+        private final Locale locale;
+
+        private CaptionIndexFilter(CaptionIndex<T> index, String filterText) {
+            this.index = index;
+            this.filterText = filterText;
+            captionGenerator = getItemCaptionGenerator();
+            locale = getLocale();
+        }
+
+        @Override
+        public boolean test(T item) {
+            return index.test(item, filterText, getItemCaptionGenerator(),
+                    getLocale());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ComboBox.CaptionIndexFilter)) {
+                return false;
+            }
+            CaptionIndexFilter other = (CaptionIndexFilter) obj;
+            return index == other.index && filterText.equals(other.filterText)
+                    && captionGenerator == other.captionGenerator
+                    && Objects.equals(locale, other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filterText, locale);
+        }
+    }
+
+    /**
+     * Lower case captions of the items in a list data provider, used for the
+     * default case insensitive filtering. Captions are computed once per item
+     * and the matches for the latest filter are kept so that a filter text
+     * containing the previous one only needs to check the previous matches.
+     * Everything is discarded when the data provider is refreshed or the
+     * caption generator or locale changes. Since the list data provider also
+     * shows items added to its backing collection without a refresh, the
+     * previous matches are only narrowed if the collection is unchanged, and
+     * items that have not been indexed yet are always checked.
+     */
+    private static class CaptionIndex<T> implements Serializable {
+        private final ListDataProvider<T> dataProvider;
+        private Registration refreshRegistration;
+
+        private ItemCaptionGenerator<T> captionGenerator;
+        private Locale locale;
+
+        private transient BackendVersion backendVersion;
+        private transient Map<T, String> captions;
+        private transient String lastFilterText;
+        private transient String lastNormalizedFilter;
+        private transient Set<T> lastMatches;
+
+        private CaptionIndex(ListDataProvider<T> dataProvider) {
+            this.dataProvider = dataProvider;
+        }
+
+        /**
+         * Gets the items whose lower case caption contains the lower case
+         * filter text.
+         *
+         * @param filterText
+         *            the filter text, not <code>null</code>
+         * @param captionGenerator
+         *            the current caption generator
+         * @param locale
+         *            the current locale
+         * @return a set of matching items, compared by identity
+         */
+        private Set<T> getMatches(String filterText,
+                ItemCaptionGenerator<T> captionGenerator, Locale locale) {
+            if (refreshRegistration == null) {
+                // Changes may have been missed while not listening
+                invalidate();
+                refreshRegistration = dataProvider
+                        .addDataProviderListener(event -> invalidate());
+            }
+            if (captionGenerator != this.captionGenerator
+                    || !Objects.equals(locale, this.locale)) {
+                invalidate();
+                this.captionGenerator = captionGenerator;
+                this.locale = locale;
+            }
+            if (lastMatches != null && filterText.equals(lastFilterText)) {
+                return lastMatches;
+            }
+
+            // The list data provider shows changes to the backing collection
+            // without a refresh, so the previous matches can only be narrowed
+            // if the collection is unchanged
+            BackendVersion version = new BackendVersion(
+                    dataProvider.getItems());
+            if (!version.equals(backendVersion)) {
+                invalidate();
+                backendVersion = version;
+            }
+
+            String normalizedFilter = filterText.toLowerCase(locale);
+            Collection<T> candidates;
+            if (lastMatches != null
+                    && normalizedFilter.contains(lastNormalizedFilter)) {
+                candidates = lastMatches;
+            } else {
+                candidates = dataProvider.getItems();
+            }
+
+            Set<T> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (T item : candidates) {
+                if (getCaption(item).contains(normalizedFilter)) {
+                    matches.add(item);
+                }
+            }
+
+            lastFilterText = filterText;
+            lastNormalizedFilter = normalizedFilter;
+            lastMatches = matches;
+            return matches;
+        }
+
+        /**
+         * Checks whether the lower case caption of the given item contains the
+         * lower case filter text. Items added to or replaced in the backing
+         * collection after the matches of the filter were computed are checked
+         * separately, since the matches are reused for all items of a query and
+         * for later queries with the same filter text.
+         *
+         * @param item
+         *            the item to check
+         * @param filterText
+         *            the filter text, not <code>null</code>
+         * @param captionGenerator
+         *            the current caption generator
+         * @param locale
+         *            the current locale
+         * @return <code>true</code> if the item matches the filter, otherwise
+         *         <code>false</code>
+         */
+        private boolean test(T item, String filterText,
+                ItemCaptionGenerator<T> captionGenerator, Locale locale) {
+            Set<T> matches = getMatches(filterText, captionGenerator, locale);
+            if (matches.contains(item)) {
+                return true;
+            }
+            if (captions != null && captions.containsKey(item)) {
+                return false;
+            }
+            if (getCaption(item).contains(lastNormalizedFilter)) {
+                matches.add(item);
+                return true;
+            }
+            return false;
+        }
+
+        private String getCaption(T item) {
+            if (captions == null) {
+                captions = new IdentityHashMap<>();
+            }
+            String caption = captions.get(item);
+            if (caption == null) {
+                caption = captionGenerator.apply(item);
+                caption = caption == null ? "" : caption.toLowerCase(locale);
+                captions.put(item, caption);
+            }
+            return caption;
+        }
+
+        private void invalidate() {
+            backendVersion = null;
+            captions = null;
+            lastFilterText = null;
+            lastNormalizedFilter = null;
+            lastMatches = null;
+        }
+
+        /**
+         * Stops listening to the data provider and discards the index.
+         */
+        private void release() {
+            if (refreshRegistration != null) {
+                refreshRegistration.remove();
+                refreshRegistration = null;
+            }
+            invalidate();
+        }
+    }
+
     private static Logger getLogger() {
         return Logger.getLogger(ComboBox.class.getName());
     }
@@ -38,16 +38,20 @@ import com.vaadin.server.AbstractClientConnector;
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.DragAndDropService;
 import com.vaadin.server.GlobalResourceHandler;
+import com.vaadin.server.JsonCodec;
 import com.vaadin.server.LegacyCommunicationManager;
 import com.vaadin.server.StreamVariable;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.communication.ConnectorHierarchyWriter;
 import com.vaadin.shared.Registration;
+import com.vaadin.shared.communication.SharedState;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonException;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * A class which takes care of book keeping of {@link ClientConnector}s for a
@@ -738,17 +742,47 @@ public class ConnectorTracker implements Serializable {
         this.writingResponse = writingResponse;
     }
 
-    /* Special serialization to JsonObjects which are not serializable */
+    /*
+     * Special serialization to JsonObjects which are not serializable. Only the
+     * properties that differ from the default state of the state type are
+     * written, as most properties of most connectors have their default values.
+     */
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.defaultWriteObject();
-        // Convert JsonObjects in diff state to String representation as
-        // JsonObject is not serializable
-        Map<ClientConnector, String> stringDiffStates = new HashMap<>(
-                diffStates.size() * 2);
-        for (ClientConnector key : diffStates.keySet()) {
-            stringDiffStates.put(key, diffStates.get(key).toString());
+        out.writeInt(diffStates.size());
+        for (Map.Entry<ClientConnector, JsonObject> entry : diffStates
+                .entrySet()) {
+            ClientConnector connector = entry.getKey();
+            JsonObject diffState = entry.getValue();
+            Class<? extends SharedState> stateType = connector.getStateType();
+            JsonObject reference = LegacyCommunicationManager
+                    .getReferenceDiffState(stateType);
+
+            JsonObject changed = Json.createObject();
+            JsonArray removed = Json.createArray();
+            if (reference == null) {
+                changed = diffState;
+            } else {
+                for (String key : diffState.keys()) {
+                    JsonValue value = diffState.get(key);
+                    JsonValue referenceValue = reference.get(key);
+                    if (referenceValue == null
+                            || !JsonCodec.jsonEquals(value, referenceValue)) {
+                        changed.put(key, value);
+                    }
+                }
+                for (String key : reference.keys()) {
+                    if (!diffState.hasKey(key)) {
+                        removed.set(removed.length(), key);
+                    }
+                }
+            }
+
+            out.writeObject(connector);
+            out.writeObject(reference == null ? null : stateType);
+            out.writeObject(changed.toJson());
+            out.writeObject(removed.length() == 0 ? null : removed.toJson());
         }
-        out.writeObject(stringDiffStates);
     }
 
     /* Special serialization to JsonObjects which are not serializable */
@@ -756,21 +790,55 @@ public class ConnectorTracker implements Serializable {
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
 
-        // Read String versions of JsonObjects and parse into JsonObjects as
-        // JsonObject is not serializable
-        diffStates = new HashMap<>();
-        @SuppressWarnings("unchecked")
-        Map<ClientConnector, String> stringDiffStates = (HashMap<ClientConnector, String>) in
-                .readObject();
-        diffStates = new HashMap<>(stringDiffStates.size() * 2);
-        for (ClientConnector key : stringDiffStates.keySet()) {
+        int size = in.readInt();
+        diffStates = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ClientConnector connector = (ClientConnector) in.readObject();
+            @SuppressWarnings("unchecked")
+            Class<? extends SharedState> stateType = (Class<? extends SharedState>) in
+                    .readObject();
+            String changed = (String) in.readObject();
+            String removed = (String) in.readObject();
             try {
-                diffStates.put(key, Json.parse(stringDiffStates.get(key)));
+                JsonObject diffState = Json.parse(changed);
+                if (stateType != null) {
+                    diffState = withDefaults(diffState, stateType, removed);
+                }
+                diffStates.put(connector, diffState);
             } catch (JsonException e) {
                 throw new IOException(e);
             }
         }
+    }
 
+    private static JsonObject withDefaults(JsonObject changed,
+            Class<? extends SharedState> stateType, String removed) {
+        JsonObject reference = LegacyCommunicationManager
+                .getReferenceDiffState(stateType);
+        if (reference == null) {
+            throw new JsonException(
+                    "No default state for " + stateType.getName());
+        }
+        JsonObject diffState = Json.createObject();
+        for (String key : reference.keys()) {
+            JsonValue value = reference.get(key);
+            if (value instanceof JsonObject || value instanceof JsonArray) {
+                // Only immutable values can be shared
+                value = Json.instance().parse(value.toJson());
+            }
+            diffState.put(key, value);
+        }
+        if (removed != null) {
+            JsonArray removedKeys = Json.instance().parse(removed);
+            for (int i = 0; i < removedKeys.length(); i++) {
+                diffState.remove(removedKeys.getString(i));
+            }
+        }
+        for (String key : changed.keys()) {
+            JsonValue value = changed.get(key);
+            diffState.put(key, value);
+        }
+        return diffState;
     }
 
     /**
@@ -18,6 +18,7 @@ package com.vaadin.ui;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -834,6 +835,84 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
         }
     }
 
+    /**
+     * A bounded pool of components for a column with recycled components. Each
+     * item currently in use on the client has a component assigned to it, and
+     * components of items that are no longer in use are kept attached to the
+     * grid so that they can be updated for another item instead of creating and
+     * registering a new component.
+     *
+     * @param <T>
+     *            the grid bean type
+     * @param <V>
+     *            the component type
+     */
+    private static class ComponentPool<T, V extends Component>
+            implements Serializable {
+
+        private static final int MAX_IDLE_COMPONENTS = 100;
+
+        private final SerializableSupplier<V> componentFactory;
+        private final Setter<V, T> componentUpdater;
+
+        private final Map<Object, V> assignedComponents = new HashMap<>();
+        private final ArrayDeque<V> idleComponents = new ArrayDeque<>();
+
+        private ComponentPool(SerializableSupplier<V> componentFactory,
+                Setter<V, T> componentUpdater) {
+            this.componentFactory = componentFactory;
+            this.componentUpdater = componentUpdater;
+        }
+
+        /**
+         * Gets the component assigned to an item, assigning an idle or a new
+         * component if there is none, and updates it for the item.
+         */
+        private V acquire(Object itemId, T item) {
+            V component = assignedComponents.get(itemId);
+            if (component == null) {
+                component = idleComponents.pollFirst();
+                if (component == null) {
+                    component = componentFactory.get();
+                }
+                assignedComponents.put(itemId, component);
+            }
+            componentUpdater.accept(component, item);
+            return component;
+        }
+
+        private V getAssigned(Object itemId) {
+            return assignedComponents.get(itemId);
+        }
+
+        /**
+         * Returns the component assigned to an item to the pool.
+         *
+         * @return <code>true</code> if the component was kept for reuse,
+         *         <code>false</code> if it should be removed from the grid
+         */
+        private boolean release(Object itemId) {
+            V component = assignedComponents.remove(itemId);
+            if (component == null
+                    || idleComponents.size() >= MAX_IDLE_COMPONENTS) {
+                return false;
+            }
+            idleComponents.addFirst(component);
+            return true;
+        }
+
+        /**
+         * Removes all idle components from the pool.
+         *
+         * @return the removed components
+         */
+        private List<V> clearIdle() {
+            List<V> components = new ArrayList<>(idleComponents);
+            idleComponents.clear();
+            return components;
+        }
+    }
+
     /**
      * This extension manages the configuration and data communication for a
      * Column inside of a Grid component.
@@ -909,6 +988,7 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
 
         private Binding<T, ?> editorBinding;
         private Map<Object, Component> activeComponents = new HashMap<>();
+        private ComponentPool<T, ?> componentPool;
 
         private String userId;
 
@@ -1053,8 +1133,15 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
         @SuppressWarnings("unchecked")
         private <P> JsonValue generateRendererValue(T item,
                 ValueProvider<V, P> presentationProvider, Connector renderer) {
-            P presentationValue = presentationProvider
-                    .apply(valueProvider.apply(item));
+            P presentationValue;
+            if (componentPool != null
+                    && renderer instanceof ComponentRenderer) {
+                presentationValue = (P) componentPool
+                        .acquire(getGrid().getDataProvider().getId(item), item);
+            } else {
+                presentationValue = presentationProvider
+                        .apply(valueProvider.apply(item));
+            }
 
             // Make Grid track components.
             if (renderer instanceof ComponentRenderer
@@ -1079,11 +1166,19 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
 
         private void removeComponent(Object item) {
             Component component = activeComponents.remove(item);
-            if (component != null) {
+            if (component != null && (componentPool == null
+                    || !componentPool.release(item))) {
                 getGrid().removeExtensionComponent(component);
             }
         }
 
+        private void removeIdleComponents() {
+            if (componentPool != null) {
+                componentPool.clearIdle()
+                        .forEach(getGrid()::removeExtensionComponent);
+            }
+        }
+
         /**
          * Gets a data object with the given key from the given JsonObject. If
          * there is no object with the key, this method creates a new
@@ -1703,6 +1798,57 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
             return getState(false).minimumWidthFromContent;
         }
 
+        /**
+         * Sets the maximum number of rows that are measured when the width of
+         * this column is calculated from its contents.
+         * <p>
+         * By default, all rows rendered in the browser are measured whenever
+         * the column widths are calculated. With a sample size, at most the
+         * given number of rows are measured and the estimated width is reused
+         * until the contents of the grid change. This makes calculating the
+         * widths considerably faster for grids with many columns, at the cost
+         * of possibly not fitting the contents of all rows.
+         *
+         * @param rowCount
+         *            the maximum number of rows to measure, at least 1, or -1
+         *            to measure all rows
+         * @return the column itself
+         * @throws IllegalStateException
+         *             if the column is no longer attached to any grid
+         * @throws IllegalArgumentException
+         *             if the row count is 0 or less than -1
+         * @see #setWidthUndefined()
+         * @since 8.7
+         */
+        public Column<T, V> setAutoWidthSampleSize(int rowCount)
+                throws IllegalStateException {
+            checkColumnIsAttached();
+            if (rowCount == 0 || rowCount < -1) {
+                throw new IllegalArgumentException(
+                        "Sample size must be -1 or a positive row count (was "
+                                + rowCount + ")");
+            }
+
+            if (getAutoWidthSampleSize() != rowCount) {
+                getState().autoWidthSampleSize = rowCount;
+                getGrid().markAsDirty();
+            }
+            return this;
+        }
+
+        /**
+         * Gets the maximum number of rows that are measured when the width of
+         * this column is calculated from its contents.
+         *
+         * @return the maximum number of rows to measure, or -1 if all rows are
+         *         measured
+         * @see #setAutoWidthSampleSize(int)
+         * @since 8.7
+         */
+        public int getAutoWidthSampleSize() {
+            return getState(false).autoWidthSampleSize;
+        }
+
         /**
          * Sets the maximum width for this column.
          * <p>
@@ -2840,6 +2986,48 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
         return addColumn(componentProvider, new ComponentRenderer());
     }
 
+    /**
+     * Adds a column that shows recycled components.
+     * <p>
+     * Instead of creating a new component for each item, components created by
+     * the factory are reused for other items once the items they were used for
+     * are no longer shown on the client. The updater is called to configure the
+     * component whenever it is shown for an item. A bounded number of unused
+     * components is kept attached to the grid, which avoids registering and
+     * sending new components to the client when scrolling.
+     * <p>
+     * Components in the column should not keep state that is not set by the
+     * updater, since the same instance is shown for different items. The column
+     * is not sortable by default.
+     *
+     * @param componentFactory
+     *            a supplier of new components, not <code>null</code>
+     * @param componentUpdater
+     *            a callback that updates a component to show the given item,
+     *            not <code>null</code>
+     * @return the new column
+     * @param <V>
+     *            the column value type, extends component
+     * @since 8.7
+     */
+    public <V extends Component> Column<T, V> addComponentColumn(
+            SerializableSupplier<V> componentFactory,
+            Setter<V, T> componentUpdater) {
+        Objects.requireNonNull(componentFactory,
+                "Component factory can't be null");
+        Objects.requireNonNull(componentUpdater,
+                "Component updater can't be null");
+
+        ComponentPool<T, V> pool = new ComponentPool<>(componentFactory,
+                componentUpdater);
+        Column<T, V> column = addColumn(
+                item -> pool.getAssigned(getDataProvider().getId(item)),
+                new ComponentRenderer());
+        column.componentPool = pool;
+        column.setSortable(false);
+        return column;
+    }
+
     /**
      * Creates a column instance from a value provider, presentation provider
      * and a renderer.
@@ -2903,6 +3091,7 @@ public class Grid<T> extends AbstractListing<T> implements HasComponents,
             assert displayIndex != -1 : "Tried to remove a column which is not included in columnOrder. This should not be possible as all columns should be in columnOrder.";
             columnKeys.remove(columnId);
             columnIds.remove(column.getId());
+            column.removeIdleComponents();
             column.remove();
             removeDataGenerator(column.getDataGenerator());
             getHeader().removeColumn(columnId);
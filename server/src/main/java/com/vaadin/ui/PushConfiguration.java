@@ -162,10 +162,43 @@ public interface PushConfiguration extends Serializable {
      */
     public String getPushUrl();
 
+    /**
+     * Sets the minimum interval between automatic pushes. Only used with
+     * {@link PushMode#AUTOMATIC}.
+     * <p>
+     * With an interval of 0 (the default), pending changes are pushed every
+     * time the session lock is released. With a positive interval, changes made
+     * sooner than the interval after the previous automatic push are not pushed
+     * right away. Instead, they are collected and pushed in one message when
+     * the interval has elapsed. This reduces the number of messages sent for
+     * frequently updated UIs, such as UIs updated from a data feed.
+     * <p>
+     * Explicit calls to {@link UI#push()} are not affected by the interval.
+     *
+     * @since 8.7
+     * @param pushInterval
+     *            the minimum interval between automatic pushes in milliseconds,
+     *            or 0 to push without delay
+     * @throws IllegalArgumentException
+     *             if the interval is negative
+     */
+    public void setPushInterval(int pushInterval);
+
+    /**
+     * Returns the minimum interval between automatic pushes.
+     *
+     * @since 8.7
+     * @return the minimum interval between automatic pushes in milliseconds, or
+     *         0 if changes are pushed without delay
+     * @see #setPushInterval(int)
+     */
+    public int getPushInterval();
+
 }
 
 class PushConfigurationImpl implements PushConfiguration {
     private final UI ui;
+    private int pushInterval = 0;
 
     public PushConfigurationImpl(UI ui) {
         this.ui = ui;
@@ -200,7 +233,8 @@ class PushConfigurationImpl implements PushConfiguration {
                     "Cannot set the push mode for a detached UI");
         }
 
-        assert session.hasLock();
+        assert session.isUILockingEnabled() ? session.hasLock(ui)
+                : session.hasLock();
 
         if (pushMode.isEnabled()
                 && !session.getService().ensurePushAvailable()) {
@@ -232,6 +266,20 @@ class PushConfigurationImpl implements PushConfiguration {
         return getState(false).pushUrl;
     }
 
+    @Override
+    public void setPushInterval(int pushInterval) {
+        if (pushInterval < 0) {
+            throw new IllegalArgumentException(
+                    "Push interval cannot be negative");
+        }
+        this.pushInterval = pushInterval;
+    }
+
+    @Override
+    public int getPushInterval() {
+        return pushInterval;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -20,6 +20,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.ArrayList;
@@ -31,7 +32,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,6 +69,7 @@ import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinServlet;
 import com.vaadin.server.VaadinSession;
+import com.vaadin.server.VaadinSession.FutureAccess;
 import com.vaadin.server.VaadinSession.State;
 import com.vaadin.server.communication.PushConnection;
 import com.vaadin.shared.ApplicationConstants;
@@ -659,6 +667,25 @@ public abstract class UI extends AbstractSingleComponentContainer
 
     private boolean mobileHtml5DndPolyfillLoaded;
 
+    /**
+     * Lock for this UI, only used when per-UI locking is enabled for the
+     * session.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /*
+     * Tasks submitted using access(Runnable) when per-UI locking is enabled.
+     * Pending tasks can't be serialized.
+     */
+    private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Time of the previous automatic push and the scheduled task for pushing
+     * changes held back because of the push interval.
+     */
+    private long lastAutomaticPushTime = 0;
+    private transient ScheduledFuture<?> scheduledAutomaticPush;
+
     /**
      * This method is used by Component.Focusable objects to request focus to
      * themselves. Focus renders must be handled at window level (instead of
@@ -1489,7 +1516,7 @@ public abstract class UI extends AbstractSingleComponentContainer
 
         VaadinService.verifyNoOtherSessionLocked(session);
 
-        session.lock();
+        session.lockUI(this);
         try {
             if (getSession() == null) {
                 // UI was detached after fetching the session but before we
@@ -1499,7 +1526,7 @@ public abstract class UI extends AbstractSingleComponentContainer
             old = CurrentInstance.setCurrent(this);
             runnable.run();
         } finally {
-            session.unlock();
+            session.unlockUI(this);
             if (old != null) {
                 CurrentInstance.restoreInstances(old);
             }
@@ -1558,7 +1585,7 @@ public abstract class UI extends AbstractSingleComponentContainer
             throw new UIDetachedException();
         }
 
-        return session.access(new ErrorHandlingRunnable() {
+        ErrorHandlingRunnable task = new ErrorHandlingRunnable() {
             @Override
             public void run() {
                 accessSynchronously(runnable);
@@ -1616,7 +1643,41 @@ public abstract class UI extends AbstractSingleComponentContainer
                     getLogger().log(Level.SEVERE, e.getMessage(), e);
                 }
             }
-        });
+        };
+
+        if (session.isUILockingEnabled()) {
+            return session.getService().accessUI(this, task);
+        }
+        return session.access(task);
+    }
+
+    /**
+     * Gets the lock that protects this UI from concurrent access when per-UI
+     * locking is enabled for the session. Without per-UI locking, the UI is
+     * protected by the {@link VaadinSession#getLockInstance() session lock}.
+     * <p>
+     * The lock should not be used directly, use {@link #access(Runnable)} or
+     * {@link VaadinSession#lockUI(UI)} instead.
+     *
+     * @see VaadinSession#isUILockingEnabled()
+     *
+     * @since 8.7
+     * @return the lock of this UI, not <code>null</code>
+     */
+    public Lock getLockInstance() {
+        return lock;
+    }
+
+    /**
+     * Gets the queue of tasks submitted using {@link #access(Runnable)} when
+     * per-UI locking is enabled for the session. It is safe to call this method
+     * and access the returned queue without holding any lock.
+     *
+     * @since 8.7
+     * @return the queue of pending access tasks
+     */
+    public Queue<FutureAccess> getPendingAccessQueue() {
+        return pendingAccessQueue;
     }
 
     /**
@@ -1674,7 +1735,8 @@ public abstract class UI extends AbstractSingleComponentContainer
         if (session == null) {
             throw new UIDetachedException("Cannot push a detached UI");
         }
-        assert session.hasLock();
+        assert session.isUILockingEnabled() ? session.hasLock(this)
+                : session.hasLock();
 
         if (!getPushConfiguration().getPushMode().isEnabled()) {
             throw new IllegalStateException("Push not enabled");
@@ -1686,7 +1748,11 @@ public abstract class UI extends AbstractSingleComponentContainer
          * when the push would otherwise be ignored because there are no changes
          * to push.
          */
-        session.getService().runPendingAccessTasks(session);
+        if (session.isUILockingEnabled()) {
+            session.getService().runPendingAccessTasks(this);
+        } else {
+            session.getService().runPendingAccessTasks(session);
+        }
 
         if (!getConnectorTracker().hasDirtyConnectors()) {
             // Do not push if there is nothing to push
@@ -1696,6 +1762,60 @@ public abstract class UI extends AbstractSingleComponentContainer
         pushConnection.push();
     }
 
+    /**
+     * Pushes pending changes to the client if the push mode is
+     * {@link PushMode#AUTOMATIC automatic}. This method is called by the
+     * framework when the session or UI lock is released and should not be
+     * called by application code.
+     * <p>
+     * If a {@link PushConfiguration#setPushInterval(int) push interval} has
+     * been set and the previous automatic push was less than the interval ago,
+     * the changes are not pushed right away. Instead, a push is scheduled for
+     * when the interval has elapsed so that all changes made in the meantime
+     * are sent in one message.
+     *
+     * @since 8.7
+     */
+    public void pushAutomatically() {
+        VaadinSession session = getSession();
+        if (session == null
+                || getPushConfiguration().getPushMode() != PushMode.AUTOMATIC) {
+            return;
+        }
+
+        int pushInterval = getPushConfiguration().getPushInterval();
+        if (pushInterval > 0) {
+            if (!getConnectorTracker().hasDirtyConnectors()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long delay = lastAutomaticPushTime + pushInterval - now;
+            if (delay > 0) {
+                scheduleAutomaticPush(session, delay);
+                return;
+            }
+            lastAutomaticPushTime = now;
+        }
+
+        push();
+    }
+
+    private void scheduleAutomaticPush(VaadinSession session, long delay) {
+        if (scheduledAutomaticPush != null) {
+            // The scheduled push will include these changes as well
+            return;
+        }
+        scheduledAutomaticPush = session.getService().getPushScheduler()
+                .schedule(() -> {
+                    try {
+                        // Changes are pushed when the lock is released
+                        access(() -> scheduledAutomaticPush = null);
+                    } catch (UIDetachedException e) {
+                        // Nothing to push to a detached UI
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Returns the internal push connection object used by this UI. This method
      * should only be called by the framework.
@@ -1839,6 +1959,12 @@ public abstract class UI extends AbstractSingleComponentContainer
         return localeService;
     }
 
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        pendingAccessQueue = new ConcurrentLinkedQueue<>();
+    }
+
     private static Logger getLogger() {
         return Logger.getLogger(UI.class.getName());
     }
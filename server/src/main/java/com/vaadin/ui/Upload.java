@@ -28,6 +28,7 @@ import com.vaadin.server.NoOutputStreamException;
 import com.vaadin.server.PaintException;
 import com.vaadin.server.PaintTarget;
 import com.vaadin.server.StreamVariable.StreamingProgressEvent;
+import com.vaadin.server.communication.FileUploadHandler;
 import com.vaadin.shared.EventId;
 import com.vaadin.shared.Registration;
 import com.vaadin.shared.ui.upload.UploadClientRpc;
@@ -1233,4 +1234,72 @@ public class Upload extends AbstractComponent
         getState().acceptMimeTypes = acceptMimeTypes;
     }
 
+    /**
+     * Sets the size of the chunks that files are uploaded in. With a chunk size
+     * of 0 (the default), each file is uploaded in a single request.
+     * <p>
+     * Uploading large files in chunks allows an upload to be resumed from the
+     * last received chunk if the connection is lost, instead of starting over.
+     * The receiver gets the content in order and the same events are fired as
+     * for a file uploaded in a single request. Browsers that cannot read the
+     * selected file upload it in a single request regardless of this setting.
+     *
+     * @param chunkSize
+     *            the chunk size in bytes, or 0 to not use chunks
+     * @throws IllegalArgumentException
+     *             if the chunk size is negative or larger than
+     *             {@link FileUploadHandler#MAX_CHUNK_SIZE}
+     * @since 8.7
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 0 || chunkSize > FileUploadHandler.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(
+                    "Chunk size must be between 0 and "
+                            + FileUploadHandler.MAX_CHUNK_SIZE);
+        }
+        getState().chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the size of the chunks that files are uploaded in.
+     *
+     * @return the chunk size in bytes, or 0 if files are not uploaded in chunks
+     * @see #setChunkSize(int)
+     * @since 8.7
+     */
+    public int getChunkSize() {
+        return getState(false).chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of chunks of a file that are uploaded
+     * concurrently when files are uploaded in chunks. The default is 1.
+     *
+     * @param parallelChunkUploads
+     *            the maximum number of concurrent chunk uploads, at least 1
+     * @throws IllegalArgumentException
+     *             if the number is less than 1
+     * @see #setChunkSize(int)
+     * @since 8.7
+     */
+    public void setParallelChunkUploads(int parallelChunkUploads) {
+        if (parallelChunkUploads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one chunk must be uploaded at a time");
+        }
+        getState().parallelChunkUploads = parallelChunkUploads;
+    }
+
+    /**
+     * Gets the maximum number of chunks of a file that are uploaded
+     * concurrently.
+     *
+     * @return the maximum number of concurrent chunk uploads
+     * @see #setParallelChunkUploads(int)
+     * @since 8.7
+     */
+    public int getParallelChunkUploads() {
+        return getState(false).parallelChunkUploads;
+    }
+
 }
@@ -23,6 +23,7 @@ import com.vaadin.shared.data.selection.GridMultiSelectServerRpc;
 import com.vaadin.shared.ui.grid.MultiSelectionModelState;
 import com.vaadin.ui.MultiSelect;
 
+import java.io.Serializable;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -80,8 +81,64 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
         }
     }
 
+    /**
+     * Unmodifiable view of an inverted selection: all items of the data
+     * provider except the deselected ones. Items are fetched from the data
+     * provider only when the view is iterated.
+     */
+    private class InvertedSelection extends AbstractSet<T>
+            implements Serializable {
+        private final Set<Object> deselectedIds;
+
+        private InvertedSelection(Set<Object> deselectedIds) {
+            this.deselectedIds = deselectedIds;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return selectedItems().iterator();
+        }
+
+        @Override
+        public int size() {
+            DataProvider<T, ?> dataProvider = getGrid().getDataProvider();
+            if (dataProvider instanceof HierarchicalDataProvider) {
+                return (int) selectedItems().count();
+            }
+            // Deselected items are assumed to still be in the data provider
+            return Math.max(0,
+                    dataProvider.size(new Query<>()) - deselectedIds.size());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return o != null && !deselectedIds
+                    .contains(getGrid().getDataProvider().getId((T) o));
+        }
+
+        private Stream<T> selectedItems() {
+            DataProvider<T, ?> dataProvider = getGrid().getDataProvider();
+            return fetchAllItems(dataProvider).filter(
+                    item -> !deselectedIds.contains(dataProvider.getId(item)));
+        }
+    }
+
     private List<T> selection = new ArrayList<>();
 
+    /**
+     * Whether the selection is inverted, i.e. all items of the data provider
+     * except the ones in {@link #deselection} are selected.
+     */
+    private boolean inverted = false;
+
+    /**
+     * The deselected items by id when the selection is inverted.
+     */
+    private Map<Object, T> deselection = new LinkedHashMap<>();
+
+    private boolean invertedSelectAllEnabled = false;
+
     private SelectAllCheckBoxVisibility selectAllCheckBoxVisibility = SelectAllCheckBoxVisibility.DEFAULT;
 
     @Override
@@ -119,6 +176,62 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
         return getState(false).selectAllCheckBoxVisible;
     }
 
+    /**
+     * Sets whether selecting all items should be done without fetching the
+     * items from the data provider. When enabled, {@link #selectAll()} and the
+     * select all checkbox only record that all items are selected, and items
+     * deselected after that are tracked instead of the selected ones. This
+     * makes selecting all items fast and independent of the size of the data
+     * provider.
+     * <p>
+     * While the selection is inverted in this way, {@link #getSelectedItems()}
+     * returns a view that fetches the items from the data provider only when
+     * iterated, and {@link #isSelected(Object)} does not query the data
+     * provider. The select all checkbox is also shown for data providers that
+     * are not in-memory when the visibility is
+     * {@link SelectAllCheckBoxVisibility#DEFAULT}.
+     * <p>
+     * By default, this is disabled and all items are fetched when selecting
+     * all.
+     *
+     * @param invertedSelectAllEnabled
+     *            {@code true} to select all items without fetching them,
+     *            {@code false} to fetch them
+     * @since 8.7
+     */
+    public void setInvertedSelectAllEnabled(boolean invertedSelectAllEnabled) {
+        if (this.invertedSelectAllEnabled != invertedSelectAllEnabled) {
+            this.invertedSelectAllEnabled = invertedSelectAllEnabled;
+            markAsDirty();
+        }
+    }
+
+    /**
+     * Gets whether selecting all items is done without fetching the items from
+     * the data provider.
+     *
+     * @return {@code true} if all items are selected without fetching them,
+     *         {@code false} if not
+     * @see #setInvertedSelectAllEnabled(boolean)
+     * @since 8.7
+     */
+    public boolean isInvertedSelectAllEnabled() {
+        return invertedSelectAllEnabled;
+    }
+
+    /**
+     * Returns whether the selection currently consists of all items of the data
+     * provider except explicitly deselected ones.
+     *
+     * @return {@code true} if the selection is inverted, {@code false} if the
+     *         selected items are tracked individually
+     * @see #setInvertedSelectAllEnabled(boolean)
+     * @since 8.7
+     */
+    public boolean isSelectionInverted() {
+        return inverted;
+    }
+
     /**
      * Returns whether all items are selected or not.
      * <p>
@@ -146,6 +259,9 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
      * @return {@code true} if id is selected, {@code false} if not
      */
     protected boolean selectionContainsId(Object id) {
+        if (inverted) {
+            return !deselection.containsKey(id);
+        }
         DataProvider<T, ?> dataProvider = getGrid().getDataProvider();
         return selection.stream().map(dataProvider::getId)
                 .anyMatch(i -> id.equals(i));
@@ -175,8 +291,8 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
             getState(false).selectAllCheckBoxVisible = false;
             break;
         case DEFAULT:
-            getState(false).selectAllCheckBoxVisible = getGrid()
-                    .getDataProvider().isInMemory();
+            getState(false).selectAllCheckBoxVisible = invertedSelectAllEnabled
+                    || getGrid().getDataProvider().isInMemory();
             break;
         default:
             break;
@@ -192,6 +308,9 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
 
     @Override
     public Set<T> getSelectedItems() {
+        if (inverted) {
+            return new InvertedSelection(new HashSet<>(deselection.keySet()));
+        }
         return Collections.unmodifiableSet(new LinkedHashSet<>(selection));
     }
 
@@ -225,6 +344,11 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
                 Set<T> copy = value.stream().map(Objects::requireNonNull)
                         .collect(Collectors.toCollection(LinkedHashSet::new));
 
+                if (inverted) {
+                    // Avoid fetching all items for finding the removed ones
+                    replaceInvertedSelection(copy, false);
+                    return;
+                }
                 updateSelection(copy, new LinkedHashSet<>(getSelectedItems()));
             }
 
@@ -303,6 +427,19 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
             getState().allSelected = true;
         }
 
+        if (invertedSelectAllEnabled) {
+            if (inverted && deselection.isEmpty()) {
+                return;
+            }
+            doUpdateSelection(set -> {
+                set.clear();
+                inverted = true;
+                deselection.clear();
+                getGrid().getDataCommunicator().reset();
+            }, userOriginated);
+            return;
+        }
+
         Stream<T> allItemsStream;
         DataProvider<T, ?> dataProvider = getGrid().getDataProvider();
         // this will fetch everything from backend
@@ -366,6 +503,14 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
         return dataProvider.fetch(new Query<>());
     }
 
+    private Stream<T> fetchAllItems(DataProvider<T, ?> dataProvider) {
+        if (dataProvider instanceof HierarchicalDataProvider) {
+            return fetchAllHierarchical(
+                    (HierarchicalDataProvider<T, ?>) dataProvider);
+        }
+        return fetchAll(dataProvider);
+    }
+
     /**
      * Triggered when the user unchecks the select all checkbox.
      *
@@ -383,10 +528,36 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
             getState().allSelected = false;
         }
 
+        if (inverted) {
+            replaceInvertedSelection(Collections.emptySet(), userOriginated);
+            return;
+        }
         updateSelection(Collections.emptySet(), new LinkedHashSet<>(selection),
                 userOriginated);
     }
 
+    /**
+     * Replaces an inverted selection with the given items.
+     *
+     * @param items
+     *            the items to select, not {@code null}
+     * @param userOriginated
+     *            {@code true} if this was user originated, {@code false} if not
+     */
+    private void replaceInvertedSelection(Set<T> items,
+            boolean userOriginated) {
+        if (getState(false).allSelected) {
+            getState().allSelected = false;
+        }
+        doUpdateSelection(set -> {
+            inverted = false;
+            deselection.clear();
+            set.clear();
+            set.addAll(items);
+            getGrid().getDataCommunicator().reset();
+        }, userOriginated);
+    }
+
     private void verifyUserCanSelectAll() {
         if (!getState(false).selectAllCheckBoxVisible) {
             throw new IllegalStateException(
@@ -441,6 +612,21 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
             getState().allSelected = false;
         }
 
+        if (inverted) {
+            doUpdateSelection(set -> {
+                addedItems.forEach(
+                        item -> deselection.remove(dataProvider.getId(item)));
+                removedItems.forEach(item -> deselection
+                        .put(dataProvider.getId(item), item));
+
+                DataCommunicator<T> dataCommunicator = getGrid()
+                        .getDataCommunicator();
+                removedItems.forEach(dataCommunicator::refresh);
+                addedItems.forEach(dataCommunicator::refresh);
+            }, userOriginated);
+            return;
+        }
+
         doUpdateSelection(set -> {
             // order of add / remove does not matter since no duplicates
             Set<Object> removedItemIds = removedItems.stream()
@@ -466,7 +652,8 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
                     "Trying to update selection for grid selection model that has been detached from the grid.");
         }
 
-        LinkedHashSet<T> oldSelection = new LinkedHashSet<>(selection);
+        Set<T> oldSelection = inverted ? getSelectedItems()
+                : new LinkedHashSet<>(selection);
         handler.accept(selection);
 
         fireEvent(new MultiSelectionEvent<>(getGrid(), asMultiSelect(),
@@ -477,6 +664,10 @@ public class MultiSelectionModelImpl<T> extends AbstractSelectionModel<T>
     public void refreshData(T item) {
         DataProvider<T, ?> dataProvider = getGrid().getDataProvider();
         Object refreshId = dataProvider.getId(item);
+        if (inverted) {
+            deselection.replace(refreshId, item);
+            return;
+        }
         for (int i = 0; i < selection.size(); ++i) {
             if (dataProvider.getId(selection.get(i)).equals(refreshId)) {
                 selection.set(i, item);
@@ -25,6 +25,8 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +40,8 @@ import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
 
 import com.vaadin.annotations.DesignRoot;
+import com.vaadin.server.DeploymentConfiguration;
+import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinServiceClassLoaderUtil;
 import com.vaadin.shared.util.SharedUtil;
 import com.vaadin.ui.Component;
@@ -315,6 +319,12 @@ public class Design implements Serializable {
     private static volatile ComponentFactory componentFactory = new DefaultComponentFactory();
     private static volatile ComponentMapper componentMapper = new DefaultComponentMapper();
 
+    /**
+     * Parsed design files, by the class the file is loaded relative to and the
+     * file name. Each read uses a copy of the cached document.
+     */
+    private static final Map<Class<?>, Map<String, Document>> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
     /**
      * Sets the component factory that is used for creating component instances
      * based on fully qualified class names derived from a design file.
@@ -400,6 +410,75 @@ public class Design implements Serializable {
 
     }
 
+    /**
+     * Parses a design file loaded relative to the given class. In production
+     * mode, or when there is no current service, the parsed document is cached
+     * so that each design file is only parsed once.
+     *
+     * @param cls
+     *            the class to load the design file relative to
+     * @param filename
+     *            the name of the design file
+     * @return the parsed jsoup document, or <code>null</code> if the file is
+     *         not found
+     */
+    private static Document parseResource(Class<?> cls, String filename) {
+        if (!isTemplateCachingEnabled()) {
+            return parseResourceUncached(cls, filename);
+        }
+        Map<String, Document> templates = TEMPLATE_CACHE.computeIfAbsent(cls,
+                key -> new ConcurrentHashMap<>());
+        Document template = templates.get(filename);
+        if (template == null) {
+            template = parseResourceUncached(cls, filename);
+            if (template == null) {
+                return null;
+            }
+            templates.putIfAbsent(filename, template);
+        }
+        // Reading may modify the document, so the cached one is never used
+        return template.clone();
+    }
+
+    private static Document parseResourceUncached(Class<?> cls,
+            String filename) {
+        InputStream stream = cls.getResourceAsStream(filename);
+        if (stream == null) {
+            return null;
+        }
+        try {
+            return parse(stream);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                getLogger().log(Level.FINE, "Error closing design stream", e);
+            }
+        }
+    }
+
+    private static boolean isTemplateCachingEnabled() {
+        // Design files may be edited while developing the application
+        VaadinService service = VaadinService.getCurrent();
+        if (service == null) {
+            return true;
+        }
+        DeploymentConfiguration configuration = service
+                .getDeploymentConfiguration();
+        return configuration == null || configuration.isProductionMode();
+    }
+
+    /**
+     * Clears the cache of parsed design files used by {@link #read(Component)}
+     * and {@link #read(String, Component)}. Design files are only cached in
+     * production mode, or when there is no current {@link VaadinService}.
+     *
+     * @since 8.7
+     */
+    public static void clearTemplateCache() {
+        TEMPLATE_CACHE.clear();
+    }
+
     /**
      * Constructs a component hierarchy from the design specified as an html
      * tree.
@@ -575,6 +654,9 @@ public class Design implements Serializable {
      * even if the root component is a custom component/composite, the root
      * element of the design should not be to avoid nesting a custom component
      * in a custom component.
+     * <p>
+     * In production mode, the design file is only parsed once. See
+     * {@link #clearTemplateCache()}.
      *
      * @param rootComponent
      *            The root component of the layout
@@ -602,24 +684,15 @@ public class Design implements Serializable {
             filename = annotatedClass.getSimpleName() + ".html";
         }
 
-        InputStream stream = annotatedClass.getResourceAsStream(filename);
-        if (stream == null) {
+        Document doc = parseResource(annotatedClass, filename);
+        if (doc == null) {
             throw new DesignException("Unable to find design file " + filename
                     + " in " + annotatedClass.getPackage().getName());
         }
-        try {
-            Document doc = parse(stream);
-            DesignContext context = designToComponentTree(doc, rootComponent,
-                    annotatedClass);
+        DesignContext context = designToComponentTree(doc, rootComponent,
+                annotatedClass);
 
-            return context;
-        } finally {
-            try {
-                stream.close();
-            } catch (IOException e) {
-                getLogger().log(Level.FINE, "Error closing design stream", e);
-            }
-        }
+        return context;
     }
 
     private static Logger getLogger() {
@@ -672,6 +745,9 @@ public class Design implements Serializable {
      * even if the root component is a custom component/composite, the root
      * element of the design should not be to avoid nesting a custom component
      * in a custom component.
+     * <p>
+     * In production mode, the design file is only parsed once. See
+     * {@link #clearTemplateCache()}.
      *
      * @param filename
      *            The file name to load. Loaded from the same package as the
@@ -684,22 +760,13 @@ public class Design implements Serializable {
      */
     public static DesignContext read(String filename, Component rootComponent)
             throws DesignException {
-        InputStream stream = rootComponent.getClass()
-                .getResourceAsStream(filename);
-        if (stream == null) {
+        Document doc = parseResource(rootComponent.getClass(), filename);
+        if (doc == null) {
             throw new DesignException(
                     "File " + filename + " was not found in the package "
                             + rootComponent.getClass().getPackage().getName());
         }
-        try {
-            return read(stream, rootComponent);
-        } finally {
-            try {
-                stream.close();
-            } catch (IOException e) {
-                getLogger().log(Level.FINE, "Error closing design stream", e);
-            }
-        }
+        return designToComponentTree(doc, rootComponent);
     }
 
     /**
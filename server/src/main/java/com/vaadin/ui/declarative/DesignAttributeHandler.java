@@ -118,9 +118,9 @@ public class DesignAttributeHandler implements Serializable {
                 success = false;
             } else {
                 // we have a value from design attributes, let's use that
-                Type[] types = GenericTypeReflector
-                        .getExactParameterTypes(setter, target.getClass());
-                Object param = getFormatter().parse(value, (Class<?>) types[0]);
+                Class<?> type = CACHE.get(target.getClass())
+                        .getSetterParameterType(attribute, target.getClass());
+                Object param = getFormatter().parse(value, type);
                 setter.invoke(target, param);
                 success = true;
             }
@@ -214,8 +214,9 @@ public class DesignAttributeHandler implements Serializable {
                 Object value = getter.invoke(component);
                 Object defaultValue = getter.invoke(defaultInstance);
                 writeAttribute(attribute, attr, value, defaultValue,
-                        (Class) GenericTypeReflector.getExactReturnType(getter,
-                                component.getClass()),
+                        (Class) CACHE.get(component.getClass())
+                                .getGetterReturnType(attribute,
+                                        component.getClass()),
                         context);
             } catch (Exception e) {
                 getLogger().log(Level.SEVERE,
@@ -440,6 +441,9 @@ public class DesignAttributeHandler implements Serializable {
      */
     private static class AttributeCacheEntry implements Serializable {
         private final Map<String, Method[]> accessMethods = new ConcurrentHashMap<>();
+        // Exact property types, resolved when an attribute is first used
+        private final Map<String, Type> getterReturnTypes = new ConcurrentHashMap<>();
+        private final Map<String, Class<?>> setterParameterTypes = new ConcurrentHashMap<>();
 
         private void addAttribute(String attribute, Method getter,
                 Method setter) {
@@ -464,6 +468,19 @@ public class DesignAttributeHandler implements Serializable {
             Method[] methods = accessMethods.get(attribute);
             return (methods != null && methods.length > 1) ? methods[1] : null;
         }
+
+        private Type getGetterReturnType(String attribute, Class<?> clazz) {
+            return getterReturnTypes.computeIfAbsent(attribute,
+                    key -> GenericTypeReflector
+                            .getExactReturnType(getGetter(key), clazz));
+        }
+
+        private Class<?> getSetterParameterType(String attribute,
+                Class<?> clazz) {
+            return setterParameterTypes.computeIfAbsent(attribute,
+                    key -> (Class<?>) GenericTypeReflector
+                            .getExactParameterTypes(getSetter(key), clazz)[0]);
+        }
     }
 
     /**
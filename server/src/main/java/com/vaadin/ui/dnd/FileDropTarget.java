@@ -21,6 +21,7 @@ import java.util.Map;
 
 import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.StreamVariable;
+import com.vaadin.server.communication.FileUploadHandler;
 import com.vaadin.shared.ApplicationConstants;
 import com.vaadin.shared.ui.dnd.FileDropTargetClientRpc;
 import com.vaadin.shared.ui.dnd.FileDropTargetRpc;
@@ -153,6 +154,73 @@ public class FileDropTarget<T extends AbstractComponent>
                 + ServletPortletHelper.UPLOAD_URL_PREFIX + key + "/" + secKey;
     }
 
+    /**
+     * Sets the size of the chunks that dropped files are uploaded in. With a
+     * chunk size of 0 (the default), each file is uploaded in a single request.
+     * <p>
+     * Uploading large files in chunks allows an upload to be resumed from the
+     * last received chunk if the connection is lost, instead of starting over.
+     * The stream variable of the file receives the content in order and gets
+     * the same events as for a file uploaded in a single request.
+     *
+     * @since 8.7
+     * @param chunkSize
+     *            the chunk size in bytes, or 0 to not use chunks
+     * @throws IllegalArgumentException
+     *             if the chunk size is negative or larger than
+     *             {@link FileUploadHandler#MAX_CHUNK_SIZE}
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 0 || chunkSize > FileUploadHandler.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(
+                    "Chunk size must be between 0 and "
+                            + FileUploadHandler.MAX_CHUNK_SIZE);
+        }
+        getState().chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the size of the chunks that dropped files are uploaded in.
+     *
+     * @since 8.7
+     * @return the chunk size in bytes, or 0 if files are not uploaded in chunks
+     * @see #setChunkSize(int)
+     */
+    public int getChunkSize() {
+        return getState(false).chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of chunks of a file that are uploaded
+     * concurrently when files are uploaded in chunks. The default is 1.
+     *
+     * @since 8.7
+     * @param parallelChunkUploads
+     *            the maximum number of concurrent chunk uploads, at least 1
+     * @throws IllegalArgumentException
+     *             if the number is less than 1
+     * @see #setChunkSize(int)
+     */
+    public void setParallelChunkUploads(int parallelChunkUploads) {
+        if (parallelChunkUploads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one chunk must be uploaded at a time");
+        }
+        getState().parallelChunkUploads = parallelChunkUploads;
+    }
+
+    /**
+     * Gets the maximum number of chunks of a file that are uploaded
+     * concurrently.
+     *
+     * @since 8.7
+     * @return the maximum number of concurrent chunk uploads
+     * @see #setParallelChunkUploads(int)
+     */
+    public int getParallelChunkUploads() {
+        return getState(false).parallelChunkUploads;
+    }
+
     @Override
     protected FileDropTargetState getState() {
         return (FileDropTargetState) super.getState();
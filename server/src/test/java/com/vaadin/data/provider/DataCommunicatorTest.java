@@ -5,13 +5,19 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import com.vaadin.data.provider.DataCommunicator.ActiveDataHandler;
+import com.vaadin.server.ClientMethodInvocation;
 import com.vaadin.server.MockVaadinSession;
 import com.vaadin.server.SerializableConsumer;
 import com.vaadin.server.SerializablePredicate;
@@ -20,6 +26,7 @@ import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.shared.Range;
 import com.vaadin.shared.Registration;
+import com.vaadin.shared.data.CompactRowEncoding;
 import com.vaadin.ui.UI;
 
 import elemental.json.Json;
@@ -314,4 +321,185 @@ public class DataCommunicatorTest {
         assertTrue("DataCommunicator should be marked as dirty",
                 ui.getConnectorTracker().isDirty(communicator));
     }
+
+    @Test
+    public void pushData_compactRowEncoding() {
+        session.lock();
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.setCompactRowEncoding(true);
+        communicator.addDataGenerator(
+                (item, json) -> json.put("value", item.toString()));
+        communicator.extend(ui);
+        communicator.retrievePendingRpcCalls();
+
+        List<Object> items = Arrays.asList("one", "two", "three");
+        communicator.pushData(0, items);
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        assertEquals(1, calls.size());
+        assertEquals("setCompactData", calls.get(0).getMethodName());
+
+        List<JsonObject> rows = CompactRowEncoding
+                .decode((JsonObject) calls.get(0).getParameters()[1]);
+        assertEquals(items.size(), rows.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(communicator.getDataObject(items.get(i)).toJson(),
+                    rows.get(i).toJson());
+        }
+    }
+
+    @Test
+    public void pushData_compactRowEncodingDisabledByDefault() {
+        session.lock();
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        assertFalse(communicator.isCompactRowEncoding());
+        communicator.extend(ui);
+        communicator.retrievePendingRpcCalls();
+
+        communicator.pushData(0, Arrays.asList("one", "two"));
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        assertEquals(1, calls.size());
+        assertEquals("setData", calls.get(0).getMethodName());
+        assertEquals(2, ((JsonArray) calls.get(0).getParameters()[1]).length());
+    }
+
+    @Test
+    public void setAdaptiveCacheEnabled_stateUpdated() {
+        session.lock();
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+        ui.getConnectorTracker().markAllConnectorsClean();
+
+        assertFalse(communicator.isAdaptiveCacheEnabled());
+        communicator.setAdaptiveCacheEnabled(true);
+
+        assertTrue(communicator.isAdaptiveCacheEnabled());
+        assertTrue(communicator.getState(false).adaptiveCache);
+        assertTrue(ui.getConnectorTracker().isDirty(communicator));
+    }
+
+    private static CallbackDataProvider<Object, Void> createCountingDataProvider(
+            int size, AtomicInteger sizeQueries) {
+        List<Object> items = IntStream.range(0, size).boxed()
+                .collect(Collectors.toList());
+        return new CallbackDataProvider<>(query -> items.stream()
+                .skip(query.getOffset()).limit(query.getLimit()), query -> {
+                    sizeQueries.incrementAndGet();
+                    return items.size();
+                });
+    }
+
+    private static List<String> getMethodNames(
+            List<ClientMethodInvocation> calls) {
+        return calls.stream().map(ClientMethodInvocation::getMethodName)
+                .collect(Collectors.toList());
+    }
+
+    private static ClientMethodInvocation findCall(
+            List<ClientMethodInvocation> calls, String methodName) {
+        return calls.stream()
+                .filter(call -> call.getMethodName().equals(methodName))
+                .findFirst().get();
+    }
+
+    @Test
+    public void reset_shortPage_sizeNotQueried() {
+        session.lock();
+        UI ui = new TestUI(session);
+        AtomicInteger sizeQueries = new AtomicInteger();
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.setDataProvider(
+                createCountingDataProvider(10, sizeQueries), null);
+        communicator.extend(ui);
+
+        communicator.beforeClientResponse(true);
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        assertEquals(10, findCall(calls, "reset").getParameters()[0]);
+        assertEquals(0, sizeQueries.get());
+    }
+
+    @Test
+    public void reset_fullPage_sizeQueried() {
+        session.lock();
+        UI ui = new TestUI(session);
+        AtomicInteger sizeQueries = new AtomicInteger();
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.setDataProvider(
+                createCountingDataProvider(100, sizeQueries), null);
+        communicator.extend(ui);
+
+        communicator.beforeClientResponse(true);
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        assertEquals(100, findCall(calls, "reset").getParameters()[0]);
+        assertEquals(1, sizeQueries.get());
+    }
+
+    @Test
+    public void softReset_rowsRequestedInSameRoundTrip_sizeNotQueried() {
+        session.lock();
+        UI ui = new TestUI(session);
+        AtomicInteger sizeQueries = new AtomicInteger();
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.setDataProvider(createCountingDataProvider(5, sizeQueries),
+                null);
+        communicator.extend(ui);
+        communicator.beforeClientResponse(true);
+        communicator.retrievePendingRpcCalls();
+
+        communicator.reset();
+        communicator.onRequestRows(0, 40, 0, 0);
+        communicator.beforeClientResponse(false);
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        assertEquals(Arrays.asList("reset", "setData"), getMethodNames(calls));
+        assertEquals(5, calls.get(0).getParameters()[0]);
+        assertEquals(0, sizeQueries.get());
+    }
+
+    @Test
+    public void lazySize_sizeEstimatedAndAdjusted() {
+        session.lock();
+        UI ui = new TestUI(session);
+        AtomicInteger sizeQueries = new AtomicInteger();
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.setLazySizeEnabled(true);
+        communicator.setDataProvider(
+                createCountingDataProvider(100, sizeQueries), null);
+        communicator.extend(ui);
+
+        communicator.beforeClientResponse(true);
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        // 40 fetched rows and an estimate of one more page
+        assertEquals(80, findCall(calls, "reset").getParameters()[0]);
+
+        // Scrolling near the end of the estimate increases it
+        communicator.onRequestRows(40, 40, 0, 40);
+        communicator.beforeClientResponse(false);
+        calls = communicator.retrievePendingRpcCalls();
+        ClientMethodInvocation insert = findCall(calls, "insertRows");
+        assertEquals(80, insert.getParameters()[0]);
+        assertEquals(40, insert.getParameters()[1]);
+
+        // Fetching the last rows reveals the exact size
+        communicator.onRequestRows(80, 40, 0, 80);
+        communicator.beforeClientResponse(false);
+        calls = communicator.retrievePendingRpcCalls();
+        ClientMethodInvocation remove = findCall(calls, "removeRows");
+        assertEquals(100, remove.getParameters()[0]);
+        assertEquals(20, remove.getParameters()[1]);
+
+        assertEquals(0, sizeQueries.get());
+    }
 }
@@ -5,15 +5,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.server.SerializableBiPredicate;
 import com.vaadin.server.SerializableComparator;
+import com.vaadin.server.SerializablePredicate;
 import com.vaadin.shared.data.sort.SortDirection;
 
 public class ListDataProviderTest
@@ -233,6 +237,129 @@ public class ListDataProviderTest
         assertSizeWithFilter(0, filteringBy, "oo");
     }
 
+    @Test
+    public void sameQueryFilter_filteredOnlyOnce() {
+        AtomicInteger filterCalls = new AtomicInteger();
+        SerializablePredicate<StrBean> filter = bean -> {
+            filterCalls.incrementAndGet();
+            return bean.getId() % 2 == 0;
+        };
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(0,
+                10, Collections.emptyList(), null, filter);
+
+        int size = dataProvider.size(query);
+        List<StrBean> page = dataProvider.fetch(query)
+                .collect(Collectors.toList());
+        dataProvider.fetch(
+                new Query<>(10, 10, Collections.emptyList(), null, filter))
+                .count();
+
+        assertEquals(data.size(), filterCalls.get());
+        assertEquals(data.stream().filter(filter).count(), size);
+        assertEquals(data.stream().filter(filter).limit(10)
+                .collect(Collectors.toList()), page);
+    }
+
+    @Test
+    public void equalQueryFilters_filteredOnlyOnce() {
+        AtomicInteger filterCalls = new AtomicInteger();
+        SerializableBiPredicate<StrBean, Integer> idEquals = (bean, id) -> {
+            filterCalls.incrementAndGet();
+            return bean.getId() == id.intValue();
+        };
+        DataProvider<StrBean, Integer> filtering = dataProvider
+                .withConvertedFilter(id -> new IdFilter(idEquals, id));
+
+        int size = filtering.size(new Query<>(Integer.valueOf(5)));
+        filtering.fetch(new Query<>(Integer.valueOf(5))).count();
+
+        assertEquals(data.size(), filterCalls.get());
+        assertEquals(1, size);
+    }
+
+    @Test
+    public void differentQueryFilters_bothCached() {
+        AtomicInteger filterCalls = new AtomicInteger();
+        SerializablePredicate<StrBean> even = bean -> {
+            filterCalls.incrementAndGet();
+            return bean.getId() % 2 == 0;
+        };
+        SerializablePredicate<StrBean> odd = bean -> {
+            filterCalls.incrementAndGet();
+            return bean.getId() % 2 != 0;
+        };
+
+        for (int i = 0; i < 3; i++) {
+            dataProvider.size(new Query<>(even));
+            dataProvider.size(new Query<>(odd));
+        }
+
+        assertEquals(2 * data.size(), filterCalls.get());
+    }
+
+    @Test
+    public void backendModifiedInPlace_visibleWithoutRefresh() {
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>();
+        int originalSize = dataProvider.size(query);
+
+        dataProvider.getItems().remove(data.get(1));
+        dataProvider.getItems().add(new StrBean("added", -1, 0));
+        assertEquals(originalSize, dataProvider.size(query));
+        Assert.assertTrue(
+                dataProvider.fetch(query).anyMatch(bean -> bean.getId() == -1));
+
+        data.set(0, new StrBean("replaced", -2, 0));
+        Assert.assertTrue(
+                dataProvider.fetch(query).anyMatch(bean -> bean.getId() == -2));
+    }
+
+    @Test
+    public void backendReordered_visibleWithoutRefresh() {
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>();
+        dataProvider.fetch(query).count();
+
+        Collections.reverse(data);
+
+        assertEquals(data,
+                dataProvider.fetch(query).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void backendSizeChanged_cacheNotUsed() {
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>();
+        int originalSize = dataProvider.size(query);
+
+        dataProvider.getItems().add(new StrBean("added", -1, 0));
+
+        assertEquals(originalSize + 1, dataProvider.size(query));
+    }
+
+    @Test
+    public void refreshItem_sortedAgain() {
+        Comparator<StrBean> byValue = Comparator.comparing(StrBean::getValue);
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(0,
+                Integer.MAX_VALUE, Collections.emptyList(), byValue, null);
+        StrBean last = dataProvider.fetch(query)
+                .reduce((first, second) -> second).get();
+
+        last.setValue("");
+        dataProvider.refreshItem(last);
+
+        assertEquals(last, dataProvider.fetch(query).findFirst().get());
+    }
+
+    @Test
+    public void fetch_offsetAndLimitBeyondSize() {
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(
+                data.size() - 1, Integer.MAX_VALUE, Collections.emptyList(),
+                null, null);
+        assertEquals(1, dataProvider.fetch(query).count());
+
+        query = new Query<>(data.size() + 5, 10, Collections.emptyList(), null,
+                null);
+        assertEquals(0, dataProvider.fetch(query).count());
+    }
+
     @Override
     protected void setSortOrder(List<QuerySortOrder> sortOrder,
             Comparator<StrBean> comp) {
@@ -240,4 +367,29 @@ public class ListDataProviderTest
         getDataProvider().setSortComparator(serializableComp);
     }
 
+    private static class IdFilter implements SerializablePredicate<StrBean> {
+        private final SerializableBiPredicate<StrBean, Integer> predicate;
+        private final Integer id;
+
+        private IdFilter(SerializableBiPredicate<StrBean, Integer> predicate,
+                Integer id) {
+            this.predicate = predicate;
+            this.id = id;
+        }
+
+        @Override
+        public boolean test(StrBean bean) {
+            return predicate.test(bean, id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IdFilter && id.equals(((IdFilter) obj).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
 }
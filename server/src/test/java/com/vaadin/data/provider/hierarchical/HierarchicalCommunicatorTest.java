@@ -97,6 +97,12 @@ public class HierarchicalCommunicatorTest {
         assertEquals(-1, communicator.getParentIndex(FOLDER).longValue());
     }
 
+    @Test
+    public void setLazySizeEnabled_ignored() {
+        communicator.setLazySizeEnabled(true);
+        assertFalse(communicator.isLazySizeEnabled());
+    }
+
     private static class TestHierarchicalDataCommunicator<T>
             extends HierarchicalDataCommunicator<T> {
         @Override
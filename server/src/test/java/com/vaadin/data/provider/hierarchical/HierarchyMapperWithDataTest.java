@@ -1,12 +1,14 @@
 package com.vaadin.data.provider.hierarchical;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -15,6 +17,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.vaadin.data.TreeData;
+import com.vaadin.data.provider.HierarchicalQuery;
 import com.vaadin.data.provider.HierarchyMapper;
 import com.vaadin.data.provider.TreeDataProvider;
 import com.vaadin.server.SerializablePredicate;
@@ -208,6 +211,61 @@ public class HierarchyMapperWithDataTest {
         verifyFetchIsCorrect(expectedResult, range);
     }
 
+    @Test
+    public void indexOfItemsInExpandedHierarchy() {
+        expand(testData.get(0));
+        expand(testData.get(1));
+        Node lastRoot = roots.get(roots.size() - 1);
+        expand(lastRoot);
+
+        List<Node> flatHierarchy = mapper
+                .fetchItems(Range.withLength(0, mapper.getTreeSize()))
+                .collect(Collectors.toList());
+        for (int i = 0; i < flatHierarchy.size(); ++i) {
+            assertEquals("Unexpected index", Integer.valueOf(i),
+                    mapper.getIndexOf(flatHierarchy.get(i)).orElse(null));
+        }
+
+        // Collapsing moves the following rows up
+        collapse(testData.get(1));
+        assertEquals("Unexpected index after collapse",
+                Integer.valueOf(ROOT_COUNT + PARENT_COUNT - 1),
+                mapper.getIndexOf(lastRoot).orElse(null));
+        assertFalse("Hidden item should not have an index",
+                mapper.getIndexOf(testData.get(2)).isPresent());
+    }
+
+    @Test
+    public void expandAndCollapseDoNotRefetchHierarchy() {
+        AtomicInteger fetchCount = new AtomicInteger();
+        mapper = new HierarchyMapper<>(new TreeDataProvider<Node>(data) {
+            @Override
+            public Stream<Node> fetchChildren(
+                    HierarchicalQuery<Node, SerializablePredicate<Node>> query) {
+                fetchCount.incrementAndGet();
+                return super.fetchChildren(query);
+            }
+        });
+
+        expand(testData.get(0));
+        expand(testData.get(1));
+        int fetchesAfterExpand = fetchCount.get();
+
+        mapper.getTreeSize();
+        mapper.getIndexOf(roots.get(roots.size() - 1));
+        mapper.getParentIndex(testData.get(2));
+        mapper.fetchItems(Range.withLength(2, 10)).count();
+        collapse(testData.get(1));
+        assertEquals("Hierarchy should not be fetched again",
+                fetchesAfterExpand, fetchCount.get());
+
+        mapper.invalidateHierarchy();
+        assertEquals("Map size should be retained after invalidation",
+                ROOT_COUNT + PARENT_COUNT, mapper.getTreeSize());
+        assertTrue("Hierarchy should be fetched after invalidation",
+                fetchCount.get() > fetchesAfterExpand);
+    }
+
     private void expand(Node node) {
         insertRows(mapper.expand(node, mapper.getIndexOf(node).orElse(null)));
     }
@@ -1,12 +1,22 @@
 package com.vaadin.server;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -36,4 +46,181 @@ public class DownloadStreamTest {
                 contains(
                         String.format("filename*=utf-8''%s", encodedFileName)));
     }
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private VaadinResponse response;
+    private ByteArrayOutputStream out;
+
+    private DownloadStream createContentStream() throws IOException {
+        DownloadStream contentStream = new DownloadStream(
+                new ByteArrayInputStream(
+                        CONTENT.getBytes(StandardCharsets.US_ASCII)),
+                "text/plain", "content.txt");
+        contentStream.setParameter(DownloadStream.CONTENT_LENGTH,
+                String.valueOf(CONTENT.length()));
+        contentStream.setParameter(DownloadStream.ETAG, "\"tag\"");
+        contentStream.setParameter(DownloadStream.LAST_MODIFIED,
+                "Tue, 02 Oct 2018 10:00:00 GMT");
+
+        response = mock(VaadinResponse.class);
+        out = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(out);
+        return contentStream;
+    }
+
+    private static VaadinRequest createGetRequest(String... headers) {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getDateHeader(eq("If-Modified-Since"))).thenReturn(-1L);
+        for (int i = 0; i < headers.length; i += 2) {
+            when(request.getHeader(headers[i])).thenReturn(headers[i + 1]);
+        }
+        return request;
+    }
+
+    private String written() {
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void noRange_fullContent() throws IOException {
+        createContentStream().writeResponse(createGetRequest(), response);
+
+        assertEquals(CONTENT, written());
+        verify(response, never())
+                .setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Length", "20");
+        verify(response).setHeader("Accept-Ranges", "bytes");
+    }
+
+    @Test
+    public void singleRange_partialContent() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=5-9"), response);
+
+        assertEquals("56789", written());
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Range", "bytes 5-9/20");
+        verify(response).setHeader("Content-Length", "5");
+        verify(response, never()).setHeader("Content-Length", "20");
+    }
+
+    @Test
+    public void suffixAndOpenRanges_clampedToLength() throws IOException {
+        createContentStream()
+                .writeResponse(createGetRequest("Range", "bytes=-3"), response);
+        assertEquals("hij", written());
+        verify(response).setHeader("Content-Range", "bytes 17-19/20");
+
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=15-100"), response);
+        assertEquals("fghij", written());
+        verify(response).setHeader("Content-Range", "bytes 15-19/20");
+    }
+
+    @Test
+    public void multipleRanges_multipartByteranges() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=10-11, 0-1,1-2"), response);
+
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response)
+                .setContentType(startsWith("multipart/byteranges; boundary="));
+        String body = written();
+        // Overlapping ranges are coalesced and sorted
+        assertTrue(body, body.contains(
+                "Content-Type: text/plain\r\nContent-Range: bytes 0-2/20\r\n\r\n012\r\n"));
+        assertTrue(body,
+                body.contains("Content-Range: bytes 10-11/20\r\n\r\nab\r\n"));
+        assertTrue(body, body.endsWith("--\r\n"));
+        verify(response).setHeader("Content-Length",
+                String.valueOf(out.size()));
+    }
+
+    @Test
+    public void unsatisfiableRange_416() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=20-"), response);
+
+        assertEquals("", written());
+        verify(response).setStatus(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        verify(response).setHeader("Content-Range", "bytes */20");
+    }
+
+    @Test
+    public void invalidRange_fullContent() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=9-5"), response);
+
+        assertEquals(CONTENT, written());
+    }
+
+    @Test
+    public void ifRange_matchingOrStale() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=0-1", "If-Range", "\"tag\""),
+                response);
+        assertEquals("01", written());
+
+        createContentStream().writeResponse(createGetRequest("Range",
+                "bytes=0-1", "If-Range", "Tue, 02 Oct 2018 10:00:00 GMT"),
+                response);
+        assertEquals("01", written());
+
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=0-1", "If-Range", "\"other\""),
+                response);
+        assertEquals(CONTENT, written());
+
+        // Weak tags are never used for If-Range
+        createContentStream().writeResponse(
+                createGetRequest("Range", "bytes=0-1", "If-Range", "W/\"tag\""),
+                response);
+        assertEquals(CONTENT, written());
+    }
+
+    @Test
+    public void ifNoneMatch_notModified() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("If-None-Match", "\"foo\", W/\"tag\""),
+                response);
+
+        assertEquals("", written());
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response).setHeader("ETag", "\"tag\"");
+        verify(response, never()).setHeader("Content-Length", "20");
+    }
+
+    @Test
+    public void ifNoneMatch_differentTag_fullContent() throws IOException {
+        createContentStream().writeResponse(
+                createGetRequest("If-None-Match", "\"foo\""), response);
+
+        assertEquals(CONTENT, written());
+        verify(response, never())
+                .setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void ifModifiedSince_notModified() throws IOException {
+        DownloadStream contentStream = createContentStream();
+        VaadinRequest request = createGetRequest();
+        when(request.getDateHeader("If-Modified-Since"))
+                .thenReturn(1538474400500L);
+        contentStream.writeResponse(request, response);
+
+        assertEquals("", written());
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void postRequest_rangeIgnored() throws IOException {
+        VaadinRequest request = createGetRequest("Range", "bytes=0-1");
+        when(request.getMethod()).thenReturn("POST");
+        createContentStream().writeResponse(request, response);
+
+        assertEquals(CONTENT, written());
+    }
 }
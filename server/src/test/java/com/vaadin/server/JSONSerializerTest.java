@@ -1,8 +1,11 @@
 package com.vaadin.server;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.HashMap;
@@ -17,6 +20,7 @@ import com.vaadin.shared.ui.splitpanel.AbstractSplitPanelState;
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonException;
+import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 
 /**
@@ -89,6 +93,55 @@ public class JSONSerializerTest {
                 .decodeInternalType(UidlValue.class, true, inputArray, null);
     }
 
+    public static class GetterAndFieldState implements Serializable {
+        public String field = "field";
+        private int property = 1;
+
+        public int getProperty() {
+            return property;
+        }
+
+        public void setProperty(int property) {
+            this.property = property;
+        }
+    }
+
+    public static class DuplicatePropertyState implements Serializable {
+        public String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void encodeObject_fieldsAndProperties_encodedWithDiff()
+            throws Exception {
+        GetterAndFieldState state = new GetterAndFieldState();
+        EncodeResult result = JsonCodec.encode(state, null,
+                GetterAndFieldState.class, null);
+        JsonObject encoded = (JsonObject) result.getEncodedValue();
+        assertEquals("field", encoded.getString("field"));
+        assertEquals(1, encoded.getNumber("property"), 0);
+
+        state.setProperty(2);
+        JsonObject diff = (JsonObject) JsonCodec
+                .encode(state, encoded, GetterAndFieldState.class, null)
+                .getDiff();
+        assertArrayEquals(new String[] { "property" }, diff.keys());
+        assertEquals(2, diff.getNumber("property"), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void encodeObject_duplicatePropertyNames_throws() {
+        JsonCodec.encode(new DuplicatePropertyState(), null,
+                DuplicatePropertyState.class, null);
+    }
+
     private void ensureDecodedCorrectly(Object original, JsonValue encoded,
             Type type) throws Exception {
         Object serverSideDecoded = JsonCodec.decodeInternalOrCustomType(type,
@@ -0,0 +1,186 @@
+package com.vaadin.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.server.SessionSerializer.OperationType;
+import com.vaadin.server.SessionSerializer.SerializationEvent;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+public class SessionSerializerTest {
+
+    public static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+            setContent(new Label("initial"));
+        }
+    }
+
+    private SessionSerializer serializer;
+    private List<SerializationEvent> events;
+    private VaadinSession session;
+
+    @Before
+    public void setup() {
+        serializer = new SessionSerializer();
+        events = new ArrayList<>();
+        serializer.addSerializationListener(events::add);
+
+        session = new AlwaysLockedVaadinSession(null);
+        VaadinSession.setCurrent(session);
+        createUI(0);
+        createUI(1);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    private UI createUI(int id) {
+        TestUI ui = new TestUI();
+        ui.setSession(session);
+        ui.doInit(Mockito.mock(VaadinRequest.class), id, null);
+        session.addUI(ui);
+        session.getNextUIid();
+        // As if the initial response had been written
+        ui.getConnectorTracker().markAllConnectorsClean();
+        return ui;
+    }
+
+    private byte[] serialize() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serialize(session, bytes);
+        return bytes.toByteArray();
+    }
+
+    private byte[] serializeChangedUIs() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serializeChangedUIs(session, bytes);
+        return bytes.toByteArray();
+    }
+
+    private static String getLabelValue(VaadinSession session, int uiId) {
+        return ((Label) session.getUIById(uiId).getContent()).getValue();
+    }
+
+    @Test
+    public void serialize_roundTrip() throws Exception {
+        byte[] serialized = serialize();
+        CurrentInstance.clearAll();
+
+        VaadinSession copy = serializer
+                .deserialize(new ByteArrayInputStream(serialized));
+
+        assertNotSame(session, copy);
+        copy.lock();
+        assertEquals(2, copy.getUIs().size());
+        assertEquals("initial", getLabelValue(copy, 1));
+        assertSame(copy, copy.getUIById(1).getSession());
+    }
+
+    @Test
+    public void serialize_smallerThanJavaSerialization() throws Exception {
+        ByteArrayOutputStream javaBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(javaBytes)) {
+            out.writeObject(session);
+        }
+
+        assertTrue(serialize().length < javaBytes.size());
+    }
+
+    @Test
+    public void serialize_listenersNotified() throws Exception {
+        byte[] serialized = serialize();
+        serializer.deserialize(new ByteArrayInputStream(serialized));
+
+        assertEquals(2, events.size());
+        SerializationEvent write = events.get(0);
+        assertEquals(OperationType.SERIALIZE, write.getOperationType());
+        assertSame(session, write.getSession());
+        assertEquals(serialized.length, write.getBytes());
+        assertEquals(2, write.getUICount());
+        assertTrue(write.getDurationNanos() > 0);
+
+        SerializationEvent read = events.get(1);
+        assertEquals(OperationType.DESERIALIZE, read.getOperationType());
+        assertEquals(serialized.length, read.getBytes());
+    }
+
+    @Test
+    public void changedUIs_onlyChangedUIWritten() throws Exception {
+        VaadinSession copy = serializer
+                .deserialize(new ByteArrayInputStream(serialize()));
+        copy.lock();
+        CurrentInstance.clearAll();
+        VaadinSession.setCurrent(session);
+
+        ((Label) session.getUIById(1).getContent()).setValue("changed");
+        session.getUIById(1).setLastHeartbeatTimestamp(1234);
+        session.getUIById(0).setLastHeartbeatTimestamp(5678);
+        byte[] changed = serializeChangedUIs();
+        assertEquals(1, events.get(events.size() - 1).getUICount());
+
+        UI unchangedCopy = copy.getUIById(0);
+        serializer.deserializeChangedUIs(copy,
+                new ByteArrayInputStream(changed));
+
+        assertSame(unchangedCopy, copy.getUIById(0));
+        assertEquals(5678, copy.getUIById(0).getLastHeartbeatTimestamp());
+        assertEquals("changed", getLabelValue(copy, 1));
+        assertEquals(1234, copy.getUIById(1).getLastHeartbeatTimestamp());
+        assertSame(copy, copy.getUIById(1).getSession());
+        assertSame(session, VaadinSession.getCurrent());
+    }
+
+    @Test
+    public void changedUIs_nothingChanged_noUIsWritten() throws Exception {
+        serialize();
+        serializeChangedUIs();
+
+        SerializationEvent event = events.get(events.size() - 1);
+        assertEquals(OperationType.SERIALIZE_CHANGED_UIS,
+                event.getOperationType());
+        assertEquals(0, event.getUICount());
+    }
+
+    @Test
+    public void changedUIs_newAndRemovedUIs() throws Exception {
+        VaadinSession copy = serializer
+                .deserialize(new ByteArrayInputStream(serialize()));
+        copy.lock();
+        CurrentInstance.clearAll();
+        VaadinSession.setCurrent(session);
+
+        UI removed = session.getUIById(0);
+        UI.setCurrent(removed);
+        session.removeUI(removed);
+        createUI(2);
+
+        serializer.deserializeChangedUIs(copy,
+                new ByteArrayInputStream(serializeChangedUIs()));
+
+        assertNull(copy.getUIById(0));
+        assertNotNull(copy.getUIById(1));
+        assertEquals("initial", getLabelValue(copy, 2));
+        assertEquals(3, copy.getUIIdSequence());
+    }
+}
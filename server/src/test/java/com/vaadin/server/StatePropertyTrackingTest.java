@@ -0,0 +1,130 @@
+package com.vaadin.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.shared.communication.ClientRpc;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.AbstractComponent;
+
+import elemental.json.JsonObject;
+
+public class StatePropertyTrackingTest {
+
+    public interface TestClientRpc extends ClientRpc {
+        public void call();
+    }
+
+    public static class TestComponent extends AbstractComponent {
+        public void setIdSilently(String id) {
+            getState(false).id = id;
+        }
+
+        public void touchState() {
+            getState();
+        }
+
+        public void callClient() {
+            getRpcProxy(TestClientRpc.class).call();
+        }
+    }
+
+    private MockDeploymentConfiguration configuration;
+    private TestComponent component;
+
+    @Before
+    public void setup() {
+        configuration = new MockDeploymentConfiguration();
+        configuration.setStatePropertyTrackingEnabled(true);
+        VaadinSession session = new AlwaysLockedVaadinSession(null);
+        session.setConfiguration(configuration);
+
+        component = new TestComponent();
+        new MockUI(session).setContent(component);
+        // Initial full state
+        sync();
+    }
+
+    private JsonObject sync() {
+        component.beforeClientResponse(false);
+        JsonObject encoded = component.encodeState();
+        component.getUI().getConnectorTracker().markClean(component);
+        return encoded;
+    }
+
+    private static void assertProperties(JsonObject encoded,
+            String... expected) {
+        assertEquals(new HashSet<>(Arrays.asList(expected)),
+                new HashSet<>(Arrays.asList(encoded.keys())));
+    }
+
+    @Test
+    public void trackedProperty_onlyTrackedPropertyEncoded() {
+        component.setIdSilently("foo");
+        component.setCaption("caption");
+
+        // The untracked id change is not noticed
+        JsonObject encoded = sync();
+        assertProperties(encoded, "caption");
+        assertEquals("caption", encoded.getString("caption"));
+
+        // Diff state is updated
+        JsonObject diffState = component.getUI().getConnectorTracker()
+                .getDiffState(component);
+        assertEquals("caption", diffState.getString("caption"));
+    }
+
+    @Test
+    public void trackedProperty_sameValueStillSent() {
+        component.setCaption(null);
+        assertProperties(sync(), "caption");
+    }
+
+    @Test
+    public void getState_fullDiff() {
+        component.setIdSilently("foo");
+        component.setCaption("caption");
+        component.touchState();
+
+        assertProperties(sync(), "id", "caption");
+    }
+
+    @Test
+    public void markAsDirty_fullDiff() {
+        component.setIdSilently("foo");
+        component.markAsDirty();
+
+        assertProperties(sync(), "id");
+    }
+
+    @Test
+    public void rpcOnly_nothingEncoded() {
+        component.callClient();
+        assertTrue(component.getUI().getConnectorTracker().isDirty(component));
+
+        assertProperties(sync());
+    }
+
+    @Test
+    public void sizeChange_onlySizeEncoded() {
+        component.setWidth("100px");
+        assertProperties(sync(), "width");
+    }
+
+    @Test
+    public void trackingDisabled_fullDiff() {
+        configuration.setStatePropertyTrackingEnabled(false);
+        component.setIdSilently("foo");
+        component.setCaption("caption");
+
+        assertProperties(sync(), "id", "caption");
+    }
+}
@@ -0,0 +1,141 @@
+package com.vaadin.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StaticResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private URL createFile(String name, byte[] content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content);
+        return file.toURI().toURL();
+    }
+
+    private static byte[] compressible(int length) {
+        byte[] content = new byte[length];
+        Arrays.fill(content, (byte) 'a');
+        return content;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void load_compressedVariantCreated() throws IOException {
+        byte[] content = compressible(10000);
+        URL url = createFile("app.js", content);
+        StaticResourceCache cache = new StaticResourceCache(1000000);
+
+        StaticResourceCache.Entry entry = cache.getOrLoad("/VAADIN/app.js", url,
+                true);
+
+        assertArrayEquals(content, entry.getContent());
+        assertArrayEquals(content, gunzip(entry.getGzipContent()));
+        assertNull(entry.getBrotliContent());
+        assertSame(entry, cache.get("/VAADIN/app.js"));
+        assertEquals(content.length + entry.getGzipContent().length,
+                cache.getSize());
+    }
+
+    @Test
+    public void load_precompressedSiblingsUsed() throws IOException {
+        URL url = createFile("app.css", compressible(1000));
+        createFile("app.css.gz", "gz".getBytes(StandardCharsets.UTF_8));
+        createFile("app.css.br", "br".getBytes(StandardCharsets.UTF_8));
+        StaticResourceCache cache = new StaticResourceCache(1000000);
+
+        StaticResourceCache.Entry entry = cache.getOrLoad("/VAADIN/app.css",
+                url, true);
+
+        assertEquals("gz",
+                new String(entry.getGzipContent(), StandardCharsets.UTF_8));
+        assertEquals("br",
+                new String(entry.getBrotliContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void load_notCompressed() throws IOException {
+        URL url = createFile("font.woff", compressible(1000));
+        StaticResourceCache cache = new StaticResourceCache(1000000);
+
+        StaticResourceCache.Entry entry = cache.getOrLoad("/VAADIN/font.woff",
+                url, false);
+
+        assertNull(entry.getGzipContent());
+        assertEquals(1000, cache.getSize());
+    }
+
+    @Test
+    public void etag_basedOnContent() throws IOException {
+        StaticResourceCache cache = new StaticResourceCache(1000000);
+        StaticResourceCache.Entry a = cache.getOrLoad("a",
+                createFile("a.txt", compressible(100)), false);
+        StaticResourceCache.Entry b = cache.getOrLoad("b",
+                createFile("b.txt", compressible(100)), false);
+        StaticResourceCache.Entry c = cache.getOrLoad("c",
+                createFile("c.txt", compressible(101)), false);
+
+        assertEquals(a.getETag(null), b.getETag(null));
+        assertNotEquals(a.getETag(null), c.getETag(null));
+        assertNotEquals(a.getETag(null), a.getETag("gzip"));
+    }
+
+    @Test
+    public void tooLargeResource_notCached() throws IOException {
+        URL url = createFile("large.woff", compressible(300));
+        StaticResourceCache cache = new StaticResourceCache(1000);
+
+        assertNull(cache.getOrLoad("large", url, false));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEvicted() throws IOException {
+        StaticResourceCache cache = new StaticResourceCache(1000);
+        cache.getOrLoad("a", createFile("a.txt", compressible(200)), false);
+        cache.getOrLoad("b", createFile("b.txt", compressible(200)), false);
+        cache.getOrLoad("c", createFile("c.txt", compressible(200)), false);
+        cache.getOrLoad("d", createFile("d.txt", compressible(200)), false);
+        // Use a so that b is the least recently used
+        assertNotNull(cache.get("a"));
+
+        cache.getOrLoad("e", createFile("e.txt", compressible(250)), false);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("e"));
+        assertEquals(850, cache.getSize());
+    }
+}
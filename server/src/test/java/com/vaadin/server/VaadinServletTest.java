@@ -1,15 +1,44 @@
 package com.vaadin.server;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
 public class VaadinServletTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testGetLastPathParameter() {
         assertEquals("",
@@ -118,4 +147,222 @@ public class VaadinServletTest {
         Mockito.when(request.getPathInfo()).thenReturn(pathInfo);
         return request;
     }
+
+    @Test
+    public void staticResourceCache_servedFromMemory()
+            throws ServletException, IOException {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig(createCacheInitParameters("8")));
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        HttpServletResponse response = createServletResponse(content);
+        servlet.serveStaticResourcesInVAADIN("/VAADIN/vaadinBootstrap.js",
+                createStaticResourceRequest(null), response);
+
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(response).setHeader(Mockito.eq("ETag"), etag.capture());
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Mockito.verify(response).setContentLength(content.size());
+
+        // Conditional request for the cached version
+        content.reset();
+        response = createServletResponse(content);
+        servlet.serveStaticResourcesInVAADIN("/VAADIN/vaadinBootstrap.js",
+                createStaticResourceRequest(etag.getValue()), response);
+
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(0, content.size());
+    }
+
+    @Test
+    public void staticResourceCache_disabledByDefault()
+            throws ServletException, IOException {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig(createCacheInitParameters(null)));
+
+        HttpServletResponse response = createServletResponse(
+                new ByteArrayOutputStream());
+        servlet.serveStaticResourcesInVAADIN("/VAADIN/vaadinBootstrap.js",
+                createStaticResourceRequest(null), response);
+
+        Mockito.verify(response, Mockito.never()).setHeader(Mockito.eq("ETag"),
+                Mockito.anyString());
+    }
+
+    @Test
+    public void staticResourceCache_writeMethodOverridden_notUsed()
+            throws ServletException, IOException {
+        int[] writes = new int[1];
+        VaadinServlet servlet = new VaadinServlet() {
+            @Override
+            protected void writeStaticResourceResponse(
+                    HttpServletRequest request, HttpServletResponse response,
+                    URL resourceUrl) throws IOException {
+                writes[0]++;
+                super.writeStaticResourceResponse(request, response,
+                        resourceUrl);
+            }
+        };
+        servlet.init(new MockServletConfig(createCacheInitParameters("8")));
+
+        for (int i = 0; i < 2; i++) {
+            servlet.serveStaticResourcesInVAADIN("/VAADIN/vaadinBootstrap.js",
+                    createStaticResourceRequest(null),
+                    createServletResponse(new ByteArrayOutputStream()));
+        }
+
+        assertEquals(2, writes[0]);
+    }
+
+    @Test
+    public void scssCache_sourceTouchedButUnchanged_cacheEntryKept()
+            throws Exception {
+        File scssFile = createScssFile(".a { color: red; }");
+        serveCompiledScss(createScssServlet());
+
+        replaceCachedCss(scssFile, "/* cached */", true);
+        scssFile.setLastModified(scssFile.lastModified() + 10000);
+
+        assertEquals("/* cached */", serveCompiledScss(createScssServlet()));
+    }
+
+    @Test
+    public void scssCache_sourceChanged_recompiled() throws Exception {
+        File scssFile = createScssFile(".a { color: red; }");
+        serveCompiledScss(createScssServlet());
+
+        replaceCachedCss(scssFile, "/* cached */", true);
+        writeFile(scssFile, ".b { color: blue; }");
+        scssFile.setLastModified(scssFile.lastModified() + 10000);
+
+        String css = serveCompiledScss(createScssServlet());
+        assertTrue(css, css.contains(".b"));
+        assertFalse(css, css.contains("cached"));
+    }
+
+    @Test
+    public void scssCache_plainJsonCacheFile_read() throws Exception {
+        File scssFile = createScssFile(".a { color: red; }");
+        serveCompiledScss(createScssServlet());
+
+        replaceCachedCss(scssFile, "/* cached */", false);
+
+        assertEquals("/* cached */", serveCompiledScss(createScssServlet()));
+    }
+
+    private File createScssFile(String content) throws IOException {
+        File themeFolder = folder.newFolder("VAADIN", "themes", "test");
+        File scssFile = new File(themeFolder, "styles.scss");
+        writeFile(scssFile, content);
+        return scssFile;
+    }
+
+    private VaadinServlet createScssServlet() throws ServletException {
+        File webContent = folder.getRoot();
+        ServletContext context = new MockServletContext() {
+            @Override
+            public URL getResource(String path) throws MalformedURLException {
+                File file = new File(webContent, path);
+                return file.exists() ? file.toURI().toURL() : null;
+            }
+
+            @Override
+            public String getRealPath(String path) {
+                return new File(webContent, path).getAbsolutePath();
+            }
+        };
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig() {
+            @Override
+            public ServletContext getServletContext() {
+                return context;
+            }
+        });
+        return servlet;
+    }
+
+    private String serveCompiledScss(VaadinServlet servlet)
+            throws ServletException, IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        servlet.serveStaticResourcesInVAADIN("/VAADIN/themes/test/styles.css",
+                createStaticResourceRequest(null),
+                createServletResponse(content));
+        return content.toString(UTF_8.name());
+    }
+
+    /*
+     * Replaces the css in the cache file persisted when compiling, which is
+     * expected to be gzip compressed, and writes it either compressed or as
+     * plain json like older versions did.
+     */
+    private static void replaceCachedCss(File scssFile, String css,
+            boolean gzip) throws IOException {
+        File cacheFile = new File(scssFile.getParentFile(),
+                scssFile.getName() + ".cache");
+        JsonObject json;
+        try (InputStream in = new GZIPInputStream(
+                new FileInputStream(cacheFile))) {
+            json = Json.parse(readFully(in));
+        }
+        json.put("css", css);
+
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(new FileOutputStream(cacheFile))
+                : new FileOutputStream(cacheFile)) {
+            out.write(json.toJson().getBytes(UTF_8));
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    private static void writeFile(File file, String content)
+            throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(UTF_8));
+        }
+    }
+
+    private Properties createCacheInitParameters(String cacheSize) {
+        Properties initParameters = new Properties();
+        initParameters.setProperty(Constants.SERVLET_PARAMETER_PRODUCTION_MODE,
+                "true");
+        if (cacheSize != null) {
+            initParameters.setProperty(
+                    Constants.SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                    cacheSize);
+        }
+        return initParameters;
+    }
+
+    private HttpServletRequest createStaticResourceRequest(String ifNoneMatch) {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip, deflate");
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn(ifNoneMatch);
+        Mockito.when(request.getDateHeader("If-Modified-Since"))
+                .thenReturn(-1L);
+        return request;
+    }
+
+    private HttpServletResponse createServletResponse(
+            ByteArrayOutputStream content) throws IOException {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getOutputStream())
+                .thenReturn(new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        content.write(b);
+                    }
+                });
+        return response;
+    }
 }
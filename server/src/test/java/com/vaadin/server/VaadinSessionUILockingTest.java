@@ -0,0 +1,316 @@
+package com.vaadin.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+public class VaadinSessionUILockingTest {
+
+    private VaadinSession session;
+    private UI ui1;
+    private UI ui2;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() throws Exception {
+        Properties initParameters = new Properties();
+        initParameters.setProperty(Constants.SERVLET_PARAMETER_UI_LOCKING,
+                "true");
+        DefaultDeploymentConfiguration deploymentConfiguration = new DefaultDeploymentConfiguration(
+                UI.class, initParameters);
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        VaadinServletService service = new VaadinServletService(servlet,
+                deploymentConfiguration);
+
+        session = new VaadinSession(service) {
+            private final Lock lock = new UILockingSessionLock();
+
+            @Override
+            public Lock getLockInstance() {
+                return lock;
+            }
+
+            @Override
+            public String createConnectorId(ClientConnector connector) {
+                return getNextConnectorId();
+            }
+        };
+
+        ui1 = createUI();
+        ui2 = createUI();
+
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private UI createUI() {
+        UI ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+            }
+        };
+        session.lock();
+        try {
+            ui.setSession(session);
+        } finally {
+            session.unlock();
+        }
+        return ui;
+    }
+
+    @Test
+    public void uiLockingEnabledByConfiguration() {
+        assertTrue(session.getService().getDeploymentConfiguration()
+                .isUILockingEnabled());
+        assertTrue(session.isUILockingEnabled());
+    }
+
+    @Test
+    public void uiLockingDisabledByDefault() {
+        DefaultDeploymentConfiguration deploymentConfiguration = new DefaultDeploymentConfiguration(
+                UI.class, new Properties());
+        assertFalse(deploymentConfiguration.isUILockingEnabled());
+    }
+
+    @Test
+    public void differentUIs_lockedConcurrently() throws Exception {
+        session.lockUI(ui1);
+        try {
+            assertTrue(session.hasLock());
+            Future<Boolean> otherUILocked = executor.submit(() -> {
+                if (!session.tryLockUI(ui2)) {
+                    return false;
+                }
+                try {
+                    return session.hasLock();
+                } finally {
+                    session.unlockUI(ui2);
+                }
+            });
+            assertTrue(otherUILocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlockUI(ui1);
+        }
+        assertFalse(session.hasLock());
+    }
+
+    @Test
+    public void sameUI_notLockedConcurrently() throws Exception {
+        session.lockUI(ui1);
+        try {
+            Future<Boolean> sameUILocked = executor
+                    .submit(() -> session.tryLockUI(ui1));
+            assertFalse(sameUILocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void sessionLock_excludesUILocks() throws Exception {
+        session.lock();
+        try {
+            Future<Boolean> uiLocked = executor
+                    .submit(() -> session.tryLockUI(ui1));
+            assertFalse(uiLocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void uiLockHeld_sessionLockThrows() {
+        session.lockUI(ui1);
+        try {
+            session.lock();
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void access_otherUILocked_taskRunsImmediately() throws Exception {
+        CountDownLatch taskRun = new CountDownLatch(1);
+        AtomicBoolean hadLock = new AtomicBoolean();
+
+        session.lockUI(ui1);
+        try {
+            executor.submit(() -> ui2.access(() -> {
+                hadLock.set(session.hasLock()
+                        && ((ReentrantLock) ui2.getLockInstance())
+                                .isHeldByCurrentThread());
+                taskRun.countDown();
+            }));
+            assertTrue(taskRun.await(5, TimeUnit.SECONDS));
+            assertTrue(hadLock.get());
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void access_sameUILocked_taskRunOnUnlock() throws Exception {
+        AtomicBoolean taskRun = new AtomicBoolean();
+
+        session.lockUI(ui1);
+        try {
+            executor.submit(() -> ui1.access(() -> taskRun.set(true))).get(5,
+                    TimeUnit.SECONDS);
+            assertFalse(taskRun.get());
+            assertEquals(1, ui1.getPendingAccessQueue().size());
+        } finally {
+            session.unlockUI(ui1);
+        }
+        assertTrue(taskRun.get());
+        assertTrue(ui1.getPendingAccessQueue().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void uiLockHeld_accessSynchronouslyThrows() {
+        session.lockUI(ui1);
+        try {
+            session.accessSynchronously(() -> {
+            });
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void uiLockHeld_sessionAccess_taskRunAfterUIUnlocked() {
+        AtomicBoolean taskRun = new AtomicBoolean();
+        AtomicBoolean hadSessionLock = new AtomicBoolean();
+
+        session.lockUI(ui1);
+        try {
+            session.access(() -> {
+                taskRun.set(true);
+                hadSessionLock.set(((VaadinSession.UILockingSessionLock) session
+                        .getLockInstance()).isHeldByCurrentThread());
+            });
+            assertFalse(taskRun.get());
+        } finally {
+            session.unlockUI(ui1);
+        }
+        assertTrue(taskRun.get());
+        assertTrue(hadSessionLock.get());
+    }
+
+    @Test
+    public void otherUILocked_hasLockForUIFalse() {
+        session.lockUI(ui1);
+        try {
+            assertTrue(session.hasLock(ui1));
+            assertFalse(session.hasLock(ui2));
+
+            UI.setCurrent(ui2);
+            assertFalse(session.hasLock());
+            UI.setCurrent(ui1);
+            assertTrue(session.hasLock());
+        } finally {
+            UI.setCurrent(null);
+            session.unlockUI(ui1);
+        }
+
+        session.lock();
+        try {
+            assertTrue(session.hasLock(ui1));
+            assertTrue(session.hasLock(ui2));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void otherUILocked_modifyComponentFails() {
+        Label label = new Label();
+        session.lock();
+        try {
+            ui2.setContent(label);
+        } finally {
+            session.unlock();
+        }
+
+        session.lockUI(ui1);
+        try {
+            label.setValue("Changed from the wrong UI");
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void loadSession_sharedLock_transientsNotRefreshed() {
+        VaadinService service = session.getService();
+        VaadinSession.UILockingSessionLock lock = new VaadinSession.UILockingSessionLock();
+        VaadinSession stored = new VaadinSession(service);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(service.getServiceName() + ".lock", lock);
+        attributes.put(service.getSessionAttributeName(), stored);
+        WrappedSession firstRequest = mockWrappedSession(attributes);
+        WrappedSession secondRequest = mockWrappedSession(attributes);
+
+        lock.getSharedLock().lock();
+        try {
+            // Transients of a deserialized session need the exclusive lock
+            assertNull(service.loadSession(firstRequest));
+            assertNull(stored.getSession());
+        } finally {
+            lock.getSharedLock().unlock();
+        }
+
+        lock.lock();
+        try {
+            assertSame(stored, service.loadSession(firstRequest));
+            assertSame(firstRequest, stored.getSession());
+        } finally {
+            lock.unlock();
+        }
+
+        lock.getSharedLock().lock();
+        try {
+            assertSame(stored, service.loadSession(secondRequest));
+            assertSame(firstRequest, stored.getSession());
+        } finally {
+            lock.getSharedLock().unlock();
+        }
+    }
+
+    private static WrappedSession mockWrappedSession(
+            Map<String, Object> attributes) {
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getId()).thenReturn("session");
+        Mockito.when(wrappedSession.getAttribute(Mockito.anyString()))
+                .thenAnswer(invocation -> attributes
+                        .get(invocation.getArguments()[0]));
+        return wrappedSession;
+    }
+}
@@ -1,25 +1,45 @@
 package com.vaadin.server.communication;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.ServletPortletHelper;
+import com.vaadin.server.LegacyCommunicationManager;
 import com.vaadin.server.StreamVariable;
+import com.vaadin.server.StreamVariable.StreamingStartEvent;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
 import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.ApplicationConstants;
 import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.UI;
 
@@ -150,4 +170,175 @@ public class FileUploadHandlerTest {
 
         verifyZeroInteractions(responseOutput);
     }
+
+    private Map<String, Object> mockSessionAttributes() {
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getAttribute(anyString())).thenAnswer(
+                invocation -> attributes.get(invocation.getArguments()[0]));
+        doAnswer(invocation -> attributes.put(
+                (String) invocation.getArguments()[0],
+                invocation.getArguments()[1])).when(session)
+                        .setAttribute(anyString(), any());
+        return attributes;
+    }
+
+    private void sendChunk(String contentRange, String content)
+            throws IOException {
+        sendChunk("upload-1", contentRange, content);
+    }
+
+    private void sendChunk(String uploadId, String contentRange, String content)
+            throws IOException {
+        when(request.getHeader("Content-Range")).thenReturn(contentRange);
+        when(request.getHeader(ApplicationConstants.UPLOAD_ID_HEADER))
+                .thenReturn(uploadId);
+        when(request.getInputStream())
+                .thenReturn(new ByteArrayInputStream(content.getBytes()));
+        handler.handleRequest(session, request, response);
+    }
+
+    @Test
+    public void chunkedUpload_chunksOutOfOrder_writtenInOrder()
+            throws IOException {
+        mockSessionAttributes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(streamVariable.getOutputStream()).thenReturn(out);
+
+        sendChunk("bytes 3-5/9", "bar");
+        verify(response, never()).setHeader(eq("Range"), anyString());
+        assertEquals("", out.toString());
+
+        sendChunk("bytes 0-2/9", "foo");
+        verify(response).setHeader("Range", "bytes=0-5");
+        assertEquals("foobar", out.toString());
+        verify(streamVariable, never()).streamingFinished(any());
+
+        sendChunk("bytes 6-8/9", "baz");
+        verify(response).setHeader("Range", "bytes=0-8");
+        assertEquals("foobarbaz", out.toString());
+
+        verify(streamVariable, times(1)).streamingStarted(any());
+        verify(streamVariable, times(1)).streamingFinished(any());
+        verify(streamVariable, never()).streamingFailed(any());
+    }
+
+    @Test
+    public void chunkedUpload_statusAndRetriedChunk_resumedFromReceived()
+            throws IOException {
+        mockSessionAttributes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(streamVariable.getOutputStream()).thenReturn(out);
+
+        sendChunk("bytes 0-2/6", "foo");
+        sendChunk("bytes */6", "");
+        verify(response, times(2)).setHeader("Range", "bytes=0-2");
+
+        // Chunk retried after a lost response is not written twice
+        sendChunk("bytes 0-2/6", "foo");
+        sendChunk("bytes 3-5/6", "bar");
+        assertEquals("foobar", out.toString());
+        verify(streamVariable, times(1)).streamingFinished(any());
+    }
+
+    @Test
+    public void chunkedUpload_invalidRange_badRequest() throws IOException {
+        mockSessionAttributes();
+
+        sendChunk("bytes 3-2/6", "");
+
+        verify(response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST),
+                anyString());
+        verify(streamVariable, never()).streamingStarted(any());
+    }
+
+    @Test
+    public void chunkedUpload_disabledConnector_contentNotRead()
+            throws IOException {
+        mockSessionAttributes();
+        when(session.getCommunicationManager())
+                .thenReturn(mock(LegacyCommunicationManager.class));
+        when(clientConnector.isConnectorEnabled()).thenReturn(false);
+        when(request.getHeader("Content-Range")).thenReturn("bytes 0-2/6");
+        when(request.getHeader(ApplicationConstants.UPLOAD_ID_HEADER))
+                .thenReturn("upload-1");
+        InputStream content = mock(InputStream.class);
+        when(request.getInputStream()).thenReturn(content);
+
+        handler.handleRequest(session, request, response);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_GONE),
+                anyString());
+        verifyZeroInteractions(content);
+        verify(streamVariable, never()).streamingStarted(any());
+    }
+
+    @Test
+    public void chunkedUpload_tooManyUploads_rejected() throws IOException {
+        mockSessionAttributes();
+        when(session.getCommunicationManager())
+                .thenReturn(mock(LegacyCommunicationManager.class));
+
+        for (int i = 0; i < 16; i++) {
+            sendChunk("upload-" + i, "bytes */6", "");
+        }
+        verify(response, never()).sendError(anyInt(), anyString());
+
+        sendChunk("upload-16", "bytes */6", "");
+        verify(response).sendError(eq(HttpServletResponse.SC_GONE),
+                anyString());
+    }
+
+    @Test
+    public void chunkedUpload_sessionDeserialized_startedOver()
+            throws Exception {
+        Map<String, Object> attributes = mockSessionAttributes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(streamVariable.getOutputStream()).thenReturn(out);
+
+        sendChunk("bytes 0-2/9", "foo");
+        sendChunk("bytes 6-8/9", "baz");
+        assertEquals("foo", out.toString());
+
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            entry.setValue(serializeAndDeserialize(entry.getValue()));
+        }
+        ByteArrayOutputStream restartedOut = new ByteArrayOutputStream();
+        when(streamVariable.getOutputStream()).thenReturn(restartedOut);
+
+        // Nothing has been received by the restarted upload
+        sendChunk("bytes 3-5/9", "bar");
+        verify(response, times(2)).setHeader(eq("Range"), anyString());
+        assertEquals("", restartedOut.toString());
+
+        sendChunk("bytes 0-2/9", "foo");
+        sendChunk("bytes 6-8/9", "baz");
+        assertEquals("foobarbaz", restartedOut.toString());
+        verify(streamVariable, times(1)).streamingFinished(any());
+    }
+
+    @Test
+    public void chunkedUpload_filenameHeader_decoded() throws IOException {
+        mockSessionAttributes();
+        when(request.getHeader(ApplicationConstants.UPLOAD_FILENAME_HEADER))
+                .thenReturn("na%C3%AFve+file.txt");
+
+        sendChunk("bytes 0-2/3", "foo");
+
+        ArgumentCaptor<StreamingStartEvent> started = ArgumentCaptor
+                .forClass(StreamingStartEvent.class);
+        verify(streamVariable).streamingStarted(started.capture());
+        assertEquals("na\u00efve file.txt", started.getValue().getFileName());
+    }
+
+    private static Object serializeAndDeserialize(Object object)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
 }
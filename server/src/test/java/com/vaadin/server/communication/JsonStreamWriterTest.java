@@ -0,0 +1,100 @@
+package com.vaadin.server.communication;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.impl.JsonUtil;
+
+public class JsonStreamWriterTest {
+
+    private StringWriter out;
+    private JsonStreamWriter json;
+
+    @Before
+    public void setup() {
+        out = new StringWriter();
+        json = JsonStreamWriter.wrap(out, true);
+    }
+
+    @Test
+    public void value_sameAsStringify() throws Exception {
+        JsonObject object = Json.createObject();
+        object.put("string", "quote \" and ä");
+        object.put("int", 42);
+        object.put("double", 1.5);
+        object.put("nan", Double.NaN);
+        object.put("bool", true);
+        object.put("null", Json.createNull());
+        JsonArray array = Json.createArray();
+        array.set(0, 1);
+        array.set(1, Json.createObject());
+        array.set(2, Json.createArray());
+        object.put("array", array);
+
+        json.value(object);
+
+        assertEquals(JsonUtil.stringify(object), out.toString());
+    }
+
+    @Test
+    public void containers_entriesCounted() throws Exception {
+        json.beginObject();
+        json.name("a");
+        json.beginArray();
+        json.value("1");
+        json.value((String) null);
+        json.value(Json.create(2));
+        json.endArray();
+        json.name("b");
+        json.beginArray();
+        json.endArray();
+        json.endObject();
+
+        assertEquals("{\"a\":[\"1\",null,2],\"b\":[]}", out.toString());
+        assertEquals(2, json.getLastTopLevelEntryCount());
+
+        json.beginArray();
+        json.endArray();
+        assertEquals(0, json.getLastTopLevelEntryCount());
+    }
+
+    @Test
+    public void bytesWritten_countedAsUtf8() throws Exception {
+        json.beginObject();
+        json.name("ä€");
+        json.value("😀");
+        json.endObject();
+
+        assertEquals(out.toString().getBytes(StandardCharsets.UTF_8).length,
+                json.getBytesWritten());
+    }
+
+    @Test
+    public void bytesWritten_notCountedByDefault() throws Exception {
+        JsonStreamWriter notCounting = JsonStreamWriter.wrap(out);
+        notCounting.beginArray();
+        notCounting.value("foo");
+        notCounting.endArray();
+
+        assertEquals("[\"foo\"]", out.toString());
+        assertEquals(0, notCounting.getBytesWritten());
+    }
+
+    @Test
+    public void wrap_sameInstanceReturned() {
+        assertEquals(json, JsonStreamWriter.wrap(json));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endWithoutBegin_throws() throws Exception {
+        json.endObject();
+    }
+}
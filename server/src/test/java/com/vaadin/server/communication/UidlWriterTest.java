@@ -0,0 +1,141 @@
+package com.vaadin.server.communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.LegacyCommunicationManager;
+import com.vaadin.server.MockServletConfig;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.Registration;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+public class UidlWriterTest {
+
+    private final List<ClientConnector> beforeClientResponseOrder = new ArrayList<>();
+
+    private UI ui;
+
+    private class RecordingLayout extends CssLayout {
+        @Override
+        public void beforeClientResponse(boolean initial) {
+            super.beforeClientResponse(initial);
+            beforeClientResponseOrder.add(this);
+        }
+    }
+
+    private class RecordingLabel extends Label {
+        @Override
+        public void beforeClientResponse(boolean initial) {
+            super.beforeClientResponse(initial);
+            beforeClientResponseOrder.add(this);
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+        VaadinServletService service = new VaadinServletService(servlet,
+                new MockDeploymentConfiguration());
+        service.init();
+
+        VaadinSession session = new AlwaysLockedVaadinSession(service);
+        session.setConfiguration(service.getDeploymentConfiguration());
+        session.setCommunicationManager(
+                new LegacyCommunicationManager(session));
+        ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+            }
+        };
+        ui.setSession(session);
+    }
+
+    @Test
+    public void write_parentsProcessedBeforeChildren() throws Exception {
+        // Add deepest first so that registration order is the reverse of the
+        // hierarchy order
+        RecordingLabel label = new RecordingLabel();
+        RecordingLayout inner = new RecordingLayout();
+        inner.addComponent(label);
+        RecordingLayout outer = new RecordingLayout();
+        outer.addComponent(inner);
+        ui.setContent(outer);
+
+        List<UidlWriteEvent> events = new ArrayList<>();
+        ui.getSession().getService().addUidlWriteListener(events::add);
+        new UidlWriter().write(ui, new StringWriter(), false);
+
+        assertTrue(beforeClientResponseOrder
+                .indexOf(outer) < beforeClientResponseOrder.indexOf(inner));
+        assertTrue(beforeClientResponseOrder
+                .indexOf(inner) < beforeClientResponseOrder.indexOf(label));
+        assertEquals(1, events.get(0).getBeforeClientResponseIterations());
+    }
+
+    @Test
+    public void write_connectorAddedInBeforeClientResponse_anotherIteration()
+            throws Exception {
+        RecordingLabel added = new RecordingLabel();
+        RecordingLayout layout = new RecordingLayout() {
+            @Override
+            public void beforeClientResponse(boolean initial) {
+                super.beforeClientResponse(initial);
+                if (getComponentCount() == 0) {
+                    addComponent(added);
+                }
+            }
+        };
+        ui.setContent(layout);
+
+        List<UidlWriteEvent> events = new ArrayList<>();
+        ui.getSession().getService().addUidlWriteListener(events::add);
+        new UidlWriter().write(ui, new StringWriter(), false);
+
+        assertTrue(beforeClientResponseOrder.contains(added));
+        assertEquals(2, events.get(0).getBeforeClientResponseIterations());
+    }
+
+    @Test
+    public void write_sectionStatisticsSentToListeners() throws Exception {
+        ui.setContent(new Label("foo"));
+
+        List<UidlWriteEvent> events = new ArrayList<>();
+        Registration registration = ui.getSession().getService()
+                .addUidlWriteListener(events::add);
+
+        new UidlWriter().write(ui, new StringWriter(), false);
+
+        assertEquals(1, events.size());
+        assertSame(ui, events.get(0).getUI());
+        assertFalse(events.get(0).isAsync());
+        List<UidlWriter.SectionStatistics> statistics = events.get(0)
+                .getSectionStatistics();
+        assertEquals(4, statistics.size());
+        assertEquals("state", statistics.get(0).getName());
+        // UI and label
+        assertEquals(2, statistics.get(0).getEntryCount());
+        assertTrue(statistics.get(0).getBytes() > 0);
+
+        registration.remove();
+        new UidlWriter().write(ui, new StringWriter(), false);
+        assertEquals(1, events.size());
+    }
+}
@@ -2,10 +2,14 @@ package com.vaadin.tests.components.grid;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -13,9 +17,11 @@ import org.junit.Test;
 import com.vaadin.data.provider.DataProvider;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.tests.data.bean.Person;
+import com.vaadin.tests.data.bean.Sex;
 import com.vaadin.tests.util.AlwaysLockedVaadinSession;
 import com.vaadin.tests.util.MockUI;
 import com.vaadin.ui.Grid;
+import com.vaadin.ui.Grid.Column;
 import com.vaadin.ui.Label;
 
 /**
@@ -43,13 +49,17 @@ public class GridComponentRendererTest {
             testComponent = new Label();
             return testComponent;
         });
-        new MockUI() {
+        createUI().setContent(grid);
+    }
+
+    private static MockUI createUI() {
+        return new MockUI() {
             @Override
             public Future<Void> access(Runnable runnable) {
                 runnable.run();
                 return null;
             };
-        }.setContent(grid);
+        };
     }
 
     @Test
@@ -76,6 +86,63 @@ public class GridComponentRendererTest {
                 null, testComponent.getParent());
     }
 
+    @Test
+    public void testRecycledComponentsReusedForNewItems() {
+        List<Label> created = new ArrayList<>();
+        Grid<Person> recyclingGrid = new Grid<>();
+        recyclingGrid.setItems(createPersons("first", 10));
+        Column<Person, Label> column = recyclingGrid.addComponentColumn(() -> {
+            Label label = new Label();
+            created.add(label);
+            return label;
+        }, (label, person) -> label.setValue(person.getFirstName()));
+        createUI().setContent(recyclingGrid);
+
+        recyclingGrid.getDataCommunicator().beforeClientResponse(true);
+        assertEquals(10, created.size());
+
+        List<Person> second = createPersons("second", 10);
+        recyclingGrid.setItems(second);
+        recyclingGrid.getDataCommunicator().beforeClientResponse(true);
+
+        assertEquals("Components should be reused for new items", 10,
+                created.size());
+        for (Person person : second) {
+            Label label = column.getValueProvider().apply(person);
+            assertSame(recyclingGrid, label.getParent());
+            assertEquals(person.getFirstName(), label.getValue());
+        }
+    }
+
+    @Test
+    public void testRecycledComponentsDetachedOnColumnRemove() {
+        List<Label> created = new ArrayList<>();
+        Grid<Person> recyclingGrid = new Grid<>();
+        recyclingGrid.setItems(createPersons("first", 5));
+        Column<Person, Label> column = recyclingGrid.addComponentColumn(() -> {
+            Label label = new Label();
+            created.add(label);
+            return label;
+        }, (label, person) -> label.setValue(person.getFirstName()));
+        createUI().setContent(recyclingGrid);
+        recyclingGrid.getDataCommunicator().beforeClientResponse(true);
+
+        recyclingGrid.setItems(new ArrayList<>());
+        created.forEach(label -> assertSame("Unused component was detached",
+                recyclingGrid, label.getParent()));
+
+        recyclingGrid.removeColumn(column);
+        created.forEach(label -> assertNull(
+                "Unused component was not detached on column remove",
+                label.getParent()));
+    }
+
+    private static List<Person> createPersons(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(
+                i -> new Person(prefix + i, "Last", null, i, Sex.MALE, null))
+                .collect(Collectors.toList());
+    }
+
     private void generateDataForClient(boolean initial) {
         grid.getDataCommunicator().beforeClientResponse(initial);
         if (testComponent != null) {
@@ -707,4 +707,79 @@ public class GridMultiSelectionModelTest {
         assertEquals(SelectAllCheckBoxVisibility.DEFAULT,
                 model.getSelectAllCheckBoxVisibility());
     }
+
+    @Test
+    public void invertedSelectAll_itemsNotFetched() {
+        AtomicInteger fetches = new AtomicInteger();
+        Grid<String> lazyGrid = new Grid<>();
+        lazyGrid.setDataProvider(DataProvider.fromCallbacks(query -> {
+            fetches.incrementAndGet();
+            return IntStream
+                    .range(query.getOffset(), Math
+                            .min(query.getOffset() + query.getLimit(), 1000))
+                    .mapToObj(i -> "Item " + i);
+        }, query -> 1000));
+        MultiSelectionModelImpl<String> model = (MultiSelectionModelImpl<String>) lazyGrid
+                .setSelectionMode(SelectionMode.MULTI);
+        model.setInvertedSelectAllEnabled(true);
+        assertTrue(model.isSelectAllCheckBoxVisible());
+
+        AtomicReference<MultiSelectionEvent<String>> event = new AtomicReference<>();
+        model.addMultiSelectionListener(event::set);
+        model.selectAll();
+
+        assertEquals(0, fetches.get());
+        assertTrue(model.isSelectionInverted());
+        assertTrue(model.isSelected("Item 999"));
+        assertEquals(1000, event.get().getNewSelection().size());
+        assertTrue(event.get().getOldSelection().isEmpty());
+
+        model.deselect("Item 1");
+
+        assertEquals(0, fetches.get());
+        assertFalse(model.isAllSelected());
+        assertFalse(model.isSelected("Item 1"));
+        assertTrue(model.isSelected("Item 2"));
+        assertEquals(999, model.getSelectedItems().size());
+        assertFalse(model.getSelectedItems().contains("Item 1"));
+        assertEquals(Arrays.asList("Item 0", "Item 2"), model.getSelectedItems()
+                .stream().limit(2).collect(Collectors.toList()));
+        assertTrue(event.get().getOldSelection().contains("Item 1"));
+    }
+
+    @Test
+    public void invertedSelectAll_reselectAndDeselectAll() {
+        selectionModel.setInvertedSelectAllEnabled(true);
+        selectionModel.selectAll();
+        selectionModel.deselect(PERSON_B);
+        selectionModel.select(PERSON_B);
+
+        assertTrue(selectionModel.isSelectionInverted());
+        assertEquals(Arrays.asList(PERSON_A, PERSON_B, PERSON_C),
+                currentSelectionCapture.getValue());
+        assertEquals(Arrays.asList(PERSON_A, PERSON_C),
+                oldSelectionCapture.getValue());
+
+        selectionModel.deselectAll();
+
+        assertFalse(selectionModel.isSelectionInverted());
+        assertFalse(selectionModel.isAllSelected());
+        assertTrue(selectionModel.getSelectedItems().isEmpty());
+        assertEquals(Arrays.asList(PERSON_A, PERSON_B, PERSON_C),
+                oldSelectionCapture.getValue());
+        assertEquals(4, events.get());
+    }
+
+    @Test
+    public void invertedSelectAll_setValue_selectionReplaced() {
+        selectionModel.setInvertedSelectAllEnabled(true);
+        selectionModel.selectAll();
+        selectionModel.asMultiSelect().setValue(asSet(PERSON_C));
+
+        assertFalse(selectionModel.isSelectionInverted());
+        assertEquals(Arrays.asList(PERSON_C),
+                currentSelectionCapture.getValue());
+        assertFalse(selectionModel.isSelected(PERSON_A));
+        assertTrue(selectionModel.isSelected(PERSON_C));
+    }
 }
@@ -2,9 +2,12 @@ package com.vaadin.tests.design.designroot;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 
 import org.junit.Test;
 
+import com.vaadin.ui.declarative.Design;
+
 public class DesignRootTest {
     @Test
     public void designAnnotationWithoutFilename() {
@@ -38,4 +41,16 @@ public class DesignRootTest {
         assertEquals("original", d.preInitializedField.getValue());
     }
 
+    @Test
+    public void designReadTwice_separateComponentTrees() {
+        Design.clearTemplateCache();
+        DesignWithEmptyAnnotation first = new DesignWithEmptyAnnotation();
+        DesignWithEmptyAnnotation second = new DesignWithEmptyAnnotation();
+
+        assertNotSame(first.ok, second.ok);
+        assertEquals("OK", second.ok.getCaption());
+        assertEquals(3, second.getComponentCount());
+        first.ok.setCaption("changed");
+        assertEquals("OK", new DesignWithEmptyAnnotation().ok.getCaption());
+    }
 }
@@ -6,6 +6,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.easymock.EasyMock;
 import org.junit.Before;
@@ -18,6 +20,7 @@ import com.vaadin.shared.Registration;
 import com.vaadin.shared.communication.SharedState;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.Component.Listener;
+import com.vaadin.ui.Label;
 import com.vaadin.util.ReflectTools;
 
 /**
@@ -110,4 +113,69 @@ public class EventRouterTest {
         registration.remove();
         assertNull(state.registeredEventListeners);
     }
+
+    public static class RecordingListener {
+        private final List<Object> events = new ArrayList<>();
+        private int calls = 0;
+
+        public void onEvent(Component.Event event) {
+            events.add(event);
+        }
+
+        public void onAnyEvent() {
+            calls++;
+        }
+    }
+
+    @Test
+    public void fireEvent_listenersChanged_dispatchUpdated() {
+        EventRouter eventRouter = new EventRouter();
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        Label source = new Label();
+
+        Registration registration = eventRouter
+                .addListener(Component.Event.class, first, "onEvent");
+        eventRouter.fireEvent(new Component.Event(source));
+        eventRouter.addListener(Component.Event.class, second, "onEvent");
+        eventRouter.fireEvent(new Component.Event(source));
+        registration.remove();
+        eventRouter.fireEvent(new Component.Event(source));
+
+        assertEquals(2, first.events.size());
+        assertEquals(2, second.events.size());
+    }
+
+    @Test
+    public void fireEvent_subclassAndOtherEventTypes_onlyMatchingCalled() {
+        EventRouter eventRouter = new EventRouter();
+        RecordingListener componentListener = new RecordingListener();
+        RecordingListener clickListener = new RecordingListener();
+        Label source = new Label();
+
+        eventRouter.addListener(Component.Event.class, componentListener,
+                "onAnyEvent");
+        eventRouter.addListener(ClickEvent.class, clickListener, "onAnyEvent");
+        eventRouter.fireEvent(new Component.ErrorEvent(null, source));
+
+        assertEquals(1, componentListener.calls);
+        assertEquals(0, clickListener.calls);
+    }
+
+    @Test
+    public void fireEvent_listenerAddedDuringDispatch_notCalledForSameEvent() {
+        EventRouter eventRouter = new EventRouter();
+        RecordingListener added = new RecordingListener();
+        Label source = new Label();
+        eventRouter.addListener(Component.Event.class,
+                (Listener) event -> eventRouter
+                        .addListener(Component.Event.class, added, "onEvent"),
+                COMPONENT_EVENT_METHOD);
+
+        eventRouter.fireEvent(new Component.Event(source));
+        assertEquals(0, added.events.size());
+
+        eventRouter.fireEvent(new Component.Event(source));
+        assertEquals(1, added.events.size());
+    }
 }
@@ -42,4 +42,20 @@ public class FileResourceTest {
                 "DownloadStream cache time must be same as resource cache time",
                 resource.getCacheTime(), downloadStream.getCacheTime());
     }
+
+    @Test
+    public void validatorsFromFile() throws URISyntaxException {
+        File file = new File(getClass().getResource("../styles.scss").toURI());
+        file.setLastModified(1538474400000L);
+
+        DownloadStream downloadStream = new FileResource(file).getStream();
+        assertEquals(String.valueOf(file.length()),
+                downloadStream.getParameter(DownloadStream.CONTENT_LENGTH));
+        assertEquals("Tue, 02 Oct 2018 10:00:00 GMT",
+                downloadStream.getParameter(DownloadStream.LAST_MODIFIED));
+        assertEquals(
+                "\"" + Long.toHexString(file.length()) + "-"
+                        + Long.toHexString(1538474400000L) + "\"",
+                downloadStream.getParameter(DownloadStream.ETAG));
+    }
 }
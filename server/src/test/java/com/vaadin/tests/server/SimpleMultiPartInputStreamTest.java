@@ -1,9 +1,14 @@
 package com.vaadin.tests.server;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -113,6 +118,55 @@ public class SimpleMultiPartInputStreamTest {
                 "abcabd", "xyz123abc");
     }
 
+    @Test
+    public void testBulkReadAcrossBlocks() throws Exception {
+        String boundary = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+        byte[] fullBoundary = getFullBoundary(boundary).getBytes();
+
+        // Content with partial boundaries, also around the block size
+        Random random = new Random(42);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        while (content.size() < 300000) {
+            byte[] bytes = new byte[random.nextInt(70000)];
+            random.nextBytes(bytes);
+            content.write(bytes);
+            content.write(fullBoundary, 0,
+                    random.nextInt(fullBoundary.length - 1) + 1);
+        }
+        byte[] expected = content.toByteArray();
+
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(expected);
+        input.write(fullBoundary);
+        input.write("trailing".getBytes());
+
+        // Underlying stream returning arbitrarily sized chunks
+        InputStream trickling = new ByteArrayInputStream(input.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1 + len / 3));
+            }
+        };
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (SimpleMultiPartInputStream smpis = new SimpleMultiPartInputStream(
+                trickling, boundary)) {
+            byte[] buffer = new byte[10000];
+            int read;
+            while ((read = smpis.read(buffer, 0,
+                    1 + random.nextInt(buffer.length))) != -1) {
+                result.write(buffer, 0, read);
+            }
+            assertEquals(-1, smpis.read());
+        }
+        assertArrayEquals(expected, result.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testStreamEndsBeforeBoundary() throws Exception {
+        checkBoundaryDetection("xyz123\r\n--ab", "abc", "xyz123");
+    }
+
     /*
      * TODO fix these tests, they don't do what their method name says.
      */
@@ -3,9 +3,11 @@ package com.vaadin.tests.server.component.combobox;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -194,6 +196,94 @@ public class ComboBoxFilteringTest {
                 comboBox.getDataProvider().getClass());
     }
 
+    @Test
+    public void setItems_collection_filterNarrowedAndRefreshed() {
+        comboBox.setItemCaptionGenerator(Person::getFirstName);
+        List<Person> persons = getPersonCollection();
+        comboBox.setItems(persons);
+
+        assertEquals(3, comboBoxSizeWithFilter("e"));
+        assertEquals(2, comboBoxSizeWithFilter("en"));
+        assertEquals(2, comboBoxSizeWithFilter("enr"));
+        assertEquals(1, comboBoxSizeWithFilter("enri"));
+        assertEquals(3, comboBoxSizeWithFilter("n"));
+
+        persons.get(1).setFirstName("Hank");
+        comboBox.getDataProvider().refreshAll();
+        assertEquals(1, comboBoxSizeWithFilter("en"));
+
+        comboBox.setItemCaptionGenerator(Person::getLastName);
+        assertEquals(1, comboBoxSizeWithFilter("dun"));
+    }
+
+    @Test
+    public void setItems_collection_itemAddedBetweenKeystrokes() {
+        comboBox.setItemCaptionGenerator(Person::getFirstName);
+        List<Person> persons = getPersonCollection();
+        comboBox.setItems(persons);
+
+        assertEquals(3, comboBoxSizeWithFilter("e"));
+
+        // Added without refreshing the data provider
+        persons.add(new Person("Enzo", "Ferrari", null, 0, Sex.MALE, null));
+        assertEquals(3, comboBoxSizeWithFilter("en"));
+    }
+
+    @Test
+    public void setItems_collection_itemReplacedWithSameFilter() {
+        comboBox.setItemCaptionGenerator(Person::getFirstName);
+        List<Person> persons = getPersonCollection();
+        comboBox.setItems(persons);
+
+        assertEquals(2, comboBoxSizeWithFilter("en"));
+
+        // Replaced without refreshing the data provider
+        persons.set(2,
+                new Person("Enno", "Engelbrecht", null, 0, Sex.MALE, null));
+        assertEquals(3, comboBoxSizeWithFilter("en"));
+    }
+
+    @Test
+    public void setItems_collection_localeChanged() {
+        comboBox.setItemCaptionGenerator(Person::getFirstName);
+        List<Person> persons = getPersonCollection();
+        persons.get(0).setFirstName("IRMAK");
+        comboBox.setItems(persons);
+
+        assertEquals(1, comboBoxSizeWithFilter("ir"));
+
+        // Upper case I is lower cased to a dotless i in Turkish
+        comboBox.setLocale(new Locale("tr"));
+        assertEquals(0, comboBoxSizeWithFilter("irm"));
+        assertEquals(1, comboBoxSizeWithFilter("\u0131rm"));
+    }
+
+    @Test
+    public void setListDataProvider_sameFilterAgain_filteredOnlyOnce() {
+        AtomicInteger backendStreams = new AtomicInteger();
+        List<Person> persons = new ArrayList<Person>(getPersonCollection()) {
+            @Override
+            public Stream<Person> stream() {
+                backendStreams.incrementAndGet();
+                return super.stream();
+            }
+        };
+        comboBox.setItemCaptionGenerator(Person::getFirstName);
+        comboBox.setDataProvider(new ListDataProvider<>(persons));
+
+        assertEquals(2, comboBoxSizeWithFilter("en"));
+        assertEquals(3, comboBoxSizeWithFilter("e"));
+        int streams = backendStreams.get();
+
+        // A new but equal filter uses the items already filtered for "en"
+        assertEquals(2, comboBoxSizeWithFilter("en"));
+        assertEquals(streams, backendStreams.get());
+
+        // A different caption generator must not reuse them
+        comboBox.setItemCaptionGenerator(Person::getLastName);
+        assertEquals(1, comboBoxSizeWithFilter("en"));
+    }
+
     private void checkFiltering(String filterText, String nonMatchingFilterText,
             int totalMatches, int matchingResults) {
         assertEquals("ComboBox filtered out results with no filter applied",
@@ -95,6 +95,27 @@ public class GridTest {
         assertEquals("Press Enter to sort.", fooColumn.getAssistiveCaption());
     }
 
+    @Test
+    public void testGridAutoWidthSampleSize() {
+        assertEquals(-1, fooColumn.getAutoWidthSampleSize());
+        fooColumn.setAutoWidthSampleSize(20);
+        assertEquals(20, fooColumn.getAutoWidthSampleSize());
+    }
+
+    @Test
+    public void testGridAutoWidthSampleSizeInvalid() {
+        thrown.expect(IllegalArgumentException.class);
+
+        fooColumn.setAutoWidthSampleSize(-2);
+    }
+
+    @Test
+    public void testGridAutoWidthSampleSizeZero() {
+        thrown.expect(IllegalArgumentException.class);
+
+        fooColumn.setAutoWidthSampleSize(0);
+    }
+
     @Test
     public void testCreateGridWithDataCommunicator() {
         DataCommunicator<String> specificDataCommunicator = new DataCommunicator<>();
@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import com.vaadin.server.StreamVariable;
 import com.vaadin.server.StreamVariable.StreamingErrorEvent;
+import com.vaadin.server.communication.FileUploadHandler;
 import com.vaadin.shared.ui.upload.UploadState;
 import com.vaadin.ui.Upload;
 
@@ -33,6 +34,25 @@ public class UploadTest {
                 upload.isImmediateMode());
     }
 
+    @Test
+    public void setChunkSize_defaultZero() {
+        Upload upload = new Upload();
+        assertEquals(0, upload.getChunkSize());
+
+        upload.setChunkSize(1024);
+        assertEquals(1024, upload.getChunkSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setChunkSize_tooLarge_throws() {
+        new Upload().setChunkSize(FileUploadHandler.MAX_CHUNK_SIZE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParallelChunkUploads_zero_throws() {
+        new Upload().setParallelChunkUploads(0);
+    }
+
     @Test
     public void getState_uploadHasCustomState() {
         TestUpload upload = new TestUpload();
@@ -21,6 +21,7 @@ public class MockDeploymentConfiguration
     private final Map<String, String> applicationOrSystemProperty = new HashMap<>();
     private boolean syncIdCheckEnabled = true;
     private final boolean sendUrlsAsParameters = true;
+    private boolean statePropertyTracking = false;
 
     @Override
     public boolean isProductionMode() {
@@ -113,4 +114,13 @@ public class MockDeploymentConfiguration
         return sendUrlsAsParameters;
     }
 
+    @Override
+    public boolean isStatePropertyTrackingEnabled() {
+        return statePropertyTracking;
+    }
+
+    public void setStatePropertyTrackingEnabled(boolean statePropertyTracking) {
+        this.statePropertyTracking = statePropertyTracking;
+    }
+
 }
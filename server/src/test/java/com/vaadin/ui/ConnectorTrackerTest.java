@@ -0,0 +1,106 @@
+package com.vaadin.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.JsonCodec;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockUI;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class ConnectorTrackerTest {
+
+    private UI ui;
+    private Button button;
+    private Button otherButton;
+
+    @Before
+    public void setup() {
+        VaadinSession session = new AlwaysLockedVaadinSession(null);
+        ui = new MockUI(session);
+
+        button = new Button("caption");
+        button.setIconAlternateText("alt");
+        otherButton = new Button();
+        VerticalLayout layout = new VerticalLayout(button, otherButton);
+        ui.setContent(layout);
+
+        ComponentTest.syncToClient(layout);
+        ComponentTest.syncToClient(button);
+        ComponentTest.syncToClient(otherButton);
+    }
+
+    @Test
+    public void defaultValues_sharedBetweenConnectors() {
+        JsonObject diffState = getDiffState(button);
+        JsonObject otherDiffState = getDiffState(otherButton);
+
+        assertSame(diffState.get("clickShortcutKeyCode"),
+                otherDiffState.get("clickShortcutKeyCode"));
+        assertEquals("alt", diffState.getString("iconAltText"));
+        assertEquals("", otherDiffState.getString("iconAltText"));
+    }
+
+    @Test
+    public void unchangedValues_previousInstanceKept() {
+        JsonObject diffState = getDiffState(button);
+
+        button.setDescription("description");
+        ComponentTest.syncToClient(button);
+
+        assertSame(diffState.get("iconAltText"),
+                getDiffState(button).get("iconAltText"));
+    }
+
+    @Test
+    public void serialization_diffStatesRestored() throws Exception {
+        // Diff states can also be modified directly
+        getDiffState(otherButton).remove("disableOnClick");
+        getDiffState(otherButton).put("extra", Json.createArray());
+
+        UI deserialized = serializeAndDeserialize(ui);
+
+        VerticalLayout layout = (VerticalLayout) deserialized.getContent();
+        assertDiffStateEquals(getDiffState(button),
+                getDiffState(layout.getComponent(0)));
+        assertDiffStateEquals(getDiffState(otherButton),
+                getDiffState(layout.getComponent(1)));
+        assertDiffStateEquals(getDiffState(ui.getContent()),
+                getDiffState(layout));
+    }
+
+    private static JsonObject getDiffState(Component component) {
+        return component.getUI().getConnectorTracker().getDiffState(component);
+    }
+
+    private static void assertDiffStateEquals(JsonObject expected,
+            JsonObject actual) {
+        assertTrue(actual.toJson(), JsonCodec.jsonEquals(expected, actual));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeAndDeserialize(T object)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
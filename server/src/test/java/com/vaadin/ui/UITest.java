@@ -1,18 +1,24 @@
 package com.vaadin.ui;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.ref.WeakReference;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletConfig;
 
+import org.junit.After;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -25,10 +31,17 @@ import com.vaadin.server.VaadinServletService;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.server.communication.PushConnection;
 import com.vaadin.shared.communication.PushMode;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.util.CurrentInstance;
 import com.vaadin.util.CurrentInstanceTest;
 
 public class UITest {
 
+    @After
+    public void clearCurrentInstances() {
+        CurrentInstance.clearAll();
+    }
+
     @Test
     public void removeFromSessionWithExternalLock() throws Exception {
         // See https://dev.vaadin.com/ticket/18436
@@ -197,6 +210,79 @@ public class UITest {
         CurrentInstanceTest.waitUntilGarbageCollected(contentSentToClient);
     }
 
+    @Test
+    public void automaticPushWithInterval_changesCoalesced() throws Exception {
+        final UI ui = new UI() {
+
+            @Override
+            protected void init(VaadinRequest request) {
+            }
+
+        };
+        ServletConfig servletConfig = new MockServletConfig();
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(servletConfig);
+
+        DefaultDeploymentConfiguration deploymentConfiguration = new DefaultDeploymentConfiguration(
+                UI.class, new Properties());
+
+        VaadinServletService service = new VaadinServletService(servlet,
+                deploymentConfiguration);
+        MockVaadinSession session = new MockVaadinSession(service);
+        AtomicInteger pushCount = new AtomicInteger();
+        CountDownLatch scheduledPushDone = new CountDownLatch(1);
+
+        session.lock();
+        ui.setSession(session);
+        ui.doInit(Mockito.mock(VaadinRequest.class), 1, "foo");
+        session.addUI(ui);
+        Label label = new Label();
+        ui.setContent(label);
+        ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+        ui.getPushConfiguration().setPushInterval(500);
+        ui.setPushConnection(new PushConnection() {
+            @Override
+            public void push() {
+                ui.getConnectorTracker().markAllConnectorsClean();
+                if (pushCount.incrementAndGet() == 2) {
+                    scheduledPushDone.countDown();
+                }
+            }
+
+            @Override
+            public boolean isConnected() {
+                return true;
+            }
+
+            @Override
+            public void disconnect() {
+            }
+        });
+        session.unlock();
+        assertEquals(1, pushCount.get());
+
+        for (int i = 0; i < 10; i++) {
+            session.lock();
+            label.setValue("Value " + i);
+            session.unlock();
+        }
+        // Changes are held back until the interval has elapsed
+        assertEquals(1, pushCount.get());
+
+        assertTrue(scheduledPushDone.await(5, TimeUnit.SECONDS));
+        session.lock();
+        assertFalse(ui.getConnectorTracker().hasDirtyConnectors());
+        session.unlock();
+        assertEquals(2, pushCount.get());
+
+        service.destroy();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativePushInterval_throws() {
+        new MockUI().getPushConfiguration().setPushInterval(-1);
+    }
+
     private Component createContent() {
         VerticalLayout vl = new VerticalLayout();
         vl.addComponent(new Button("foo"));
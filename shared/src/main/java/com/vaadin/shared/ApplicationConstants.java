@@ -260,4 +260,21 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String MOBILE_DND_POLYFILL_JS = "drag-drop-polyfill.min.js";
 
+    /**
+     * Name of the request header that identifies the file a request of a
+     * chunked upload belongs to. The chunk itself is described by the
+     * <code>Content-Range</code> header of the request.
+     *
+     * @since 8.7
+     */
+    public static final String UPLOAD_ID_HEADER = "X-Vaadin-Upload-Id";
+
+    /**
+     * Name of the request header that tells the URL encoded name of the file in
+     * a chunked upload.
+     *
+     * @since 8.7
+     */
+    public static final String UPLOAD_FILENAME_HEADER = "X-Vaadin-Upload-Filename";
+
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.shared.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+/**
+ * Compact encoding for batches of row objects sent by DataCommunicator.
+ * <p>
+ * Each distinct set of object keys (a <em>shape</em>) in the batch is sent only
+ * once, in the {@value #SHAPES} array. Objects are then encoded as arrays
+ * starting with the index of their shape, followed by the values in the order
+ * of the shape keys. Arrays are encoded as arrays starting with
+ * {@value #ARRAY_MARKER}, followed by the encoded elements. Other values are
+ * sent as is. Since all rows of a batch typically have the same keys, e.g. the
+ * column ids of a Grid, this avoids repeating the keys for every row.
+ * <p>
+ * The encoding is lossless: {@link #decode(JsonObject)} restores the original
+ * row objects. It reduces the size of the payload, but not the number of
+ * objects created: the encoded batch is built from the row objects, and
+ * decoding creates the row objects again.
+ *
+ * @since 8.7
+ */
+public final class CompactRowEncoding implements Serializable {
+
+    /**
+     * Key for the array of shapes, i.e. arrays of object keys, in an encoded
+     * batch.
+     */
+    public static final String SHAPES = "s";
+
+    /**
+     * Key for the array of encoded rows in an encoded batch.
+     */
+    public static final String ROWS = "r";
+
+    /**
+     * First element of an encoded array.
+     */
+    public static final int ARRAY_MARKER = -1;
+
+    private CompactRowEncoding() {
+        // Static helpers only
+    }
+
+    /**
+     * Encodes the given array of row objects.
+     *
+     * @param rows
+     *            the rows to encode, not <code>null</code>
+     * @return the encoded batch
+     */
+    public static JsonObject encode(JsonArray rows) {
+        Map<List<String>, Integer> shapeIndices = new HashMap<>();
+        JsonArray shapes = Json.createArray();
+        JsonArray encodedRows = Json.createArray();
+        for (int i = 0; i < rows.length(); i++) {
+            encodedRows.set(i, encodeValue(rows.get(i), shapeIndices, shapes));
+        }
+
+        JsonObject encoded = Json.createObject();
+        encoded.put(SHAPES, shapes);
+        encoded.put(ROWS, encodedRows);
+        return encoded;
+    }
+
+    /**
+     * Decodes a batch encoded with {@link #encode(JsonArray)} back to row
+     * objects.
+     *
+     * @param encoded
+     *            the encoded batch, not <code>null</code>
+     * @return the list of decoded rows
+     */
+    public static List<JsonObject> decode(JsonObject encoded) {
+        JsonArray shapes = encoded.getArray(SHAPES);
+        JsonArray encodedRows = encoded.getArray(ROWS);
+
+        String[][] keys = new String[shapes.length()][];
+        for (int i = 0; i < keys.length; i++) {
+            JsonArray shape = shapes.getArray(i);
+            keys[i] = new String[shape.length()];
+            for (int j = 0; j < keys[i].length; j++) {
+                keys[i][j] = shape.getString(j);
+            }
+        }
+
+        List<JsonObject> rows = new ArrayList<>(encodedRows.length());
+        for (int i = 0; i < encodedRows.length(); i++) {
+            rows.add((JsonObject) decodeValue(encodedRows.get(i), keys));
+        }
+        return rows;
+    }
+
+    /**
+     * Decodes a batch encoded with {@link #encode(JsonArray)} back to an array
+     * of row objects.
+     *
+     * @param encoded
+     *            the encoded batch, not <code>null</code>
+     * @return the array of decoded rows
+     */
+    public static JsonArray decodeToArray(JsonObject encoded) {
+        List<JsonObject> rows = decode(encoded);
+        JsonArray array = Json.createArray();
+        for (int i = 0; i < rows.size(); i++) {
+            array.set(i, rows.get(i));
+        }
+        return array;
+    }
+
+    private static JsonValue encodeValue(JsonValue value,
+            Map<List<String>, Integer> shapeIndices, JsonArray shapes) {
+        if (value == null) {
+            return Json.createNull();
+        }
+        if (value.getType() == JsonType.OBJECT) {
+            JsonObject object = (JsonObject) value;
+            String[] objectKeys = object.keys();
+            List<String> shape = Arrays.asList(objectKeys);
+            Integer shapeIndex = shapeIndices.get(shape);
+            if (shapeIndex == null) {
+                shapeIndex = shapes.length();
+                shapeIndices.put(shape, shapeIndex);
+                JsonArray shapeArray = Json.createArray();
+                for (int i = 0; i < objectKeys.length; i++) {
+                    shapeArray.set(i, objectKeys[i]);
+                }
+                shapes.set(shapeIndex, shapeArray);
+            }
+
+            JsonArray encoded = Json.createArray();
+            encoded.set(0, shapeIndex);
+            for (int i = 0; i < objectKeys.length; i++) {
+                encoded.set(i + 1, encodeValue(object.get(objectKeys[i]),
+                        shapeIndices, shapes));
+            }
+            return encoded;
+        } else if (value.getType() == JsonType.ARRAY) {
+            JsonArray array = (JsonArray) value;
+            JsonArray encoded = Json.createArray();
+            encoded.set(0, ARRAY_MARKER);
+            for (int i = 0; i < array.length(); i++) {
+                encoded.set(i + 1,
+                        encodeValue(array.get(i), shapeIndices, shapes));
+            }
+            return encoded;
+        }
+        return value;
+    }
+
+    private static JsonValue decodeValue(JsonValue value, String[][] keys) {
+        if (value == null || value.getType() != JsonType.ARRAY) {
+            return value;
+        }
+
+        JsonArray encoded = (JsonArray) value;
+        int shapeIndex = (int) encoded.getNumber(0);
+        if (shapeIndex == ARRAY_MARKER) {
+            JsonArray array = Json.createArray();
+            for (int i = 1; i < encoded.length(); i++) {
+                array.set(i - 1, decodeValue(encoded.get(i), keys));
+            }
+            return array;
+        }
+
+        String[] objectKeys = keys[shapeIndex];
+        JsonObject object = Json.createObject();
+        for (int i = 0; i < objectKeys.length; i++) {
+            object.put(objectKeys[i], decodeValue(encoded.get(i + 1), keys));
+        }
+        return object;
+    }
+}
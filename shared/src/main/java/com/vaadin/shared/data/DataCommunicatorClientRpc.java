@@ -18,6 +18,7 @@ package com.vaadin.shared.data;
 import com.vaadin.shared.communication.ClientRpc;
 
 import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 
 /**
  * RPC interface used by DataProvider to send data to the client-side.
@@ -48,6 +49,25 @@ public interface DataCommunicatorClientRpc extends ClientRpc {
      */
     void setData(int firstIndex, JsonArray data);
 
+    /**
+     * Sets the data of the client-side DataSource to match the given data
+     * starting from given index. Works like {@link #setData(int, JsonArray)},
+     * but the rows are encoded with {@link CompactRowEncoding} to avoid
+     * repeating the same keys for each row.
+     * <p>
+     * The default implementation decodes the rows and calls
+     * {@link #setData(int, JsonArray)}.
+     *
+     * @param firstIndex
+     *            first index to update
+     * @param data
+     *            rows encoded with {@link CompactRowEncoding}
+     * @since 8.7
+     */
+    default void setCompactData(int firstIndex, JsonObject data) {
+        setData(firstIndex, CompactRowEncoding.decodeToArray(data));
+    }
+
     /**
      * Updates an array of objects based on their identifying key.
      *
@@ -56,6 +76,22 @@ public interface DataCommunicatorClientRpc extends ClientRpc {
      */
     void updateData(JsonArray data);
 
+    /**
+     * Updates an array of objects based on their identifying key. Works like
+     * {@link #updateData(JsonArray)}, but the rows are encoded with
+     * {@link CompactRowEncoding}.
+     * <p>
+     * The default implementation decodes the rows and calls
+     * {@link #updateData(JsonArray)}.
+     *
+     * @param data
+     *            rows encoded with {@link CompactRowEncoding}
+     * @since 8.7
+     */
+    default void updateCompactData(JsonObject data) {
+        updateData(CompactRowEncoding.decodeToArray(data));
+    }
+
     /**
      * Informs that new data has been inserted from the server.
      *
@@ -24,4 +24,11 @@ import com.vaadin.shared.communication.SharedState;
  */
 public class DataCommunicatorState extends SharedState {
 
+    /**
+     * Whether the client should adapt the amount of cached rows to the round
+     * trip time and scrolling speed.
+     *
+     * @since 8.7
+     */
+    public boolean adaptiveCache = false;
 }
@@ -23,4 +23,18 @@ package com.vaadin.shared.ui.dnd;
  */
 public class FileDropTargetState extends DropTargetState {
 
+    /**
+     * Size of the chunks that files are uploaded in, or 0 to upload each file
+     * in a single request.
+     *
+     * @since 8.7
+     */
+    public int chunkSize = 0;
+
+    /**
+     * Maximum number of chunks of a file that are uploaded concurrently.
+     *
+     * @since 8.7
+     */
+    public int parallelChunkUploads = 1;
 }
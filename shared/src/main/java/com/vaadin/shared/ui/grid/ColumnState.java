@@ -89,4 +89,12 @@ public class ColumnState extends AbstractGridExtensionState {
      * @since 8.2
      */
     public ContentMode tooltipContentMode;
+
+    /**
+     * The maximum number of rows measured when calculating the width of the
+     * column from its contents. -1 for measuring all rows.
+     *
+     * @since 8.7
+     */
+    public int autoWidthSampleSize = -1;
 }
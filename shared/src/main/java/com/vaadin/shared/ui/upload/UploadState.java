@@ -36,4 +36,23 @@ public class UploadState extends AbstractComponentState {
     @DelegateToWidget
     @NoLayout
     public String acceptMimeTypes;
+
+    /**
+     * Size of the chunks that files are uploaded in, or 0 to upload each file
+     * in a single request.
+     *
+     * @since 8.7
+     */
+    @DelegateToWidget
+    @NoLayout
+    public int chunkSize = 0;
+
+    /**
+     * Maximum number of chunks of a file that are uploaded concurrently.
+     *
+     * @since 8.7
+     */
+    @DelegateToWidget
+    @NoLayout
+    public int parallelChunkUploads = 1;
 }
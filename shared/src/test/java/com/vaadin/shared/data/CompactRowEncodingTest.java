@@ -0,0 +1,72 @@
+package com.vaadin.shared.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class CompactRowEncodingTest {
+
+    @Test
+    public void encodeDecode_rowsRestored() {
+        JsonArray rows = Json.createArray();
+        for (int i = 0; i < 3; i++) {
+            JsonObject data = Json.createObject();
+            data.put("col0", "value " + i);
+            data.put("col1", i);
+            data.put("col2", i % 2 == 0);
+            data.put("col3", Json.createNull());
+
+            JsonArray styles = Json.createArray();
+            styles.set(0, "a");
+            styles.set(1, Json.createArray());
+
+            JsonObject row = Json.createObject();
+            row.put(DataCommunicatorConstants.KEY, String.valueOf(i));
+            row.put(DataCommunicatorConstants.DATA, data);
+            row.put("styles", styles);
+            rows.set(i, row);
+        }
+        // Row with a different shape
+        JsonObject row = Json.createObject();
+        row.put(DataCommunicatorConstants.KEY, "3");
+        rows.set(3, row);
+
+        JsonObject encoded = CompactRowEncoding.encode(rows);
+        assertEquals(3, encoded.getArray(CompactRowEncoding.SHAPES).length());
+
+        List<JsonObject> decoded = CompactRowEncoding.decode(encoded);
+        assertEquals(rows.length(), decoded.size());
+        for (int i = 0; i < rows.length(); i++) {
+            assertEquals(rows.getObject(i).toJson(), decoded.get(i).toJson());
+        }
+        assertEquals(rows.toJson(),
+                CompactRowEncoding.decodeToArray(encoded).toJson());
+    }
+
+    @Test
+    public void encode_keysSentOnce() {
+        JsonArray rows = Json.createArray();
+        for (int i = 0; i < 100; i++) {
+            JsonObject row = Json.createObject();
+            row.put(DataCommunicatorConstants.KEY, String.valueOf(i));
+            row.put("aLongColumnName", "value " + i);
+            rows.set(i, row);
+        }
+
+        String encoded = CompactRowEncoding.encode(rows).toJson();
+        assertEquals(encoded.indexOf("aLongColumnName"),
+                encoded.lastIndexOf("aLongColumnName"));
+    }
+
+    @Test
+    public void encodeDecode_empty() {
+        JsonObject encoded = CompactRowEncoding.encode(Json.createArray());
+        assertEquals(0, CompactRowEncoding.decode(encoded).size());
+    }
+}
@@ -86,6 +86,18 @@ public class EscalatorProxy extends Escalator {
                 throws IllegalArgumentException {
             columnConfiguration.setColumnWidths(indexWidthMap);
         }
+
+        @Override
+        public void setColumnWidthSampleSize(int index, int rowCount)
+                throws IllegalArgumentException {
+            columnConfiguration.setColumnWidthSampleSize(index, rowCount);
+        }
+
+        @Override
+        public int getColumnWidthSampleSize(int index)
+                throws IllegalArgumentException {
+            return columnConfiguration.getColumnWidthSampleSize(index);
+        }
     }
 
     private class BodyRowContainerProxy extends RowContainerProxy